@@ -26,10 +26,14 @@ import com.hazelcast.client.spi.ClientExecutionService;
 import com.hazelcast.client.spi.ClientProxy;
 import com.hazelcast.client.spi.ClientProxyFactory;
 import com.hazelcast.client.spi.impl.ClientProxyFactoryWithContext;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.SerializationConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.memory.impl.PooledMemoryManager;
+import com.hazelcast.internal.memory.impl.StandardMemoryManager;
 import com.hazelcast.internal.nearcache.NearCacheManager;
 import com.hazelcast.internal.nearcache.impl.DefaultNearCacheManager;
 import com.hazelcast.internal.networking.ChannelFactory;
@@ -50,6 +54,7 @@ import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.function.Supplier;
 
+import static com.hazelcast.config.NativeMemoryConfig.MemoryAllocatorType.POOLED;
 import static com.hazelcast.internal.config.ConfigValidator.checkNearCacheConfig;
 import static com.hazelcast.util.ExceptionUtil.rethrow;
 
@@ -161,6 +166,25 @@ public class DefaultClientExtension implements ClientExtension {
         ClientExecutionService es = client.getClientExecutionService();
         ClassLoader classLoader = client.getClientConfig().getClassLoader();
 
-        return new DefaultNearCacheManager(ss, es, classLoader);
+        return new DefaultNearCacheManager(ss, es, classLoader, createNearCacheMemoryManager());
+    }
+
+    /**
+     * Creates the {@link MemoryManager} of the {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE}
+     * Near Caches, which is owned and disposed by the Near Cache manager.
+     *
+     * @return the memory manager or {@code null} if native memory is not enabled
+     */
+    protected MemoryManager createNearCacheMemoryManager() {
+        NativeMemoryConfig nativeMemoryConfig = client.getClientConfig().getNativeMemoryConfig();
+        if (nativeMemoryConfig == null || !nativeMemoryConfig.isEnabled()) {
+            return null;
+        }
+        long size = nativeMemoryConfig.getSize().bytes();
+        if (nativeMemoryConfig.getAllocatorType() == POOLED) {
+            // a client has no partition threads, so a single arena serves all the user threads
+            return new PooledMemoryManager(size, nativeMemoryConfig.getMinBlockSize(), nativeMemoryConfig.getPageSize(), 1);
+        }
+        return new StandardMemoryManager(size);
     }
 }
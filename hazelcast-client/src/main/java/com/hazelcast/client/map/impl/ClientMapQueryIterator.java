@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map.impl;
+
+import com.hazelcast.client.impl.ClientMessageDecoder;
+import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.MapFetchWithQueryCodec;
+import com.hazelcast.client.proxy.ClientMapProxy;
+import com.hazelcast.client.spi.ClientContext;
+import com.hazelcast.client.spi.impl.ClientInvocation;
+import com.hazelcast.client.util.ClientDelegatingFuture;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.impl.iterator.AbstractMapQueryIterator;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.Future;
+
+/**
+ * Iterator for streaming the result of a query over all the partitions of a map, chunk by chunk.
+ * The {@link Iterator#remove()} method is not supported and will throw an {@link UnsupportedOperationException}.
+ * <b>NOTE</b>
+ * Iterating the map should be done only when the {@link IMap} is not being
+ * mutated and the cluster is stable (there are no migrations or membership changes).
+ * In other cases, the iterator may not return some entries or may return an entry twice.
+ *
+ * @see AbstractMapQueryIterator
+ */
+public class ClientMapQueryIterator<K, V, R>
+        extends AbstractMapQueryIterator<K, V, R, MapFetchWithQueryCodec.ResponseParameters> {
+
+    @SuppressWarnings("unchecked")
+    private static final ClientMessageDecoder FETCH_RESPONSE_DECODER = new ClientMessageDecoder() {
+        @Override
+        public <T> T decodeClientMessage(ClientMessage clientMessage) {
+            return (T) MapFetchWithQueryCodec.decodeResponse(clientMessage);
+        }
+    };
+
+    private final ClientMapProxy<K, V> mapProxy;
+    private final ClientContext context;
+    private final Data projectionData;
+    private final Data predicateData;
+
+    public ClientMapQueryIterator(ClientMapProxy<K, V> mapProxy, ClientContext context, int fetchSize,
+                                  Predicate<K, V> predicate, Projection<Entry<K, V>, R> projection) {
+        super(mapProxy, context.getPartitionService().getPartitionCount(), fetchSize, predicate, projection);
+        this.mapProxy = mapProxy;
+        this.context = context;
+        this.projectionData = getSerializationService().toData(query.getProjection());
+        this.predicateData = getSerializationService().toData(query.getPredicate());
+    }
+
+    @Override
+    protected Future<MapFetchWithQueryCodec.ResponseParameters> fetch(int partitionId, int tableIndex) {
+        HazelcastClientInstanceImpl client = (HazelcastClientInstanceImpl) context.getHazelcastInstance();
+        ClientMessage request = MapFetchWithQueryCodec.encodeRequest(mapProxy.getName(), tableIndex, fetchSize,
+                projectionData, predicateData);
+        ClientInvocation clientInvocation = new ClientInvocation(client, request, mapProxy.getName(), partitionId);
+        return new ClientDelegatingFuture<MapFetchWithQueryCodec.ResponseParameters>(clientInvocation.invoke(),
+                getSerializationService(), FETCH_RESPONSE_DECODER, false);
+    }
+
+    @Override
+    protected List<Data> getResults(MapFetchWithQueryCodec.ResponseParameters response) {
+        return response.results;
+    }
+
+    @Override
+    protected int getNextTableIndex(MapFetchWithQueryCodec.ResponseParameters response) {
+        return response.nextTableIndexToReadFrom;
+    }
+
+    @Override
+    protected SerializationService getSerializationService() {
+        return context.getSerializationService();
+    }
+}
@@ -85,6 +85,7 @@ import com.hazelcast.client.impl.protocol.codec.MapValuesWithPredicateCodec;
 import com.hazelcast.client.impl.querycache.ClientQueryCacheContext;
 import com.hazelcast.client.impl.querycache.subscriber.ClientQueryCacheEndToEndConstructor;
 import com.hazelcast.client.map.impl.ClientMapPartitionIterator;
+import com.hazelcast.client.map.impl.ClientMapQueryIterator;
 import com.hazelcast.client.map.impl.ClientMapQueryPartitionIterator;
 import com.hazelcast.client.spi.ClientContext;
 import com.hazelcast.client.spi.ClientPartitionService;
@@ -139,6 +140,7 @@ import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.PartitionPredicate;
 import com.hazelcast.query.Predicate;
@@ -165,6 +167,8 @@ import java.util.concurrent.TimeUnit;
 import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
 import static com.hazelcast.map.impl.MapListenerFlagOperator.setAndGetListenerFlags;
 import static com.hazelcast.map.impl.querycache.subscriber.QueryCacheRequest.newQueryCacheRequest;
+import static com.hazelcast.query.QueryConstants.KEY_ATTRIBUTE_NAME;
+import static com.hazelcast.query.QueryConstants.THIS_ATTRIBUTE_NAME;
 import static com.hazelcast.util.CollectionUtil.objectToDataCollection;
 import static com.hazelcast.util.ExceptionUtil.rethrow;
 import static com.hazelcast.util.MapUtil.createHashMap;
@@ -1665,6 +1669,79 @@ public class ClientMapProxy<K, V> extends ClientProxy
                 predicate, projection);
     }
 
+    /**
+     * Returns an iterator for streaming the result of the projection on the entries of all the partitions
+     * which satisfy the {@code predicate}. The {@link Iterator#remove()} method is not supported and will throw an
+     * {@link UnsupportedOperationException}.
+     * <p>
+     * Unlike {@link #entrySet(Predicate)}, {@link #keySet(Predicate)} and {@link #values(Predicate)}, the result is
+     * never materialized: the partitions are queried one after another, in batches of about {@code fetchSize}
+     * results, and the next batch is fetched while the current one is being iterated. At most two batches are held
+     * in memory at a time, so the result is not limited by the query result size limit.
+     * You may control the size of the batch by changing the {@code fetchSize} parameter.
+     * The underlying implementation may send more values in one batch than {@code fetchSize} if it needs to get to
+     * a "safepoint" to later resume iteration.
+     * Predicates of type {@link PagingPredicate} are not supported.
+     * <p>
+     * <b>NOTE</b>
+     * Iterating the map should be done only when the {@link IMap} is not being
+     * mutated and the cluster is stable (there are no migrations or membership changes).
+     * In other cases, the iterator may not return some entries or may return an entry twice.
+     *
+     * @param fetchSize  the size of the batches which will be sent when iterating the data
+     * @param projection the projection to apply before returning the value. {@code null} value is not allowed
+     * @param predicate  the predicate which the entries must match. {@code null} value is not allowed
+     * @param <R>        the return type
+     * @return the iterator for the projected entries
+     * @throws UnsupportedOperationException if {@link Iterator#remove()} is invoked
+     * @throws IllegalArgumentException      if the predicate is of type {@link PagingPredicate}
+     */
+    public <R> Iterator<R> iterator(int fetchSize, Projection<Map.Entry<K, V>, R> projection, Predicate<K, V> predicate) {
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        checkNotPagingPredicate(predicate, "iterator");
+        return new ClientMapQueryIterator<K, V, R>(this, getContext(), fetchSize, predicate, projection);
+    }
+
+    /**
+     * Returns an iterator for streaming the entries which satisfy the {@code predicate}, the streaming
+     * counterpart of {@link #entrySet(Predicate)}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param predicate the predicate which the entries must match. {@code null} value is not allowed
+     * @return the iterator for the matching entries
+     * @see #iterator(int, Projection, Predicate)
+     */
+    public Iterator<Entry<K, V>> entrySetIterator(int fetchSize, Predicate<K, V> predicate) {
+        return iterator(fetchSize, Projections.<Map.Entry<K, V>>identity(), predicate);
+    }
+
+    /**
+     * Returns an iterator for streaming the keys of the entries which satisfy the {@code predicate}, the streaming
+     * counterpart of {@link #keySet(Predicate)}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param predicate the predicate which the entries must match. {@code null} value is not allowed
+     * @return the iterator for the matching keys
+     * @see #iterator(int, Projection, Predicate)
+     */
+    public Iterator<K> keySetIterator(int fetchSize, Predicate<K, V> predicate) {
+        return iterator(fetchSize, Projections.<Map.Entry<K, V>, K>singleAttribute(KEY_ATTRIBUTE_NAME.value()), predicate);
+    }
+
+    /**
+     * Returns an iterator for streaming the values of the entries which satisfy the {@code predicate}, the streaming
+     * counterpart of {@link #values(Predicate)}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param predicate the predicate which the entries must match. {@code null} value is not allowed
+     * @return the iterator for the matching values
+     * @see #iterator(int, Projection, Predicate)
+     */
+    public Iterator<V> valuesIterator(int fetchSize, Predicate<K, V> predicate) {
+        return iterator(fetchSize, Projections.<Map.Entry<K, V>, V>singleAttribute(THIS_ATTRIBUTE_NAME.value()), predicate);
+    }
+
     @Override
     public ICompletableFuture<EventJournalInitialSubscriberState> subscribeToEventJournal(int partitionId) {
         final ClientMessage request = MapEventJournalSubscribeCodec.encodeRequest(name);
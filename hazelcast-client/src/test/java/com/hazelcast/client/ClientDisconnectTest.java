@@ -219,7 +219,7 @@ public class ClientDisconnectTest extends HazelcastTestSupport {
         assertTrueEventually(new AssertTask() {
             @Override
             public void run() {
-                assertFalse(invocationRegistry.entrySet().isEmpty());
+                assertTrue(invocationRegistry.size() > 0);
             }
         });
 
@@ -240,7 +240,7 @@ public class ClientDisconnectTest extends HazelcastTestSupport {
         assertTrueEventually(new AssertTask() {
             @Override
             public void run() {
-                assertTrue(invocationRegistry.entrySet().isEmpty());
+                assertEquals(0, invocationRegistry.size());
             }
         });
 
@@ -300,6 +300,7 @@ public class XmlClientConfigBuilderTest extends HazelcastTestSupport {
         assertEquals("/tmp/myNearCache", nearCacheConfig.getPreloaderConfig().getDirectory());
         assertEquals(2342, nearCacheConfig.getPreloaderConfig().getStoreInitialDelaySeconds());
         assertEquals(4223, nearCacheConfig.getPreloaderConfig().getStoreIntervalSeconds());
+        assertTrue(nearCacheConfig.getPreloaderConfig().isStoreValues());
     }
 
     @Test
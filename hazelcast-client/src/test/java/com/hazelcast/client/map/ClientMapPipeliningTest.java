@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.Pipelining;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientMapPipeliningTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+    private IMap<Integer, String> map;
+
+    @Before
+    public void setup() {
+        hazelcastFactory.newHazelcastInstance();
+        hazelcastFactory.newHazelcastInstance();
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient();
+        map = client.getMap(randomMapName());
+        for (int k = 0; k < ENTRY_COUNT; k++) {
+            map.put(k, "value-" + k);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        assertResultsInOrder(new Pipelining<String>(10));
+    }
+
+    @Test
+    public void testResults_whenDepthIsOne() throws Exception {
+        assertResultsInOrder(new Pipelining<String>(1));
+    }
+
+    @Test
+    public void testResults_whenDepthExceedsRequests() throws Exception {
+        assertResultsInOrder(new Pipelining<String>(ENTRY_COUNT * 2));
+    }
+
+    @Test
+    public void testResults_whenKeyMissing() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(10);
+        pipelining.add(map.getAsync(ENTRY_COUNT));
+        pipelining.add(map.getAsync(0));
+
+        List<String> results = pipelining.results();
+        assertEquals(2, results.size());
+        assertNull(results.get(0));
+        assertEquals("value-0", results.get(1));
+    }
+
+    private void assertResultsInOrder(Pipelining<String> pipelining) throws Exception {
+        for (int k = 0; k < ENTRY_COUNT; k++) {
+            pipelining.add(map.getAsync(k));
+        }
+
+        List<String> results = pipelining.results();
+        assertEquals(ENTRY_COUNT, results.size());
+        for (int k = 0; k < ENTRY_COUNT; k++) {
+            assertEquals("value-" + k, results.get(k));
+        }
+    }
+}
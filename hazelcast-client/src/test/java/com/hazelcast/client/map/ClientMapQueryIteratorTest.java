@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.client.proxy.ClientMapProxy;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.query.PagingPredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.TruePredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientMapQueryIteratorTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private TestHazelcastFactory factory;
+    private ClientMapProxy<Integer, Integer> proxy;
+
+    @Before
+    public void setup() {
+        factory = new TestHazelcastFactory();
+        factory.newHazelcastInstance();
+        factory.newHazelcastInstance();
+        HazelcastInstance client = factory.newHazelcastClient();
+        proxy = (ClientMapProxy<Integer, Integer>) client.<Integer, Integer>getMap(randomMapName());
+    }
+
+    @After
+    public void teardown() {
+        factory.terminateAll();
+    }
+
+    @Test
+    public void test_HasNext_Returns_False_On_EmptyMap() {
+        Iterator<Map.Entry<Integer, Integer>> iterator
+                = proxy.entrySetIterator(10, TruePredicate.<Integer, Integer>truePredicate());
+
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void test_Next_Throws_Exception_On_EmptyMap() {
+        proxy.keySetIterator(10, TruePredicate.<Integer, Integer>truePredicate()).next();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void test_null_predicate_throws_exception() {
+        proxy.valuesIterator(10, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_PagingPredicate_throws_exception() {
+        proxy.valuesIterator(10, new PagingPredicate<Integer, Integer>(10));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void test_remove_Throws_Exception() {
+        fillMap();
+        Iterator<Integer> iterator = proxy.keySetIterator(10, TruePredicate.<Integer, Integer>truePredicate());
+        iterator.next();
+
+        iterator.remove();
+    }
+
+    @Test
+    public void test_entrySetIterator_streams_all_partitions_with_predicate() {
+        fillMap();
+        Predicate<Integer, Integer> predicate = greaterEqual("this", ENTRY_COUNT / 2);
+
+        Map<Integer, Integer> streamed = new HashMap<Integer, Integer>();
+        for (Map.Entry<Integer, Integer> entry : collectAll(proxy.entrySetIterator(7, predicate))) {
+            assertTrue(entry.getValue() >= ENTRY_COUNT / 2);
+            assertNull(streamed.put(entry.getKey(), entry.getValue()));
+        }
+
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        for (Map.Entry<Integer, Integer> entry : proxy.entrySet(predicate)) {
+            expected.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(ENTRY_COUNT / 2, streamed.size());
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    public void test_keySetIterator_streams_all_partitions_with_predicate() {
+        fillMap();
+        Predicate<Integer, Integer> predicate = greaterEqual("this", ENTRY_COUNT / 2);
+
+        List<Integer> streamed = collectAll(proxy.keySetIterator(7, predicate));
+
+        assertEquals(ENTRY_COUNT / 2, streamed.size());
+        assertEquals(proxy.keySet(predicate), new HashSet<Integer>(streamed));
+    }
+
+    @Test
+    public void test_valuesIterator_pages_with_single_entry_chunks() {
+        fillMap();
+
+        List<Integer> streamed = collectAll(proxy.valuesIterator(1, TruePredicate.<Integer, Integer>truePredicate()));
+
+        assertEquals(ENTRY_COUNT, streamed.size());
+        assertEquals(new HashSet<Integer>(proxy.values()), new HashSet<Integer>(streamed));
+    }
+
+    @Test
+    public void test_valuesIterator_pages_with_chunks_larger_than_partitions() {
+        fillMap();
+
+        List<Integer> streamed = collectAll(proxy.valuesIterator(ENTRY_COUNT, TruePredicate.<Integer, Integer>truePredicate()));
+
+        assertEquals(ENTRY_COUNT, streamed.size());
+        assertEquals(new HashSet<Integer>(proxy.values()), new HashSet<Integer>(streamed));
+    }
+
+    private void fillMap() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            proxy.put(i, i);
+        }
+    }
+
+    private static <T> List<T> collectAll(Iterator<T> iterator) {
+        List<T> result = new ArrayList<T>();
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+}
@@ -417,6 +417,7 @@ public abstract class AbstractHazelcastBeanDefinitionParser extends AbstractBean
             Node directory = node.getAttributes().getNamedItem("directory");
             Node storeInitialDelaySeconds = node.getAttributes().getNamedItem("store-initial-delay-seconds");
             Node storeIntervalSeconds = node.getAttributes().getNamedItem("store-interval-seconds");
+            Node storeValues = node.getAttributes().getNamedItem("store-values");
 
             BeanDefinitionBuilder nearCachePreloaderConfigBuilder = createBeanBuilder(NearCachePreloaderConfig.class);
 
@@ -424,6 +425,7 @@ public abstract class AbstractHazelcastBeanDefinitionParser extends AbstractBean
             String directoryValue = "";
             Integer storeInitialDelaySecondsValue = NearCachePreloaderConfig.DEFAULT_STORE_INITIAL_DELAY_SECONDS;
             Integer storeIntervalSecondsValue = NearCachePreloaderConfig.DEFAULT_STORE_INTERVAL_SECONDS;
+            Boolean storeValuesValue = Boolean.FALSE;
 
             if (enabled != null) {
                 enabledValue = Boolean.parseBoolean(getTextContent(enabled));
@@ -437,11 +439,15 @@ public abstract class AbstractHazelcastBeanDefinitionParser extends AbstractBean
             if (storeIntervalSeconds != null) {
                 storeIntervalSecondsValue = parseInt(getTextContent(storeIntervalSeconds));
             }
+            if (storeValues != null) {
+                storeValuesValue = Boolean.parseBoolean(getTextContent(storeValues));
+            }
 
             nearCachePreloaderConfigBuilder.addPropertyValue("enabled", enabledValue);
             nearCachePreloaderConfigBuilder.addPropertyValue("directory", directoryValue);
             nearCachePreloaderConfigBuilder.addPropertyValue("storeInitialDelaySeconds", storeInitialDelaySecondsValue);
             nearCachePreloaderConfigBuilder.addPropertyValue("storeIntervalSeconds", storeIntervalSecondsValue);
+            nearCachePreloaderConfigBuilder.addPropertyValue("storeValues", storeValuesValue);
 
             return nearCachePreloaderConfigBuilder.getBeanDefinition();
         }
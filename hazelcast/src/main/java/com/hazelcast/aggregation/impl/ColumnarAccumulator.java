@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.query.impl.Extractable;
+
+import java.util.Map;
+
+/**
+ * Accumulates entries into an {@link Aggregator}, in columns when the aggregator is a {@link ColumnarAggregator}.
+ * <p>
+ * The accumulated attribute is extracted from each entry and buffered unboxed into a {@link NumericColumn}; each
+ * full column is handed to the aggregator at once. Entries whose value can't be buffered, e.g. {@code null} values,
+ * multi-value results of {@code [any]} paths or values of a type not matching the column, are accumulated one by one
+ * by {@link Aggregator#accumulate}, which keeps the results and the failures of the aggregation unchanged.
+ * <p>
+ * The accumulator is not thread-safe; {@link #flush()} must be called once all the entries are accumulated.
+ */
+public final class ColumnarAccumulator {
+
+    /**
+     * The number of values buffered before they are accumulated.
+     */
+    public static final int COLUMN_SIZE = 1024;
+
+    private final Aggregator aggregator;
+    private final ColumnarAggregator columnarAggregator;
+    private final String attributePath;
+    private final NumericColumn column;
+
+    public ColumnarAccumulator(Aggregator aggregator) {
+        this.aggregator = aggregator;
+        if (aggregator instanceof ColumnarAggregator) {
+            this.columnarAggregator = (ColumnarAggregator) aggregator;
+            this.attributePath = columnarAggregator.getAttributePath();
+            this.column = new NumericColumn(COLUMN_SIZE);
+        } else {
+            this.columnarAggregator = null;
+            this.attributePath = null;
+            this.column = null;
+        }
+    }
+
+    /**
+     * Accumulates all the given entries into the given aggregator.
+     *
+     * @param aggregator the aggregator to accumulate into
+     * @param entries    the entries to accumulate
+     */
+    @SuppressWarnings("unchecked")
+    public static void accumulateAll(Aggregator aggregator, Iterable<?> entries) {
+        if (!(aggregator instanceof ColumnarAggregator)) {
+            for (Object entry : entries) {
+                aggregator.accumulate(entry);
+            }
+            return;
+        }
+        ColumnarAccumulator accumulator = new ColumnarAccumulator(aggregator);
+        for (Object entry : entries) {
+            accumulator.accumulate(entry);
+        }
+        accumulator.flush();
+    }
+
+    /**
+     * Accumulates the given entry. The entry may be only buffered until the next {@link #flush()}, so it must not be
+     * mutated afterwards.
+     *
+     * @param entry the entry to accumulate
+     */
+    @SuppressWarnings("unchecked")
+    public void accumulate(Object entry) {
+        if (column == null) {
+            aggregator.accumulate(entry);
+            return;
+        }
+        Object value = extract(entry);
+        if (value == null || !bufferable(value) || !column.add(value)) {
+            aggregator.accumulate(entry);
+        } else if (column.isFull()) {
+            flush();
+        }
+    }
+
+    /**
+     * Accumulates all the buffered values into the aggregator.
+     */
+    public void flush() {
+        if (column != null && !column.isEmpty()) {
+            columnarAggregator.accumulateColumn(column);
+            column.clear();
+        }
+    }
+
+    private boolean bufferable(Object value) {
+        if (!column.isEmpty()) {
+            return true;
+        }
+        Class<?> type = value.getClass();
+        return NumericColumn.isSupported(type) && columnarAggregator.canAccumulateColumn(type);
+    }
+
+    private Object extract(Object entry) {
+        if (attributePath == null) {
+            return entry instanceof Map.Entry ? ((Map.Entry) entry).getValue() : null;
+        }
+        return entry instanceof Extractable ? ((Extractable) entry).getAttributeValue(attributePath) : null;
+    }
+}
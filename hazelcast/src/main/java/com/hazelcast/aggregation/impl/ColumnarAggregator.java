@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+/**
+ * Implemented by the aggregators which can accumulate a whole {@link NumericColumn} of extracted values at once,
+ * which avoids a virtual call and an unboxing per accumulated entry.
+ * <p>
+ * Accumulating a column must be equivalent to accumulating each of its values one by one.
+ *
+ * @see ColumnarAccumulator
+ */
+public interface ColumnarAggregator {
+
+    /**
+     * @return the path of the attribute accumulated by the aggregator, {@code null} to accumulate the values of the
+     * entries
+     */
+    String getAttributePath();
+
+    /**
+     * @param valueType the boxed type of the values of a column, as supported by {@link NumericColumn#isSupported}
+     * @return {@code true} if columns of the given type can be accumulated
+     */
+    boolean canAccumulateColumn(Class<?> valueType);
+
+    /**
+     * Accumulates all the values of the given column, which are of a type accepted by
+     * {@link #canAccumulateColumn(Class)}.
+     *
+     * @param column the column to accumulate
+     */
+    void accumulateColumn(NumericColumn column);
+}
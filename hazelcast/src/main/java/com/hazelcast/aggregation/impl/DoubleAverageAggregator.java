@@ -24,7 +24,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 
 public final class DoubleAverageAggregator<I> extends AbstractAggregator<I, Double, Double>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private double sum;
 
@@ -44,6 +44,23 @@ public final class DoubleAverageAggregator<I> extends AbstractAggregator<I, Doub
         sum += value;
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueType) {
+        return valueType == Double.class;
+    }
+
+    @Override
+    public void accumulateColumn(NumericColumn column) {
+        double[] values = column.getDoubles();
+        int size = column.size();
+        double sum = this.sum;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        this.sum = sum;
+        this.count += size;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         DoubleAverageAggregator doubleAverageAggregator = (DoubleAverageAggregator) aggregator;
@@ -24,7 +24,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 
 public final class DoubleSumAggregator<I> extends AbstractAggregator<I, Double, Double>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private double sum;
 
@@ -41,6 +41,22 @@ public final class DoubleSumAggregator<I> extends AbstractAggregator<I, Double,
         sum += value;
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueType) {
+        return valueType == Double.class;
+    }
+
+    @Override
+    public void accumulateColumn(NumericColumn column) {
+        double[] values = column.getDoubles();
+        int size = column.size();
+        double sum = this.sum;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        this.sum = sum;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         DoubleSumAggregator longSumAggregator = (DoubleSumAggregator) aggregator;
@@ -24,7 +24,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 
 public final class IntegerAverageAggregator<I> extends AbstractAggregator<I, Integer, Double>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private long sum;
 
@@ -44,6 +44,23 @@ public final class IntegerAverageAggregator<I> extends AbstractAggregator<I, Int
         sum += value;
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueType) {
+        return valueType == Integer.class;
+    }
+
+    @Override
+    public void accumulateColumn(NumericColumn column) {
+        long[] values = column.getLongs();
+        int size = column.size();
+        long sum = this.sum;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        this.sum = sum;
+        this.count += size;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         IntegerAverageAggregator integerAverageAggregator = (IntegerAverageAggregator) aggregator;
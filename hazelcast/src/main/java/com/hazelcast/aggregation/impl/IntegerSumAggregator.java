@@ -24,7 +24,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 
 public final class IntegerSumAggregator<I> extends AbstractAggregator<I, Integer, Long>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private long sum;
 
@@ -41,6 +41,22 @@ public final class IntegerSumAggregator<I> extends AbstractAggregator<I, Integer
         sum += value;
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueType) {
+        return valueType == Integer.class;
+    }
+
+    @Override
+    public void accumulateColumn(NumericColumn column) {
+        long[] values = column.getLongs();
+        int size = column.size();
+        long sum = this.sum;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        this.sum = sum;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         IntegerSumAggregator integerSumAggregator = (IntegerSumAggregator) aggregator;
@@ -23,7 +23,8 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
 import java.io.IOException;
 
-public final class LongAverageAggregator<I> extends AbstractAggregator<I, Long, Double> implements IdentifiedDataSerializable {
+public final class LongAverageAggregator<I> extends AbstractAggregator<I, Long, Double>
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private long sum;
 
@@ -43,6 +44,23 @@ public final class LongAverageAggregator<I> extends AbstractAggregator<I, Long,
         sum += value;
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueType) {
+        return valueType == Long.class;
+    }
+
+    @Override
+    public void accumulateColumn(NumericColumn column) {
+        long[] values = column.getLongs();
+        int size = column.size();
+        long sum = this.sum;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        this.sum = sum;
+        this.count += size;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         LongAverageAggregator longAverageAggregator = (LongAverageAggregator) aggregator;
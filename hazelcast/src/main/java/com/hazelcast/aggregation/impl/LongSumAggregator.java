@@ -23,7 +23,8 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
 import java.io.IOException;
 
-public final class LongSumAggregator<I> extends AbstractAggregator<I, Long, Long> implements IdentifiedDataSerializable {
+public final class LongSumAggregator<I> extends AbstractAggregator<I, Long, Long>
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private long sum;
 
@@ -40,6 +41,22 @@ public final class LongSumAggregator<I> extends AbstractAggregator<I, Long, Long
         sum += value;
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueType) {
+        return valueType == Long.class;
+    }
+
+    @Override
+    public void accumulateColumn(NumericColumn column) {
+        long[] values = column.getLongs();
+        int size = column.size();
+        long sum = this.sum;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        this.sum = sum;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         LongSumAggregator longSumAggregator = (LongSumAggregator) aggregator;
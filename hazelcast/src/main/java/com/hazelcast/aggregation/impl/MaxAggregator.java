@@ -24,7 +24,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 
 public final class MaxAggregator<I, R extends Comparable> extends AbstractAggregator<I, R, R>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private R max;
 
@@ -43,6 +43,20 @@ public final class MaxAggregator<I, R extends Comparable> extends AbstractAggreg
         }
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueType) {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void accumulateColumn(NumericColumn column) {
+        R columnValue = (R) column.max();
+        if (isCurrentlyLessThan(columnValue)) {
+            max = columnValue;
+        }
+    }
+
     private boolean isCurrentlyLessThan(R otherValue) {
         if (otherValue == null) {
             return false;
@@ -24,7 +24,7 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 
 public final class MinAggregator<I, R extends Comparable> extends AbstractAggregator<I, R, R>
-        implements IdentifiedDataSerializable {
+        implements IdentifiedDataSerializable, ColumnarAggregator {
 
     private R min;
 
@@ -43,6 +43,20 @@ public final class MinAggregator<I, R extends Comparable> extends AbstractAggreg
         }
     }
 
+    @Override
+    public boolean canAccumulateColumn(Class<?> valueType) {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void accumulateColumn(NumericColumn column) {
+        R columnValue = (R) column.min();
+        if (isCurrentlyGreaterThan(columnValue)) {
+            min = columnValue;
+        }
+    }
+
     private boolean isCurrentlyGreaterThan(R otherValue) {
         if (otherValue == null) {
             return false;
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation.impl;
+
+/**
+ * A reusable batch of numeric values extracted from the accumulated entries, all of the same boxed type, stored
+ * unboxed in a primitive array: integral values ({@link Long}, {@link Integer}, {@link Short} and {@link Byte}) in
+ * a {@code long[]}, floating point values ({@link Double} and {@link Float}) in a {@code double[]}.
+ * <p>
+ * The column is not thread-safe.
+ *
+ * @see ColumnarAccumulator
+ */
+public final class NumericColumn {
+
+    private final long[] longs;
+    private final double[] doubles;
+
+    private Class<?> type;
+    private boolean floatingPoint;
+    private int size;
+
+    public NumericColumn(int capacity) {
+        this.longs = new long[capacity];
+        this.doubles = new double[capacity];
+    }
+
+    /**
+     * Adds the given value to this column, if it is of the type of the values already added. The type of the first
+     * value added to an empty column must be checked with {@link #isSupported(Class)} before.
+     *
+     * @param value the value to add
+     * @return {@code true} if the value was added, {@code false} if it is of another type
+     */
+    public boolean add(Object value) {
+        Class<?> valueType = value.getClass();
+        if (size == 0) {
+            type = valueType;
+            floatingPoint = valueType == Double.class || valueType == Float.class;
+        } else if (valueType != type) {
+            return false;
+        }
+        if (floatingPoint) {
+            doubles[size++] = ((Number) value).doubleValue();
+        } else {
+            longs[size++] = ((Number) value).longValue();
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if values of the given type can be stored in a column
+     */
+    public static boolean isSupported(Class<?> valueType) {
+        return valueType == Long.class || valueType == Integer.class || valueType == Short.class
+                || valueType == Byte.class || valueType == Double.class || valueType == Float.class;
+    }
+
+    /**
+     * @return the boxed type of the values of this column, {@code null} if the column has always been empty
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return {@code true} if the values are stored in {@link #getDoubles()}, {@code false} if they are stored in
+     * {@link #getLongs()}
+     */
+    public boolean isFloatingPoint() {
+        return floatingPoint;
+    }
+
+    /**
+     * @return the integral values of this column, valid up to {@link #size()}
+     */
+    public long[] getLongs() {
+        return longs;
+    }
+
+    /**
+     * @return the floating point values of this column, valid up to {@link #size()}
+     */
+    public double[] getDoubles() {
+        return doubles;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == longs.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the lowest value of this non-empty column, in the order of the type of the column
+     */
+    Comparable min() {
+        if (floatingPoint) {
+            double min = doubles[0];
+            for (int i = 1; i < size; i++) {
+                if (Double.compare(doubles[i], min) < 0) {
+                    min = doubles[i];
+                }
+            }
+            return boxDouble(min);
+        }
+        long min = longs[0];
+        for (int i = 1; i < size; i++) {
+            if (longs[i] < min) {
+                min = longs[i];
+            }
+        }
+        return boxLong(min);
+    }
+
+    /**
+     * @return the highest value of this non-empty column, in the order of the type of the column
+     */
+    Comparable max() {
+        if (floatingPoint) {
+            double max = doubles[0];
+            for (int i = 1; i < size; i++) {
+                if (Double.compare(doubles[i], max) > 0) {
+                    max = doubles[i];
+                }
+            }
+            return boxDouble(max);
+        }
+        long max = longs[0];
+        for (int i = 1; i < size; i++) {
+            if (longs[i] > max) {
+                max = longs[i];
+            }
+        }
+        return boxLong(max);
+    }
+
+    /**
+     * Boxes the given integral value back into the type of this column.
+     */
+    private Comparable boxLong(long value) {
+        if (type == Integer.class) {
+            return (int) value;
+        } else if (type == Short.class) {
+            return (short) value;
+        } else if (type == Byte.class) {
+            return (byte) value;
+        }
+        return value;
+    }
+
+    /**
+     * Boxes the given floating point value back into the type of this column.
+     */
+    private Comparable boxDouble(double value) {
+        if (type == Float.class) {
+            return (float) value;
+        }
+        return value;
+    }
+}
@@ -34,7 +34,9 @@ import com.hazelcast.core.ManagedContext;
 import com.hazelcast.internal.diagnostics.StoreLatencyPlugin;
 import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
+import com.hazelcast.internal.eviction.EvictionPolicyComparator;
 import com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.impl.strategy.sampling.SamplingEvictionStrategy;
 import com.hazelcast.map.impl.MapEntries;
@@ -74,6 +76,7 @@ import static com.hazelcast.cache.impl.CacheEventContextUtil.createCacheCreatedE
 import static com.hazelcast.cache.impl.CacheEventContextUtil.createCacheExpiredEvent;
 import static com.hazelcast.cache.impl.CacheEventContextUtil.createCacheRemovedEvent;
 import static com.hazelcast.cache.impl.CacheEventContextUtil.createCacheUpdatedEvent;
+import static com.hazelcast.cache.impl.maxsize.impl.EntryCountCacheEvictionChecker.calculateMaxPartitionSize;
 import static com.hazelcast.cache.impl.operation.MutableOperation.IGNORE_COMPLETION;
 import static com.hazelcast.cache.impl.record.CacheRecordFactory.isExpiredAt;
 import static com.hazelcast.internal.config.ConfigValidator.checkEvictionConfig;
@@ -104,6 +107,8 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
     protected final Map<CacheEventType, Set<CacheEventData>> batchEvent = new HashMap<CacheEventType, Set<CacheEventData>>();
     protected final EvictionChecker evictionChecker;
     protected final EvictionPolicyEvaluator<Data, R> evictionPolicyEvaluator;
+    // set if the accesses to keys have to be counted for TinyLFU
+    protected final TinyLfuEvictionPolicyComparator tinyLfuComparator;
     protected final SamplingEvictionStrategy<Data, R, CRM> evictionStrategy;
     protected final ObjectNamespace objectNamespace;
     protected final boolean wanReplicationEnabled;
@@ -166,6 +171,7 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         records = createRecordCacheMap();
         evictionChecker = createCacheEvictionChecker(evictionConfig.getSize(), evictionConfig.getMaximumSizePolicy());
         evictionPolicyEvaluator = createEvictionPolicyEvaluator(evictionConfig);
+        tinyLfuComparator = getTinyLfuComparator(evictionPolicyEvaluator);
         evictionStrategy = createEvictionStrategy(evictionConfig);
         objectNamespace = CacheService.getObjectNamespace(cacheNameWithPrefix);
 
@@ -266,7 +272,19 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
 
     protected EvictionPolicyEvaluator<Data, R> createEvictionPolicyEvaluator(EvictionConfig evictionConfig) {
         checkEvictionConfig(evictionConfig, false);
-        return EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator(evictionConfig, nodeEngine.getConfigClassLoader());
+        ClassLoader classLoader = nodeEngine.getConfigClassLoader();
+        if (evictionConfig.getMaximumSizePolicy() == MaxSizePolicy.ENTRY_COUNT) {
+            // the records of each partition are evicted on their own
+            int maxPartitionSize = Math.max(1, calculateMaxPartitionSize(evictionConfig.getSize(), partitionCount));
+            return EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator(evictionConfig, classLoader, maxPartitionSize);
+        }
+        return EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator(evictionConfig, classLoader);
+    }
+
+    private static TinyLfuEvictionPolicyComparator getTinyLfuComparator(EvictionPolicyEvaluator evictionPolicyEvaluator) {
+        EvictionPolicyComparator comparator = evictionPolicyEvaluator != null
+                ? evictionPolicyEvaluator.getEvictionPolicyComparator() : null;
+        return comparator instanceof TinyLfuEvictionPolicyComparator ? (TinyLfuEvictionPolicyComparator) comparator : null;
     }
 
     protected SamplingEvictionStrategy<Data, R, CRM> createEvictionStrategy(EvictionConfig cacheEvictionConfig) {
@@ -956,6 +974,9 @@ public abstract class AbstractCacheRecordStore<R extends CacheRecord, CRM extend
         long start = isStatisticsEnabled() ? System.nanoTime() : 0;
         long now = Clock.currentTimeMillis();
         Object value = null;
+        if (tinyLfuComparator != null) {
+            tinyLfuComparator.recordAccess(key);
+        }
         R record = records.get(key);
         boolean isExpired = processExpiredEntry(key, record, now);
         try {
@@ -34,5 +34,13 @@ public enum EvictionPolicy {
     /**
      * Randomly
      */
-    RANDOM
+    RANDOM,
+    /**
+     * Least Frequently Used, as estimated by a frequency sketch which also counts the accesses to keys which are
+     * not stored, and ages the counts so that formerly popular keys can be evicted. Scans and one-time accesses
+     * don't push frequently used entries out. Where a new entry can be dropped instead of being stored, as in
+     * the Near Cache, it is only stored if its key is accessed more frequently than the key of the entry it
+     * would evict.
+     */
+    TINY_LFU
 }
@@ -21,6 +21,7 @@ import com.hazelcast.map.eviction.LFUEvictionPolicy;
 import com.hazelcast.map.eviction.LRUEvictionPolicy;
 import com.hazelcast.map.eviction.MapEvictionPolicy;
 import com.hazelcast.map.eviction.RandomEvictionPolicy;
+import com.hazelcast.map.eviction.TinyLfuEvictionPolicy;
 import com.hazelcast.map.merge.PutIfAbsentMapMergePolicy;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -477,6 +478,8 @@ public class MapConfig implements SplitBrainMergeTypeProvider, IdentifiedDataSer
                 return LFUEvictionPolicy.INSTANCE;
             case RANDOM:
                 return RandomEvictionPolicy.INSTANCE;
+            case TINY_LFU:
+                return TinyLfuEvictionPolicy.INSTANCE;
             case NONE:
                 return null;
             default:
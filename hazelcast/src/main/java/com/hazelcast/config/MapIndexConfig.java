@@ -23,6 +23,8 @@ import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
 import static com.hazelcast.query.QueryConstants.KEY_ATTRIBUTE_NAME;
 import static com.hazelcast.util.Preconditions.checkHasText;
@@ -34,6 +36,21 @@ import static com.hazelcast.util.Preconditions.checkHasText;
  */
 public class MapIndexConfig implements IdentifiedDataSerializable {
 
+    /**
+     * Separates the attributes of a composite index, e.g. {@code "tenantId,status,timestamp"}.
+     */
+    public static final char COMPOSITE_ATTRIBUTE_SEPARATOR = ',';
+
+    /**
+     * Starts the attribute of a bitmap index, e.g. {@code "bitmap(status)"}.
+     */
+    public static final String BITMAP_INDEX_PREFIX = "bitmap(";
+
+    /**
+     * Ends the attribute of a bitmap index, e.g. {@code "bitmap(status)"}.
+     */
+    public static final String BITMAP_INDEX_SUFFIX = ")";
+
     private static final ILogger LOG = Logger.getLogger(MapIndexConfig.class);
 
     private String attribute;
@@ -89,10 +106,22 @@ public class MapIndexConfig implements IdentifiedDataSerializable {
 
     /**
      * Sets the attribute that is going to be indexed.
+     * <p>
+     * A comma-separated list of attributes, e.g. {@code "tenantId,status,timestamp"}, declares a composite
+     * index. A composite index serves queries which match a prefix of its attributes by equality, optionally
+     * followed by a range over the next attribute; range matching requires the index to be ordered.
+     * <p>
+     * An attribute wrapped in {@code bitmap(...)}, e.g. {@code "bitmap(status)"}, declares a bitmap index.
+     * A bitmap index keeps a compressed bitmap of the entries holding each distinct value, so it suits
+     * attributes with few distinct values; the bitmaps of several bitmap indexes matched by the same query
+     * are combined directly. Bitmap indexes are never ordered and can't be composite.
      *
      * @param attribute the attribute that is going to be indexed
      * @return the updated MapIndexConfig
-     * @throws IllegalArgumentException if attribute is null or an empty string
+     * @throws IllegalArgumentException if attribute is null or an empty string, or if it declares a composite
+     *                                  index with less than two, empty or duplicate attributes, or a composite
+     *                                  bitmap index
+     * @see #isBitmap()
      */
     public MapIndexConfig setAttribute(String attribute) {
         this.attribute = validateIndexAttribute(attribute);
@@ -122,6 +151,16 @@ public class MapIndexConfig implements IdentifiedDataSerializable {
         return this;
     }
 
+    /**
+     * Checks if the index is a bitmap index, i.e. if its attribute is wrapped in {@code bitmap(...)}.
+     *
+     * @return {@code true} if the index is a bitmap index, {@code false} otherwise
+     * @see #setAttribute(String)
+     */
+    public boolean isBitmap() {
+        return attribute != null && isBitmapIndexAttribute(attribute);
+    }
+
     @Override
     public String toString() {
         return "MapIndexConfig{attribute='" + attribute + "', ordered=" + ordered + '}';
@@ -135,6 +174,67 @@ public class MapIndexConfig implements IdentifiedDataSerializable {
      */
     public static String validateIndexAttribute(String attribute) {
         checkHasText(attribute, "Map index attribute must contain text");
+        if (isBitmapIndexAttribute(attribute)) {
+            validateBitmapIndexAttribute(attribute);
+        } else if (attribute.indexOf(COMPOSITE_ATTRIBUTE_SEPARATOR) >= 0) {
+            validateCompositeIndexAttribute(attribute);
+        } else {
+            validateSingleIndexAttribute(attribute);
+        }
+        return attribute;
+    }
+
+    /**
+     * Checks if the given index attribute declares a bitmap index, e.g. {@code "bitmap(status)"}.
+     *
+     * @param attribute the index attribute
+     * @return {@code true} if the attribute declares a bitmap index, {@code false} otherwise
+     */
+    public static boolean isBitmapIndexAttribute(String attribute) {
+        String trimmed = attribute.trim();
+        return trimmed.startsWith(BITMAP_INDEX_PREFIX) && trimmed.endsWith(BITMAP_INDEX_SUFFIX);
+    }
+
+    /**
+     * Returns the attribute indexed by the given bitmap index attribute, e.g. {@code "status"} for
+     * {@code "bitmap(status)"}.
+     *
+     * @param attribute the bitmap index attribute
+     * @return the indexed attribute
+     */
+    public static String getBitmapIndexedAttribute(String attribute) {
+        String trimmed = attribute.trim();
+        return trimmed.substring(BITMAP_INDEX_PREFIX.length(), trimmed.length() - BITMAP_INDEX_SUFFIX.length()).trim();
+    }
+
+    private static void validateBitmapIndexAttribute(String attribute) {
+        String indexedAttribute = getBitmapIndexedAttribute(attribute);
+        checkHasText(indexedAttribute, "Bitmap index attribute must contain text: " + attribute);
+        if (indexedAttribute.indexOf(COMPOSITE_ATTRIBUTE_SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Bitmap index attribute must not be composite: " + attribute);
+        }
+        validateSingleIndexAttribute(indexedAttribute);
+    }
+
+    private static void validateCompositeIndexAttribute(String attribute) {
+        String[] components = attribute.split(String.valueOf(COMPOSITE_ATTRIBUTE_SEPARATOR), -1);
+        if (components.length < 2) {
+            throw new IllegalArgumentException("Composite index attribute must consist of at least two attributes: "
+                    + attribute);
+        }
+        Set<String> seen = new HashSet<String>();
+        for (String component : components) {
+            String trimmed = component.trim();
+            checkHasText(trimmed, "Composite index attribute must not contain empty attributes: " + attribute);
+            if (!seen.add(trimmed)) {
+                throw new IllegalArgumentException("Composite index attribute must not contain duplicate attribute '"
+                        + trimmed + "': " + attribute);
+            }
+            validateSingleIndexAttribute(trimmed);
+        }
+    }
+
+    private static void validateSingleIndexAttribute(String attribute) {
         String keyPrefix = KEY_ATTRIBUTE_NAME.value();
         if (attribute.startsWith(keyPrefix) && attribute.length() > keyPrefix.length()) {
             if (attribute.charAt(keyPrefix.length()) != '#') {
@@ -142,7 +242,6 @@ public class MapIndexConfig implements IdentifiedDataSerializable {
                         + attribute + "'. Don't you want to index a key?");
             }
         }
-        return attribute;
     }
 
     @Override
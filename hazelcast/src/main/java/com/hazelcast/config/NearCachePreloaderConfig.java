@@ -50,6 +50,7 @@ public class NearCachePreloaderConfig implements IdentifiedDataSerializable, Ser
     private String directory = "";
     private int storeInitialDelaySeconds = DEFAULT_STORE_INITIAL_DELAY_SECONDS;
     private int storeIntervalSeconds = DEFAULT_STORE_INTERVAL_SECONDS;
+    private boolean storeValues;
 
     private NearCachePreloaderConfig readOnly;
 
@@ -60,6 +61,7 @@ public class NearCachePreloaderConfig implements IdentifiedDataSerializable, Ser
         this(nearCachePreloaderConfig.enabled, nearCachePreloaderConfig.directory);
         this.storeInitialDelaySeconds = nearCachePreloaderConfig.storeInitialDelaySeconds;
         this.storeIntervalSeconds = nearCachePreloaderConfig.storeIntervalSeconds;
+        this.storeValues = nearCachePreloaderConfig.storeValues;
     }
 
     public NearCachePreloaderConfig(String directory) {
@@ -109,6 +111,37 @@ public class NearCachePreloaderConfig implements IdentifiedDataSerializable, Ser
         return this;
     }
 
+    /**
+     * Checks if the values are stored together with the keys.
+     *
+     * @return {@code true} if the values are stored, {@code false} otherwise
+     * @see #setStoreValues(boolean)
+     */
+    public boolean isStoreValues() {
+        return storeValues;
+    }
+
+    /**
+     * Defines if the values are stored together with the keys.
+     * <p>
+     * If enabled, the Near Cache is stored into a checksummed snapshot file with its keys, values and the
+     * invalidation metadata of their partitions. On startup the snapshot file is memory-mapped and its entries
+     * are put straight into the Near Cache, so only the values of partitions which have been invalidated
+     * since the snapshot was taken are fetched from the cluster. Requires invalidation on change to be
+     * enabled, otherwise only the keys are stored.
+     * <p>
+     * The setting is local to the member or client it's configured on: it isn't part of the serialized form
+     * of this config, which is shared with members of older 3.10.x versions, so it isn't replicated with a
+     * dynamically added data structure config.
+     *
+     * @param storeValues {@code true} to store the values, {@code false} to store only the keys
+     * @return this preloader config instance
+     */
+    public NearCachePreloaderConfig setStoreValues(boolean storeValues) {
+        this.storeValues = storeValues;
+        return this;
+    }
+
     @Override
     public int getFactoryId() {
         return ConfigDataSerializerHook.F_ID;
@@ -125,6 +158,7 @@ public class NearCachePreloaderConfig implements IdentifiedDataSerializable, Ser
         out.writeUTF(directory);
         out.writeInt(storeInitialDelaySeconds);
         out.writeInt(storeIntervalSeconds);
+        // storeValues is kept out of the serialized form, which members of older 3.10.x versions couldn't read
     }
 
     @Override
@@ -142,6 +176,7 @@ public class NearCachePreloaderConfig implements IdentifiedDataSerializable, Ser
                 + ", directory=" + directory
                 + ", storeInitialDelaySeconds=" + storeInitialDelaySeconds
                 + ", storeIntervalSeconds=" + storeIntervalSeconds
+                + ", storeValues=" + storeValues
                 + '}';
     }
 
@@ -172,6 +207,9 @@ public class NearCachePreloaderConfig implements IdentifiedDataSerializable, Ser
         if (storeIntervalSeconds != that.storeIntervalSeconds) {
             return false;
         }
+        if (storeValues != that.storeValues) {
+            return false;
+        }
         return directory != null ? directory.equals(that.directory) : that.directory == null;
     }
 
@@ -181,6 +219,7 @@ public class NearCachePreloaderConfig implements IdentifiedDataSerializable, Ser
         result = 31 * result + (directory != null ? directory.hashCode() : 0);
         result = 31 * result + storeInitialDelaySeconds;
         result = 31 * result + storeIntervalSeconds;
+        result = 31 * result + (storeValues ? 1 : 0);
         return result;
     }
 
@@ -218,6 +257,11 @@ public class NearCachePreloaderConfig implements IdentifiedDataSerializable, Ser
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public NearCachePreloaderConfig setStoreValues(boolean storeValues) {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public int getId() {
             throw new UnsupportedOperationException("NearCachePreloaderConfigReadOnly is not serializable");
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import com.hazelcast.spi.annotation.Beta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * The Pipelining can be used to speed up requests. It is built on top of asynchronous requests like
+ * {@link IMap#getAsync(Object)} or any other asynchronous call.
+ * <p>
+ * The main purpose of the Pipelining is to control the number of concurrent requests when using asynchronous
+ * invocations. This can be done by setting the depth using the constructor. So you could set the depth to e.g. 100
+ * and do 1000 calls. That means that at any given moment, there will only be 100 concurrent requests.
+ * <p>
+ * Pipelining doesn't only save round trips: the requests which are queued on a connection while earlier requests
+ * are still being written are coalesced by the IO thread into a single socket write. So a thread which issues the
+ * requests of a pipeline sends them in batches, while a thread which waits for every response writes every request
+ * on its own.
+ * <p>
+ * It depends on the situation what the optimal depth is. If the depth is too low, the throughput is limited by the
+ * round trip time; if it is too high, the requests just queue up and more memory is needed for the responses.
+ * <p>
+ * Usage example:
+ * <pre>{@code
+ * Pipelining<String> pipelining = new Pipelining<String>(10);
+ * for (long k = 0; k < 100; k++) {
+ *     int key = random.nextInt(keyDomain);
+ *     pipelining.add(map.getAsync(key));
+ * }
+ * // wait for completion
+ * List<String> results = pipelining.results();
+ * }</pre>
+ * The Pipelining isn't thread-safe, it should only be used by a single thread.
+ *
+ * @param <E> the result type of the requests
+ */
+@Beta
+public class Pipelining<E> {
+
+    private final int depth;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final List<ICompletableFuture<E>> futures = new ArrayList<ICompletableFuture<E>>();
+    private final ExecutionCallback<E> releaseCallback = new ReleaseCallback();
+
+    private volatile Thread thread;
+
+    /**
+     * Creates a Pipelining with the given depth.
+     *
+     * @param depth the maximum number of concurrent requests
+     * @throws IllegalArgumentException if depth is smaller than 1
+     */
+    public Pipelining(int depth) {
+        this.depth = checkPositive(depth, "depth must be positive");
+    }
+
+    /**
+     * Returns the results.
+     * <p>
+     * The results are returned in the order the requests were added.
+     * <p>
+     * This call waits till all requests have completed.
+     *
+     * @return the list of results
+     * @throws Exception if something fails getting the results
+     */
+    public List<E> results() throws Exception {
+        List<E> result = new ArrayList<E>(futures.size());
+        for (ICompletableFuture<E> future : futures) {
+            result.add(future.get());
+        }
+        return result;
+    }
+
+    /**
+     * Adds a future to this Pipelining.
+     * <p>
+     * Since the request of the future is already in flight, this call doesn't block the request itself, but it waits
+     * till at most depth requests, including the added one, are outstanding. So a caller which adds the requests one
+     * by one never has more than depth concurrent requests.
+     *
+     * @param future the future to add
+     * @return the future added
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws NullPointerException if future is {@code null}
+     */
+    public ICompletableFuture<E> add(ICompletableFuture<E> future) throws InterruptedException {
+        checkNotNull(future, "future can't be null");
+        this.thread = Thread.currentThread();
+
+        futures.add(future);
+        outstanding.incrementAndGet();
+        future.andThen(releaseCallback, CallerRunsExecutor.INSTANCE);
+
+        while (outstanding.get() > depth) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return future;
+    }
+
+    private void release() {
+        // only the thread which has added a request may be waiting, and only till the outstanding requests drop to depth
+        if (outstanding.decrementAndGet() == depth) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private class ReleaseCallback implements ExecutionCallback<E> {
+        @Override
+        public void onResponse(E response) {
+            release();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            release();
+        }
+    }
+
+    private static final class CallerRunsExecutor implements Executor {
+
+        static final CallerRunsExecutor INSTANCE = new CallerRunsExecutor();
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    }
+}
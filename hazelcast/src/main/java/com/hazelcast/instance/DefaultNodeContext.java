@@ -23,7 +23,9 @@ import com.hazelcast.config.MemberAddressProviderConfig;
 import com.hazelcast.internal.networking.ChannelErrorHandler;
 import com.hazelcast.internal.networking.ChannelInitializer;
 import com.hazelcast.internal.networking.EventLoopGroup;
+import com.hazelcast.internal.networking.nio.IOTransport;
 import com.hazelcast.internal.networking.nio.NioEventLoopGroup;
+import com.hazelcast.internal.networking.nio.SelectorMode;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.LoggingServiceImpl;
 import com.hazelcast.nio.ClassLoaderUtil;
@@ -34,12 +36,17 @@ import com.hazelcast.nio.tcp.TcpIpConnectionChannelErrorHandler;
 import com.hazelcast.nio.tcp.TcpIpConnectionManager;
 import com.hazelcast.spi.MemberAddressProvider;
 import com.hazelcast.spi.annotation.PrivateApi;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.util.concurrent.IdleStrategy;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.channels.ServerSocketChannel;
 import java.util.Properties;
 
+import static com.hazelcast.spi.impl.operationservice.impl.InboundResponseHandlerSupplier.getIdleStrategy;
+
 @PrivateApi
 public class DefaultNodeContext implements NodeContext {
 
@@ -145,6 +152,7 @@ public class DefaultNodeContext implements NodeContext {
 
     private EventLoopGroup createEventLoopGroup(Node node, NodeIOService ioService) {
         LoggingServiceImpl loggingService = node.loggingService;
+        HazelcastProperties properties = node.getProperties();
 
         ChannelInitializer initializer
                 = new MemberChannelInitializer(loggingService.getLogger(MemberChannelInitializer.class), ioService);
@@ -152,15 +160,27 @@ public class DefaultNodeContext implements NodeContext {
         ChannelErrorHandler errorHandler
                 = new TcpIpConnectionChannelErrorHandler(loggingService.getLogger(TcpIpConnectionChannelErrorHandler.class));
 
-        return new NioEventLoopGroup(
-                new NioEventLoopGroup.Context()
-                        .loggingService(loggingService)
-                        .metricsRegistry(node.nodeEngine.getMetricsRegistry())
-                        .threadNamePrefix(node.hazelcastInstance.getName())
-                        .errorHandler(errorHandler)
-                        .inputThreadCount(ioService.getInputSelectorThreadCount())
-                        .outputThreadCount(ioService.getOutputSelectorThreadCount())
-                        .balancerIntervalSeconds(ioService.getBalancerIntervalSeconds())
-                        .channelInitializer(initializer));
+        NioEventLoopGroup.Context context = new NioEventLoopGroup.Context()
+                .loggingService(loggingService)
+                .metricsRegistry(node.nodeEngine.getMetricsRegistry())
+                .threadNamePrefix(node.hazelcastInstance.getName())
+                .errorHandler(errorHandler)
+                .inputThreadCount(ioService.getInputSelectorThreadCount())
+                .outputThreadCount(ioService.getOutputSelectorThreadCount())
+                .balancerIntervalSeconds(ioService.getBalancerIntervalSeconds())
+                .balancerAdaptive(properties.getBoolean(GroupProperty.IO_BALANCER_ADAPTIVE))
+                .channelInitializer(initializer)
+                .transport(IOTransport.fromString(properties.getString(GroupProperty.IO_TRANSPORT)))
+                .gatheringWriteMaxBuffers(properties.getBoolean(GroupProperty.SOCKET_GATHERING_WRITE_ENABLED)
+                        ? properties.getInteger(GroupProperty.SOCKET_GATHERING_WRITE_MAX_BUFFERS) : 0)
+                .gatheringWriteMaxBytes(properties.getInteger(GroupProperty.SOCKET_GATHERING_WRITE_MAX_BYTES))
+                .writeThrough(properties.getBoolean(GroupProperty.IO_WRITE_THROUGH_ENABLED));
+
+        IdleStrategy idleStrategy = getIdleStrategy(properties, GroupProperty.IO_IDLE_STRATEGY);
+        if (idleStrategy != null) {
+            context.selectorMode(SelectorMode.SELECT_NOW)
+                    .idleStrategy(idleStrategy);
+        }
+        return new NioEventLoopGroup(context);
     }
 }
@@ -38,6 +38,7 @@ import com.hazelcast.internal.diagnostics.BuildInfoPlugin;
 import com.hazelcast.internal.diagnostics.ConfigPropertiesPlugin;
 import com.hazelcast.internal.diagnostics.Diagnostics;
 import com.hazelcast.internal.diagnostics.EventQueuePlugin;
+import com.hazelcast.internal.diagnostics.IOBalancerPlugin;
 import com.hazelcast.internal.diagnostics.InvocationPlugin;
 import com.hazelcast.internal.diagnostics.MemberHazelcastInstanceInfoPlugin;
 import com.hazelcast.internal.diagnostics.MemberHeartbeatPlugin;
@@ -266,7 +267,7 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public ChannelOutboundHandler createOutboundHandler(TcpIpConnection connection, IOService ioService) {
-        return new PacketEncoder();
+        return new PacketEncoder(connection, ioService.getSocketCompressionThreshold());
     }
 
     @Override
@@ -437,6 +438,7 @@ public class DefaultNodeExtension implements NodeExtension {
         diagnostics.register(new StoreLatencyPlugin(nodeEngine));
         diagnostics.register(new MemberHeartbeatPlugin(nodeEngine));
         diagnostics.register(new NetworkingImbalancePlugin(nodeEngine));
+        diagnostics.register(new IOBalancerPlugin(nodeEngine));
         diagnostics.register(new OperationHeartbeatPlugin(nodeEngine));
         diagnostics.register(new OperationThreadSamplerPlugin(nodeEngine));
     }
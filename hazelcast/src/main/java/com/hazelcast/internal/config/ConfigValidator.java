@@ -27,6 +27,7 @@ import com.hazelcast.config.EvictionConfig.MaxSizePolicy;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapIndexConfig;
 import com.hazelcast.config.MultiMapConfig;
 import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.NearCacheConfig;
@@ -44,9 +45,12 @@ import com.hazelcast.spi.merge.SplitBrainMergePolicyProvider;
 import com.hazelcast.spi.merge.SplitBrainMergeTypeProvider;
 
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 
 import static com.hazelcast.config.EvictionPolicy.LFU;
 import static com.hazelcast.config.EvictionPolicy.LRU;
+import static com.hazelcast.config.EvictionPolicy.TINY_LFU;
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.MapConfig.DEFAULT_EVICTION_PERCENTAGE;
 import static com.hazelcast.config.MapConfig.DEFAULT_MIN_EVICTION_CHECK_MILLIS;
@@ -69,7 +73,7 @@ public final class ConfigValidator {
     private static final EnumSet<MaxSizePolicy> SUPPORTED_ON_HEAP_NEAR_CACHE_MAXSIZE_POLICIES
             = EnumSet.of(MaxSizePolicy.ENTRY_COUNT);
 
-    private static final EnumSet<EvictionPolicy> SUPPORTED_EVICTION_POLICIES = EnumSet.of(LRU, LFU);
+    private static final EnumSet<EvictionPolicy> SUPPORTED_EVICTION_POLICIES = EnumSet.of(LRU, LFU, TINY_LFU);
 
     private ConfigValidator() {
     }
@@ -81,11 +85,49 @@ public final class ConfigValidator {
      * @param mergePolicyProvider the {@link MergePolicyProvider} to resolve merge policy classes
      */
     public static void checkMapConfig(MapConfig mapConfig, MergePolicyProvider mergePolicyProvider) {
-        checkNotNativeWhenOpenSource(mapConfig.getInMemoryFormat());
+        checkMapConfig(mapConfig, null, mergePolicyProvider);
+    }
+
+    /**
+     * Validates the given {@link MapConfig}.
+     * <p>
+     * On Hazelcast OS {@link InMemoryFormat#NATIVE} is supported only if native memory is enabled.
+     *
+     * @param mapConfig           the {@link MapConfig}
+     * @param nativeMemoryConfig  the {@link NativeMemoryConfig} of the Hazelcast instance
+     * @param mergePolicyProvider the {@link MergePolicyProvider} to resolve merge policy classes
+     */
+    public static void checkMapConfig(MapConfig mapConfig, NativeMemoryConfig nativeMemoryConfig,
+                                      MergePolicyProvider mergePolicyProvider) {
+        if (nativeMemoryConfig == null || !nativeMemoryConfig.isEnabled()) {
+            checkNotNativeWhenOpenSource(mapConfig.getInMemoryFormat());
+        }
         checkMapMergePolicy(mapConfig, mergePolicyProvider);
+        checkMapIndexConfigs(mapConfig);
         logIgnoredConfig(mapConfig);
     }
 
+    /**
+     * Rejects an attribute indexed both by a bitmap index and by a regular index: the indexes of an attribute
+     * are registered under the attribute name, so only the first of them would be created.
+     */
+    private static void checkMapIndexConfigs(MapConfig mapConfig) {
+        Map<String, Boolean> bitmapByAttribute = new HashMap<String, Boolean>();
+        for (MapIndexConfig indexConfig : mapConfig.getMapIndexConfigs()) {
+            String attribute = indexConfig.getAttribute();
+            if (attribute == null) {
+                continue;
+            }
+            boolean bitmap = indexConfig.isBitmap();
+            String indexedAttribute = bitmap ? MapIndexConfig.getBitmapIndexedAttribute(attribute) : attribute.trim();
+            Boolean otherBitmap = bitmapByAttribute.put(indexedAttribute, bitmap);
+            if (otherBitmap != null && otherBitmap != bitmap) {
+                throw new IllegalArgumentException(format("Attribute `%s` of map `%s` is configured with both a bitmap"
+                        + " index and a regular index, only one of them can be used", indexedAttribute, mapConfig.getName()));
+            }
+        }
+    }
+
     @SuppressWarnings("deprecation")
     private static void logIgnoredConfig(MapConfig mapConfig) {
         if (mapConfig.getMinEvictionCheckMillis() != DEFAULT_MIN_EVICTION_CHECK_MILLIS
@@ -99,6 +141,8 @@ public final class ConfigValidator {
 
     /**
      * Checks preconditions to create a map proxy with Near Cache.
+     * <p>
+     * On Hazelcast OS {@link InMemoryFormat#NATIVE} is supported only if native memory is enabled.
      *
      * @param mapName            name of the map that Near Cache will be created for
      * @param nearCacheConfig    the {@link NearCacheConfig} to be checked
@@ -107,7 +151,9 @@ public final class ConfigValidator {
      */
     public static void checkNearCacheConfig(String mapName, NearCacheConfig nearCacheConfig,
                                             NativeMemoryConfig nativeMemoryConfig, boolean isClient) {
-        checkNotNativeWhenOpenSource(nearCacheConfig.getInMemoryFormat());
+        if (nativeMemoryConfig == null || !nativeMemoryConfig.isEnabled()) {
+            checkNotNativeWhenOpenSource(nearCacheConfig.getInMemoryFormat());
+        }
         checkLocalUpdatePolicy(mapName, nearCacheConfig.getLocalUpdatePolicy());
         checkEvictionConfig(nearCacheConfig.getEvictionConfig(), true);
         checkOnHeapNearCacheMaxSizePolicy(nearCacheConfig);
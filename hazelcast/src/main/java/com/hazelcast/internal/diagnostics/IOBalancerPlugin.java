@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.diagnostics;
+
+import com.hazelcast.internal.networking.EventLoopGroup;
+import com.hazelcast.internal.networking.nio.NioEventLoopGroup;
+import com.hazelcast.internal.networking.nio.NioThread;
+import com.hazelcast.internal.networking.nio.iobalancer.IOBalancer;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.ConnectionManager;
+import com.hazelcast.nio.tcp.TcpIpConnectionManager;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
+import com.hazelcast.util.ItemCounter;
+
+import static com.hazelcast.internal.diagnostics.Diagnostics.PREFIX;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The {@link IOBalancerPlugin} shows the load of every IO thread and the work of the {@link IOBalancer} over time.
+ * <p>
+ * Every run renders the bytes, frames and events each IO thread processed since the previous run, its share of the
+ * bytes processed by all threads of the same direction, and the imbalances detected and the migrations completed by the
+ * IOBalancer since the previous run. So the diagnostics log shows whether, and how fast, the IOBalancer converges.
+ */
+public class IOBalancerPlugin extends DiagnosticsPlugin {
+
+    /**
+     * The period in seconds this plugin runs.
+     * <p>
+     * If set to 0, the plugin is disabled.
+     */
+    public static final HazelcastProperty PERIOD_SECONDS
+            = new HazelcastProperty(PREFIX + ".iobalancer.period.seconds", 0, SECONDS);
+
+    private static final double HUNDRED = 100d;
+
+    private final NioEventLoopGroup eventLoopGroup;
+    private final long periodMillis;
+    private final ItemCounter<NioThread> lastBytes = new ItemCounter<NioThread>();
+    private final ItemCounter<NioThread> lastFrames = new ItemCounter<NioThread>();
+    private final ItemCounter<NioThread> lastEvents = new ItemCounter<NioThread>();
+    private long lastImbalanceDetectedCount;
+    private long lastMigrationCompletedCount;
+
+    public IOBalancerPlugin(NodeEngineImpl nodeEngine) {
+        this(nodeEngine.getProperties(), getEventLoopGroup(nodeEngine), nodeEngine.getLogger(IOBalancerPlugin.class));
+    }
+
+    public IOBalancerPlugin(HazelcastProperties properties, EventLoopGroup eventLoopGroup, ILogger logger) {
+        super(logger);
+
+        if (eventLoopGroup instanceof NioEventLoopGroup) {
+            this.eventLoopGroup = (NioEventLoopGroup) eventLoopGroup;
+        } else {
+            this.eventLoopGroup = null;
+        }
+        this.periodMillis = this.eventLoopGroup == null ? 0 : properties.getMillis(PERIOD_SECONDS);
+    }
+
+    private static EventLoopGroup getEventLoopGroup(NodeEngineImpl nodeEngine) {
+        ConnectionManager connectionManager = nodeEngine.getNode().getConnectionManager();
+        if (!(connectionManager instanceof TcpIpConnectionManager)) {
+            return null;
+        }
+        return ((TcpIpConnectionManager) connectionManager).getEventLoopGroup();
+    }
+
+    @Override
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    @Override
+    public void onStart() {
+        logger.info("Plugin:active: period-millis:" + periodMillis);
+    }
+
+    @Override
+    public void run(DiagnosticsLogWriter writer) {
+        writer.startSection("IOBalancer");
+
+        IOBalancer ioBalancer = eventLoopGroup.getIOBalancer();
+        if (ioBalancer != null) {
+            long imbalanceDetectedCount = ioBalancer.getImbalanceDetectedCount();
+            long migrationCompletedCount = ioBalancer.getMigrationCompletedCount();
+            writer.writeKeyValueEntry("imbalances-detected", imbalanceDetectedCount - lastImbalanceDetectedCount);
+            writer.writeKeyValueEntry("imbalances-detected-total", imbalanceDetectedCount);
+            writer.writeKeyValueEntry("migrations-completed", migrationCompletedCount - lastMigrationCompletedCount);
+            writer.writeKeyValueEntry("migrations-completed-total", migrationCompletedCount);
+            lastImbalanceDetectedCount = imbalanceDetectedCount;
+            lastMigrationCompletedCount = migrationCompletedCount;
+        }
+
+        writer.startSection("InputThreads");
+        render(writer, eventLoopGroup.getInputThreads());
+        writer.endSection();
+
+        writer.startSection("OutputThreads");
+        render(writer, eventLoopGroup.getOutputThreads());
+        writer.endSection();
+
+        writer.endSection();
+    }
+
+    private void render(DiagnosticsLogWriter writer, NioThread[] threads) {
+        if (threads == null) {
+            // this can become null due to stopping of the system
+            return;
+        }
+
+        long[] bytes = new long[threads.length];
+        long totalBytes = 0;
+        for (int i = 0; i < threads.length; i++) {
+            bytes[i] = sinceLastRun(lastBytes, threads[i], threads[i].bytesTransceived());
+            totalBytes += bytes[i];
+        }
+
+        for (int i = 0; i < threads.length; i++) {
+            NioThread thread = threads[i];
+            long frames = sinceLastRun(lastFrames, thread, thread.framesTransceived());
+            long events = sinceLastRun(lastEvents, thread, thread.eventCount());
+
+            writer.startSection(thread.getName());
+            writer.writeKeyValueEntry("load-percentage", toPercentage(bytes[i], totalBytes));
+            writer.writeKeyValueEntry("bytes", bytes[i]);
+            writer.writeKeyValueEntry("frames", frames);
+            writer.writeKeyValueEntry("events", events);
+            writer.endSection();
+        }
+    }
+
+    private static long sinceLastRun(ItemCounter<NioThread> lastCounter, NioThread thread, long total) {
+        return total - lastCounter.getAndSet(thread, total);
+    }
+
+    private String toPercentage(long amount, long total) {
+        double percentage = total == 0 ? 0 : (HUNDRED * amount) / total;
+        return String.format("%1$,.2f", percentage) + " %";
+    }
+}
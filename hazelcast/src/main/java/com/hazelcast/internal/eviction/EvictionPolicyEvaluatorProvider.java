@@ -16,13 +16,17 @@
 
 package com.hazelcast.internal.eviction;
 
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionConfig.MaxSizePolicy;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.internal.eviction.impl.comparator.LFUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.comparator.LRUEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.comparator.RandomEvictionPolicyComparator;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.nio.ClassLoaderUtil;
 
+import static com.hazelcast.internal.eviction.impl.FrequencySketch.DEFAULT_EXPECTED_ENTRY_COUNT;
 import static com.hazelcast.util.ExceptionUtil.rethrow;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.StringUtil.isNullOrEmpty;
@@ -35,7 +39,8 @@ public final class EvictionPolicyEvaluatorProvider {
     private EvictionPolicyEvaluatorProvider() {
     }
 
-    private static EvictionPolicyComparator createEvictionPolicyComparator(EvictionPolicy evictionPolicy) {
+    private static EvictionPolicyComparator createEvictionPolicyComparator(EvictionPolicy evictionPolicy,
+                                                                           int expectedEntryCount) {
         switch (evictionPolicy) {
             case LRU:
                 return new LRUEvictionPolicyComparator();
@@ -43,6 +48,8 @@ public final class EvictionPolicyEvaluatorProvider {
                 return new LFUEvictionPolicyComparator();
             case RANDOM:
                 return new RandomEvictionPolicyComparator();
+            case TINY_LFU:
+                return new TinyLfuEvictionPolicyComparator(expectedEntryCount);
             case NONE:
                 return null;
             default:
@@ -60,6 +67,21 @@ public final class EvictionPolicyEvaluatorProvider {
      */
     public static <A, E extends Evictable> EvictionPolicyEvaluator<A, E> getEvictionPolicyEvaluator(
             EvictionConfiguration evictionConfig, ClassLoader classLoader) {
+        return getEvictionPolicyEvaluator(evictionConfig, classLoader, getExpectedEntryCount(evictionConfig));
+    }
+
+    /**
+     * Gets the {@link EvictionPolicyEvaluator} implementation specified with {@code evictionPolicy}.
+     *
+     * @param evictionConfig     {@link EvictionConfiguration} for requested {@link EvictionPolicyEvaluator} implementation
+     * @param classLoader        the {@link java.lang.ClassLoader} to be used
+     *                           while creating custom {@link EvictionPolicyComparator} if it is specified in the config
+     * @param expectedEntryCount the maximum number of entries expected in the evicted data structure,
+     *                           used to size the sketch of {@link EvictionPolicy#TINY_LFU}
+     * @return the requested {@link EvictionPolicyEvaluator} implementation
+     */
+    public static <A, E extends Evictable> EvictionPolicyEvaluator<A, E> getEvictionPolicyEvaluator(
+            EvictionConfiguration evictionConfig, ClassLoader classLoader, int expectedEntryCount) {
         checkNotNull(evictionConfig);
 
         EvictionPolicyComparator evictionPolicyComparator;
@@ -76,10 +98,22 @@ public final class EvictionPolicyEvaluatorProvider {
             if (comparator != null) {
                 evictionPolicyComparator = comparator;
             } else {
-                evictionPolicyComparator = createEvictionPolicyComparator(evictionConfig.getEvictionPolicy());
+                evictionPolicyComparator = createEvictionPolicyComparator(evictionConfig.getEvictionPolicy(),
+                        expectedEntryCount);
             }
         }
 
         return new EvictionPolicyEvaluator<A, E>(evictionPolicyComparator);
     }
+
+    private static int getExpectedEntryCount(EvictionConfiguration evictionConfig) {
+        if (evictionConfig instanceof EvictionConfig) {
+            EvictionConfig config = (EvictionConfig) evictionConfig;
+            int size = config.getSize();
+            if (config.getMaximumSizePolicy() == MaxSizePolicy.ENTRY_COUNT && size > 0 && size < Integer.MAX_VALUE) {
+                return size;
+            }
+        }
+        return DEFAULT_EXPECTED_ENTRY_COUNT;
+    }
 }
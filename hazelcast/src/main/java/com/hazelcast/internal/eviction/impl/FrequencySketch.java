@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * A Count-Min sketch estimating how often keys have been accessed, used by the
+ * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU TINY_LFU} eviction policy.
+ * <p>
+ * Each key is counted by {@value #DEPTH} 4-bit counters, picked by different hash functions out of a table of
+ * {@code long}s packing 16 counters each. The table has a {@code long} per expected entry, so the sketch costs
+ * 8 bytes per entry, and the estimated frequency of a key is the minimum of its counters. The counters are
+ * incremented by CAS, so the sketch can be updated without locking from the read path of any thread.
+ * <p>
+ * To follow changes of the access pattern, all counters are halved once the number of increments reaches ten
+ * times the expected number of entries, so the frequencies of keys which are no longer accessed decay.
+ */
+public final class FrequencySketch {
+
+    /**
+     * The maximum frequency estimated for a key.
+     */
+    public static final int MAX_FREQUENCY = 15;
+
+    /**
+     * The number of entries to expect when the maximum size of a data structure is not an entry count.
+     */
+    public static final int DEFAULT_EXPECTED_ENTRY_COUNT = 1 << 16;
+
+    static final int DEPTH = 4;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 20;
+    private static final int SAMPLE_SIZE_MULTIPLIER = 10;
+    private static final int COUNTER_BITS = 4;
+    private static final long COUNTER_MASK = 0xFL;
+    // clears the highest bit of every counter after a shift, so no counter borrows a bit of its neighbour
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L,
+    };
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean resetting = new AtomicBoolean();
+
+    /**
+     * Creates a sketch for the given expected number of entries, bounded to 2^20 entries (8 MB).
+     *
+     * @param expectedEntryCount the maximum number of entries expected in the data structure
+     */
+    public FrequencySketch(int expectedEntryCount) {
+        checkPositive(expectedEntryCount, "expectedEntryCount should be positive");
+        int capacity = nextPowerOfTwo(Math.max(MIN_CAPACITY, Math.min(expectedEntryCount, MAX_CAPACITY)));
+        this.table = new AtomicLongArray(capacity);
+        this.tableMask = capacity - 1;
+        this.sampleSize = capacity * SAMPLE_SIZE_MULTIPLIER;
+    }
+
+    /**
+     * Returns the hash of the given key to count it in a sketch. Serialized keys are hashed on their
+     * serialized form, so a key must always be counted either serialized or deserialized.
+     *
+     * @param key the key
+     * @return the hash of the key
+     */
+    public static long hash(Object key) {
+        long hash = key instanceof Data ? ((Data) key).hash64() : key.hashCode();
+        return MurmurHash3_fmix(hash);
+    }
+
+    /**
+     * Counts an access to the key of the given hash.
+     *
+     * @param hash the hash of the key, see {@link #hash(Object)}
+     */
+    public void increment(long hash) {
+        int start = firstCounter(hash);
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && size.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the estimated number of accesses to the key of the given hash, up to {@link #MAX_FREQUENCY}.
+     *
+     * @param hash the hash of the key, see {@link #hash(Object)}
+     * @return the estimated frequency of the key
+     */
+    public int frequency(long hash) {
+        int start = firstCounter(hash);
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < DEPTH; i++) {
+            long value = table.get(indexOf(hash, i));
+            int count = (int) ((value >>> ((start + i) * COUNTER_BITS)) & COUNTER_MASK);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Selects one of the four groups of {@value #DEPTH} counters in a {@code long}; the i-th hash function uses
+     * the i-th counter of the group.
+     */
+    private static int firstCounter(long hash) {
+        return ((int) hash & (DEPTH - 1)) * DEPTH;
+    }
+
+    private int indexOf(long hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> Integer.SIZE;
+        return (int) h & tableMask;
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter * COUNTER_BITS;
+        long mask = COUNTER_MASK << offset;
+        for (;;) {
+            long value = table.get(index);
+            if ((value & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, value, value + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Halves all counters. Concurrent increments are not blocked, they may just be halved or not.
+     */
+    private void reset() {
+        if (!resetting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < table.length(); i++) {
+                long value;
+                do {
+                    value = table.get(i);
+                } while (!table.compareAndSet(i, value, (value >>> 1) & RESET_MASK));
+            }
+            size.addAndGet(-(sampleSize / 2));
+        } finally {
+            resetting.set(false);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl.comparator;
+
+import com.hazelcast.internal.eviction.EvictableEntryView;
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.internal.eviction.EvictionPolicyComparator;
+import com.hazelcast.internal.eviction.Expirable;
+import com.hazelcast.internal.eviction.impl.FrequencySketch;
+import com.hazelcast.nio.serialization.SerializableByConvention;
+import com.hazelcast.util.Clock;
+
+import static com.hazelcast.internal.eviction.impl.FrequencySketch.hash;
+
+/**
+ * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU} policy based {@link EvictionPolicyComparator}.
+ * <p>
+ * Entries are compared by the access frequencies of their keys estimated by a {@link FrequencySketch}, and by
+ * {@link com.hazelcast.config.EvictionPolicy#LRU LRU} when the frequencies are equal. Unlike the hits of an
+ * entry, the sketch also counts the accesses to keys which are not stored, so the data structure has to
+ * {@link #recordAccess(Object) record} every read access, hit or miss. Data structures which may drop a new
+ * entry instead of storing it, like the Near Cache, can ask the comparator whether the new entry should be
+ * {@link #admit(Object, EvictableEntryView) admitted} in place of the eviction candidate.
+ */
+@SerializableByConvention
+public class TinyLfuEvictionPolicyComparator extends EvictionPolicyComparator {
+
+    private static final LRUEvictionPolicyComparator LRU = new LRUEvictionPolicyComparator();
+
+    private final transient FrequencySketch sketch;
+
+    /**
+     * @param expectedEntryCount the maximum number of entries expected in the data structure
+     */
+    public TinyLfuEvictionPolicyComparator(int expectedEntryCount) {
+        this.sketch = new FrequencySketch(expectedEntryCount);
+    }
+
+    /**
+     * Counts a read access to the given key, whether the key is stored or not.
+     *
+     * @param key the accessed key, in the form used by the eviction candidates of the data structure
+     */
+    public void recordAccess(Object key) {
+        sketch.increment(hash(key));
+    }
+
+    /**
+     * Decides whether a new entry of the given key should be stored in place of the given eviction candidate,
+     * i.e. whether the key has been accessed more frequently than the key of the candidate. An expired
+     * candidate is always replaced.
+     *
+     * @param key    the key of the new entry
+     * @param victim the eviction candidate
+     * @return {@code true} if the candidate should be evicted and the new entry stored, {@code false} if the
+     * new entry should be dropped
+     */
+    public boolean admit(Object key, EvictableEntryView victim) {
+        if (victim instanceof EvictionCandidate) {
+            Object evictable = ((EvictionCandidate) victim).getEvictable();
+            if (evictable instanceof Expirable && ((Expirable) evictable).isExpiredAt(Clock.currentTimeMillis())) {
+                return true;
+            }
+        }
+        return sketch.frequency(hash(key)) > sketch.frequency(hash(keyOf(victim)));
+    }
+
+    @Override
+    public int compare(EvictableEntryView e1, EvictableEntryView e2) {
+        int frequency1 = sketch.frequency(hash(keyOf(e1)));
+        int frequency2 = sketch.frequency(hash(keyOf(e2)));
+        if (frequency2 < frequency1) {
+            return SECOND_ENTRY_HAS_HIGHER_PRIORITY_TO_BE_EVICTED;
+        } else if (frequency1 < frequency2) {
+            return FIRST_ENTRY_HAS_HIGHER_PRIORITY_TO_BE_EVICTED;
+        } else {
+            return LRU.compare(e1, e2);
+        }
+    }
+
+    /**
+     * Returns the key of the given entry without deserializing it, if the entry is an eviction candidate.
+     */
+    private static Object keyOf(EvictableEntryView entry) {
+        return entry instanceof EvictionCandidate ? ((EvictionCandidate) entry).getAccessor() : entry.getKey();
+    }
+}
@@ -20,6 +20,7 @@ import com.hazelcast.internal.eviction.Evictable;
 import com.hazelcast.internal.eviction.EvictionCandidate;
 import com.hazelcast.internal.eviction.EvictionListener;
 import com.hazelcast.internal.eviction.EvictionChecker;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 
 /**
@@ -60,6 +61,39 @@ public final class SamplingEvictionStrategy<A, E extends Evictable, S extends Sa
         }
     }
 
+    /**
+     * Does eviction if required to store a new entry of the given key, as of
+     * {@link com.hazelcast.config.EvictionPolicy#TINY_LFU}: the selected eviction candidate is only evicted,
+     * and the new entry admitted, if the key has been accessed more frequently than the key of the candidate.
+     *
+     * @param evictableStore          Store that holds {@link Evictable} entries
+     * @param evictionPolicyEvaluator {@link EvictionPolicyEvaluator} of a {@link TinyLfuEvictionPolicyComparator}
+     * @param evictionChecker         {@link EvictionChecker} to check whether max size is reached, therefore
+     *                                eviction is required or not.
+     * @param evictionListener        {@link EvictionListener} to listen evicted entries
+     * @param key                     the key of the new entry
+     *
+     * @return true if the new entry can be stored, false if it should be dropped
+     */
+    public boolean evictForAdmission(S evictableStore, EvictionPolicyEvaluator<A, E> evictionPolicyEvaluator,
+                                     EvictionChecker evictionChecker, EvictionListener<A, E> evictionListener, Object key) {
+        if (!evictionChecker.isEvictionRequired()) {
+            return true;
+        }
+        final Iterable<EvictionCandidate<A, E>> samples = evictableStore.sample(SAMPLE_COUNT);
+        final EvictionCandidate<A, E> evictionCandidate = evictionPolicyEvaluator.evaluate(samples);
+        if (evictionCandidate == null) {
+            return true;
+        }
+        TinyLfuEvictionPolicyComparator comparator =
+                (TinyLfuEvictionPolicyComparator) evictionPolicyEvaluator.getEvictionPolicyComparator();
+        if (!comparator.admit(key, evictionCandidate)) {
+            return false;
+        }
+        evictableStore.tryEvict(evictionCandidate, evictionListener);
+        return true;
+    }
+
     /**
      * Processes sampling based eviction logic on {@link SampleableEvictableStore}.
      *
@@ -0,0 +1,571 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM_AVAILABLE;
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.metrics.ProbeUnit.PERCENT;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static com.hazelcast.util.Preconditions.checkTrue;
+import static com.hazelcast.util.QuickMath.isPowerOfTwo;
+import static com.hazelcast.util.QuickMath.log2;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * {@link MemoryManager} which serves allocations from power-of-two size classes carved out of fixed-size pages.
+ * Corresponds to the {@link com.hazelcast.config.NativeMemoryConfig.MemoryAllocatorType#POOLED POOLED}
+ * allocator type.
+ * <p>
+ * Pages are allocated from the OS lazily, in chunks of consecutive pages, and handed out to <i>arenas</i> on
+ * demand. Each page is dedicated to a single size class, so a block needs no header: the arena which owns a
+ * block and its size class are looked up from the page which the block belongs to. Blocks larger than a page
+ * are allocated directly from the OS.
+ * <p>
+ * There is an arena for each partition operation thread, so the owner of a partition allocates and frees
+ * the memory of its data structures without any contention. A block freed by a thread other than the owner of
+ * its arena is pushed to a lock-free stack of the arena, from which the owner reclaims it on a later allocation.
+ * All other threads share a single arena guarded by a lock.
+ * <p>
+ * Pages are never given back once they are assigned to a size class; {@link #getFragmentation()} reports
+ * the share of committed memory which is not in use. {@link #dispose()} frees all the chunks and all the
+ * blocks larger than a page which are still allocated.
+ */
+@SuppressWarnings("checkstyle:methodcount")
+public class PooledMemoryManager implements MemoryManager {
+
+    // minimum block size is bounded by the free-list pointer stored in each free block
+    private static final int MIN_BLOCK_SIZE = LONG_SIZE_IN_BYTES;
+    private static final int SIZE_CLASS_BITS = 8;
+    private static final int SIZE_CLASS_MASK = (1 << SIZE_CLASS_BITS) - 1;
+    private static final double HUNDRED = 100d;
+    // lower bound on the size of a chunk of pages, so small pages don't need a chunk each
+    private static final int MIN_CHUNK_SIZE = 1 << 24;
+
+    private final Allocator malloc = new Allocator();
+    private final long maxMemory;
+    private final int pageSize;
+    private final int minBlockShift;
+    private final int sizeClassCount;
+
+    private final int pageCount;
+    private final int chunkPageCount;
+    // guards the assignment of pages and the allocation of chunks
+    private final Object pageLock = new Object();
+    private volatile int assignedPageCount;
+    // base address of the most recently allocated chunk, which holds the next page to assign
+    private long lastChunkAddress;
+    // for each assigned page: index of the owner arena and the size class of the page's blocks.
+    // A page is assigned before any of its blocks is handed out, so the entry of a page is always
+    // visible to the thread which frees one of its blocks.
+    private final int[] pageInfos;
+    // allocated chunks as (base address, index of the first page) pairs, sorted by base address;
+    // replaced as a whole when a chunk is allocated
+    private volatile long[] chunks = new long[0];
+    // address to size of the blocks larger than a page, so they can be freed on dispose
+    private final ConcurrentMap<Long, Long> externalBlocks = new ConcurrentHashMap<Long, Long>();
+
+    private final AtomicLong committedMemory = new AtomicLong();
+    private final AtomicLong externalMemory = new AtomicLong();
+    private final AtomicLong chunkMemory = new AtomicLong();
+    private final Arena[] arenas;
+    private final Arena sharedArena;
+
+    public PooledMemoryManager(long maxMemory, int minBlockSize, int pageSize, int partitionThreadCount) {
+        if (!UNSAFE_AVAILABLE || !MEM_AVAILABLE) {
+            throw new IllegalStateException("Native memory cannot be used since sun.misc.Unsafe is not available");
+        }
+        checkPositive(minBlockSize, "minBlockSize should be positive");
+        checkTrue(isPowerOfTwo(minBlockSize), "minBlockSize should be a power of two");
+        checkTrue(isPowerOfTwo(pageSize), "pageSize should be a power of two");
+        checkTrue(pageSize >= minBlockSize, "pageSize should not be smaller than minBlockSize");
+        checkTrue(maxMemory >= pageSize, "maxMemory should not be smaller than pageSize");
+        checkPositive(partitionThreadCount, "partitionThreadCount should be positive");
+
+        this.maxMemory = maxMemory;
+        this.pageSize = pageSize;
+        this.minBlockShift = log2(Math.max(minBlockSize, MIN_BLOCK_SIZE));
+        this.sizeClassCount = log2(pageSize) - minBlockShift + 1;
+        this.pageCount = (int) Math.min(maxMemory / pageSize, Integer.MAX_VALUE);
+        this.chunkPageCount = Math.max(MIN_CHUNK_SIZE / pageSize, 1);
+        this.pageInfos = new int[pageCount];
+
+        this.arenas = new Arena[partitionThreadCount];
+        for (int i = 0; i < partitionThreadCount; i++) {
+            arenas[i] = new Arena(i);
+        }
+        this.sharedArena = new Arena(partitionThreadCount);
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() {
+        return malloc;
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return MEM;
+    }
+
+    @Override
+    public void dispose() {
+        malloc.dispose();
+    }
+
+    /**
+     * @return the upper bound on the number of committed bytes
+     */
+    @Probe(unit = BYTES)
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * @return the number of bytes in pages assigned to size classes and in blocks larger than a page
+     */
+    @Probe(unit = BYTES)
+    public long getCommittedMemory() {
+        return committedMemory.get();
+    }
+
+    /**
+     * @return the number of bytes in allocated blocks, including the round-up to the size class
+     */
+    @Probe(unit = BYTES)
+    public long getUsedMemory() {
+        long used = externalMemory.get();
+        for (Arena arena : arenas) {
+            used += arena.usedMemory();
+        }
+        return used + sharedArena.usedMemory();
+    }
+
+    /**
+     * @return the number of bytes in blocks larger than a page, which are allocated directly from the OS
+     */
+    @Probe(unit = BYTES)
+    public long getExternalMemory() {
+        return externalMemory.get();
+    }
+
+    /**
+     * @return the number of bytes in the chunks of pages allocated from the OS, including pages not assigned yet
+     */
+    @Probe(unit = BYTES)
+    public long getChunkMemory() {
+        return chunkMemory.get();
+    }
+
+    /**
+     * @return the number of bytes which are not committed yet
+     */
+    @Probe(unit = BYTES)
+    public long getFreeMemory() {
+        return maxMemory - committedMemory.get();
+    }
+
+    /**
+     * @return the percentage of committed memory which is not used by any allocated block
+     */
+    @Probe(unit = PERCENT)
+    public double getFragmentation() {
+        long committed = committedMemory.get();
+        if (committed == 0) {
+            return 0;
+        }
+        long used = getUsedMemory();
+        return committed > used ? HUNDRED * (committed - used) / committed : 0;
+    }
+
+    /**
+     * @return the total number of allocations; the allocation rate is the change of this value over time
+     */
+    @Probe
+    public long getAllocationCount() {
+        long count = 0;
+        for (Arena arena : arenas) {
+            count += arena.allocationCount.get();
+        }
+        return count + sharedArena.allocationCount.get();
+    }
+
+    /**
+     * @return the total number of frees
+     */
+    @Probe
+    public long getFreeCount() {
+        long count = 0;
+        for (Arena arena : arenas) {
+            count += arena.freeCount.get() + arena.remoteFreeCount.get();
+        }
+        return count + sharedArena.freeCount.get();
+    }
+
+    /**
+     * @return the number of pages assigned to size classes
+     */
+    @Probe
+    public int getAssignedPageCount() {
+        return assignedPageCount;
+    }
+
+    private boolean isExternal(long size) {
+        return size > pageSize;
+    }
+
+    private int sizeClass(long size) {
+        int shift = log2(nextPowerOfTwo(size));
+        return shift > minBlockShift ? shift - minBlockShift : 0;
+    }
+
+    private long blockSize(int sizeClass) {
+        return 1L << (sizeClass + minBlockShift);
+    }
+
+    private int pageIndex(long address) {
+        long[] chunks = this.chunks;
+        // binary search for the last chunk based at or below the address
+        int low = 0;
+        int high = chunks.length / 2 - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunks[2 * mid] <= address) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        long base = chunks[2 * low];
+        assert address >= base && address < base + (long) chunkPageCount * pageSize
+                : "Address " + address + " was not allocated by this memory manager";
+        return (int) chunks[2 * low + 1] + (int) ((address - base) / pageSize);
+    }
+
+    private Arena currentArena() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof PartitionOperationThread) {
+            Arena arena = arenas[((PartitionOperationThread) thread).getThreadId() % arenas.length];
+            if (arena.isOwnedBy(thread)) {
+                return arena;
+            }
+        }
+        return null;
+    }
+
+    private void reserve(long size) {
+        for (; ; ) {
+            long committed = committedMemory.get();
+            long newCommitted = committed + size;
+            if (newCommitted > maxMemory) {
+                throw new NativeOutOfMemoryError(String.format(
+                        "Cannot allocate %,d bytes. Committed: %,d bytes, used: %,d bytes, max: %,d bytes",
+                        size, committed, getUsedMemory(), maxMemory));
+            }
+            if (committedMemory.compareAndSet(committed, newCommitted)) {
+                return;
+            }
+        }
+    }
+
+    private long allocateExternal(long size) {
+        reserve(size);
+        long address;
+        try {
+            address = UNSAFE.allocateMemory(size);
+        } catch (OutOfMemoryError e) {
+            committedMemory.addAndGet(-size);
+            throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes from the OS", e);
+        }
+        externalBlocks.put(address, size);
+        externalMemory.addAndGet(size);
+        return address;
+    }
+
+    private void freeExternal(long address, long size) {
+        externalBlocks.remove(address);
+        UNSAFE.freeMemory(address);
+        externalMemory.addAndGet(-size);
+        committedMemory.addAndGet(-size);
+    }
+
+    /**
+     * @return the base address of a newly assigned page, or {@link MemoryAllocator#NULL_ADDRESS} if all pages are taken
+     */
+    private long assignPage(int arenaIndex, int sizeClass) {
+        synchronized (pageLock) {
+            int page = assignedPageCount;
+            if (page == pageCount) {
+                return NULL_ADDRESS;
+            }
+            reserve(pageSize);
+            int pageInChunk = page % chunkPageCount;
+            long chunkAddress;
+            try {
+                chunkAddress = pageInChunk == 0 ? allocateChunk(page) : lastChunkAddress;
+            } catch (NativeOutOfMemoryError e) {
+                committedMemory.addAndGet(-pageSize);
+                throw e;
+            }
+            pageInfos[page] = arenaIndex << SIZE_CLASS_BITS | sizeClass;
+            assignedPageCount = page + 1;
+            return chunkAddress + (long) pageInChunk * pageSize;
+        }
+    }
+
+    /**
+     * Allocates the chunk starting with the given page and adds it to the sorted chunk table.
+     * Called under the page lock.
+     */
+    private long allocateChunk(int firstPage) {
+        long size = (long) Math.min(chunkPageCount, pageCount - firstPage) * pageSize;
+        long address;
+        try {
+            address = UNSAFE.allocateMemory(size);
+        } catch (OutOfMemoryError e) {
+            throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes from the OS", e);
+        }
+        long[] oldChunks = chunks;
+        long[] newChunks = new long[oldChunks.length + 2];
+        int insertAt = 0;
+        while (insertAt < oldChunks.length && oldChunks[insertAt] < address) {
+            insertAt += 2;
+        }
+        System.arraycopy(oldChunks, 0, newChunks, 0, insertAt);
+        newChunks[insertAt] = address;
+        newChunks[insertAt + 1] = firstPage;
+        System.arraycopy(oldChunks, insertAt, newChunks, insertAt + 2, oldChunks.length - insertAt);
+        chunks = newChunks;
+        chunkMemory.addAndGet(size);
+        lastChunkAddress = address;
+        return address;
+    }
+
+    /**
+     * A set of free lists, one per size class. A partition arena is used by the partition
+     * thread which first allocated from it, the shared arena is accessed only under its lock.
+     */
+    private final class Arena {
+
+        final int index;
+        final long[] freeLists = new long[sizeClassCount];
+        final long[] bumpAddresses = new long[sizeClassCount];
+        final long[] bumpLimits = new long[sizeClassCount];
+        // singly linked stack of blocks freed by threads other than the owner, through the first word of each block
+        final AtomicLong remoteFrees = new AtomicLong(NULL_ADDRESS);
+
+        final SwCounter allocatedMemory = newSwCounter();
+        final SwCounter allocationCount = newSwCounter();
+        final SwCounter freeCount = newSwCounter();
+        final MwCounter remoteFreedMemory = newMwCounter();
+        final MwCounter remoteFreeCount = newMwCounter();
+
+        volatile Thread owner;
+
+        Arena(int index) {
+            this.index = index;
+        }
+
+        boolean isOwnedBy(Thread thread) {
+            Thread currentOwner = owner;
+            if (currentOwner == null) {
+                // arenas are bound lazily, the partition threads don't exist yet when the manager is created
+                synchronized (this) {
+                    if (owner == null) {
+                        owner = thread;
+                    }
+                    currentOwner = owner;
+                }
+            }
+            return currentOwner == thread;
+        }
+
+        long usedMemory() {
+            return allocatedMemory.get() - remoteFreedMemory.get();
+        }
+
+        long allocate(int sizeClass) {
+            long address = freeLists[sizeClass];
+            if (address == NULL_ADDRESS && remoteFrees.get() != NULL_ADDRESS) {
+                reclaimRemoteFrees();
+                address = freeLists[sizeClass];
+            }
+            if (address != NULL_ADDRESS) {
+                freeLists[sizeClass] = MEM.getLong(address);
+            } else {
+                address = bumpAllocate(sizeClass);
+            }
+            allocatedMemory.inc(blockSize(sizeClass));
+            allocationCount.inc();
+            return address;
+        }
+
+        private long bumpAllocate(int sizeClass) {
+            long blockSize = blockSize(sizeClass);
+            long address = bumpAddresses[sizeClass];
+            if (address == NULL_ADDRESS || address + blockSize > bumpLimits[sizeClass]) {
+                address = assignPage(index, sizeClass);
+                if (address == NULL_ADDRESS) {
+                    throw new NativeOutOfMemoryError(String.format(
+                            "Cannot allocate %,d bytes, all %,d pages are in use. Committed: %,d bytes, used: %,d bytes",
+                            blockSize, pageCount, committedMemory.get(), getUsedMemory()));
+                }
+                bumpLimits[sizeClass] = address + pageSize;
+            }
+            bumpAddresses[sizeClass] = address + blockSize;
+            return address;
+        }
+
+        void free(long address, int sizeClass) {
+            MEM.putLong(address, freeLists[sizeClass]);
+            freeLists[sizeClass] = address;
+            allocatedMemory.inc(-blockSize(sizeClass));
+            freeCount.inc();
+        }
+
+        void remoteFree(long address, int sizeClass) {
+            // accounted before the push, so the owner never reclaims a block which is not accounted yet
+            remoteFreedMemory.inc(blockSize(sizeClass));
+            remoteFreeCount.inc();
+            for (; ; ) {
+                long head = remoteFrees.get();
+                MEM.putLong(address, head);
+                if (remoteFrees.compareAndSet(head, address)) {
+                    return;
+                }
+            }
+        }
+
+        private void reclaimRemoteFrees() {
+            long address = remoteFrees.getAndSet(NULL_ADDRESS);
+            while (address != NULL_ADDRESS) {
+                long next = MEM.getLong(address);
+                int sizeClass = pageInfos[pageIndex(address)] & SIZE_CLASS_MASK;
+                MEM.putLong(address, freeLists[sizeClass]);
+                freeLists[sizeClass] = address;
+                // move the accounting of the block from the remote counter back to the owner
+                allocatedMemory.inc(-blockSize(sizeClass));
+                remoteFreedMemory.inc(-blockSize(sizeClass));
+                address = next;
+            }
+        }
+    }
+
+    private final class Allocator implements MemoryAllocator {
+
+        @Override
+        public long allocate(long size) {
+            assert size > 0 : "PooledMemoryManager.allocate(" + size + ")";
+            long address;
+            if (isExternal(size)) {
+                address = allocateExternal(size);
+            } else {
+                int sizeClass = sizeClass(size);
+                Arena arena = currentArena();
+                if (arena != null) {
+                    address = arena.allocate(sizeClass);
+                } else {
+                    synchronized (sharedArena) {
+                        address = sharedArena.allocate(sizeClass);
+                    }
+                }
+            }
+            UNSAFE.setMemory(address, size, (byte) 0);
+            return address;
+        }
+
+        @Override
+        public long reallocate(long address, long currentSize, long newSize) {
+            assert newSize > 0 : "PooledMemoryManager.reallocate(" + newSize + ")";
+            if (!isExternal(currentSize) && !isExternal(newSize) && sizeClass(currentSize) == sizeClass(newSize)) {
+                if (newSize > currentSize) {
+                    UNSAFE.setMemory(address + currentSize, newSize - currentSize, (byte) 0);
+                }
+                return address;
+            }
+            long newAddress = allocate(newSize);
+            UNSAFE.copyMemory(address, newAddress, Math.min(currentSize, newSize));
+            free(address, currentSize);
+            return newAddress;
+        }
+
+        @Override
+        public void free(long address, long size) {
+            assert address != NULL_ADDRESS : "Attempt to free NULL_ADDRESS";
+            if (isExternal(size)) {
+                freeExternal(address, size);
+                return;
+            }
+
+            int pageInfo = pageInfos[pageIndex(address)];
+            int sizeClass = pageInfo & SIZE_CLASS_MASK;
+            int arenaIndex = pageInfo >>> SIZE_CLASS_BITS;
+            assert sizeClass == sizeClass(size) : "Size " + size + " does not match the size class of the block";
+
+            if (arenaIndex == sharedArena.index) {
+                synchronized (sharedArena) {
+                    sharedArena.free(address, sizeClass);
+                }
+                return;
+            }
+            Arena arena = arenas[arenaIndex];
+            if (arena.owner == Thread.currentThread()) {
+                arena.free(address, sizeClass);
+            } else {
+                arena.remoteFree(address, sizeClass);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            synchronized (pageLock) {
+                long[] chunks = PooledMemoryManager.this.chunks;
+                for (int i = 0; i < chunks.length; i += 2) {
+                    UNSAFE.freeMemory(chunks[i]);
+                }
+                PooledMemoryManager.this.chunks = new long[0];
+                chunkMemory.set(0);
+            }
+            for (Map.Entry<Long, Long> entry : externalBlocks.entrySet()) {
+                if (externalBlocks.remove(entry.getKey()) != null) {
+                    UNSAFE.freeMemory(entry.getKey());
+                    externalMemory.addAndGet(-entry.getValue());
+                    committedMemory.addAndGet(-entry.getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM;
+import static com.hazelcast.internal.memory.GlobalMemoryAccessorRegistry.MEM_AVAILABLE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE;
+import static com.hazelcast.internal.memory.impl.UnsafeUtil.UNSAFE_AVAILABLE;
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * {@link MemoryManager} which allocates each block directly from the OS (via {@code Unsafe.allocateMemory()})
+ * and enforces an upper bound on the total number of allocated bytes. Corresponds to the
+ * {@link com.hazelcast.config.NativeMemoryConfig.MemoryAllocatorType#STANDARD STANDARD} allocator type.
+ * <p>
+ * The allocator is thread-safe. Blocks are never freed implicitly: it is the caller's duty to
+ * {@link MemoryAllocator#free(long, long) free} every block it allocated before disposing of this manager.
+ */
+public class StandardMemoryManager implements MemoryManager {
+
+    private final Allocator malloc = new Allocator();
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final long maxMemory;
+
+    public StandardMemoryManager(long maxMemory) {
+        if (!UNSAFE_AVAILABLE || !MEM_AVAILABLE) {
+            throw new IllegalStateException("Native memory cannot be used since sun.misc.Unsafe is not available");
+        }
+        this.maxMemory = checkPositive(maxMemory, "maxMemory should be positive");
+    }
+
+    @Override
+    public MemoryAllocator getAllocator() {
+        return malloc;
+    }
+
+    @Override
+    public MemoryAccessor getAccessor() {
+        return MEM;
+    }
+
+    /**
+     * @return the number of bytes currently allocated through this manager
+     */
+    @Probe(unit = BYTES)
+    public long getUsedMemory() {
+        return usedMemory.get();
+    }
+
+    /**
+     * @return the upper bound on the number of bytes that can be allocated through this manager
+     */
+    @Probe(unit = BYTES)
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    @Override
+    public void dispose() {
+        malloc.dispose();
+    }
+
+    private void reserve(long size) {
+        for (; ; ) {
+            long used = usedMemory.get();
+            long newUsed = used + size;
+            if (newUsed > maxMemory) {
+                throw new NativeOutOfMemoryError(String.format(
+                        "Cannot allocate %,d bytes. Used: %,d bytes, max: %,d bytes", size, used, maxMemory));
+            }
+            if (usedMemory.compareAndSet(used, newUsed)) {
+                return;
+            }
+        }
+    }
+
+    private final class Allocator implements MemoryAllocator {
+
+        @Override
+        public long allocate(long size) {
+            assert size > 0 : "StandardMemoryManager.allocate(" + size + ")";
+            reserve(size);
+            long address;
+            try {
+                address = UNSAFE.allocateMemory(size);
+            } catch (OutOfMemoryError e) {
+                usedMemory.addAndGet(-size);
+                throw new NativeOutOfMemoryError("Cannot allocate " + size + " bytes from the OS", e);
+            }
+            UNSAFE.setMemory(address, size, (byte) 0);
+            return address;
+        }
+
+        @Override
+        public long reallocate(long address, long currentSize, long newSize) {
+            assert newSize > 0 : "StandardMemoryManager.reallocate(" + newSize + ")";
+            long diff = newSize - currentSize;
+            if (diff > 0) {
+                reserve(diff);
+            }
+            long newAddress;
+            try {
+                newAddress = UNSAFE.reallocateMemory(address, newSize);
+            } catch (OutOfMemoryError e) {
+                if (diff > 0) {
+                    usedMemory.addAndGet(-diff);
+                }
+                throw new NativeOutOfMemoryError("Cannot reallocate to " + newSize + " bytes", e);
+            }
+            if (diff > 0) {
+                UNSAFE.setMemory(newAddress + currentSize, diff, (byte) 0);
+            } else {
+                usedMemory.addAndGet(diff);
+            }
+            return newAddress;
+        }
+
+        @Override
+        public void free(long address, long size) {
+            assert address != NULL_ADDRESS : "Attempt to free NULL_ADDRESS";
+            UNSAFE.freeMemory(address);
+            usedMemory.addAndGet(-size);
+        }
+
+        @Override
+        public void dispose() {
+            // each block is owned by the data structure which allocated it
+        }
+    }
+}
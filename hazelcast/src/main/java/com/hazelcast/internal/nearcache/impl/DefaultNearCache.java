@@ -20,8 +20,10 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.nearcache.NearCache;
 import com.hazelcast.internal.nearcache.NearCacheRecordStore;
+import com.hazelcast.internal.nearcache.impl.nativememory.NativeNearCacheRecordStore;
 import com.hazelcast.internal.nearcache.impl.store.NearCacheDataRecordStore;
 import com.hazelcast.internal.nearcache.impl.store.NearCacheObjectRecordStore;
 import com.hazelcast.monitor.NearCacheStats;
@@ -44,6 +46,7 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
     protected final SerializationService serializationService;
     protected final TaskScheduler scheduler;
     protected final ClassLoader classLoader;
+    protected final MemoryManager memoryManager;
 
     protected NearCacheRecordStore<K, V> nearCacheRecordStore;
     protected ScheduledFuture expirationTaskFuture;
@@ -61,10 +64,22 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
     public DefaultNearCache(String name, NearCacheConfig nearCacheConfig, NearCacheRecordStore<K, V> nearCacheRecordStore,
                             SerializationService serializationService, TaskScheduler scheduler,
                             ClassLoader classLoader) {
+        this(name, nearCacheConfig, nearCacheRecordStore, serializationService, scheduler, classLoader, null);
+    }
+
+    /**
+     * @param memoryManager the {@link MemoryManager} to allocate the records of a
+     *                      {@link InMemoryFormat#NATIVE NATIVE} Near Cache from, {@code null} if native memory
+     *                      is not enabled
+     */
+    public DefaultNearCache(String name, NearCacheConfig nearCacheConfig, NearCacheRecordStore<K, V> nearCacheRecordStore,
+                            SerializationService serializationService, TaskScheduler scheduler,
+                            ClassLoader classLoader, MemoryManager memoryManager) {
         this.name = name;
         this.nearCacheConfig = nearCacheConfig;
         this.serializationService = serializationService;
         this.classLoader = classLoader;
+        this.memoryManager = memoryManager;
         this.scheduler = scheduler;
         this.nearCacheRecordStore = nearCacheRecordStore;
         this.serializeKeys = nearCacheConfig.isSerializeKeys();
@@ -90,6 +105,13 @@ public class DefaultNearCache<K, V> implements NearCache<K, V> {
                 return new NearCacheDataRecordStore<K, V>(name, nearCacheConfig, serializationService, classLoader);
             case OBJECT:
                 return new NearCacheObjectRecordStore<K, V>(name, nearCacheConfig, serializationService, classLoader);
+            case NATIVE:
+                if (memoryManager == null) {
+                    throw new IllegalArgumentException("Enable native memory config to use NATIVE in-memory-format"
+                            + " for Near Cache " + name);
+                }
+                return new NativeNearCacheRecordStore<K, V>(name, nearCacheConfig, serializationService, classLoader,
+                        memoryManager);
             default:
                 throw new IllegalArgumentException("Invalid in memory format: " + inMemoryFormat);
         }
@@ -19,6 +19,7 @@ package com.hazelcast.internal.nearcache.impl;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.nearcache.NearCache;
 import com.hazelcast.internal.nearcache.NearCacheManager;
 import com.hazelcast.monitor.NearCacheStats;
@@ -42,6 +43,7 @@ public class DefaultNearCacheManager implements NearCacheManager {
     protected final TaskScheduler scheduler;
     protected final ClassLoader classLoader;
 
+    private final MemoryManager memoryManager;
     private final Queue<ScheduledFuture> preloadTaskFutures = new ConcurrentLinkedQueue<ScheduledFuture>();
     private final ConcurrentMap<String, NearCache> nearCacheMap = new ConcurrentHashMap<String, NearCache>();
     private final Object mutex = new Object();
@@ -49,12 +51,25 @@ public class DefaultNearCacheManager implements NearCacheManager {
     private volatile ScheduledFuture storageTaskFuture;
 
     public DefaultNearCacheManager(SerializationService ss, TaskScheduler es, ClassLoader classLoader) {
+        this(ss, es, classLoader, null);
+    }
+
+    /**
+     * Creates a Near Cache manager whose {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE} Near Caches
+     * allocate from the given {@link MemoryManager}. The manager takes the ownership of the memory manager and
+     * disposes it in {@link #destroyAllNearCaches()}.
+     *
+     * @param memoryManager the memory manager or {@code null} if native memory is not enabled
+     */
+    public DefaultNearCacheManager(SerializationService ss, TaskScheduler es, ClassLoader classLoader,
+                                   MemoryManager memoryManager) {
         assert ss != null;
         assert es != null;
 
         this.serializationService = ss;
         this.scheduler = es;
         this.classLoader = classLoader;
+        this.memoryManager = memoryManager;
     }
 
     @Override
@@ -94,7 +109,16 @@ public class DefaultNearCacheManager implements NearCacheManager {
     }
 
     protected <K, V> NearCache<K, V> createNearCache(String name, NearCacheConfig nearCacheConfig) {
-        return new DefaultNearCache<K, V>(name, nearCacheConfig, serializationService, scheduler, classLoader);
+        return new DefaultNearCache<K, V>(name, nearCacheConfig, null, serializationService, scheduler, classLoader,
+                getMemoryManager());
+    }
+
+    /**
+     * @return the {@link MemoryManager} of the {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE} Near Caches
+     * or {@code null} if native memory is not enabled
+     */
+    protected MemoryManager getMemoryManager() {
+        return memoryManager;
     }
 
     @Override
@@ -147,6 +171,10 @@ public class DefaultNearCacheManager implements NearCacheManager {
         if (storageTaskFuture != null) {
             storageTaskFuture.cancel(true);
         }
+
+        if (memoryManager != null) {
+            memoryManager.dispose();
+        }
     }
 
     private void createAndSchedulePreloadTask(NearCache nearCache, DataStructureAdapter adapter) {
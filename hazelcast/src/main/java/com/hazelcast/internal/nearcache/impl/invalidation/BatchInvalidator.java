@@ -37,15 +37,35 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.core.LifecycleEvent.LifecycleState.SHUTTING_DOWN;
+import static com.hazelcast.internal.util.ToHeapDataConverter.toHeapData;
 import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Sends invalidations to Near Cache in batches.
+ * <p>
+ * In adaptive mode the invalidator additionally:
+ * <ul>
+ * <li>drops the invalidation of a key if an invalidation of the same key from the same source is still
+ * waiting to be sent, since the pending invalidation is sent after the later write anyway</li>
+ * <li>doubles the batch size of a data structure, up to {@value #ADAPTIVE_MAX_BATCH_SIZE_MULTIPLIER} times
+ * the configured batch size, while its batches fill up faster than every
+ * {@value #ADAPTIVE_TARGET_FLUSH_INTERVAL_MILLIS} milliseconds, and halves it again when they don't</li>
+ * <li>sends {@link CompactBatchNearCacheInvalidation}s</li>
+ * </ul>
  */
 public class BatchInvalidator extends Invalidator {
 
+    static final int ADAPTIVE_MAX_BATCH_SIZE_MULTIPLIER = 16;
+    static final long ADAPTIVE_TARGET_FLUSH_INTERVAL_MILLIS = 100;
+
+    private static final long ADAPTIVE_TARGET_FLUSH_INTERVAL_NANOS = MILLISECONDS.toNanos(ADAPTIVE_TARGET_FLUSH_INTERVAL_MILLIS);
+
     private final String invalidationExecutorName;
 
     /**
@@ -65,16 +85,46 @@ public class BatchInvalidator extends Invalidator {
     private final ConcurrentMap<String, InvalidationQueue> invalidationQueues
             = new ConcurrentHashMap<String, InvalidationQueue>();
 
+    /**
+     * Creates an adaptive-window per data-structure-name.
+     */
+    private final ConstructorFunction<String, AdaptiveWindow> adaptiveWindowConstructor
+            = new ConstructorFunction<String, AdaptiveWindow>() {
+        @Override
+        public AdaptiveWindow createNew(String dataStructureName) {
+            return new AdaptiveWindow();
+        }
+    };
+
+    /**
+     * data-structure-name to adaptive-window mappings, only used in adaptive mode.
+     * <p>
+     * A window is always looked up before the queue of the same data structure and removed after it, so an
+     * invalidation is never offered to a removed queue while its key is pending in a live window.
+     */
+    private final ConcurrentMap<String, AdaptiveWindow> adaptiveWindows
+            = new ConcurrentHashMap<String, AdaptiveWindow>();
+
     private final int batchSize;
+    private final int maxBatchSize;
+    private final boolean adaptive;
     private final int batchFrequencySeconds;
     private final String nodeShutdownListenerId;
     private final AtomicBoolean runningBackgroundTask = new AtomicBoolean(false);
 
     public BatchInvalidator(String serviceName, int batchSize, int batchFrequencySeconds,
                             IFunction<EventRegistration, Boolean> eventFilter, NodeEngine nodeEngine) {
+        this(serviceName, batchSize, batchFrequencySeconds, false, eventFilter, nodeEngine);
+    }
+
+    public BatchInvalidator(String serviceName, int batchSize, int batchFrequencySeconds, boolean adaptive,
+                            IFunction<EventRegistration, Boolean> eventFilter, NodeEngine nodeEngine) {
         super(serviceName, eventFilter, nodeEngine);
 
         this.batchSize = batchSize;
+        this.maxBatchSize = adaptive ? (int) min((long) batchSize * ADAPTIVE_MAX_BATCH_SIZE_MULTIPLIER, Integer.MAX_VALUE)
+                : batchSize;
+        this.adaptive = adaptive;
         this.batchFrequencySeconds = batchFrequencySeconds;
         this.nodeShutdownListenerId = registerNodeShutdownListener();
         this.invalidationExecutorName = serviceName + getClass();
@@ -86,14 +136,27 @@ public class BatchInvalidator extends Invalidator {
         return super.newInvalidation(key, dataStructureName, sourceUuid, partitionId);
     }
 
+    @Override
+    protected boolean coalesceWithPending(Data key, String dataStructureName, String sourceUuid) {
+        if (!adaptive) {
+            return false;
+        }
+        AdaptiveWindow window = adaptiveWindowOf(dataStructureName);
+        String pendingSourceUuid = window.pendingKeys.putIfAbsent(toHeapData(key), sourceUuid);
+        // an invalidation from another source has to be sent, since the Near Cache of the
+        // pending source ignores the invalidations it caused itself
+        return sourceUuid.equals(pendingSourceUuid);
+    }
+
     @Override
     protected void invalidateInternal(Invalidation invalidation, int orderKey) {
         String dataStructureName = invalidation.getName();
+        int flushSize = adaptive ? adaptiveWindowOf(dataStructureName).flushSize : batchSize;
         InvalidationQueue invalidationQueue = invalidationQueueOf(dataStructureName);
         invalidationQueue.offer(invalidation);
 
-        if (invalidationQueue.size() >= batchSize) {
-            pollAndSendInvalidations(dataStructureName, invalidationQueue);
+        if (invalidationQueue.size() >= flushSize) {
+            pollAndSendInvalidations(dataStructureName, invalidationQueue, true);
         }
     }
 
@@ -101,7 +164,11 @@ public class BatchInvalidator extends Invalidator {
         return getOrPutIfAbsent(invalidationQueues, dataStructureName, invalidationQueueConstructor);
     }
 
-    private void pollAndSendInvalidations(String dataStructureName, InvalidationQueue invalidationQueue) {
+    private AdaptiveWindow adaptiveWindowOf(String dataStructureName) {
+        return getOrPutIfAbsent(adaptiveWindows, dataStructureName, adaptiveWindowConstructor);
+    }
+
+    private void pollAndSendInvalidations(String dataStructureName, InvalidationQueue invalidationQueue, boolean full) {
         assert invalidationQueue != null;
 
         if (!invalidationQueue.tryAcquire()) {
@@ -110,7 +177,11 @@ public class BatchInvalidator extends Invalidator {
 
         List<Invalidation> invalidations;
         try {
-            invalidations = pollInvalidations(invalidationQueue);
+            AdaptiveWindow window = adaptive ? adaptiveWindows.get(dataStructureName) : null;
+            invalidations = pollInvalidations(invalidationQueue, window);
+            if (window != null) {
+                window.onFlush(full);
+            }
         } finally {
             invalidationQueue.release();
         }
@@ -118,7 +189,7 @@ public class BatchInvalidator extends Invalidator {
         sendInvalidations(dataStructureName, invalidations);
     }
 
-    private List<Invalidation> pollInvalidations(InvalidationQueue<Invalidation> invalidationQueue) {
+    private List<Invalidation> pollInvalidations(InvalidationQueue<Invalidation> invalidationQueue, AdaptiveWindow window) {
         final int size = invalidationQueue.size();
 
         List<Invalidation> invalidations = new ArrayList<Invalidation>(size);
@@ -128,6 +199,11 @@ public class BatchInvalidator extends Invalidator {
             if (invalidation == null) {
                 break;
             }
+            if (window != null) {
+                // the key stops being pending before its invalidation is sent, so a write which
+                // is coalesced with it happened before the invalidation is sent
+                window.pendingKeys.remove(invalidation.getKey(), invalidation.getSourceUuid());
+            }
 
             invalidations.add(invalidation);
         }
@@ -139,7 +215,9 @@ public class BatchInvalidator extends Invalidator {
         // There will always be at least one listener which listens invalidations. This is the reason behind eager creation
         // of BatchNearCacheInvalidation instance here. There is a causality between listener and invalidation. Only if we have
         // a listener, we can have an invalidation, otherwise invalidations are not generated.
-        Invalidation invalidation = new BatchNearCacheInvalidation(dataStructureName, invalidations);
+        Invalidation invalidation = adaptive
+                ? new CompactBatchNearCacheInvalidation(dataStructureName, invalidations)
+                : new BatchNearCacheInvalidation(dataStructureName, invalidations);
 
         Collection<EventRegistration> registrations = eventService.getRegistrations(serviceName, dataStructureName);
         for (EventRegistration registration : registrations) {
@@ -165,7 +243,7 @@ public class BatchInvalidator extends Invalidator {
                 if (event.getState() == SHUTTING_DOWN) {
                     Set<Map.Entry<String, InvalidationQueue>> entries = invalidationQueues.entrySet();
                     for (Map.Entry<String, InvalidationQueue> entry : entries) {
-                        pollAndSendInvalidations(entry.getKey(), entry.getValue());
+                        pollAndSendInvalidations(entry.getKey(), entry.getValue(), false);
                     }
                 }
             }
@@ -199,15 +277,42 @@ public class BatchInvalidator extends Invalidator {
                 String name = entry.getKey();
                 InvalidationQueue invalidationQueue = entry.getValue();
                 if (invalidationQueue.size() > 0) {
-                    pollAndSendInvalidations(name, invalidationQueue);
+                    pollAndSendInvalidations(name, invalidationQueue, false);
                 }
             }
         }
     }
 
+    /**
+     * The keys with pending invalidations and the adaptive batch size of a data structure.
+     */
+    private final class AdaptiveWindow {
+
+        private final ConcurrentMap<Data, String> pendingKeys = new ConcurrentHashMap<Data, String>();
+
+        private volatile int flushSize = batchSize;
+        private volatile long lastFlushNanos = nanoTime();
+
+        /**
+         * Called while holding the flushing permit of the queue of the data structure.
+         *
+         * @param full {@code true} if the queue was flushed because it reached the flush size
+         */
+        void onFlush(boolean full) {
+            long now = nanoTime();
+            if (full && now - lastFlushNanos < ADAPTIVE_TARGET_FLUSH_INTERVAL_NANOS) {
+                flushSize = (int) min(2L * flushSize, maxBatchSize);
+            } else {
+                flushSize = max(flushSize / 2, batchSize);
+            }
+            lastFlushNanos = now;
+        }
+    }
+
     @Override
     public void destroy(String dataStructureName, String sourceUuid) {
         invalidationQueues.remove(dataStructureName);
+        adaptiveWindows.remove(dataStructureName);
         super.destroy(dataStructureName, sourceUuid);
     }
 
@@ -221,6 +326,7 @@ public class BatchInvalidator extends Invalidator {
         lifecycleService.removeLifecycleListener(nodeShutdownListenerId);
 
         invalidationQueues.clear();
+        adaptiveWindows.clear();
 
         super.shutdown();
     }
@@ -228,6 +334,7 @@ public class BatchInvalidator extends Invalidator {
     @Override
     public void reset() {
         invalidationQueues.clear();
+        adaptiveWindows.clear();
 
         super.reset();
     }
@@ -45,26 +45,33 @@ public class BatchNearCacheInvalidation extends Invalidation {
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
         super.writeData(out);
+        writeInvalidations(out, invalidations);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        super.readData(in);
+        invalidations = readInvalidations(in);
+    }
 
+    protected void writeInvalidations(ObjectDataOutput out, List<Invalidation> invalidations) throws IOException {
         out.writeInt(invalidations.size());
         for (Invalidation invalidation : invalidations) {
             out.writeObject(invalidation);
         }
     }
 
-    @Override
-    public void readData(ObjectDataInput in) throws IOException {
-        super.readData(in);
-
+    protected List<Invalidation> readInvalidations(ObjectDataInput in) throws IOException {
         int size = in.readInt();
-        if (size != 0) {
-            List<Invalidation> invalidations = new ArrayList<Invalidation>(size);
-            for (int i = 0; i < size; i++) {
-                Invalidation invalidation = in.readObject();
-                invalidations.add(invalidation);
-            }
-            this.invalidations = invalidations;
+        if (size == 0) {
+            return emptyList();
+        }
+        List<Invalidation> invalidations = new ArrayList<Invalidation>(size);
+        for (int i = 0; i < size; i++) {
+            Invalidation invalidation = in.readObject();
+            invalidations.add(invalidation);
         }
+        return invalidations;
     }
 
     @Override
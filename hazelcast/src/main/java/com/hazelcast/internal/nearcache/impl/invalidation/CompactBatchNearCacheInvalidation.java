@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.invalidation;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * A {@link BatchNearCacheInvalidation} which is written in a compact form.
+ * <p>
+ * The invalidations of a batch share the data structure name and only have a few distinct source UUIDs and
+ * partition UUIDs, and the sequences of a partition are mostly consecutive. So instead of writing every
+ * invalidation as a separate object, the source and partition UUIDs are written once and referred to by index,
+ * and every sequence is written as a variable-length delta from the previous sequence of the same partition.
+ * Most invalidations are written as their key plus 3 bytes.
+ * <p>
+ * It is only sent by a {@link BatchInvalidator} in adaptive mode, since members which don't know its
+ * class ID can't read it.
+ */
+public class CompactBatchNearCacheInvalidation extends BatchNearCacheInvalidation {
+
+    private static final int VAR_LONG_PAYLOAD_BITS = 7;
+    private static final int VAR_LONG_PAYLOAD_MASK = 0x7F;
+    private static final int VAR_LONG_CONTINUATION_BIT = 0x80;
+
+    public CompactBatchNearCacheInvalidation() {
+    }
+
+    public CompactBatchNearCacheInvalidation(String dataStructureName, List<Invalidation> invalidations) {
+        super(dataStructureName, invalidations);
+    }
+
+    @Override
+    protected void writeInvalidations(ObjectDataOutput out, List<Invalidation> invalidations) throws IOException {
+        Map<String, Integer> sourceUuidIndexes = new HashMap<String, Integer>();
+        List<String> sourceUuids = new ArrayList<String>();
+        Map<UUID, Integer> partitionUuidIndexes = new HashMap<UUID, Integer>();
+        List<UUID> partitionUuids = new ArrayList<UUID>();
+        for (Invalidation invalidation : invalidations) {
+            indexOf(invalidation.getSourceUuid(), sourceUuidIndexes, sourceUuids);
+            indexOf(invalidation.getPartitionUuid(), partitionUuidIndexes, partitionUuids);
+        }
+
+        out.writeInt(sourceUuids.size());
+        for (String sourceUuid : sourceUuids) {
+            out.writeUTF(sourceUuid);
+        }
+        out.writeInt(partitionUuids.size());
+        for (UUID partitionUuid : partitionUuids) {
+            out.writeLong(partitionUuid.getMostSignificantBits());
+            out.writeLong(partitionUuid.getLeastSignificantBits());
+        }
+
+        long[] lastSequences = new long[partitionUuids.size()];
+        out.writeInt(invalidations.size());
+        for (Invalidation invalidation : invalidations) {
+            int partitionUuidIndex = partitionUuidIndexes.get(invalidation.getPartitionUuid());
+            long sequence = invalidation.getSequence();
+            writeVarLong(out, sourceUuidIndexes.get(invalidation.getSourceUuid()));
+            writeVarLong(out, partitionUuidIndex);
+            writeVarLong(out, zigZag(sequence - lastSequences[partitionUuidIndex]));
+            out.writeData(invalidation.getKey());
+            lastSequences[partitionUuidIndex] = sequence;
+        }
+    }
+
+    @Override
+    protected List<Invalidation> readInvalidations(ObjectDataInput in) throws IOException {
+        String[] sourceUuids = new String[in.readInt()];
+        for (int i = 0; i < sourceUuids.length; i++) {
+            sourceUuids[i] = in.readUTF();
+        }
+        UUID[] partitionUuids = new UUID[in.readInt()];
+        for (int i = 0; i < partitionUuids.length; i++) {
+            partitionUuids[i] = new UUID(in.readLong(), in.readLong());
+        }
+
+        int size = in.readInt();
+        if (size == 0) {
+            return emptyList();
+        }
+        long[] lastSequences = new long[partitionUuids.length];
+        List<Invalidation> invalidations = new ArrayList<Invalidation>(size);
+        for (int i = 0; i < size; i++) {
+            String sourceUuid = sourceUuids[(int) readVarLong(in)];
+            int partitionUuidIndex = (int) readVarLong(in);
+            long sequence = lastSequences[partitionUuidIndex] + unZigZag(readVarLong(in));
+            Data key = in.readData();
+            invalidations.add(new SingleNearCacheInvalidation(key, getName(), sourceUuid,
+                    partitionUuids[partitionUuidIndex], sequence));
+            lastSequences[partitionUuidIndex] = sequence;
+        }
+        return invalidations;
+    }
+
+    private static <T> void indexOf(T value, Map<T, Integer> indexes, List<T> values) {
+        if (!indexes.containsKey(value)) {
+            indexes.put(value, values.size());
+            values.add(value);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> (Long.SIZE - 1));
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ObjectDataOutput out, long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~VAR_LONG_PAYLOAD_MASK) != 0) {
+            out.writeByte((int) (remaining & VAR_LONG_PAYLOAD_MASK) | VAR_LONG_CONTINUATION_BIT);
+            remaining >>>= VAR_LONG_PAYLOAD_BITS;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    private static long readVarLong(ObjectDataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += VAR_LONG_PAYLOAD_BITS) {
+            byte b = in.readByte();
+            value |= (long) (b & VAR_LONG_PAYLOAD_MASK) << shift;
+            if ((b & VAR_LONG_CONTINUATION_BIT) == 0) {
+                return value;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactBatchNearCacheInvalidation{"
+                + "dataStructureName=" + getName()
+                + ", invalidation-count-in-this-batch=" + getInvalidations().size()
+                + '}';
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.NEAR_CACHE_COMPACT_BATCH_INVALIDATION;
+    }
+}
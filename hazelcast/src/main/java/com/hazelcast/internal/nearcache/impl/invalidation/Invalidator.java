@@ -68,6 +68,9 @@ public abstract class Invalidator {
         checkNotNull(key, "key cannot be null");
         checkNotNull(sourceUuid, "sourceUuid cannot be null");
 
+        if (coalesceWithPending(key, dataStructureName, sourceUuid)) {
+            return;
+        }
         Invalidation invalidation = newKeyInvalidation(key, dataStructureName, sourceUuid);
         invalidateInternal(invalidation, getPartitionId(key));
     }
@@ -85,6 +88,17 @@ public abstract class Invalidator {
         sendImmediately(invalidation, orderKey);
     }
 
+    /**
+     * Checks if the invalidation of the supplied key is covered by an invalidation which hasn't been sent yet.
+     * No sequence is generated for a covered invalidation, so it doesn't show up as a missed sequence on the
+     * Near Cache side.
+     *
+     * @return {@code true} if the invalidation can be dropped, {@code false} otherwise
+     */
+    protected boolean coalesceWithPending(Data key, String dataStructureName, String sourceUuid) {
+        return false;
+    }
+
     public final MetaDataGenerator getMetaDataGenerator() {
         return metaDataGenerator;
     }
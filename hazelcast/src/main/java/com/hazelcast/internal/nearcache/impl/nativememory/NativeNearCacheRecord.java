@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.nativememory;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.UUID;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * A <i>Flyweight</i> {@link NearCacheRecord} whose state lives entirely in a native memory block.
+ * Instances are cheap, short-lived views over the block at {@link #address()}; the block itself is owned
+ * by the {@link NativeNearCacheRecordStore} which holds the record and is freed by {@link #dispose()}.
+ * <p>
+ * Memory layout of the record block:
+ * <pre>
+ * NEXT | KEY_HASH | KEY | VALUE | CREATION_TIME | EXPIRATION_TIME | ACCESS_TIME | RECORD_STATE
+ *      | INVALIDATION_SEQUENCE | UUID_MOST_SIGNIFICANT_BITS | UUID_LEAST_SIGNIFICANT_BITS
+ *      | ACCESS_HIT (int) | PARTITION_ID (int) | HAS_UUID (int) | padding (int)
+ * </pre>
+ * {@code NEXT} links records which share a hash slot, {@code KEY} and {@code VALUE} hold the addresses
+ * of blobs laid out as an {@code int} length followed by the serialized bytes of the {@link Data}.
+ * A {@code NULL_ADDRESS} value stands for a {@code null} value, i.e. a value cached as {@code null}
+ * or a value of a reserved record which is not published yet.
+ * <p>
+ * Records must be accessed only under the lock of the segment of the store which holds them, so
+ * {@link #casRecordState(long, long)} doesn't need to be atomic.
+ */
+final class NativeNearCacheRecord implements NearCacheRecord<Data> {
+
+    /**
+     * Size of the record block in bytes.
+     */
+    static final int SIZE = 13 * LONG_SIZE_IN_BYTES;
+
+    private static final int NEXT_OFFSET = 0;
+    private static final int KEY_HASH_OFFSET = 8;
+    private static final int KEY_OFFSET = 16;
+    private static final int VALUE_OFFSET = 24;
+    private static final int CREATION_TIME_OFFSET = 32;
+    private static final int EXPIRATION_TIME_OFFSET = 40;
+    private static final int ACCESS_TIME_OFFSET = 48;
+    private static final int RECORD_STATE_OFFSET = 56;
+    private static final int SEQUENCE_OFFSET = 64;
+    private static final int UUID_MSB_OFFSET = 72;
+    private static final int UUID_LSB_OFFSET = 80;
+    private static final int ACCESS_HIT_OFFSET = 88;
+    private static final int PARTITION_ID_OFFSET = 92;
+    private static final int HAS_UUID_OFFSET = 96;
+
+    // equality of Data ignores the partition hash, which is stored in the first int of the payload
+    private static final int DATA_COMPARE_OFFSET = HeapData.TYPE_OFFSET;
+
+    private final MemoryAccessor mem;
+    private final MemoryAllocator malloc;
+    private final long address;
+
+    NativeNearCacheRecord(MemoryManager memoryManager, long address) {
+        assert address != NULL_ADDRESS : "NativeNearCacheRecord cannot be created over NULL_ADDRESS";
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.address = address;
+    }
+
+    /**
+     * Allocates a record block holding the given key and value, in the {@link #READ_PERMITTED} state
+     * and without any timestamps set. If an allocation fails, the memory allocated so far is freed.
+     *
+     * @throws com.hazelcast.memory.NativeOutOfMemoryError if there is not enough native memory
+     */
+    static NativeNearCacheRecord allocate(MemoryManager memoryManager, Data key, Data value) {
+        long address = memoryManager.getAllocator().allocate(SIZE);
+        NativeNearCacheRecord record = new NativeNearCacheRecord(memoryManager, address);
+        record.init();
+        try {
+            record.setKey(key);
+            record.setValue(value);
+        } catch (Error e) {
+            record.dispose();
+            throw e;
+        }
+        return record;
+    }
+
+    private void init() {
+        mem.setMemory(address, SIZE, (byte) 0);
+        setCreationTime(TIME_NOT_SET);
+        setExpirationTime(TIME_NOT_SET);
+        setAccessTime(TIME_NOT_SET);
+        mem.putLong(address + RECORD_STATE_OFFSET, READ_PERMITTED);
+    }
+
+    long address() {
+        return address;
+    }
+
+    long getNext() {
+        return mem.getLong(address + NEXT_OFFSET);
+    }
+
+    void setNext(long next) {
+        mem.putLong(address + NEXT_OFFSET, next);
+    }
+
+    long getKeyHash() {
+        return mem.getLong(address + KEY_HASH_OFFSET);
+    }
+
+    Data getKey() {
+        return readBlob(KEY_OFFSET);
+    }
+
+    private void setKey(Data key) {
+        mem.putLong(address + KEY_HASH_OFFSET, key.hash64());
+        writeBlob(KEY_OFFSET, key);
+    }
+
+    boolean keyEquals(Data key, long keyHash) {
+        if (getKeyHash() != keyHash) {
+            return false;
+        }
+        long blob = mem.getLong(address + KEY_OFFSET);
+        int length = mem.getInt(blob);
+        if (length != key.totalSize()) {
+            return false;
+        }
+        byte[] bytes = key.toByteArray();
+        long base = blob + INT_SIZE_IN_BYTES;
+        for (int i = length - 1; i >= DATA_COMPARE_OFFSET; i--) {
+            if (mem.getByte(base + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of native memory bytes owned by this record, including its key and value blobs.
+     */
+    long getCost() {
+        return SIZE + blobSize(KEY_OFFSET) + blobSize(VALUE_OFFSET);
+    }
+
+    void dispose() {
+        freeBlob(KEY_OFFSET);
+        freeBlob(VALUE_OFFSET);
+        malloc.free(address, SIZE);
+    }
+
+    @Override
+    public Data getValue() {
+        return readBlob(VALUE_OFFSET);
+    }
+
+    /**
+     * @throws com.hazelcast.memory.NativeOutOfMemoryError if there is not enough native memory,
+     *                                                     in which case the record is left without a value
+     */
+    @Override
+    public void setValue(Data value) {
+        writeBlob(VALUE_OFFSET, value);
+    }
+
+    @Override
+    public long getCreationTime() {
+        return mem.getLong(address + CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setCreationTime(long time) {
+        mem.putLong(address + CREATION_TIME_OFFSET, time);
+    }
+
+    @Override
+    public long getExpirationTime() {
+        return mem.getLong(address + EXPIRATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        mem.putLong(address + EXPIRATION_TIME_OFFSET, expirationTime);
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return mem.getLong(address + ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public void setAccessTime(long time) {
+        mem.putLong(address + ACCESS_TIME_OFFSET, time);
+    }
+
+    @Override
+    public int getAccessHit() {
+        return mem.getInt(address + ACCESS_HIT_OFFSET);
+    }
+
+    @Override
+    public void setAccessHit(int hit) {
+        mem.putInt(address + ACCESS_HIT_OFFSET, hit);
+    }
+
+    @Override
+    public void incrementAccessHit() {
+        setAccessHit(getAccessHit() + 1);
+    }
+
+    @Override
+    public void resetAccessHit() {
+        setAccessHit(0);
+    }
+
+    @Override
+    public boolean isExpiredAt(long now) {
+        long expirationTime = getExpirationTime();
+        return (expirationTime > TIME_NOT_SET) && (expirationTime <= now);
+    }
+
+    @Override
+    public boolean isIdleAt(long maxIdleMilliSeconds, long now) {
+        if (maxIdleMilliSeconds > 0) {
+            long accessTime = getLastAccessTime();
+            if (accessTime > TIME_NOT_SET) {
+                return accessTime + maxIdleMilliSeconds < now;
+            } else {
+                return getCreationTime() + maxIdleMilliSeconds < now;
+            }
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public long getRecordState() {
+        return mem.getLong(address + RECORD_STATE_OFFSET);
+    }
+
+    @Override
+    public boolean casRecordState(long expect, long update) {
+        if (getRecordState() != expect) {
+            return false;
+        }
+        mem.putLong(address + RECORD_STATE_OFFSET, update);
+        return true;
+    }
+
+    @Override
+    public int getPartitionId() {
+        return mem.getInt(address + PARTITION_ID_OFFSET);
+    }
+
+    @Override
+    public void setPartitionId(int partitionId) {
+        mem.putInt(address + PARTITION_ID_OFFSET, partitionId);
+    }
+
+    @Override
+    public long getInvalidationSequence() {
+        return mem.getLong(address + SEQUENCE_OFFSET);
+    }
+
+    @Override
+    public void setInvalidationSequence(long sequence) {
+        mem.putLong(address + SEQUENCE_OFFSET, sequence);
+    }
+
+    @Override
+    public void setUuid(UUID uuid) {
+        if (uuid == null) {
+            mem.putInt(address + HAS_UUID_OFFSET, 0);
+            return;
+        }
+        mem.putLong(address + UUID_MSB_OFFSET, uuid.getMostSignificantBits());
+        mem.putLong(address + UUID_LSB_OFFSET, uuid.getLeastSignificantBits());
+        mem.putInt(address + HAS_UUID_OFFSET, 1);
+    }
+
+    UUID getUuid() {
+        if (mem.getInt(address + HAS_UUID_OFFSET) == 0) {
+            return null;
+        }
+        return new UUID(mem.getLong(address + UUID_MSB_OFFSET), mem.getLong(address + UUID_LSB_OFFSET));
+    }
+
+    @Override
+    public boolean hasSameUuid(UUID uuid) {
+        return uuid != null && mem.getInt(address + HAS_UUID_OFFSET) != 0
+                && mem.getLong(address + UUID_MSB_OFFSET) == uuid.getMostSignificantBits()
+                && mem.getLong(address + UUID_LSB_OFFSET) == uuid.getLeastSignificantBits();
+    }
+
+    private Data readBlob(int offset) {
+        long blob = mem.getLong(address + offset);
+        if (blob == NULL_ADDRESS) {
+            return null;
+        }
+        int length = mem.getInt(blob);
+        byte[] bytes = new byte[length];
+        mem.copyToByteArray(blob + INT_SIZE_IN_BYTES, bytes, 0, length);
+        return new HeapData(bytes);
+    }
+
+    private void writeBlob(int offset, Data data) {
+        freeBlob(offset);
+        if (data == null) {
+            return;
+        }
+        int length = data.totalSize();
+        long blob = malloc.allocate(INT_SIZE_IN_BYTES + length);
+        mem.putInt(blob, length);
+        if (length > 0) {
+            mem.copyFromByteArray(data.toByteArray(), 0, blob + INT_SIZE_IN_BYTES, length);
+        }
+        mem.putLong(address + offset, blob);
+    }
+
+    private void freeBlob(int offset) {
+        long blob = mem.getLong(address + offset);
+        if (blob != NULL_ADDRESS) {
+            malloc.free(blob, INT_SIZE_IN_BYTES + mem.getInt(blob));
+            mem.putLong(address + offset, NULL_ADDRESS);
+        }
+    }
+
+    private long blobSize(int offset) {
+        long blob = mem.getLong(address + offset);
+        return blob == NULL_ADDRESS ? 0 : INT_SIZE_IN_BYTES + mem.getInt(blob);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return address == ((NativeNearCacheRecord) o).address;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (address ^ (address >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "NativeNearCacheRecord{address=" + address + '}';
+    }
+}
@@ -0,0 +1,840 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.nativememory;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionConfig.MaxSizePolicy;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.NearCachePreloaderConfig;
+import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.eviction.EvictionCandidate;
+import com.hazelcast.internal.eviction.EvictionPolicyComparator;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
+import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.nearcache.NearCacheRecordStore;
+import com.hazelcast.internal.nearcache.impl.invalidation.MetaDataContainer;
+import com.hazelcast.internal.nearcache.impl.invalidation.StaleReadDetector;
+import com.hazelcast.internal.nearcache.impl.preloader.NearCachePreloader;
+import com.hazelcast.internal.nearcache.impl.record.NearCacheDataRecord;
+import com.hazelcast.internal.util.ThreadLocalRandomProvider;
+import com.hazelcast.internal.util.hashslot.HashSlotArray8byteKey;
+import com.hazelcast.internal.util.hashslot.HashSlotCursor8byteKey;
+import com.hazelcast.internal.util.hashslot.impl.HashSlotArray8byteKeyImpl;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.monitor.NearCacheStats;
+import com.hazelcast.monitor.impl.NearCacheStatsImpl;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.util.Clock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyEvaluator;
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.nearcache.NearCache.CACHED_AS_NULL;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.NOT_RESERVED;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.READ_PERMITTED;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.RESERVED;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.TIME_NOT_SET;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.UPDATE_STARTED;
+import static com.hazelcast.internal.nearcache.impl.invalidation.StaleReadDetector.ALWAYS_FRESH;
+import static com.hazelcast.internal.util.hashslot.impl.CapacityUtil.DEFAULT_LOAD_FACTOR;
+import static com.hazelcast.memory.MemoryUnit.MEGABYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+import static java.lang.String.format;
+
+/**
+ * {@link NearCacheRecordStore} for Near Caches with {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE}
+ * in-memory format. Keys, values and record metadata are all kept off-heap in {@link NativeNearCacheRecord}
+ * blocks, so a large Near Cache doesn't put any pressure on the garbage collector.
+ * <p>
+ * Keys are always stored serialized. The records are spread over a fixed number of segments by the 64-bit
+ * hash of the key; each segment indexes its records by an off-heap {@link HashSlotArray8byteKey} whose slots
+ * hold the address of the first record of a bucket, records whose keys share the same hash are chained through
+ * their {@code NEXT} field. Unlike a map partition, a Near Cache is accessed by any user thread, so all accesses
+ * to the records of a segment are guarded by the segment's lock. Values are copied to the heap under the lock
+ * and deserialized outside of it.
+ * <p>
+ * The supported max-size policies are {@link MaxSizePolicy#ENTRY_COUNT} and
+ * {@link MaxSizePolicy#USED_NATIVE_MEMORY_SIZE}, the latter bounding the native memory owned by the records
+ * of this Near Cache. When the native memory is exhausted, a record is evicted and the allocation is retried
+ * once; if it fails again the entry is not cached.
+ * <p>
+ * The invalidation metadata used by the {@link StaleReadDetector} of the repairing mechanism and the
+ * {@link NearCachePreloader} work the same way as with on-heap Near Caches.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+public class NativeNearCacheRecordStore<K, V> implements NearCacheRecordStore<K, V> {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int SEGMENT_MASK = SEGMENT_COUNT - 1;
+    private static final int SEGMENT_INITIAL_CAPACITY = 64;
+    private static final int SAMPLE_COUNT = 15;
+
+    // results of the eviction from a segment
+    private static final int EVICTED = 0;
+    private static final int NOT_ADMITTED = 1;
+    private static final int EMPTY = 2;
+    private static final long MILLI_SECONDS_IN_A_SECOND = 1000;
+
+    // see the memory layout described in HashSlotArray: an 8-byte key followed by the 8-byte value block
+    private static final int SLOT_LENGTH = 2 * LONG_SIZE_IN_BYTES;
+    private static final int SLOT_VALUE_OFFSET = LONG_SIZE_IN_BYTES;
+
+    private final NearCacheConfig nearCacheConfig;
+    private final SerializationService serializationService;
+    private final ClassLoader classLoader;
+    private final MemoryManager memoryManager;
+    private final MemoryAccessor mem;
+    private final NearCacheStatsImpl nearCacheStats = new NearCacheStatsImpl();
+    private final NearCachePreloader<Data> nearCachePreloader;
+    private final AtomicLong reservationIds = new AtomicLong();
+    private final long timeToLiveMillis;
+    private final long maxIdleMillis;
+    private final boolean evictionDisabled;
+    private final boolean entryCountPolicy;
+    private final long maxSize;
+    @SuppressWarnings("unchecked")
+    private final Segment[] segments = new NativeNearCacheRecordStore.Segment[SEGMENT_COUNT];
+
+    private EvictionPolicyEvaluator<Data, NativeNearCacheRecord> evictionPolicyEvaluator;
+    // set if new entries have to be admitted by TinyLFU
+    private TinyLfuEvictionPolicyComparator tinyLfuComparator;
+
+    private volatile StaleReadDetector staleReadDetector = ALWAYS_FRESH;
+
+    public NativeNearCacheRecordStore(String name, NearCacheConfig nearCacheConfig, SerializationService serializationService,
+                                      ClassLoader classLoader, MemoryManager memoryManager) {
+        this.nearCacheConfig = nearCacheConfig;
+        this.serializationService = serializationService;
+        this.classLoader = classLoader;
+        this.memoryManager = memoryManager;
+        this.mem = memoryManager.getAccessor();
+        this.timeToLiveMillis = nearCacheConfig.getTimeToLiveSeconds() * MILLI_SECONDS_IN_A_SECOND;
+        this.maxIdleMillis = nearCacheConfig.getMaxIdleSeconds() * MILLI_SECONDS_IN_A_SECOND;
+
+        EvictionConfig evictionConfig = nearCacheConfig.getEvictionConfig();
+        MaxSizePolicy maxSizePolicy = evictionConfig.getMaximumSizePolicy();
+        if (maxSizePolicy != MaxSizePolicy.ENTRY_COUNT && maxSizePolicy != MaxSizePolicy.USED_NATIVE_MEMORY_SIZE) {
+            throw new IllegalArgumentException(format("Invalid max-size policy (%s) for %s! Only %s and %s are supported.",
+                    maxSizePolicy, getClass().getName(), MaxSizePolicy.ENTRY_COUNT, MaxSizePolicy.USED_NATIVE_MEMORY_SIZE));
+        }
+        this.evictionDisabled = evictionConfig.getEvictionPolicy() == EvictionPolicy.NONE;
+        this.entryCountPolicy = maxSizePolicy == MaxSizePolicy.ENTRY_COUNT;
+        this.maxSize = entryCountPolicy ? evictionConfig.getSize() : MEGABYTES.toBytes(evictionConfig.getSize());
+
+        NearCachePreloaderConfig preloaderConfig = nearCacheConfig.getPreloaderConfig();
+        this.nearCachePreloader = preloaderConfig.isEnabled()
+                ? new NearCachePreloader<Data>(name, preloaderConfig, true, nearCacheStats, serializationService) : null;
+    }
+
+    @Override
+    public void initialize() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+        if (!evictionDisabled) {
+            evictionPolicyEvaluator = getEvictionPolicyEvaluator(nearCacheConfig.getEvictionConfig(), classLoader);
+            EvictionPolicyComparator comparator = evictionPolicyEvaluator.getEvictionPolicyComparator();
+            if (comparator instanceof TinyLfuEvictionPolicyComparator) {
+                tinyLfuComparator = (TinyLfuEvictionPolicyComparator) comparator;
+            }
+        }
+    }
+
+    @Override
+    public void setStaleReadDetector(StaleReadDetector staleReadDetector) {
+        this.staleReadDetector = staleReadDetector;
+    }
+
+    @Override
+    public StaleReadDetector getStaleReadDetector() {
+        return staleReadDetector;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Data keyData = toData(key);
+        if (tinyLfuComparator != null) {
+            tinyLfuComparator.recordAccess(keyData);
+        }
+        Object value = segmentFor(keyData).get(key, keyData);
+        if (value == null || value == CACHED_AS_NULL) {
+            return (V) value;
+        }
+        return serializationService.toObject(value);
+    }
+
+    /**
+     * Returns an on-heap snapshot of the record associated with the given key, since a view over the
+     * native record could not be accessed safely outside of the store.
+     */
+    @Override
+    public NearCacheRecord getRecord(K key) {
+        Data keyData = toData(key);
+        return segmentFor(keyData).getRecord(keyData);
+    }
+
+    @Override
+    public void put(K key, Data keyData, V value) {
+        Data nativeKey = toData(key);
+        Segment segment = segmentFor(nativeKey);
+        // if there is no eviction configured we return if the Near Cache is full and it's a new key
+        // (we have to check the key, otherwise we might lose updates on existing keys)
+        if (evictionDisabled && isEvictionRequired() && !segment.containsKey(nativeKey)) {
+            return;
+        }
+        if (tinyLfuComparator != null && !admit(segment, nativeKey)) {
+            return;
+        }
+
+        NativeNearCacheRecord record = allocateRecord(nativeKey, toData(value));
+        if (record == null) {
+            return;
+        }
+        initRecord(record, key, keyData);
+        segment.put(nativeKey, record);
+    }
+
+    @Override
+    public boolean remove(K key) {
+        Data keyData = toData(key);
+        return segmentFor(keyData).remove(keyData);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        nearCacheStats.setOwnedEntryCount(0);
+        nearCacheStats.setOwnedEntryMemoryCost(0L);
+    }
+
+    @Override
+    public void destroy() {
+        for (Segment segment : segments) {
+            segment.destroy();
+        }
+        nearCacheStats.setOwnedEntryCount(0);
+        nearCacheStats.setOwnedEntryMemoryCost(0L);
+        if (nearCachePreloader != null) {
+            nearCachePreloader.destroy();
+        }
+    }
+
+    @Override
+    public NearCacheStats getNearCacheStats() {
+        return nearCacheStats;
+    }
+
+    @Override
+    public Object selectToSave(Object... candidates) {
+        if (candidates == null) {
+            return null;
+        }
+        // give priority to Data typed candidate, so there will be no extra conversion from Object to Data
+        for (Object candidate : candidates) {
+            if (candidate instanceof Data) {
+                return candidate;
+            }
+        }
+        for (Object candidate : candidates) {
+            if (candidate != null) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public void doExpiration() {
+        long now = Clock.currentTimeMillis();
+        for (Segment segment : segments) {
+            segment.expire(now);
+        }
+    }
+
+    @Override
+    public void doEvictionIfRequired() {
+        // with TinyLFU, eviction is done on the admission of new entries
+        if (!evictionDisabled && tinyLfuComparator == null && isEvictionRequired()) {
+            evictOne();
+        }
+    }
+
+    @Override
+    public void doEviction() {
+        if (!evictionDisabled) {
+            evictOne();
+        }
+    }
+
+    @Override
+    public void loadKeys(DataStructureAdapter<Object, ?> adapter) {
+        if (nearCachePreloader != null) {
+            nearCachePreloader.loadKeys(adapter, this);
+        }
+    }
+
+    @Override
+    public void storeKeys() {
+        if (nearCachePreloader != null) {
+            nearCachePreloader.storeKeys(new KeyIterator(), this);
+        }
+    }
+
+    @Override
+    public long tryReserveForUpdate(K key, Data keyData) {
+        Data nativeKey = toData(key);
+        Segment segment = segmentFor(nativeKey);
+        // if there is no eviction configured we return if the Near Cache is full and it's a new key
+        // (we have to check the key, otherwise we might lose updates on existing keys)
+        if (evictionDisabled && isEvictionRequired() && !segment.containsKey(nativeKey)) {
+            return NOT_RESERVED;
+        }
+        if (tinyLfuComparator != null && !admit(segment, nativeKey)) {
+            return NOT_RESERVED;
+        }
+        return segment.reserve(key, nativeKey, keyData, reservationIds.incrementAndGet());
+    }
+
+    @Override
+    public V tryPublishReserved(K key, V value, long reservationId, boolean deserialize) {
+        Data keyData = toData(key);
+        Data cachedValue = segmentFor(keyData).publish(keyData, toData(value), reservationId, deserialize);
+        return cachedValue == null ? null : serializationService.<V>toObject(cachedValue);
+    }
+
+    private Data toData(Object obj) {
+        return serializationService.toData(obj);
+    }
+
+    private Segment segmentFor(Data keyData) {
+        long hash = keyData.hash64();
+        return segments[(int) (hash ^ (hash >>> Integer.SIZE)) & SEGMENT_MASK];
+    }
+
+    private boolean isEvictionRequired() {
+        if (entryCountPolicy) {
+            return size() >= maxSize;
+        }
+        return nearCacheStats.getOwnedEntryMemoryCost() >= maxSize;
+    }
+
+    private void evictOne() {
+        evictOne(null);
+    }
+
+    /**
+     * Evicts a record sampled from a random segment. If a key to admit is given, the record is only evicted if
+     * the key is accessed more frequently than the key of the record.
+     *
+     * @return {@code false} if the key to admit was not admitted
+     */
+    private boolean evictOne(Data admittedKey) {
+        int first = ThreadLocalRandomProvider.get().nextInt(SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            int result = segments[(first + i) & SEGMENT_MASK].evictOne(admittedKey);
+            if (result != EMPTY) {
+                return result == EVICTED;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Makes room for a new entry of the given key if the Near Cache is full, see {@link #evictOne(Data)}.
+     *
+     * @return {@code true} if the entry can be stored, {@code false} if it should be dropped
+     */
+    private boolean admit(Segment segment, Data keyData) {
+        return !isEvictionRequired() || segment.containsKey(keyData) || evictOne(keyData);
+    }
+
+    /**
+     * Allocates a record for the given key and value. If the native memory is exhausted, evicts a record
+     * and retries once.
+     *
+     * @return the record or {@code null} if there is not enough native memory
+     */
+    private NativeNearCacheRecord allocateRecord(Data keyData, Data value) {
+        try {
+            return NativeNearCacheRecord.allocate(memoryManager, keyData, value);
+        } catch (NativeOutOfMemoryError e) {
+            if (evictionDisabled) {
+                return null;
+            }
+            evictOne();
+        }
+        try {
+            return NativeNearCacheRecord.allocate(memoryManager, keyData, value);
+        } catch (NativeOutOfMemoryError e) {
+            return null;
+        }
+    }
+
+    private void initRecord(NativeNearCacheRecord record, Object key, Data keyData) {
+        long now = Clock.currentTimeMillis();
+        record.setCreationTime(now);
+        if (timeToLiveMillis > 0) {
+            record.setExpirationTime(now + timeToLiveMillis);
+        }
+        initInvalidationMetaData(record, key, keyData);
+    }
+
+    private void initInvalidationMetaData(NativeNearCacheRecord record, Object key, Data keyData) {
+        StaleReadDetector staleReadDetector = this.staleReadDetector;
+        if (staleReadDetector == ALWAYS_FRESH) {
+            // means invalidation event creation is disabled for this Near Cache
+            return;
+        }
+
+        int partitionId = staleReadDetector.getPartitionId(keyData == null ? toData(key) : keyData);
+        MetaDataContainer metaDataContainer = staleReadDetector.getMetaDataContainer(partitionId);
+        record.setPartitionId(partitionId);
+        record.setInvalidationSequence(metaDataContainer.getSequence());
+        record.setUuid(metaDataContainer.getUuid());
+    }
+
+    private boolean isRecordExpired(NativeNearCacheRecord record, long now) {
+        return record.isExpiredAt(now) || record.isIdleAt(maxIdleMillis, now);
+    }
+
+    private NativeNearCacheRecord toRecord(long address) {
+        return new NativeNearCacheRecord(memoryManager, address);
+    }
+
+    /**
+     * A part of the store with its own lock and hash table. A destroyed segment behaves as an empty one,
+     * so operations racing with {@link #destroy()} don't access freed memory.
+     */
+    private final class Segment {
+
+        private HashSlotArray8byteKey table;
+        private volatile int size;
+
+        Segment() {
+            table = new HashSlotArray8byteKeyImpl(NULL_ADDRESS, memoryManager, LONG_SIZE_IN_BYTES,
+                    SEGMENT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+            table.gotoNew();
+        }
+
+        synchronized Object get(Object key, Data keyData) {
+            long address = find(keyData);
+            if (address == NULL_ADDRESS) {
+                nearCacheStats.incrementMisses();
+                return null;
+            }
+            NativeNearCacheRecord record = toRecord(address);
+            if (record.getRecordState() != READ_PERMITTED) {
+                return null;
+            }
+            if (staleReadDetector.isStaleRead(key, record)) {
+                removeRecord(record);
+                nearCacheStats.incrementMisses();
+                return null;
+            }
+            long now = Clock.currentTimeMillis();
+            if (isRecordExpired(record, now)) {
+                removeRecord(record);
+                nearCacheStats.incrementExpirations();
+                return null;
+            }
+
+            record.setAccessTime(now);
+            record.incrementAccessHit();
+            nearCacheStats.incrementHits();
+            Data value = record.getValue();
+            return value == null ? CACHED_AS_NULL : value;
+        }
+
+        synchronized NearCacheRecord getRecord(Data keyData) {
+            long address = find(keyData);
+            if (address == NULL_ADDRESS) {
+                return null;
+            }
+            NativeNearCacheRecord record = toRecord(address);
+            NearCacheDataRecord snapshot = new NearCacheDataRecord(record.getValue(), record.getCreationTime(),
+                    record.getExpirationTime());
+            snapshot.setAccessTime(record.getLastAccessTime());
+            snapshot.setAccessHit(record.getAccessHit());
+            snapshot.casRecordState(READ_PERMITTED, record.getRecordState());
+            snapshot.setPartitionId(record.getPartitionId());
+            snapshot.setInvalidationSequence(record.getInvalidationSequence());
+            snapshot.setUuid(record.getUuid());
+            return snapshot;
+        }
+
+        synchronized boolean containsKey(Data keyData) {
+            return find(keyData) != NULL_ADDRESS;
+        }
+
+        synchronized void put(Data keyData, NativeNearCacheRecord record) {
+            if (table == null) {
+                record.dispose();
+                return;
+            }
+            long existing = find(keyData);
+            if (existing != NULL_ADDRESS) {
+                removeRecord(toRecord(existing));
+            }
+            if (!insert(record)) {
+                record.dispose();
+                return;
+            }
+            nearCacheStats.incrementOwnedEntryCount();
+        }
+
+        synchronized boolean remove(Data keyData) {
+            long address = find(keyData);
+            if (address == NULL_ADDRESS) {
+                return false;
+            }
+            removeRecord(toRecord(address));
+            return true;
+        }
+
+        synchronized long reserve(Object key, Data nativeKey, Data keyData, long reservationId) {
+            if (table == null) {
+                return NOT_RESERVED;
+            }
+            long address = find(nativeKey);
+            NativeNearCacheRecord record;
+            if (address != NULL_ADDRESS) {
+                record = toRecord(address);
+            } else {
+                try {
+                    record = NativeNearCacheRecord.allocate(memoryManager, nativeKey, null);
+                } catch (NativeOutOfMemoryError e) {
+                    return NOT_RESERVED;
+                }
+                initRecord(record, key, keyData);
+                record.casRecordState(READ_PERMITTED, RESERVED);
+                if (!insert(record)) {
+                    record.dispose();
+                    return NOT_RESERVED;
+                }
+            }
+            return record.casRecordState(RESERVED, reservationId) ? reservationId : NOT_RESERVED;
+        }
+
+        synchronized Data publish(Data keyData, Data value, long reservationId, boolean deserialize) {
+            long address = find(keyData);
+            if (address == NULL_ADDRESS) {
+                return null;
+            }
+            NativeNearCacheRecord record = toRecord(address);
+            if (record.casRecordState(reservationId, UPDATE_STARTED)) {
+                long oldCost = record.getCost();
+                try {
+                    record.setValue(value);
+                } catch (NativeOutOfMemoryError e) {
+                    removeRecord(record);
+                    return null;
+                }
+                record.casRecordState(UPDATE_STARTED, READ_PERMITTED);
+                nearCacheStats.incrementOwnedEntryMemoryCost(record.getCost() - oldCost);
+                nearCacheStats.incrementOwnedEntryCount();
+            }
+            return deserialize ? record.getValue() : null;
+        }
+
+        synchronized void expire(long now) {
+            long[] expired = new long[0];
+            int count = 0;
+            for (long address : addresses()) {
+                NativeNearCacheRecord record = toRecord(address);
+                if (record.getRecordState() == READ_PERMITTED && isRecordExpired(record, now)) {
+                    if (count == expired.length) {
+                        expired = Arrays.copyOf(expired, Math.max(SEGMENT_INITIAL_CAPACITY, count * 2));
+                    }
+                    expired[count++] = address;
+                }
+            }
+            // records are removed after the scan, since removing a slot may move other slots of the table
+            for (int i = 0; i < count; i++) {
+                removeRecord(toRecord(expired[i]));
+                nearCacheStats.incrementExpirations();
+            }
+        }
+
+        synchronized int evictOne(Data admittedKey) {
+            if (size == 0 || table == null) {
+                return EMPTY;
+            }
+            List<RecordCandidate> samples = new ArrayList<RecordCandidate>(SAMPLE_COUNT);
+            long capacity = table.capacity();
+            long mask = capacity - 1;
+            long firstSlot = ThreadLocalRandomProvider.get().nextInt((int) capacity);
+            for (long i = 0; i < capacity && samples.size() < SAMPLE_COUNT; i++) {
+                long current = bucketHead((firstSlot + i) & mask);
+                while (current != NULL_ADDRESS && samples.size() < SAMPLE_COUNT) {
+                    NativeNearCacheRecord record = toRecord(current);
+                    if (record.getRecordState() == READ_PERMITTED) {
+                        samples.add(new RecordCandidate(record));
+                    }
+                    current = record.getNext();
+                }
+            }
+            RecordCandidate candidate = evictionPolicyEvaluator.evaluate(samples);
+            if (candidate == null) {
+                return EMPTY;
+            }
+            if (admittedKey != null && !tinyLfuComparator.admit(admittedKey, candidate)) {
+                return NOT_ADMITTED;
+            }
+            NativeNearCacheRecord record = candidate.getEvictable();
+            if (record.isExpiredAt(Clock.currentTimeMillis())) {
+                nearCacheStats.incrementExpirations();
+            } else {
+                nearCacheStats.incrementEvictions();
+            }
+            removeRecord(record);
+            return EVICTED;
+        }
+
+        synchronized List<Data> keys() {
+            List<Data> keys = new ArrayList<Data>(size);
+            for (long address : addresses()) {
+                keys.add(toRecord(address).getKey());
+            }
+            return keys;
+        }
+
+        synchronized void clear() {
+            if (table == null) {
+                return;
+            }
+            for (HashSlotCursor8byteKey cursor = table.cursor(); cursor.advance(); ) {
+                long current = mem.getLong(cursor.valueAddress());
+                while (current != NULL_ADDRESS) {
+                    NativeNearCacheRecord record = toRecord(current);
+                    current = record.getNext();
+                    record.dispose();
+                }
+            }
+            table.clear();
+            table.trimToSize();
+            size = 0;
+        }
+
+        synchronized void destroy() {
+            clear();
+            if (table != null) {
+                table.dispose();
+                table = null;
+            }
+        }
+
+        private long[] addresses() {
+            if (table == null) {
+                return new long[0];
+            }
+            long[] addresses = new long[size];
+            int count = 0;
+            for (HashSlotCursor8byteKey cursor = table.cursor(); cursor.advance(); ) {
+                long current = mem.getLong(cursor.valueAddress());
+                for (; current != NULL_ADDRESS; current = toRecord(current).getNext()) {
+                    addresses[count++] = current;
+                }
+            }
+            return addresses;
+        }
+
+        private long find(Data keyData) {
+            if (table == null) {
+                return NULL_ADDRESS;
+            }
+            long keyHash = keyData.hash64();
+            long slotValueAddress = table.get(keyHash);
+            if (slotValueAddress == NULL_ADDRESS) {
+                return NULL_ADDRESS;
+            }
+            long current = mem.getLong(slotValueAddress);
+            while (current != NULL_ADDRESS) {
+                NativeNearCacheRecord record = toRecord(current);
+                if (record.keyEquals(keyData, keyHash)) {
+                    return current;
+                }
+                current = record.getNext();
+            }
+            return NULL_ADDRESS;
+        }
+
+        /**
+         * Links the given record, whose key must not be in the table yet, into its bucket.
+         *
+         * @return {@code false} if there is not enough native memory to grow the table
+         */
+        private boolean insert(NativeNearCacheRecord record) {
+            long slotValueAddress;
+            try {
+                slotValueAddress = table.ensure(record.getKeyHash());
+            } catch (NativeOutOfMemoryError e) {
+                return false;
+            }
+            if (slotValueAddress > 0) {
+                record.setNext(NULL_ADDRESS);
+            } else {
+                slotValueAddress = -slotValueAddress;
+                record.setNext(mem.getLong(slotValueAddress));
+            }
+            mem.putLong(slotValueAddress, record.address());
+            size++;
+            nearCacheStats.incrementOwnedEntryMemoryCost(record.getCost());
+            return true;
+        }
+
+        private void removeRecord(NativeNearCacheRecord record) {
+            long keyHash = record.getKeyHash();
+            long slotValueAddress = table.get(keyHash);
+            long previous = NULL_ADDRESS;
+            long current = mem.getLong(slotValueAddress);
+            while (current != record.address()) {
+                previous = current;
+                current = toRecord(current).getNext();
+            }
+
+            long next = record.getNext();
+            if (previous == NULL_ADDRESS && next == NULL_ADDRESS) {
+                table.remove(keyHash);
+            } else if (previous == NULL_ADDRESS) {
+                mem.putLong(slotValueAddress, next);
+            } else {
+                toRecord(previous).setNext(next);
+            }
+            size--;
+            nearCacheStats.decrementOwnedEntryMemoryCost(record.getCost());
+            if (record.getRecordState() == READ_PERMITTED) {
+                nearCacheStats.decrementOwnedEntryCount();
+            }
+            record.dispose();
+        }
+
+        /**
+         * Returns the first record of the bucket in the given slot; an unassigned slot holds {@code NULL_ADDRESS}.
+         */
+        private long bucketHead(long slot) {
+            return mem.getLong(table.address() + slot * SLOT_LENGTH + SLOT_VALUE_OFFSET);
+        }
+    }
+
+    /**
+     * Eviction candidate over a record sampled under the lock of its segment.
+     */
+    private static final class RecordCandidate implements EvictionCandidate<Data, NativeNearCacheRecord> {
+
+        private final NativeNearCacheRecord record;
+        // copied on demand, since comparators may read the key several times
+        private Data key;
+
+        RecordCandidate(NativeNearCacheRecord record) {
+            this.record = record;
+        }
+
+        @Override
+        public Data getAccessor() {
+            if (key == null) {
+                key = record.getKey();
+            }
+            return key;
+        }
+
+        @Override
+        public NativeNearCacheRecord getEvictable() {
+            return record;
+        }
+
+        @Override
+        public Object getKey() {
+            return getAccessor();
+        }
+
+        @Override
+        public Object getValue() {
+            return record.getValue();
+        }
+
+        @Override
+        public long getCreationTime() {
+            return record.getCreationTime();
+        }
+
+        @Override
+        public long getLastAccessTime() {
+            return record.getLastAccessTime();
+        }
+
+        @Override
+        public long getAccessHit() {
+            return record.getAccessHit();
+        }
+    }
+
+    /**
+     * Iterates over the keys of the store one segment at a time, copying the keys of a segment under its lock.
+     */
+    private final class KeyIterator implements Iterator<Data> {
+
+        private int segmentIndex;
+        private Iterator<Data> keys = Collections.<Data>emptyList().iterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!keys.hasNext() && segmentIndex < SEGMENT_COUNT) {
+                keys = segments[segmentIndex++].keys().iterator();
+            }
+            return keys.hasNext();
+        }
+
+        @Override
+        public Data next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return keys.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.internal.nearcache.impl.preloader;
 
 import com.hazelcast.config.NearCachePreloaderConfig;
 import com.hazelcast.internal.adapter.DataStructureAdapter;
+import com.hazelcast.internal.nearcache.NearCacheRecordStore;
 import com.hazelcast.internal.serialization.impl.HeapData;
 import com.hazelcast.internal.util.BufferingInputStream;
 import com.hazelcast.logging.ILogger;
@@ -29,6 +30,7 @@ import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.collection.InflatableSet;
 import com.hazelcast.util.collection.InflatableSet.Builder;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -37,6 +39,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.Iterator;
 
+import static com.hazelcast.internal.nearcache.impl.invalidation.StaleReadDetector.ALWAYS_FRESH;
 import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
 import static com.hazelcast.nio.Bits.readIntB;
 import static com.hazelcast.nio.Bits.writeIntB;
@@ -53,6 +56,9 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Loads and stores the keys from a Near Cache into a file.
+ * <p>
+ * If {@link NearCachePreloaderConfig#isStoreValues()} is enabled and the record store is passed in, the values are
+ * stored as well, see {@link NearCacheSnapshot}.
  *
  * @param <K> type of the {@link com.hazelcast.internal.nearcache.NearCacheRecord} keys
  */
@@ -62,7 +68,8 @@ public class NearCachePreloader<K> {
      * File format for the file header.
      */
     private enum FileFormat {
-        INTERLEAVED_LENGTH_FIELD
+        INTERLEAVED_LENGTH_FIELD,
+        VALUE_SNAPSHOT
     }
 
     /**
@@ -90,6 +97,8 @@ public class NearCachePreloader<K> {
     private final String nearCacheName;
     private final NearCacheStatsImpl nearCacheStats;
     private final SerializationService serializationService;
+    private final boolean storeValues;
+    private final NearCacheSnapshot snapshot;
 
     private final NearCachePreloaderLock lock;
     private final File storeFile;
@@ -101,9 +110,19 @@ public class NearCachePreloader<K> {
 
     public NearCachePreloader(String nearCacheName, NearCachePreloaderConfig preloaderConfig,
                               NearCacheStatsImpl nearCacheStats, SerializationService serializationService) {
+        this(nearCacheName, preloaderConfig, false, nearCacheStats, serializationService);
+    }
+
+    /**
+     * @param serializeKeys {@code true} if the keys of the record store are serialized, {@code false} otherwise
+     */
+    public NearCachePreloader(String nearCacheName, NearCachePreloaderConfig preloaderConfig, boolean serializeKeys,
+                              NearCacheStatsImpl nearCacheStats, SerializationService serializationService) {
         this.nearCacheName = nearCacheName;
         this.nearCacheStats = nearCacheStats;
         this.serializationService = serializationService;
+        this.storeValues = preloaderConfig.isStoreValues();
+        this.snapshot = new NearCacheSnapshot(serializationService, serializeKeys);
 
         String filename = getFilename(preloaderConfig.getDirectory(), nearCacheName);
         this.lock = new NearCachePreloaderLock(logger, filename + ".lock");
@@ -121,6 +140,19 @@ public class NearCachePreloader<K> {
      * @param adapter the {@link DataStructureAdapter} to load the values from
      */
     public void loadKeys(DataStructureAdapter<Object, ?> adapter) {
+        loadKeys(adapter, null);
+    }
+
+    /**
+     * Loads the values via a stored key file into the supplied {@link DataStructureAdapter}.
+     * <p>
+     * If the file is a snapshot with values, the entries which are still valid are put straight into the supplied
+     * record store and only the remaining keys are loaded via the {@link DataStructureAdapter}.
+     *
+     * @param adapter     the {@link DataStructureAdapter} to load the values from
+     * @param recordStore the {@link NearCacheRecordStore} to put the stored values into, can be {@code null}
+     */
+    public void loadKeys(DataStructureAdapter<Object, ?> adapter, NearCacheRecordStore<?, ?> recordStore) {
         if (!storeFile.exists()) {
             logger.info(format("Skipped loading keys of Near Cache %s since storage file doesn't exist (%s)", nearCacheName,
                     storeFile.getAbsolutePath()));
@@ -131,7 +163,14 @@ public class NearCachePreloader<K> {
         BufferingInputStream bis = null;
         try {
             bis = new BufferingInputStream(new FileInputStream(storeFile), BUFFER_SIZE);
-            if (!checkHeader(bis)) {
+            FileFormat fileFormat = readHeader(bis);
+            if (fileFormat == null) {
+                return;
+            }
+
+            if (fileFormat == FileFormat.VALUE_SNAPSHOT) {
+                closeResource(bis);
+                loadSnapshot(adapter, recordStore, startedNanos);
                 return;
             }
 
@@ -146,19 +185,31 @@ public class NearCachePreloader<K> {
         }
     }
 
-    private boolean checkHeader(BufferingInputStream bis) throws IOException {
+    private FileFormat readHeader(BufferingInputStream bis) throws IOException {
         int magicBytes = readInt(bis);
         if (magicBytes != MAGIC_BYTES) {
             logger.warning(format("Found invalid header for Near Cache %s (%s)", nearCacheName, storeFile.getAbsolutePath()));
-            return false;
+            return null;
         }
         int fileFormat = readInt(bis);
         if (fileFormat < 0 || fileFormat > FileFormat.values().length - 1) {
             logger.warning(format("Found invalid file format for Near Cache %s (%s)", nearCacheName,
                     storeFile.getAbsolutePath()));
-            return false;
+            return null;
         }
-        return true;
+        return FileFormat.values()[fileFormat];
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadSnapshot(DataStructureAdapter<Object, ?> adapter, NearCacheRecordStore<?, ?> recordStore,
+                              long startedNanos) throws IOException {
+        KeyBatch keyBatch = new KeyBatch(adapter);
+        int loadedEntries = snapshot.load(storeFile, (NearCacheRecordStore<Object, Object>) recordStore, keyBatch);
+        keyBatch.flush();
+
+        long elapsedMillis = getElapsedMillis(startedNanos);
+        logger.info(format("Loaded %d entries and %d keys of Near Cache %s in %d ms", loadedEntries, keyBatch.getKeyCount(),
+                nearCacheName, elapsedMillis));
     }
 
     /**
@@ -167,6 +218,23 @@ public class NearCachePreloader<K> {
      * @param iterator {@link Iterator} over the key set of a {@link com.hazelcast.internal.nearcache.NearCacheRecordStore}
      */
     public void storeKeys(Iterator<K> iterator) {
+        storeKeys(iterator, null);
+    }
+
+    /**
+     * Stores the Near Cache keys from the supplied iterator.
+     * <p>
+     * If {@link NearCachePreloaderConfig#isStoreValues()} is enabled, the values are read from the supplied record
+     * store and stored together with the keys. Without invalidation metadata the freshness of the stored values
+     * couldn't be checked when they are loaded, so only the keys are stored if the record store doesn't receive
+     * invalidations.
+     *
+     * @param iterator    {@link Iterator} over the key set of a {@link NearCacheRecordStore}
+     * @param recordStore the {@link NearCacheRecordStore} to read the values from, can be {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public void storeKeys(Iterator<K> iterator, NearCacheRecordStore<?, ?> recordStore) {
+        boolean writeSnapshot = storeValues && recordStore != null && recordStore.getStaleReadDetector() != ALWAYS_FRESH;
         long startedNanos = System.nanoTime();
         FileOutputStream fos = null;
         try {
@@ -176,10 +244,14 @@ public class NearCachePreloader<K> {
 
             fos = new FileOutputStream(tmpStoreFile, false);
 
-            // write header and keys
-            writeInt(fos, MAGIC_BYTES);
-            writeInt(fos, FileFormat.INTERLEAVED_LENGTH_FIELD.ordinal());
-            writeKeySet(fos, fos.getChannel(), iterator);
+            if (writeSnapshot) {
+                writeSnapshot(fos, iterator, (NearCacheRecordStore<Object, Object>) recordStore);
+            } else {
+                // write header and keys
+                writeInt(fos, MAGIC_BYTES);
+                writeInt(fos, FileFormat.INTERLEAVED_LENGTH_FIELD.ordinal());
+                writeKeySet(fos, fos.getChannel(), iterator);
+            }
 
             // cleanup if no keys have been written
             if (lastKeyCount == 0) {
@@ -212,9 +284,7 @@ public class NearCachePreloader<K> {
     }
 
     private int loadKeySet(BufferingInputStream bis, DataStructureAdapter<Object, ?> adapter) throws IOException {
-        int loadedKeys = 0;
-
-        Builder<Object> builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
+        KeyBatch keyBatch = new KeyBatch(adapter);
         while (readFullyOrNothing(bis, tmpBytes)) {
             int dataSize = readIntB(tmpBytes, 0);
             byte[] payload = new byte[dataSize];
@@ -222,17 +292,23 @@ public class NearCachePreloader<K> {
                 break;
             }
             Data key = new HeapData(payload);
-            builder.add(serializationService.toObject(key));
-            if (builder.size() == LOAD_BATCH_SIZE) {
-                adapter.getAll(builder.build());
-                builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
-            }
-            loadedKeys++;
-        }
-        if (builder.size() > 0) {
-            adapter.getAll(builder.build());
+            keyBatch.add(serializationService.toObject(key));
         }
-        return loadedKeys;
+        keyBatch.flush();
+        return keyBatch.getKeyCount();
+    }
+
+    private void writeSnapshot(FileOutputStream fos, Iterator<K> iterator, NearCacheRecordStore<Object, Object> recordStore)
+            throws IOException {
+        BufferedOutputStream bos = new BufferedOutputStream(fos, BUFFER_SIZE);
+        writeIntB(tmpBytes, 0, MAGIC_BYTES);
+        bos.write(tmpBytes);
+        writeIntB(tmpBytes, 0, FileFormat.VALUE_SNAPSHOT.ordinal());
+        bos.write(tmpBytes);
+
+        lastKeyCount = snapshot.write(bos, iterator, recordStore);
+        bos.flush();
+        lastWrittenBytes = (int) fos.getChannel().position();
     }
 
     private void writeKeySet(FileOutputStream fos, FileChannel outChannel, Iterator<K> iterator) throws IOException {
@@ -290,6 +366,41 @@ public class NearCachePreloader<K> {
         buf.clear();
     }
 
+    /**
+     * Collects keys and loads them in batches via a {@link DataStructureAdapter}.
+     */
+    static final class KeyBatch {
+
+        private final DataStructureAdapter<Object, ?> adapter;
+
+        private Builder<Object> builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
+        private int keyCount;
+
+        KeyBatch(DataStructureAdapter<Object, ?> adapter) {
+            this.adapter = adapter;
+        }
+
+        void add(Object key) {
+            builder.add(key);
+            keyCount++;
+            if (builder.size() == LOAD_BATCH_SIZE) {
+                adapter.getAll(builder.build());
+                builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
+            }
+        }
+
+        void flush() {
+            if (builder.size() > 0) {
+                adapter.getAll(builder.build());
+                builder = InflatableSet.newBuilder(LOAD_BATCH_SIZE);
+            }
+        }
+
+        int getKeyCount() {
+            return keyCount;
+        }
+    }
+
     private static String getFilename(String directory, String nearCacheName) {
         String filename = toFileName("nearCache-" + nearCacheName + ".store");
         if (isNullOrEmpty(directory)) {
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.preloader;
+
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.nearcache.NearCacheRecordStore;
+import com.hazelcast.internal.nearcache.impl.invalidation.MetaDataContainer;
+import com.hazelcast.internal.nearcache.impl.invalidation.StaleReadDetector;
+import com.hazelcast.internal.nearcache.impl.preloader.NearCachePreloader.KeyBatch;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.util.Clock;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static com.hazelcast.internal.nearcache.NearCacheRecord.NOT_RESERVED;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.READ_PERMITTED;
+import static com.hazelcast.nio.Bits.BYTE_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.nio.IOUtil.closeResource;
+
+/**
+ * Writes the entries of a Near Cache into a snapshot file and puts them back into the Near Cache.
+ * <p>
+ * After the file header the snapshot consists of tagged blocks, followed by a CRC32 checksum of the blocks:
+ * <ul>
+ * <li>a partition block holds the partition ID and the invalidation metadata (partition UUID and sequence)
+ * of the partition, which is captured before the first entry of the partition is read</li>
+ * <li>an entry block holds the partition ID, the key and the value of a single entry</li>
+ * <li>an end block terminates the snapshot</li>
+ * </ul>
+ * Since the metadata of a partition is captured before its entries are read, an entry which is invalidated while
+ * the snapshot is written can only make the snapshot look staler than it is, never fresher.
+ * <p>
+ * The snapshot is loaded from a memory-mapped file, so the entries are put into the Near Cache straight from the
+ * pages of the file. An entry is only put into the Near Cache if the invalidation metadata of its partition is
+ * still the one of the snapshot, otherwise its key is handed over to be fetched from the cluster.
+ */
+final class NearCacheSnapshot {
+
+    private static final int HEADER_SIZE = 2 * INT_SIZE_IN_BYTES;
+
+    private static final byte END_BLOCK = 0;
+    private static final byte PARTITION_BLOCK = 1;
+    private static final byte ENTRY_BLOCK = 2;
+
+    private static final int ENTRY_OVERHEAD = BYTE_SIZE_IN_BYTES + 3 * INT_SIZE_IN_BYTES;
+    private static final int TRAILER_SIZE = BYTE_SIZE_IN_BYTES + LONG_SIZE_IN_BYTES;
+    /**
+     * The snapshot has to fit into a single mapped buffer, further entries are not written.
+     */
+    private static final long MAX_SNAPSHOT_SIZE = Integer.MAX_VALUE;
+    private static final int CHECKSUM_CHUNK_SIZE = 1 << 16;
+
+    private final SerializationService serializationService;
+    private final boolean serializeKeys;
+
+    NearCacheSnapshot(SerializationService serializationService, boolean serializeKeys) {
+        this.serializationService = serializationService;
+        this.serializeKeys = serializeKeys;
+    }
+
+    /**
+     * Writes the blocks and the checksum of a snapshot of the given keys.
+     *
+     * @param out         the stream to write to, positioned after the file header
+     * @param keys        {@link Iterator} over the key set of the record store
+     * @param recordStore the record store to read the records from
+     * @return the number of written entries
+     */
+    int write(OutputStream out, Iterator<?> keys, NearCacheRecordStore<Object, Object> recordStore) throws IOException {
+        CRC32 checksum = new CRC32();
+        DataOutputStream blocks = new DataOutputStream(new CheckedOutputStream(out, checksum));
+        StaleReadDetector staleReadDetector = recordStore.getStaleReadDetector();
+        BitSet capturedPartitions = new BitSet();
+        long now = Clock.currentTimeMillis();
+        int entryCount = 0;
+        while (keys.hasNext()) {
+            Object key = keys.next();
+            Data keyData = serializationService.toData(key);
+            if (keyData == null) {
+                continue;
+            }
+            int partitionId = staleReadDetector.getPartitionId(keyData);
+            if (!capturedPartitions.get(partitionId)) {
+                writePartition(blocks, partitionId, staleReadDetector.getMetaDataContainer(partitionId));
+                capturedPartitions.set(partitionId);
+            }
+            Data valueData = getValueData(recordStore, staleReadDetector, key, now);
+            if (valueData == null) {
+                continue;
+            }
+            int keySize = keyData.totalSize();
+            int valueSize = valueData.totalSize();
+            if (blocks.size() + (long) ENTRY_OVERHEAD + keySize + valueSize + TRAILER_SIZE + HEADER_SIZE > MAX_SNAPSHOT_SIZE) {
+                break;
+            }
+            blocks.writeByte(ENTRY_BLOCK);
+            blocks.writeInt(partitionId);
+            blocks.writeInt(keySize);
+            blocks.write(keyData.toByteArray());
+            blocks.writeInt(valueSize);
+            blocks.write(valueData.toByteArray());
+            entryCount++;
+        }
+        blocks.writeByte(END_BLOCK);
+        blocks.flush();
+        // the checksum itself is written to the unchecked stream
+        new DataOutputStream(out).writeLong(checksum.getValue());
+        return entryCount;
+    }
+
+    private static void writePartition(DataOutputStream blocks, int partitionId, MetaDataContainer metaData)
+            throws IOException {
+        UUID uuid = metaData.getUuid();
+        blocks.writeByte(PARTITION_BLOCK);
+        blocks.writeInt(partitionId);
+        // a partition without UUID is written with a UUID which never matches, so its entries are fetched again
+        blocks.writeLong(uuid != null ? uuid.getMostSignificantBits() : 0);
+        blocks.writeLong(uuid != null ? uuid.getLeastSignificantBits() : 0);
+        blocks.writeLong(metaData.getSequence());
+    }
+
+    /**
+     * @return the value of the record of the given key, or {@code null} if the record is not readable or not fresh
+     */
+    private Data getValueData(NearCacheRecordStore<Object, Object> recordStore, StaleReadDetector staleReadDetector,
+                              Object key, long now) {
+        NearCacheRecord record = recordStore.getRecord(key);
+        if (record == null || record.getRecordState() != READ_PERMITTED || record.isExpiredAt(now)
+                || staleReadDetector.isStaleRead(key, record)) {
+            return null;
+        }
+        return serializationService.toData(record.getValue());
+    }
+
+    /**
+     * Loads the snapshot of the given file into the given record store.
+     *
+     * @param file        the snapshot file
+     * @param recordStore the record store to put the entries into, or {@code null} if all keys have to be fetched
+     * @param keyBatch    collects the keys of the entries which have to be fetched from the cluster
+     * @return the number of entries which have been put into the record store
+     */
+    int load(File file, NearCacheRecordStore<Object, Object> recordStore, KeyBatch keyBatch) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > MAX_SNAPSHOT_SIZE) {
+                throw new IOException("Invalid snapshot size: " + size);
+            }
+            // the mapping stays valid after the channel has been closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (!hasValidChecksum(buffer)) {
+                throw new IOException("Invalid snapshot checksum");
+            }
+            buffer.position(HEADER_SIZE);
+            return loadBlocks(buffer, recordStore, keyBatch);
+        } finally {
+            closeResource(raf);
+        }
+    }
+
+    private static boolean hasValidChecksum(ByteBuffer buffer) {
+        int checksumPosition = buffer.limit() - LONG_SIZE_IN_BYTES;
+        ByteBuffer blocks = buffer.duplicate();
+        blocks.position(HEADER_SIZE);
+        blocks.limit(checksumPosition);
+
+        CRC32 checksum = new CRC32();
+        byte[] chunk = new byte[Math.min(CHECKSUM_CHUNK_SIZE, blocks.remaining())];
+        while (blocks.hasRemaining()) {
+            int length = Math.min(chunk.length, blocks.remaining());
+            blocks.get(chunk, 0, length);
+            checksum.update(chunk, 0, length);
+        }
+        return checksum.getValue() == buffer.getLong(checksumPosition);
+    }
+
+    private int loadBlocks(ByteBuffer buffer, NearCacheRecordStore<Object, Object> recordStore, KeyBatch keyBatch) {
+        Map<Integer, PartitionSnapshot> partitions = new HashMap<Integer, PartitionSnapshot>();
+        int loadedEntries = 0;
+        for (byte block = buffer.get(); block != END_BLOCK; block = buffer.get()) {
+            if (block == PARTITION_BLOCK) {
+                int partitionId = buffer.getInt();
+                UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+                partitions.put(partitionId, new PartitionSnapshot(uuid, buffer.getLong()));
+            } else if (block == ENTRY_BLOCK) {
+                int partitionId = buffer.getInt();
+                Data keyData = readData(buffer);
+                Data valueData = readData(buffer);
+                if (recordStore != null && loadEntry(recordStore, partitions.get(partitionId), partitionId, keyData,
+                        valueData)) {
+                    loadedEntries++;
+                } else {
+                    keyBatch.add(serializationService.toObject(keyData));
+                }
+            } else {
+                throw new IllegalStateException("Invalid snapshot block: " + block);
+            }
+        }
+        return loadedEntries;
+    }
+
+    private static Data readData(ByteBuffer buffer) {
+        byte[] payload = new byte[buffer.getInt()];
+        buffer.get(payload);
+        return new HeapData(payload);
+    }
+
+    /**
+     * Puts a single entry into the record store, if its partition hasn't been invalidated since the snapshot was
+     * written. The partition is checked again after the key has been reserved, so an invalidation which is received
+     * in the meantime either fails the check or removes the reservation.
+     *
+     * @return {@code true} if the entry has been put into the record store, {@code false} if it has to be fetched
+     */
+    private boolean loadEntry(NearCacheRecordStore<Object, Object> recordStore, PartitionSnapshot partition,
+                              int partitionId, Data keyData, Data valueData) {
+        StaleReadDetector staleReadDetector = recordStore.getStaleReadDetector();
+        if (partition == null || staleReadDetector.getPartitionId(keyData) != partitionId
+                || !partition.isCurrent(staleReadDetector.getMetaDataContainer(partitionId))) {
+            return false;
+        }
+        Object key = serializeKeys ? keyData : serializationService.toObject(keyData);
+        recordStore.doEvictionIfRequired();
+        long reservationId = recordStore.tryReserveForUpdate(key, keyData);
+        if (reservationId == NOT_RESERVED) {
+            return false;
+        }
+        if (!partition.isCurrent(staleReadDetector.getMetaDataContainer(partitionId))) {
+            recordStore.remove(key);
+            return false;
+        }
+        recordStore.tryPublishReserved(key, valueData, reservationId, false);
+        return true;
+    }
+
+    /**
+     * The invalidation metadata of a partition when the snapshot was written.
+     */
+    private static final class PartitionSnapshot {
+
+        private final UUID uuid;
+        private final long sequence;
+
+        PartitionSnapshot(UUID uuid, long sequence) {
+            this.uuid = uuid;
+            this.sequence = sequence;
+        }
+
+        boolean isCurrent(MetaDataContainer metaData) {
+            return metaData != null && uuid.equals(metaData.getUuid()) && sequence == metaData.getSequence();
+        }
+    }
+}
@@ -22,6 +22,8 @@ import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.IFunction;
 import com.hazelcast.internal.eviction.EvictionChecker;
 import com.hazelcast.internal.eviction.EvictionListener;
+import com.hazelcast.internal.eviction.EvictionPolicyComparator;
+import com.hazelcast.internal.eviction.impl.comparator.TinyLfuEvictionPolicyComparator;
 import com.hazelcast.internal.eviction.impl.evaluator.EvictionPolicyEvaluator;
 import com.hazelcast.internal.eviction.impl.strategy.sampling.SamplingEvictionStrategy;
 import com.hazelcast.internal.nearcache.NearCacheRecord;
@@ -89,6 +91,8 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
     protected EvictionChecker evictionChecker;
     protected SamplingEvictionStrategy<KS, R, NCRM> evictionStrategy;
     protected EvictionPolicyEvaluator<KS, R> evictionPolicyEvaluator;
+    // set if new entries have to be admitted by TinyLFU
+    protected TinyLfuEvictionPolicyComparator tinyLfuComparator;
     protected NCRM records;
 
     protected volatile StaleReadDetector staleReadDetector = ALWAYS_FRESH;
@@ -120,6 +124,10 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         if (!evictionDisabled) {
             this.evictionStrategy = SamplingEvictionStrategy.INSTANCE;
             this.evictionPolicyEvaluator = getEvictionPolicyEvaluator(evictionConfig, classLoader);
+            EvictionPolicyComparator comparator = evictionPolicyEvaluator.getEvictionPolicyComparator();
+            if (comparator instanceof TinyLfuEvictionPolicyComparator) {
+                this.tinyLfuComparator = (TinyLfuEvictionPolicyComparator) comparator;
+            }
         }
     }
 
@@ -264,6 +272,9 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
     @Override
     public V get(K key) {
         checkAvailable();
+        if (tinyLfuComparator != null) {
+            tinyLfuComparator.recordAccess(key);
+        }
 
         R record = null;
         V value = null;
@@ -307,6 +318,9 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         if (evictionDisabled && evictionChecker.isEvictionRequired() && !containsRecordKey(key)) {
             return;
         }
+        if (tinyLfuComparator != null && !admit(key)) {
+            return;
+        }
 
         R record = null;
         R oldRecord = null;
@@ -376,7 +390,8 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
     public void doEvictionIfRequired() {
         checkAvailable();
 
-        if (!evictionDisabled) {
+        // with TinyLFU, eviction is done on the admission of new entries
+        if (!evictionDisabled && tinyLfuComparator == null) {
             evictionStrategy.evict(records, evictionPolicyEvaluator, evictionChecker, this);
         }
     }
@@ -398,6 +413,9 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         if (evictionDisabled && evictionChecker.isEvictionRequired() && !containsRecordKey(key)) {
             return NOT_RESERVED;
         }
+        if (tinyLfuComparator != null && !admit(key)) {
+            return NOT_RESERVED;
+        }
 
         R reservedRecord = getOrCreateToReserve(key, keyData);
         long reservationId = nextReservationId();
@@ -431,6 +449,17 @@ public abstract class AbstractNearCacheRecordStore<K, V, KS, R extends NearCache
         return reservedRecord;
     }
 
+    /**
+     * Makes room for a new entry of the given key if the Near Cache is full, by evicting the eviction
+     * candidate if the key is accessed more frequently than the key of the candidate.
+     *
+     * @return {@code true} if the entry can be stored, {@code false} if it should be dropped
+     */
+    private boolean admit(K key) {
+        return containsRecordKey(key)
+                || evictionStrategy.evictForAdmission(records, evictionPolicyEvaluator, evictionChecker, this, key);
+    }
+
     private void onRecordAccess(R record) {
         record.setAccessTime(Clock.currentTimeMillis());
         record.incrementAccessHit();
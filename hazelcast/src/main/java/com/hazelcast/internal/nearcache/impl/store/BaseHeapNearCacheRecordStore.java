@@ -53,8 +53,8 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
         super(nearCacheConfig, serializationService, classLoader);
 
         NearCachePreloaderConfig preloaderConfig = nearCacheConfig.getPreloaderConfig();
-        this.nearCachePreloader = preloaderConfig.isEnabled() ? new NearCachePreloader<K>(name, preloaderConfig, nearCacheStats,
-                serializationService) : null;
+        this.nearCachePreloader = preloaderConfig.isEnabled() ? new NearCachePreloader<K>(name, preloaderConfig,
+                nearCacheConfig.isSerializeKeys(), nearCacheStats, serializationService) : null;
     }
 
     @Override
@@ -122,14 +122,14 @@ public abstract class BaseHeapNearCacheRecordStore<K, V, R extends NearCacheReco
     @Override
     public void loadKeys(DataStructureAdapter<Object, ?> adapter) {
         if (nearCachePreloader != null) {
-            nearCachePreloader.loadKeys(adapter);
+            nearCachePreloader.loadKeys(adapter, this);
         }
     }
 
     @Override
     public void storeKeys() {
         if (nearCachePreloader != null) {
-            nearCachePreloader.storeKeys(records.keySet().iterator());
+            nearCachePreloader.storeKeys(records.keySet().iterator(), this);
         }
     }
 
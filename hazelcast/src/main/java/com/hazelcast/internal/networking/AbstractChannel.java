@@ -112,6 +112,11 @@ public abstract class AbstractChannel implements Channel {
         return socketChannel.write(src);
     }
 
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        return socketChannel.write(srcs, offset, length);
+    }
+
     @Override
     public void closeInbound() throws IOException {
     }
@@ -149,6 +149,16 @@ public interface Channel extends Closeable {
      */
     int write(ByteBuffer src) throws IOException;
 
+    /**
+     * Writes a sequence of bytes to this channel from a subsequence of the given buffers.
+     *
+     * Implementations that transform the bytes written by {@link #write(ByteBuffer)}, e.g. to encrypt them, need
+     * to transform the bytes written by this method as well.
+     *
+     * @see java.nio.channels.SocketChannel#write(ByteBuffer[], int, int)
+     */
+    long write(ByteBuffer[] srcs, int offset, int length) throws IOException;
+
     /**
      * Closes inbound.
      *
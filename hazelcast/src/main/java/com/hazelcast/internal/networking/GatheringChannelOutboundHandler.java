@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ChannelOutboundHandler} that can hand out the payload of a frame by reference instead of copying it into the
+ * destination ByteBuffer. The referenced payload is written to the socket with a gathering write, right after the bytes
+ * the handler wrote to the destination ByteBuffer.
+ *
+ * @param <F> the type of the frame
+ * @see Channel#write(ByteBuffer[], int, int)
+ */
+public interface GatheringChannelOutboundHandler<F extends OutboundFrame> extends ChannelOutboundHandler<F> {
+
+    /**
+     * A callback to indicate that the Frame should be written without copying its payload.
+     *
+     * If the payload of the frame has at least {@code minPayloadSize} bytes and the rest of the frame fits into the
+     * destination ByteBuffer, the rest of the frame is written to the destination ByteBuffer and a ByteBuffer
+     * referencing the payload is returned. Otherwise nothing is written and the frame is written with
+     * {@link #onWrite(OutboundFrame, ByteBuffer)} instead.
+     *
+     * This call is only made for a frame of which no bytes have been written by {@link #onWrite(OutboundFrame, ByteBuffer)}.
+     *
+     * @param frame          the Frame to write
+     * @param dst            the destination ByteBuffer
+     * @param minPayloadSize the minimum size of a payload worth referencing
+     * @return the ByteBuffer referencing the payload, or {@code null} if the payload isn't referenced
+     */
+    ByteBuffer onWriteByReference(F frame, ByteBuffer dst, int minPayloadSize);
+}
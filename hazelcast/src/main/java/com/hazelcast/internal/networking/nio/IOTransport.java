@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.util.StringUtil;
+
+import java.nio.channels.spi.SelectorProvider;
+
+import static java.lang.String.format;
+
+/**
+ * Controls the transport used by the {@link NioEventLoopGroup}.
+ */
+public enum IOTransport {
+
+    /**
+     * Processes a channel once per selection event, leaving remaining bytes and frames to the next event.
+     */
+    NIO,
+
+    /**
+     * Processes a channel the way an edge-triggered epoll event loop does: on every selection event the socket
+     * is drained, i.e. read till no more bytes are available and written till the socket buffer is full or no
+     * frames are pending, so a busy channel doesn't go through the selector for every buffer it transfers.
+     * <p>
+     * Requires the platform {@link SelectorProvider} to be epoll based; otherwise {@link #NIO} is used.
+     */
+    EPOLL;
+
+    public static final String NIO_STRING = "nio";
+    public static final String EPOLL_STRING = "epoll";
+
+    static final String EPOLL_SELECTOR_PROVIDER = "sun.nio.ch.EPollSelectorProvider";
+
+    public static IOTransport fromString(String value) {
+        String normalized = value.trim().toLowerCase(StringUtil.LOCALE_INTERNAL);
+        if (normalized.equals(NIO_STRING)) {
+            return NIO;
+        } else if (normalized.equals(EPOLL_STRING)) {
+            return EPOLL;
+        } else {
+            throw new IllegalArgumentException(format("Unrecognized io transport [%s]", value));
+        }
+    }
+
+    /**
+     * Checks if this transport can be used on the current platform.
+     *
+     * @return {@code true} if the transport is available, {@code false} otherwise
+     */
+    public boolean isAvailable() {
+        return this == NIO || EPOLL_SELECTOR_PROVIDER.equals(SelectorProvider.provider().getClass().getName());
+    }
+}
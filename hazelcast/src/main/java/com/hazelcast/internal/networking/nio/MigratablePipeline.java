@@ -22,6 +22,14 @@ package com.hazelcast.internal.networking.nio;
  */
 public interface MigratablePipeline {
 
+    /**
+     * The key of the {@link com.hazelcast.internal.networking.Channel#attributeMap() channel attribute} holding the
+     * group of the pipelines of a channel.
+     *
+     * @see #group()
+     */
+    String GROUP_ATTRIBUTE = "pipeline.group";
+
     /**
      * Requests the MigratablePipeline to move to the new NioThread. This call will not wait for the
      * migration to complete.
@@ -51,4 +59,37 @@ public interface MigratablePipeline {
      * @return total load recorded by this pipeline
      */
     long load();
+
+    /**
+     * Returns the number of bytes read or written by this pipeline so far. Unlike {@link #load()}, this doesn't depend
+     * on the configured load type.
+     *
+     * @return total number of bytes transceived by this pipeline
+     */
+    long bytesTransceived();
+
+    /**
+     * Returns the number of frames read or written by this pipeline so far.
+     *
+     * @return total number of frames transceived by this pipeline
+     */
+    long framesTransceived();
+
+    /**
+     * Returns the number of frames waiting to be processed by this pipeline, i.e. the frames pending to be written
+     * by an outbound pipeline. An inbound pipeline doesn't queue frames, so it returns 0.
+     *
+     * @return the number of pending frames
+     */
+    int framesPending();
+
+    /**
+     * Returns the group this pipeline belongs to, e.g. the connections between two members if several connections
+     * per member pair are used. The pipelines of a group carry related traffic, so they should be spread over
+     * different NioThreads.
+     *
+     * @return the group, or {@code null} if the pipeline doesn't belong to a group
+     * @see #GROUP_ATTRIBUTE
+     */
+    Object group();
 }
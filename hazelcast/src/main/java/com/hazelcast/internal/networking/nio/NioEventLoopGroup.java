@@ -25,7 +25,7 @@ import com.hazelcast.internal.networking.EventLoopGroup;
 import com.hazelcast.internal.networking.nio.iobalancer.IOBalancer;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.LoggingService;
-import com.hazelcast.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.util.concurrent.IdleStrategy;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.io.IOException;
@@ -70,6 +70,13 @@ import static java.util.logging.Level.INFO;
  * 'selectNow' mode that makes it spinning on the selector. This is an experimental
  * feature and will cause the io threads to run hot. For this reason, when this feature
  * is enabled, the number of io threads should be reduced (preferably 1).
+ *
+ * With the {@link IOTransport#EPOLL} transport, the pipelines drain their socket on every selection
+ * event instead of transferring a single buffer per event.
+ *
+ * With write-through enabled, a thread writing a frame to an idle {@link NioOutboundPipeline}, e.g. the
+ * partition thread sending a response, writes it to the socket itself. The output thread only takes over
+ * when the socket is full.
  */
 public final class NioEventLoopGroup implements EventLoopGroup {
 
@@ -81,14 +88,19 @@ public final class NioEventLoopGroup implements EventLoopGroup {
     private final String threadNamePrefix;
     private final ChannelErrorHandler errorHandler;
     private final int balancerIntervalSeconds;
+    private final boolean balancerAdaptive;
     private final ChannelInitializer channelInitializer;
     private final int inputThreadCount;
     private final int outputThreadCount;
     private final Set<NioChannel> channels = newSetFromMap(new ConcurrentHashMap<NioChannel, Boolean>());
     private final ChannelCloseListener channelCloseListener = new ChannelCloseListenerImpl();
     private final SelectorMode selectorMode;
-    private final BackoffIdleStrategy idleStrategy;
+    private final IdleStrategy idleStrategy;
     private final boolean selectorWorkaroundTest;
+    private final IOTransport transport;
+    private final int gatheringWriteMaxBuffers;
+    private final int gatheringWriteMaxBytes;
+    private final boolean writeThrough;
     private volatile IOBalancer ioBalancer;
     private volatile NioThread[] inputThreads;
     private volatile NioThread[] outputThreads;
@@ -102,10 +114,24 @@ public final class NioEventLoopGroup implements EventLoopGroup {
         this.logger = loggingService.getLogger(NioEventLoopGroup.class);
         this.errorHandler = ctx.errorHandler;
         this.balancerIntervalSeconds = ctx.balancerIntervalSeconds;
+        this.balancerAdaptive = ctx.balancerAdaptive;
         this.channelInitializer = ctx.channelInitializer;
         this.selectorMode = ctx.selectorMode;
         this.selectorWorkaroundTest = ctx.selectorWorkaroundTest;
         this.idleStrategy = ctx.idleStrategy;
+        this.transport = resolveTransport(ctx.transport);
+        this.gatheringWriteMaxBuffers = ctx.gatheringWriteMaxBuffers;
+        this.gatheringWriteMaxBytes = ctx.gatheringWriteMaxBytes;
+        this.writeThrough = ctx.writeThrough;
+    }
+
+    private IOTransport resolveTransport(IOTransport transport) {
+        if (transport.isAvailable()) {
+            return transport;
+        }
+        logger.warning("IO transport " + transport + " is not available on this platform, falling back to "
+                + IOTransport.NIO);
+        return IOTransport.NIO;
     }
 
     @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "used only for testing")
@@ -131,6 +157,7 @@ public final class NioEventLoopGroup implements EventLoopGroup {
         }
 
         logger.log(selectorMode != SELECT ? INFO : FINE, "IO threads selector mode is " + selectorMode);
+        logger.log(transport != IOTransport.NIO ? INFO : FINE, "IO transport is " + transport);
 
         this.inputThreads = new NioThread[inputThreadCount];
         for (int i = 0; i < inputThreads.length; i++) {
@@ -170,7 +197,8 @@ public final class NioEventLoopGroup implements EventLoopGroup {
     }
 
     private void startIOBalancer() {
-        ioBalancer = new IOBalancer(inputThreads, outputThreads, threadNamePrefix, balancerIntervalSeconds, loggingService);
+        ioBalancer = new IOBalancer(inputThreads, outputThreads, threadNamePrefix, balancerIntervalSeconds, balancerAdaptive,
+                loggingService);
         ioBalancer.start();
         metricsRegistry.scanAndRegister(ioBalancer, "tcp.balancer");
     }
@@ -240,7 +268,11 @@ public final class NioEventLoopGroup implements EventLoopGroup {
                 errorHandler,
                 loggingService.getLogger(NioOutboundPipeline.class),
                 ioBalancer,
-                channelInitializer);
+                channelInitializer,
+                transport == IOTransport.EPOLL,
+                gatheringWriteMaxBuffers,
+                gatheringWriteMaxBytes,
+                writeThrough);
     }
 
     private NioInboundPipeline newInboundPipeline(NioChannel channel) {
@@ -256,7 +288,8 @@ public final class NioEventLoopGroup implements EventLoopGroup {
                 errorHandler,
                 loggingService.getLogger(NioInboundPipeline.class),
                 ioBalancer,
-                channelInitializer);
+                channelInitializer,
+                transport == IOTransport.EPOLL);
     }
 
     private class ChannelCloseListenerImpl implements ChannelCloseListener {
@@ -303,7 +336,7 @@ public final class NioEventLoopGroup implements EventLoopGroup {
     }
 
     public static class Context {
-        private BackoffIdleStrategy idleStrategy;
+        private IdleStrategy idleStrategy;
         private LoggingService loggingService;
         private MetricsRegistry metricsRegistry;
         private String threadNamePrefix = "hz";
@@ -311,6 +344,7 @@ public final class NioEventLoopGroup implements EventLoopGroup {
         private int inputThreadCount = 1;
         private int outputThreadCount = 1;
         private int balancerIntervalSeconds;
+        private boolean balancerAdaptive;
         // The selector mode determines how IO threads will block (or not) on the Selector:
         //  select:         this is the default mode, uses Selector.select(long timeout)
         //  selectnow:      use Selector.selectNow()
@@ -322,6 +356,11 @@ public final class NioEventLoopGroup implements EventLoopGroup {
         private SelectorMode selectorMode = SelectorMode.getConfiguredValue();
         private boolean selectorWorkaroundTest = Boolean.getBoolean("hazelcast.io.selector.workaround.test");
         private ChannelInitializer channelInitializer;
+        private IOTransport transport = IOTransport.NIO;
+        // 0 disables gathering writes
+        private int gatheringWriteMaxBuffers;
+        private int gatheringWriteMaxBytes = Integer.MAX_VALUE;
+        private boolean writeThrough;
 
         public Context() {
             String selectorModeString = SelectorMode.getConfiguredString();
@@ -340,6 +379,16 @@ public final class NioEventLoopGroup implements EventLoopGroup {
             return this;
         }
 
+        /**
+         * Sets the idle strategy of the IO threads when the selector mode is {@link SelectorMode#SELECT_NOW}.
+         * With a {@link com.hazelcast.util.concurrent.HybridIdleStrategy} an IO thread falls back to a blocking
+         * select once the strategy is exhausted.
+         */
+        public Context idleStrategy(IdleStrategy idleStrategy) {
+            this.idleStrategy = idleStrategy;
+            return this;
+        }
+
         public Context loggingService(LoggingService loggingService) {
             this.loggingService = loggingService;
             return this;
@@ -375,9 +424,38 @@ public final class NioEventLoopGroup implements EventLoopGroup {
             return this;
         }
 
+        public Context balancerAdaptive(boolean balancerAdaptive) {
+            this.balancerAdaptive = balancerAdaptive;
+            return this;
+        }
+
         public Context channelInitializer(ChannelInitializer channelInitializer) {
             this.channelInitializer = channelInitializer;
             return this;
         }
+
+        public Context transport(IOTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        public Context gatheringWriteMaxBuffers(int gatheringWriteMaxBuffers) {
+            this.gatheringWriteMaxBuffers = gatheringWriteMaxBuffers;
+            return this;
+        }
+
+        public Context gatheringWriteMaxBytes(int gatheringWriteMaxBytes) {
+            this.gatheringWriteMaxBytes = gatheringWriteMaxBytes;
+            return this;
+        }
+
+        /**
+         * Sets if a non IO thread writing a frame writes it to the socket itself when the outbound pipeline is idle,
+         * instead of handing it off to the output thread.
+         */
+        public Context writeThrough(boolean writeThrough) {
+            this.writeThrough = writeThrough;
+            return this;
+        }
     }
 }
@@ -41,6 +41,9 @@ import static java.nio.channels.SelectionKey.OP_READ;
  */
 public final class NioInboundPipeline extends NioPipeline {
 
+    // the maximum number of reads per selection event when draining, so a busy channel can't starve the others
+    private static final int MAX_READS_PER_EVENT = 16;
+
     protected ByteBuffer inputBuffer;
 
     @Probe(name = "bytesRead")
@@ -50,6 +53,7 @@ public final class NioInboundPipeline extends NioPipeline {
     @Probe(name = "priorityFramesRead")
     private final SwCounter priorityFramesRead = newSwCounter();
     private final ChannelInitializer initializer;
+    private final boolean drain;
     private ChannelInboundHandler inboundHandler;
     private volatile long lastReadTime;
 
@@ -64,9 +68,11 @@ public final class NioInboundPipeline extends NioPipeline {
             ChannelErrorHandler errorHandler,
             ILogger logger,
             IOBalancer balancer,
-            ChannelInitializer initializer) {
+            ChannelInitializer initializer,
+            boolean drain) {
         super(channel, owner, errorHandler, OP_READ, logger, balancer);
         this.initializer = initializer;
+        this.drain = drain;
     }
 
     @Override
@@ -83,6 +89,16 @@ public final class NioInboundPipeline extends NioPipeline {
         }
     }
 
+    @Override
+    public long bytesTransceived() {
+        return bytesRead.get();
+    }
+
+    @Override
+    public long framesTransceived() {
+        return normalFramesRead.get() + priorityFramesRead.get();
+    }
+
     @Probe(name = "idleTimeMs")
     private long idleTimeMs() {
         return Math.max(currentTimeMillis() - lastReadTime, 0);
@@ -126,19 +142,27 @@ public final class NioInboundPipeline extends NioPipeline {
             return;
         }
 
-        int readBytes = channel.read(inputBuffer);
-        if (readBytes <= 0) {
-            if (readBytes == -1) {
-                throw new EOFException("Remote socket closed!");
+        for (int reads = 1; ; reads++) {
+            int bytesRequested = inputBuffer.remaining();
+            int readBytes = channel.read(inputBuffer);
+            if (readBytes <= 0) {
+                if (readBytes == -1) {
+                    throw new EOFException("Remote socket closed!");
+                }
+                return;
             }
-            return;
-        }
 
-        bytesRead.inc(readBytes);
+            bytesRead.inc(readBytes);
+
+            inputBuffer.flip();
+            inboundHandler.onRead(inputBuffer);
+            compactOrClear(inputBuffer);
 
-        inputBuffer.flip();
-        inboundHandler.onRead(inputBuffer);
-        compactOrClear(inputBuffer);
+            // a read which didn't fill the buffer has drained the socket
+            if (!drain || readBytes < bytesRequested || reads == MAX_READS_PER_EVENT) {
+                return;
+            }
+        }
     }
 
     private boolean init() throws IOException {
@@ -20,6 +20,7 @@ import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.networking.ChannelErrorHandler;
 import com.hazelcast.internal.networking.ChannelInitializer;
 import com.hazelcast.internal.networking.ChannelOutboundHandler;
+import com.hazelcast.internal.networking.GatheringChannelOutboundHandler;
 import com.hazelcast.internal.networking.InitResult;
 import com.hazelcast.internal.networking.OutboundFrame;
 import com.hazelcast.internal.networking.nio.iobalancer.IOBalancer;
@@ -33,6 +34,8 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
@@ -45,6 +48,12 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 public final class NioOutboundPipeline extends NioPipeline implements Runnable {
 
     private static final long TIMEOUT = 3;
+    // the maximum number of writes per selection event when draining, so a busy channel can't starve the others
+    private static final int MAX_WRITES_PER_EVENT = 16;
+    // payloads smaller than this are cheaper to copy than to write as a separate buffer
+    private static final int MIN_REFERENCED_PAYLOAD_SIZE = 8 * 1024;
+    // a referenced payload takes 2 buffers: the bytes copied before it and the payload; 1 more for the trailing bytes
+    private static final int MIN_GATHER_BUFFERS = 3;
 
     @SuppressWarnings("checkstyle:visibilitymodifier")
     @Probe(name = "writeQueueSize")
@@ -53,9 +62,22 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
     @Probe(name = "priorityWriteQueueSize")
     public final Queue<OutboundFrame> urgentWriteQueue = new ConcurrentLinkedQueue<OutboundFrame>();
     private final ChannelInitializer initializer;
+    private final boolean drain;
+    private final int gatherMaxBuffers;
+    private final int gatherMaxBytes;
+    // serializes the processing by the owner and by the threads writing through; null if write-through is disabled
+    private final Lock processLock;
 
     private ByteBuffer outputBuffer;
 
+    // the buffers of a gathering write: slices of the outputBuffer and referenced payloads, in the order to write them;
+    // null if the pipeline doesn't do gathering writes
+    private ByteBuffer[] gatherBuffers;
+    private int gatherHead;
+    private int gatherCount;
+    // the start of the bytes in the outputBuffer that aren't part of the gatherBuffers yet
+    private int sliceStart;
+
     private final AtomicBoolean scheduled = new AtomicBoolean(false);
     @Probe(name = "bytesWritten")
     private final SwCounter bytesWritten = newSwCounter();
@@ -63,9 +85,13 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = "priorityFramesWritten")
     private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = "writeThroughs")
+    private final SwCounter writeThroughs = newSwCounter();
     private ChannelOutboundHandler outboundHandler;
 
     private OutboundFrame currentFrame;
+    // true if some, but not all, bytes of the currentFrame have been written to the outputBuffer
+    private boolean currentFramePartial;
     private volatile long lastWriteTime;
 
     // this field will be accessed by the NioThread or
@@ -83,9 +109,17 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
                                ChannelErrorHandler errorHandler,
                                ILogger logger,
                                IOBalancer balancer,
-                               ChannelInitializer initializer) {
+                               ChannelInitializer initializer,
+                               boolean drain,
+                               int gatherMaxBuffers,
+                               int gatherMaxBytes,
+                               boolean writeThrough) {
         super(channel, owner, errorHandler, OP_WRITE, logger, balancer);
         this.initializer = initializer;
+        this.drain = drain;
+        this.gatherMaxBuffers = gatherMaxBuffers;
+        this.gatherMaxBytes = gatherMaxBytes;
+        this.processLock = writeThrough ? new ReentrantLock() : null;
     }
 
     @Override
@@ -102,10 +136,40 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
         }
     }
 
+    @Override
+    public long bytesTransceived() {
+        return bytesWritten.get();
+    }
+
+    @Override
+    public long framesTransceived() {
+        return normalFramesWritten.get() + priorityFramesWritten.get();
+    }
+
+    @Override
+    public int framesPending() {
+        return totalFramesPending();
+    }
+
     public int totalFramesPending() {
         return writeQueue.size() + urgentWriteQueue.size();
     }
 
+    /**
+     * Checks if every frame written to this pipeline has been taken from the write queues by the IO thread.
+     * Unlike {@link #totalFramesPending()} this doesn't traverse the queues.
+     *
+     * @return {@code true} if both write queues are empty, {@code false} otherwise
+     */
+    public boolean isDrained() {
+        return writeQueue.isEmpty() && urgentWriteQueue.isEmpty();
+    }
+
+    // just for testing
+    long writeThroughCount() {
+        return writeThroughs.get();
+    }
+
     public long lastWriteTimeMillis() {
         return lastWriteTime;
     }
@@ -151,7 +215,71 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
             writeQueue.offer(frame);
         }
 
-        schedule();
+        if (processLock != null && !(Thread.currentThread() instanceof NioThread)) {
+            writeThrough();
+        } else {
+            schedule();
+        }
+    }
+
+    /**
+     * Writes the pending frames to the socket on the calling thread, e.g. the partition thread that produced a
+     * response, instead of handing them off to the IO thread.
+     * <p/>
+     * Just like {@link #schedule()}, only the thread that manages to cas the scheduled flag to true does the
+     * writing. It never touches the selection key: whatever can't be written straight away, because the socket
+     * is full, the pipeline isn't initialized yet or a migration is pending, is left to the IO thread. The
+     * scheduled flag stays true in that case, so the frames keep their order.
+     */
+    private void writeThrough() {
+        if (scheduled.get() || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        processLock.lock();
+        try {
+            if (!writeThroughFrames()) {
+                owner.addTaskAndWakeup(this);
+            }
+        } catch (Throwable t) {
+            onFailure(t);
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if all frames have been written and the pipeline has been unscheduled, false if the remaining
+     * work needs to be done by the IO thread.
+     */
+    private boolean writeThroughFrames() throws Exception {
+        for (; ; ) {
+            if (outboundHandler == null || newOwner != null) {
+                return false;
+            }
+
+            writeThroughs.inc();
+            lastWriteTime = currentTimeMillis();
+            for (int writes = 1; writeToSocket(); writes++) {
+                // if the socket didn't take the whole buffer it is full; the IO thread will wait for an OP_WRITE
+                if (dirtyOutputBuffer() || newOwner != null || writes == MAX_WRITES_PER_EVENT) {
+                    return false;
+                }
+            }
+
+            // Everything has been written. Since the scheduled flag only is set to false once OP_WRITE has been
+            // unregistered, there is no need to unregister it.
+            scheduled.set(false);
+            if (writeQueue.isEmpty() && urgentWriteQueue.isEmpty()) {
+                return true;
+            }
+
+            // So there are frames that were added after the last poll; we need to write them as well.
+            if (!scheduled.compareAndSet(false, true)) {
+                // someone else managed to schedule this pipeline, so we are done.
+                return true;
+            }
+        }
     }
 
     private OutboundFrame poll() {
@@ -251,8 +379,22 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void process() throws Exception {
+        if (processLock == null) {
+            processFrames();
+            return;
+        }
+
+        processLock.lock();
+        try {
+            processFrames();
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void processFrames() throws Exception {
         processCount.inc();
         lastWriteTime = currentTimeMillis();
 
@@ -260,10 +402,16 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
             return;
         }
 
-        fillOutputBuffer();
+        for (int writes = 1; ; writes++) {
+            if (!writeToSocket()) {
+                break;
+            }
 
-        if (dirtyOutputBuffer()) {
-            writeOutputBufferToSocket();
+            // if the socket didn't take the whole buffer it is full; we'll get an OP_WRITE when it has space again
+            if (!drain || dirtyOutputBuffer() || currentFrame == null || newOwner != null
+                    || writes == MAX_WRITES_PER_EVENT) {
+                break;
+            }
         }
 
         if (newOwner == null) {
@@ -289,6 +437,9 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
 
         this.outputBuffer = init.getByteBuffer();
         this.outboundHandler = init.getHandler();
+        if (gatherMaxBuffers >= MIN_GATHER_BUFFERS && outboundHandler instanceof GatheringChannelOutboundHandler) {
+            this.gatherBuffers = new ByteBuffer[gatherMaxBuffers];
+        }
         registerOp(OP_WRITE);
         return true;
     }
@@ -305,9 +456,36 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
      * @return true if dirty, false otherwise.
      */
     private boolean dirtyOutputBuffer() {
+        if (gatherBuffers != null) {
+            return gatherHead < gatherCount || outputBuffer.position() > sliceStart;
+        }
         return outputBuffer != null && outputBuffer.position() > 0;
     }
 
+    /**
+     * Fills the outputBuffer (and the gatherBuffers) with frames and writes them to the socket.
+     *
+     * @return false if there was nothing to write, true otherwise.
+     */
+    private boolean writeToSocket() throws Exception {
+        if (gatherBuffers == null) {
+            fillOutputBuffer();
+            if (!dirtyOutputBuffer()) {
+                return false;
+            }
+            writeOutputBufferToSocket();
+        } else {
+            if (gatherHead == gatherCount) {
+                fillGatherBuffers();
+            }
+            if (gatherHead == gatherCount) {
+                return false;
+            }
+            writeGatherBuffersToSocket();
+        }
+        return true;
+    }
+
     /**
      * Writes to content of the outputBuffer to the socket.
      */
@@ -321,6 +499,87 @@ public final class NioOutboundPipeline extends NioPipeline implements Runnable {
         compactOrClear(outputBuffer);
     }
 
+    /**
+     * Writes the gatherBuffers to the socket with a single gathering write.
+     */
+    private void writeGatherBuffersToSocket() throws IOException {
+        long written = channel.write(gatherBuffers, gatherHead, gatherCount - gatherHead);
+
+        bytesWritten.inc(written);
+
+        while (gatherHead < gatherCount && !gatherBuffers[gatherHead].hasRemaining()) {
+            // release the referenced payload
+            gatherBuffers[gatherHead++] = null;
+        }
+    }
+
+    /**
+     * Fills the gatherBuffers with frames. Payloads which are large enough are referenced by a buffer of their own, the
+     * rest of the frames is copied to the outputBuffer. This is done till there are no more frames, till the byte budget
+     * of a gathering write is spent or till there is no more space in the outputBuffer.
+     *
+     * It is only called when all gatherBuffers have been written.
+     */
+    @SuppressWarnings("unchecked")
+    private void fillGatherBuffers() throws Exception {
+        gatherHead = 0;
+        gatherCount = 0;
+        if (sliceStart == outputBuffer.position()) {
+            // everything in the outputBuffer has been written
+            outputBuffer.clear();
+            sliceStart = 0;
+        }
+
+        GatheringChannelOutboundHandler handler = (GatheringChannelOutboundHandler) outboundHandler;
+        if (currentFrame == null) {
+            currentFrame = poll();
+        }
+
+        long bytes = 0;
+        while (currentFrame != null && bytes < gatherMaxBytes) {
+            int position = outputBuffer.position();
+            if (!currentFramePartial && gatherCount + 2 < gatherBuffers.length) {
+                ByteBuffer payload = handler.onWriteByReference(currentFrame, outputBuffer, MIN_REFERENCED_PAYLOAD_SIZE);
+                if (payload != null) {
+                    addOutputBufferSlice();
+                    gatherBuffers[gatherCount++] = payload;
+                    bytes += outputBuffer.position() - position + payload.remaining();
+                    currentFrame = poll();
+                    continue;
+                }
+            }
+
+            boolean complete = outboundHandler.onWrite(currentFrame, outputBuffer);
+            bytes += outputBuffer.position() - position;
+            if (!complete) {
+                // We are done for this round because not all data of the currentFrame fits in the outputBuffer
+                currentFramePartial = outputBuffer.position() > position || currentFramePartial;
+                break;
+            }
+
+            currentFramePartial = false;
+            currentFrame = poll();
+        }
+
+        addOutputBufferSlice();
+    }
+
+    /**
+     * Adds the bytes copied to the outputBuffer since the previous slice to the gatherBuffers.
+     */
+    private void addOutputBufferSlice() {
+        int position = outputBuffer.position();
+        if (position == sliceStart) {
+            return;
+        }
+
+        ByteBuffer slice = outputBuffer.duplicate();
+        slice.limit(position);
+        slice.position(sliceStart);
+        gatherBuffers[gatherCount++] = slice;
+        sliceStart = position;
+    }
+
     /**
      * Fills the outBuffer with frames. This is done till there are no more frames or till there is no more space in the
      * outputBuffer.
@@ -99,6 +99,16 @@ public abstract class NioPipeline implements MigratablePipeline, Closeable {
             return owner;
     }
 
+    @Override
+    public Object group() {
+        return channel.attributeMap().get(GROUP_ATTRIBUTE);
+    }
+
+    @Override
+    public int framesPending() {
+        return 0;
+    }
+
     public void start() {
         owner.addTaskAndWakeup(new Runnable() {
             @Override
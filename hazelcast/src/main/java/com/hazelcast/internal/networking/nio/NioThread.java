@@ -22,6 +22,7 @@ import com.hazelcast.internal.networking.ChannelErrorHandler;
 import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.operationexecutor.OperationHostileThread;
+import com.hazelcast.util.concurrent.HybridIdleStrategy;
 import com.hazelcast.util.concurrent.IdleStrategy;
 
 import java.io.IOException;
@@ -94,6 +95,12 @@ public class NioThread extends Thread implements OperationHostileThread {
 
     private final IdleStrategy idleStrategy;
 
+    // if the thread falls back to a blocking select once the idle strategy is exhausted
+    private final boolean blockWhenIdle;
+
+    // set while the thread falls back to a blocking select, so tasks added in the meantime wake up the selector
+    private volatile boolean selecting;
+
     // last time select unblocked with some keys selected
     private volatile long lastSelectTimeMs;
 
@@ -129,6 +136,7 @@ public class NioThread extends Thread implements OperationHostileThread {
         this.selector = selector;
         this.selectorWorkaroundTest = false;
         this.idleStrategy = idleStrategy;
+        this.blockWhenIdle = idleStrategy instanceof HybridIdleStrategy;
     }
 
     public long bytesTransceived() {
@@ -202,7 +210,7 @@ public class NioThread extends Thread implements OperationHostileThread {
      */
     public void addTaskAndWakeup(Runnable task) {
         taskQueue.add(task);
-        if (selectMode != SELECT_NOW) {
+        if (selectMode != SELECT_NOW || selecting) {
             selector.wakeup();
         }
     }
@@ -321,11 +329,34 @@ public class NioThread extends Thread implements OperationHostileThread {
                 idleRound = 0;
             } else if (idleStrategy != null) {
                 idleRound++;
-                idleStrategy.idle(idleRound);
+                if (idleStrategy.idle(idleRound) && blockWhenIdle) {
+                    selectBlocking();
+                    idleRound = 0;
+                }
             }
         }
     }
 
+    /**
+     * Blocks on the selector until a channel is ready or a task is added; used once a {@link HybridIdleStrategy}
+     * is exhausted.
+     */
+    private void selectBlocking() throws IOException {
+        selecting = true;
+        try {
+            // a task added before selecting was set didn't wake up the selector
+            if (!taskQueue.isEmpty()) {
+                return;
+            }
+            int selectedKeys = selector.select(SELECT_WAIT_TIME_MILLIS);
+            if (selectedKeys > 0) {
+                handleSelectionKeys();
+            }
+        } finally {
+            selecting = false;
+        }
+    }
+
     private boolean processTaskQueue() {
         boolean tasksProcessed = false;
         while (!stop) {
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio.iobalancer;
+
+import com.hazelcast.internal.networking.nio.MigratablePipeline;
+import com.hazelcast.internal.networking.nio.NioThread;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link MigrationStrategy} which balances the NioThreads by the traffic of their pipelines rather than by the
+ * configured {@link MigratablePipeline#load() load}.
+ *
+ * The load of a pipeline in an interval is the number of bytes it transceived, plus the estimated size of the frames
+ * still pending in it, weighted by the time these frames are expected to wait in the queue. Following Little's law,
+ * the time in queue relative to the interval is the number of frames pending divided by the number of frames
+ * transceived in the interval. The load is smoothed over the intervals, so a short burst doesn't cause a migration.
+ *
+ * Migrations are damped by hysteresis: an imbalance has to be detected in {@link #IMBALANCED_ROUNDS} consecutive
+ * intervals before it is acted on, once acted on pipelines are migrated until the NioThreads are balanced according
+ * to the stricter {@link #BALANCED_RATIO}, and a migrated pipeline isn't migrated again for {@link #COOLDOWN_ROUNDS}
+ * intervals.
+ *
+ * This strategy keeps state between the intervals, so an instance must be used for a single {@link LoadTracker}.
+ */
+class AdaptiveMigrationStrategy implements MigrationStrategy {
+
+    /**
+     * The weight of the latest interval in the smoothed load of a pipeline.
+     */
+    static final double SMOOTHING_FACTOR = 0.5;
+
+    /**
+     * An imbalance is detected if the least busy NioThread has less load than this ratio of the load of the busiest
+     * NioThread.
+     */
+    static final double IMBALANCED_RATIO = 0.7;
+
+    /**
+     * Once an imbalance is acted on, the NioThreads are considered balanced again when the least busy NioThread has
+     * at least this ratio of the load of the busiest NioThread.
+     */
+    static final double BALANCED_RATIO = 0.85;
+
+    /**
+     * The number of consecutive intervals an imbalance has to be detected in before it is acted on.
+     */
+    static final int IMBALANCED_ROUNDS = 2;
+
+    /**
+     * The number of intervals a migrated pipeline isn't migrated again.
+     */
+    static final int COOLDOWN_ROUNDS = 3;
+
+    /**
+     * The size assumed for the pending frames of a pipeline which didn't transceive any frame in the interval.
+     */
+    static final long DEFAULT_FRAME_SIZE = 1024;
+
+    private final Map<NioThread, Double> ownerLoad = new HashMap<NioThread, Double>();
+    private final Map<MigratablePipeline, Long> migrationRounds = new HashMap<MigratablePipeline, Long>();
+    private Map<MigratablePipeline, Double> pipelineLoad = new HashMap<MigratablePipeline, Double>();
+    private Map<MigratablePipeline, Double> previousPipelineLoad = new HashMap<MigratablePipeline, Double>();
+
+    private long round;
+    private int imbalancedRounds;
+    private boolean balancing;
+
+    @Override
+    public boolean imbalanceDetected(LoadImbalance imbalance) {
+        round++;
+        updateLoad(imbalance);
+        expireCooldowns();
+
+        if (imbalance.srcOwner == null || imbalance.dstOwner == null || imbalance.srcOwner == imbalance.dstOwner) {
+            imbalancedRounds = 0;
+            balancing = false;
+            return false;
+        }
+
+        double max = ownerLoad.get(imbalance.srcOwner);
+        double min = ownerLoad.get(imbalance.dstOwner);
+        if (balancing) {
+            balancing = min < BALANCED_RATIO * max;
+        } else if (min < IMBALANCED_RATIO * max) {
+            imbalancedRounds++;
+            if (imbalancedRounds >= IMBALANCED_ROUNDS) {
+                imbalancedRounds = 0;
+                balancing = true;
+            }
+        } else {
+            imbalancedRounds = 0;
+        }
+        return balancing;
+    }
+
+    /**
+     * Finds the busiest pipeline of {@link LoadImbalance#srcOwner} which carries at most half of the difference between
+     * the load of the source and the destination NioThread, so the migration can't make the destination busier than the
+     * source. Like in the {@link LoadMigrationStrategy}, a pipeline joining a pipeline of its group on the destination is
+     * only selected if there is no other candidate.
+     */
+    @Override
+    public MigratablePipeline findPipelineToMigrate(LoadImbalance imbalance) {
+        double migrationThreshold = (ownerLoad.get(imbalance.srcOwner) - ownerLoad.get(imbalance.dstOwner)) / 2;
+        MigratablePipeline candidate = null;
+        double loadInSelectedPipeline = 0;
+        MigratablePipeline groupedCandidate = null;
+        double loadInGroupedPipeline = 0;
+        for (MigratablePipeline pipeline : imbalance.getPipelinesOwnedBy(imbalance.srcOwner)) {
+            double load = getLoad(pipeline);
+            if (load > migrationThreshold || migrationRounds.containsKey(pipeline)) {
+                continue;
+            }
+            Object group = pipeline.group();
+            if (group != null && imbalance.ownsPipelineOfGroup(imbalance.dstOwner, group)) {
+                if (load > loadInGroupedPipeline) {
+                    loadInGroupedPipeline = load;
+                    groupedCandidate = pipeline;
+                }
+            } else if (load > loadInSelectedPipeline) {
+                loadInSelectedPipeline = load;
+                candidate = pipeline;
+            }
+        }
+        MigratablePipeline selected = candidate != null ? candidate : groupedCandidate;
+        if (selected != null) {
+            migrationRounds.put(selected, round);
+        }
+        return selected;
+    }
+
+    // just for testing
+    double getLoad(MigratablePipeline pipeline) {
+        Double load = pipelineLoad.get(pipeline);
+        return load == null ? 0 : load;
+    }
+
+    // just for testing
+    double getLoad(NioThread owner) {
+        Double load = ownerLoad.get(owner);
+        return load == null ? 0 : load;
+    }
+
+    /**
+     * Smooths the load of the pipelines, sums it up per NioThread and selects the busiest NioThread with more than one
+     * pipeline as {@link LoadImbalance#srcOwner} and the least busy NioThread as {@link LoadImbalance#dstOwner}.
+     */
+    private void updateLoad(LoadImbalance imbalance) {
+        Map<MigratablePipeline, Double> previous = pipelineLoad;
+        pipelineLoad = previousPipelineLoad;
+        previousPipelineLoad = previous;
+        // only the pipelines still known are carried over, so the load of removed pipelines doesn't leak
+        pipelineLoad.clear();
+        ownerLoad.clear();
+
+        double maximumLoad = -1;
+        double minimumLoad = Double.MAX_VALUE;
+        imbalance.srcOwner = null;
+        imbalance.dstOwner = null;
+        for (NioThread owner : imbalance.getOwners()) {
+            Set<MigratablePipeline> pipelines = imbalance.getPipelinesOwnedBy(owner);
+            double load = 0;
+            for (MigratablePipeline pipeline : pipelines) {
+                Double previousLoad = previous.get(pipeline);
+                double latestLoad = load(imbalance, pipeline);
+                double smoothedLoad = previousLoad == null
+                        ? latestLoad
+                        : SMOOTHING_FACTOR * latestLoad + (1 - SMOOTHING_FACTOR) * previousLoad;
+                pipelineLoad.put(pipeline, smoothedLoad);
+                load += smoothedLoad;
+            }
+            ownerLoad.put(owner, load);
+
+            if (load > maximumLoad && pipelines.size() > 1) {
+                maximumLoad = load;
+                imbalance.srcOwner = owner;
+            }
+            if (load < minimumLoad) {
+                minimumLoad = load;
+                imbalance.dstOwner = owner;
+            }
+        }
+        imbalance.maximumLoad = imbalance.srcOwner == null ? Long.MIN_VALUE : (long) maximumLoad;
+        imbalance.minimumLoad = imbalance.dstOwner == null ? Long.MAX_VALUE : (long) minimumLoad;
+    }
+
+    private static double load(LoadImbalance imbalance, MigratablePipeline pipeline) {
+        long bytes = imbalance.getBytes(pipeline);
+        long pending = imbalance.getFramesPending(pipeline);
+        if (pending == 0) {
+            return bytes;
+        }
+        long frames = imbalance.getFrames(pipeline);
+        double frameSize = frames > 0 ? (double) bytes / frames : DEFAULT_FRAME_SIZE;
+        // the time the pending frames are expected to wait relative to the interval, capped at a full interval
+        double queueTime = frames > 0 ? Math.min((double) pending / frames, 1) : 1;
+        return bytes + pending * frameSize * (1 + queueTime);
+    }
+
+    private void expireCooldowns() {
+        Iterator<Long> iterator = migrationRounds.values().iterator();
+        while (iterator.hasNext()) {
+            if (round - iterator.next() > COOLDOWN_ROUNDS) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -51,7 +51,9 @@ import static com.hazelcast.spi.properties.GroupProperty.IO_THREAD_COUNT;
  * The exact migration strategy can be customized via
  * {@link com.hazelcast.internal.networking.nio.iobalancer.MigrationStrategy}.
  *
- * Measuring interval can be customized via {@link GroupProperty#IO_BALANCER_INTERVAL_SECONDS}
+ * Measuring interval can be customized via {@link GroupProperty#IO_BALANCER_INTERVAL_SECONDS}. With
+ * {@link GroupProperty#IO_BALANCER_ADAPTIVE} the pipelines are balanced by their bytes, pending frames and
+ * time-in-queue, see {@link AdaptiveMigrationStrategy}.
  *
  * It doesn't leverage {@link com.hazelcast.nio.ConnectionListener} capability
  * provided by {@link com.hazelcast.nio.ConnectionManager} to observe connections
@@ -64,7 +66,9 @@ public class IOBalancer {
     private final ILogger logger;
 
     private final int balancerIntervalSeconds;
-    private final MigrationStrategy strategy;
+    private final boolean adaptive;
+    private final MigrationStrategy inStrategy;
+    private final MigrationStrategy outStrategy;
 
     private final LoadTracker inLoadTracker;
     private final LoadTracker outLoadTracker;
@@ -85,10 +89,23 @@ public class IOBalancer {
                       NioThread[] outputThreads,
                       String hzName,
                       int balancerIntervalSeconds, LoggingService loggingService) {
+        this(inputThreads, outputThreads, hzName, balancerIntervalSeconds, false, loggingService);
+    }
+
+    public IOBalancer(NioThread[] inputThreads,
+                      NioThread[] outputThreads,
+                      String hzName,
+                      int balancerIntervalSeconds,
+                      boolean adaptive,
+                      LoggingService loggingService) {
         this.logger = loggingService.getLogger(IOBalancer.class);
         this.balancerIntervalSeconds = balancerIntervalSeconds;
+        this.adaptive = adaptive;
 
-        this.strategy = createMigrationStrategy();
+        logMigrationStrategy();
+        // a strategy per tracker, since a strategy may keep state between the rebalancing rounds
+        this.inStrategy = createMigrationStrategy();
+        this.outStrategy = createMigrationStrategy();
         this.hzName = hzName;
 
         this.inLoadTracker = new LoadTracker(inputThreads, logger);
@@ -141,16 +158,34 @@ public class IOBalancer {
         }
     }
 
+    /**
+     * Returns the number of times an imbalance was detected.
+     *
+     * @return the number of imbalances detected
+     */
+    public long getImbalanceDetectedCount() {
+        return imbalanceDetectedCount.get();
+    }
+
+    /**
+     * Returns the number of pipeline migrations completed.
+     *
+     * @return the number of migrations completed
+     */
+    public long getMigrationCompletedCount() {
+        return migrationCompletedCount.get();
+    }
+
     void rebalance() {
-        scheduleMigrationIfNeeded(inLoadTracker);
-        scheduleMigrationIfNeeded(outLoadTracker);
+        scheduleMigrationIfNeeded(inLoadTracker, inStrategy);
+        scheduleMigrationIfNeeded(outLoadTracker, outStrategy);
     }
 
-    private void scheduleMigrationIfNeeded(LoadTracker loadTracker) {
+    private void scheduleMigrationIfNeeded(LoadTracker loadTracker, MigrationStrategy strategy) {
         LoadImbalance loadImbalance = loadTracker.updateImbalance();
         if (strategy.imbalanceDetected(loadImbalance)) {
             imbalanceDetectedCount.inc();
-            tryMigrate(loadImbalance);
+            tryMigrate(loadImbalance, strategy);
         } else {
             if (logger.isFinestEnabled()) {
                 long min = loadImbalance.minimumLoad;
@@ -165,13 +200,23 @@ public class IOBalancer {
         }
     }
 
-    private MigrationStrategy createMigrationStrategy() {
+    private void logMigrationStrategy() {
         if (Boolean.getBoolean(PROP_MONKEY_BALANCER)) {
             logger.warning("Using Monkey IO Balancer Strategy. This is for stress tests only. Do not user in production! "
                     + "Disable by not setting the property '" + PROP_MONKEY_BALANCER + "' to true.");
-            return new MonkeyMigrationStrategy();
+        } else if (adaptive) {
+            logger.finest("Using adaptive IO Balancer Strategy.");
         } else {
             logger.finest("Using normal IO Balancer Strategy.");
+        }
+    }
+
+    private MigrationStrategy createMigrationStrategy() {
+        if (Boolean.getBoolean(PROP_MONKEY_BALANCER)) {
+            return new MonkeyMigrationStrategy();
+        } else if (adaptive) {
+            return new AdaptiveMigrationStrategy();
+        } else {
             return new LoadMigrationStrategy();
         }
     }
@@ -196,7 +241,7 @@ public class IOBalancer {
         return true;
     }
 
-    private void tryMigrate(LoadImbalance loadImbalance) {
+    private void tryMigrate(LoadImbalance loadImbalance, MigrationStrategy strategy) {
         MigratablePipeline pipeline = strategy.findPipelineToMigrate(loadImbalance);
         if (pipeline == null) {
             logger.finest("I/O imbalance is detected, but no suitable migration candidate is found.");
@@ -42,11 +42,33 @@ class LoadImbalance {
 
     private final Map<NioThread, Set<MigratablePipeline>> ownerToPipelines;
     private final ItemCounter<MigratablePipeline> pipelineLoadCounter;
+    private final ItemCounter<MigratablePipeline> pipelineBytesCounter;
+    private final ItemCounter<MigratablePipeline> pipelineFramesCounter;
+    private final ItemCounter<MigratablePipeline> pipelineFramesPending;
 
     LoadImbalance(Map<NioThread, Set<MigratablePipeline>> ownerToPipelines,
                   ItemCounter<MigratablePipeline> pipelineLoadCounter) {
+        this(ownerToPipelines, pipelineLoadCounter, new ItemCounter<MigratablePipeline>(),
+                new ItemCounter<MigratablePipeline>(), new ItemCounter<MigratablePipeline>());
+    }
+
+    LoadImbalance(Map<NioThread, Set<MigratablePipeline>> ownerToPipelines,
+                  ItemCounter<MigratablePipeline> pipelineLoadCounter,
+                  ItemCounter<MigratablePipeline> pipelineBytesCounter,
+                  ItemCounter<MigratablePipeline> pipelineFramesCounter,
+                  ItemCounter<MigratablePipeline> pipelineFramesPending) {
         this.ownerToPipelines = ownerToPipelines;
         this.pipelineLoadCounter = pipelineLoadCounter;
+        this.pipelineBytesCounter = pipelineBytesCounter;
+        this.pipelineFramesCounter = pipelineFramesCounter;
+        this.pipelineFramesPending = pipelineFramesPending;
+    }
+
+    /**
+     * @return all NioThreads
+     */
+    Set<NioThread> getOwners() {
+        return ownerToPipelines.keySet();
     }
 
     /**
@@ -57,6 +79,24 @@ class LoadImbalance {
         return ownerToPipelines.get(owner);
     }
 
+    /**
+     * @param owner
+     * @param group
+     * @return {@code true} if the owner owns a pipeline of the given group
+     */
+    boolean ownsPipelineOfGroup(NioThread owner, Object group) {
+        Set<MigratablePipeline> pipelines = ownerToPipelines.get(owner);
+        if (pipelines == null) {
+            return false;
+        }
+        for (MigratablePipeline pipeline : pipelines) {
+            if (group.equals(pipeline.group())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @param pipeline
      * @return load recorded by the pipeline
@@ -64,4 +104,28 @@ class LoadImbalance {
     long getLoad(MigratablePipeline pipeline) {
         return pipelineLoadCounter.get(pipeline);
     }
+
+    /**
+     * @param pipeline
+     * @return bytes transceived by the pipeline
+     */
+    long getBytes(MigratablePipeline pipeline) {
+        return pipelineBytesCounter.get(pipeline);
+    }
+
+    /**
+     * @param pipeline
+     * @return frames transceived by the pipeline
+     */
+    long getFrames(MigratablePipeline pipeline) {
+        return pipelineFramesCounter.get(pipeline);
+    }
+
+    /**
+     * @param pipeline
+     * @return frames pending in the pipeline at the end of the interval
+     */
+    long getFramesPending(MigratablePipeline pipeline) {
+        return pipelineFramesPending.get(pipeline);
+    }
 }
@@ -28,7 +28,9 @@ import java.util.Set;
  *
  * Once a migration is triggered it tries to find the busiest pipeline registered in
  * {@link LoadImbalance#srcOwner} which wouldn't cause overload of the
- * {@link LoadImbalance#dstOwner} after a migration.
+ * {@link LoadImbalance#dstOwner} after a migration. Pipelines of a {@link MigratablePipeline#group() group} are
+ * only moved to a NioThread which already owns a pipeline of the same group if there is no other candidate, so the
+ * pipelines of a group stay spread over the NioThreads.
  */
 class LoadMigrationStrategy implements MigrationStrategy {
 
@@ -83,15 +85,25 @@ class LoadMigrationStrategy implements MigrationStrategy {
                 * MAXIMUM_NO_OF_EVENTS_AFTER_MIGRATION_COEFFICIENT);
         MigratablePipeline candidate = null;
         long loadInSelectedPipeline = 0;
+        // the best candidate joining a pipeline of its group on the destination
+        MigratablePipeline groupedCandidate = null;
+        long loadInGroupedPipeline = 0;
         for (MigratablePipeline pipeline : candidates) {
             long load = imbalance.getLoad(pipeline);
-            if (load > loadInSelectedPipeline) {
-                if (load < migrationThreshold) {
-                    loadInSelectedPipeline = load;
-                    candidate = pipeline;
+            if (load >= migrationThreshold) {
+                continue;
+            }
+            Object group = pipeline.group();
+            if (group != null && imbalance.ownsPipelineOfGroup(imbalance.dstOwner, group)) {
+                if (load > loadInGroupedPipeline) {
+                    loadInGroupedPipeline = load;
+                    groupedCandidate = pipeline;
                 }
+            } else if (load > loadInSelectedPipeline) {
+                loadInSelectedPipeline = load;
+                candidate = pipeline;
             }
         }
-        return candidate;
+        return candidate != null ? candidate : groupedCandidate;
     }
 }
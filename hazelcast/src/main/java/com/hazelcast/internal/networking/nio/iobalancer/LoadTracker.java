@@ -50,6 +50,15 @@ class LoadTracker {
     //no. of events per pipeline since last calculation
     private final ItemCounter<MigratablePipeline> pipelineLoadCount = new ItemCounter<MigratablePipeline>();
 
+    //no. of bytes and frames per pipeline since an instance started
+    private final ItemCounter<MigratablePipeline> lastBytesCounter = new ItemCounter<MigratablePipeline>();
+    private final ItemCounter<MigratablePipeline> lastFramesCounter = new ItemCounter<MigratablePipeline>();
+
+    //no. of bytes and frames per pipeline since last calculation, and no. of frames pending per pipeline
+    private final ItemCounter<MigratablePipeline> pipelineBytesCount = new ItemCounter<MigratablePipeline>();
+    private final ItemCounter<MigratablePipeline> pipelineFramesCount = new ItemCounter<MigratablePipeline>();
+    private final ItemCounter<MigratablePipeline> pipelineFramesPending = new ItemCounter<MigratablePipeline>();
+
     //contains all known pipelines
     private final Set<MigratablePipeline> pipelines = new HashSet<MigratablePipeline>();
 
@@ -65,7 +74,8 @@ class LoadTracker {
         for (NioThread selector : ioThreads) {
             ownerToPipelines.put(selector, new HashSet<MigratablePipeline>());
         }
-        this.imbalance = new LoadImbalance(ownerToPipelines, pipelineLoadCount);
+        this.imbalance = new LoadImbalance(ownerToPipelines, pipelineLoadCount, pipelineBytesCount, pipelineFramesCount,
+                pipelineFramesPending);
     }
 
     /**
@@ -131,6 +141,9 @@ class LoadTracker {
     private void updatePipelineState(MigratablePipeline pipeline) {
         long pipelineLoad = getLoadSinceLastCheck(pipeline);
         pipelineLoadCount.set(pipeline, pipelineLoad);
+        pipelineBytesCount.set(pipeline, getSinceLastCheck(lastBytesCounter, pipeline, pipeline.bytesTransceived()));
+        pipelineFramesCount.set(pipeline, getSinceLastCheck(lastFramesCounter, pipeline, pipeline.framesTransceived()));
+        pipelineFramesPending.set(pipeline, pipeline.framesPending());
         NioThread owner = pipeline.owner();
         ownerLoad.add(owner, pipelineLoad);
         ownerToPipelines.get(owner).add(pipeline);
@@ -142,8 +155,16 @@ class LoadTracker {
         return load - lastLoad;
     }
 
+    private static long getSinceLastCheck(ItemCounter<MigratablePipeline> lastCounter, MigratablePipeline pipeline,
+                                          long total) {
+        return total - lastCounter.getAndSet(pipeline, total);
+    }
+
     private void clearWorkingImbalance() {
         pipelineLoadCount.reset();
+        pipelineBytesCount.reset();
+        pipelineFramesCount.reset();
+        pipelineFramesPending.reset();
         ownerLoad.reset();
         for (Set<MigratablePipeline> pipelines : ownerToPipelines.values()) {
             pipelines.clear();
@@ -158,6 +179,11 @@ class LoadTracker {
         pipelines.remove(pipeline);
         pipelineLoadCount.remove(pipeline);
         lastLoadCounter.remove(pipeline);
+        pipelineBytesCount.remove(pipeline);
+        pipelineFramesCount.remove(pipeline);
+        pipelineFramesPending.remove(pipeline);
+        lastBytesCounter.remove(pipeline);
+        lastFramesCounter.remove(pipeline);
     }
 
     private void printDebugTable() {
@@ -17,6 +17,7 @@
 package com.hazelcast.internal.serialization;
 
 import com.hazelcast.core.ManagedContext;
+import com.hazelcast.internal.serialization.impl.PortableFieldAccessor;
 import com.hazelcast.nio.serialization.ClassDefinition;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.FieldDefinition;
@@ -43,6 +44,17 @@ public interface PortableContext {
 
     FieldDefinition getFieldDefinition(ClassDefinition cd, String name);
 
+    /**
+     * Returns the cached accessor reading the primitive field at the given path straight from the given Portable
+     * data, compiling it on first use.
+     *
+     * @param data      the Portable data to read from
+     * @param fieldPath the path of the field, e.g. {@code "a.b.c"}
+     * @return the accessor, or {@code null} if the field has to be read by a
+     * {@link com.hazelcast.nio.serialization.PortableReader}
+     */
+    PortableFieldAccessor getFieldAccessor(Data data, String fieldPath);
+
     ManagedContext getManagedContext();
 
     ByteOrder getByteOrder();
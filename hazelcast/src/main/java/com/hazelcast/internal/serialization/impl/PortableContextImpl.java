@@ -33,6 +33,7 @@ import com.hazelcast.util.ConstructorFunction;
 
 import java.io.IOException;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
@@ -43,11 +44,15 @@ import static com.hazelcast.query.impl.getters.ExtractorHelper.extractAttributeN
 final class PortableContextImpl implements PortableContext {
 
     private static final Pattern NESTED_FIELD_PATTERN = Pattern.compile("\\.");
+    private static final int MAX_FIELD_ACCESSOR_PATHS = 1024;
 
     private final int version;
     private final ConcurrentHashMap<Integer, ClassDefinitionContext> classDefContextMap =
             new ConcurrentHashMap<Integer, ClassDefinitionContext>();
 
+    private final ConcurrentMap<String, PortableFieldAccessor[]> fieldAccessors =
+            new ConcurrentHashMap<String, PortableFieldAccessor[]>();
+
     private final InternalSerializationService serializationService;
 
     private final ConstructorFunction<Integer, ClassDefinitionContext> constructorFunction =
@@ -214,6 +219,52 @@ final class PortableContextImpl implements PortableContext {
         return fd;
     }
 
+    @Override
+    public PortableFieldAccessor getFieldAccessor(Data data, String fieldPath) {
+        if (!(data instanceof HeapData) || !data.isPortable()) {
+            return null;
+        }
+        byte[] bytes = data.toByteArray();
+        boolean bigEndian = getByteOrder() == ByteOrder.BIG_ENDIAN;
+        int factoryId = Bits.readInt(bytes, HeapData.DATA_OFFSET, bigEndian);
+        int classId = Bits.readInt(bytes, HeapData.DATA_OFFSET + Bits.INT_SIZE_IN_BYTES, bigEndian);
+        int version = Bits.readInt(bytes, HeapData.DATA_OFFSET + 2 * Bits.INT_SIZE_IN_BYTES, bigEndian);
+
+        PortableFieldAccessor[] accessors = fieldAccessors.get(fieldPath);
+        if (accessors != null) {
+            for (PortableFieldAccessor accessor : accessors) {
+                if (accessor.matches(factoryId, classId, version)) {
+                    return accessor.isCompiled() ? accessor : null;
+                }
+            }
+        }
+
+        ClassDefinition cd = lookupClassDefinition(factoryId, classId, version);
+        if (cd == null || (accessors == null && fieldAccessors.size() >= MAX_FIELD_ACCESSOR_PATHS)) {
+            return null;
+        }
+        PortableFieldAccessor accessor = PortableFieldAccessor.compile(this, cd, fieldPath, bigEndian);
+        cacheFieldAccessor(fieldPath, accessor);
+        return accessor.isCompiled() ? accessor : null;
+    }
+
+    private void cacheFieldAccessor(String fieldPath, PortableFieldAccessor accessor) {
+        for (; ; ) {
+            PortableFieldAccessor[] accessors = fieldAccessors.get(fieldPath);
+            if (accessors == null) {
+                if (fieldAccessors.putIfAbsent(fieldPath, new PortableFieldAccessor[]{accessor}) == null) {
+                    return;
+                }
+                continue;
+            }
+            PortableFieldAccessor[] newAccessors = Arrays.copyOf(accessors, accessors.length + 1);
+            newAccessors[accessors.length] = accessor;
+            if (fieldAccessors.replace(fieldPath, accessors, newAccessors)) {
+                return;
+            }
+        }
+    }
+
     private ClassDefinitionContext getClassDefContext(int factoryId) {
         return ConcurrencyUtil.getOrPutIfAbsent(classDefContextMap, factoryId, constructorFunction);
     }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.PortableContext;
+import com.hazelcast.nio.serialization.ClassDefinition;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.FieldDefinition;
+import com.hazelcast.nio.serialization.FieldType;
+
+import static com.hazelcast.nio.Bits.BYTE_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.SHORT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.readChar;
+import static com.hazelcast.nio.Bits.readInt;
+import static com.hazelcast.nio.Bits.readLong;
+import static com.hazelcast.nio.Bits.readShort;
+
+/**
+ * Reads a primitive field of a Portable, possibly nested in other Portable fields (e.g. {@code "a.b.c"}), straight
+ * from the bytes of a {@link HeapData}, without creating a {@link DefaultPortableReader}, an input or any
+ * {@link PortablePosition}.
+ * <p>
+ * An accessor is compiled once per root {@link ClassDefinition} and path into the indexes of the fields to follow
+ * at each level, plus the class definition expected for each nested Portable. If a nested Portable in the stream
+ * doesn't have the expected class definition, e.g. because it was written with another version,
+ * {@link #read(Data)} returns {@link #NOT_READ} and the value has to be read by a {@link DefaultPortableReader}.
+ * <p>
+ * Paths with array quantifiers and non-primitive fields are not compiled.
+ *
+ * @see PortableContext#getFieldAccessor(Data, String)
+ */
+public final class PortableFieldAccessor {
+
+    /**
+     * Returned by {@link #read(Data)} when the value can't be read by the accessor.
+     */
+    public static final Object NOT_READ = new Object();
+
+    private static final int PORTABLE_HEADER_SIZE = 3 * INT_SIZE_IN_BYTES;
+    private static final int OFFSETS_START = 2 * INT_SIZE_IN_BYTES;
+
+    private final int factoryId;
+    private final int classId;
+    private final int version;
+    private final boolean bigEndian;
+
+    // the index of the field to follow at each level, or null if the path can't be compiled
+    private final int[] fieldIndexes;
+    // the class definition expected for the Portable at each nested level
+    private final int[] nestedFactoryIds;
+    private final int[] nestedClassIds;
+    private final int[] nestedVersions;
+    private final FieldType type;
+
+    private PortableFieldAccessor(ClassDefinition cd, boolean bigEndian, int[] fieldIndexes, int[] nestedFactoryIds,
+                                  int[] nestedClassIds, int[] nestedVersions, FieldType type) {
+        this.factoryId = cd.getFactoryId();
+        this.classId = cd.getClassId();
+        this.version = cd.getVersion();
+        this.bigEndian = bigEndian;
+        this.fieldIndexes = fieldIndexes;
+        this.nestedFactoryIds = nestedFactoryIds;
+        this.nestedClassIds = nestedClassIds;
+        this.nestedVersions = nestedVersions;
+        this.type = type;
+    }
+
+    /**
+     * Compiles the accessor of the given path for Portables of the given class definition.
+     *
+     * @return the accessor, which is not {@link #isCompiled() compiled} if the path can't be read by an accessor
+     */
+    static PortableFieldAccessor compile(PortableContext context, ClassDefinition cd, String path, boolean bigEndian) {
+        String[] tokens = path.split("\\.", -1);
+        int lastLevel = tokens.length - 1;
+        int[] fieldIndexes = new int[tokens.length];
+        int[] nestedFactoryIds = new int[lastLevel];
+        int[] nestedClassIds = new int[lastLevel];
+        int[] nestedVersions = new int[lastLevel];
+        ClassDefinition current = cd;
+        for (int level = 0; level < lastLevel; level++) {
+            FieldDefinition fd = getField(current, tokens[level]);
+            if (fd == null || fd.getType() != FieldType.PORTABLE) {
+                return notCompiled(cd, bigEndian);
+            }
+            current = context.lookupClassDefinition(fd.getFactoryId(), fd.getClassId(), fd.getVersion());
+            if (current == null) {
+                return notCompiled(cd, bigEndian);
+            }
+            fieldIndexes[level] = fd.getIndex();
+            nestedFactoryIds[level] = current.getFactoryId();
+            nestedClassIds[level] = current.getClassId();
+            nestedVersions[level] = current.getVersion();
+        }
+        FieldDefinition fd = getField(current, tokens[lastLevel]);
+        if (fd == null || !isPrimitive(fd.getType())) {
+            return notCompiled(cd, bigEndian);
+        }
+        fieldIndexes[lastLevel] = fd.getIndex();
+        return new PortableFieldAccessor(cd, bigEndian, fieldIndexes, nestedFactoryIds, nestedClassIds, nestedVersions,
+                fd.getType());
+    }
+
+    private static FieldDefinition getField(ClassDefinition cd, String token) {
+        // array quantifiers are left to the reader
+        return token.indexOf('[') < 0 ? cd.getField(token) : null;
+    }
+
+    private static PortableFieldAccessor notCompiled(ClassDefinition cd, boolean bigEndian) {
+        return new PortableFieldAccessor(cd, bigEndian, null, null, null, null, null);
+    }
+
+    private static boolean isPrimitive(FieldType type) {
+        switch (type) {
+            case BYTE:
+            case BOOLEAN:
+            case CHAR:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return {@code true} if the path could be compiled, {@code false} if it has to be read by a
+     * {@link DefaultPortableReader}
+     */
+    public boolean isCompiled() {
+        return fieldIndexes != null;
+    }
+
+    boolean matches(int factoryId, int classId, int version) {
+        return this.factoryId == factoryId && this.classId == classId && this.version == version;
+    }
+
+    /**
+     * Reads the value of the field from the given data, which must be a {@link HeapData} holding a Portable of the
+     * class definition the accessor was compiled for.
+     *
+     * @param data the data to read from
+     * @return the boxed value of the field, {@code null} if a Portable on the path is {@code null}, or
+     * {@link #NOT_READ} if a nested Portable doesn't have the expected class definition
+     */
+    public Object read(Data data) {
+        byte[] bytes = data.toByteArray();
+        int objectStart = HeapData.DATA_OFFSET + PORTABLE_HEADER_SIZE;
+        int lastLevel = fieldIndexes.length - 1;
+        for (int level = 0; ; level++) {
+            int offsets = objectStart + OFFSETS_START;
+            int fieldPosition = readInt(bytes, offsets + fieldIndexes[level] * INT_SIZE_IN_BYTES, bigEndian);
+            // skip the field name and type
+            int valuePosition = fieldPosition + SHORT_SIZE_IN_BYTES + readShort(bytes, fieldPosition, bigEndian)
+                    + BYTE_SIZE_IN_BYTES;
+            if (level == lastLevel) {
+                return readValue(bytes, valuePosition);
+            }
+            if (bytes[valuePosition] != 0) {
+                // null Portable
+                return null;
+            }
+            int headerPosition = valuePosition + BYTE_SIZE_IN_BYTES;
+            if (readInt(bytes, headerPosition, bigEndian) != nestedFactoryIds[level]
+                    || readInt(bytes, headerPosition + INT_SIZE_IN_BYTES, bigEndian) != nestedClassIds[level]
+                    || readInt(bytes, headerPosition + 2 * INT_SIZE_IN_BYTES, bigEndian) != nestedVersions[level]) {
+                return NOT_READ;
+            }
+            objectStart = headerPosition + PORTABLE_HEADER_SIZE;
+        }
+    }
+
+    @SuppressWarnings("checkstyle:returncount")
+    private Object readValue(byte[] bytes, int position) {
+        switch (type) {
+            case BYTE:
+                return bytes[position];
+            case BOOLEAN:
+                return bytes[position] != 0;
+            case CHAR:
+                return readChar(bytes, position, bigEndian);
+            case SHORT:
+                return readShort(bytes, position, bigEndian);
+            case INT:
+                return readInt(bytes, position, bigEndian);
+            case LONG:
+                return readLong(bytes, position, bigEndian);
+            case FLOAT:
+                return Float.intBitsToFloat(readInt(bytes, position, bigEndian));
+            case DOUBLE:
+                return Double.longBitsToDouble(readLong(bytes, position, bigEndian));
+            default:
+                throw new IllegalStateException("Unsupported type: " + type);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util;
+
+/**
+ * A fast compression codec producing the LZ4 block format: a sequence of literal runs, each followed by a back
+ * reference of at least 4 bytes into the last 64 KB of the uncompressed data.
+ * <p>
+ * It trades compression ratio for speed, so it suits data which is compressed right before it is sent over the
+ * network. The block doesn't contain the uncompressed length; it has to be stored next to the block.
+ * <p>
+ * A codec is not thread-safe since compression reuses a hash table; {@link #decompress} is.
+ */
+public final class LZ4Codec {
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    // the last match must start at least this many bytes before the end of the input
+    private static final int MF_LIMIT = 12;
+    private static final int MIN_LENGTH = MF_LIMIT + 1;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+
+    private static final int ML_BITS = 4;
+    private static final int ML_MASK = (1 << ML_BITS) - 1;
+    private static final int RUN_MASK = (1 << (Byte.SIZE - ML_BITS)) - 1;
+    private static final int LENGTH_EXTENSION_MAX = 0xFF;
+
+    private static final int HASH_LOG = 12;
+    private static final int HASH_MULTIPLIER = -1640531535;
+    // the search for a match skips bytes faster and faster when no match is found, so incompressible data is
+    // passed quickly
+    private static final int SKIP_STRENGTH = 6;
+
+    private static final int BYTE_MASK = 0xFF;
+    private static final int SHIFT_8 = 8;
+    private static final int SHIFT_16 = 16;
+    private static final int SHIFT_24 = 24;
+
+    // positions of previously seen 4 byte sequences; entries left by a previous compression are validated before use
+    private final int[] hashTable = new int[1 << HASH_LOG];
+
+    /**
+     * Returns the maximum length of the compressed form of {@code length} bytes.
+     *
+     * @param length the length of the uncompressed data
+     * @return the maximum length of the compressed data
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / LENGTH_EXTENSION_MAX + MIN_LENGTH + MIN_MATCH;
+    }
+
+    /**
+     * Compresses {@code srcLen} bytes of {@code src} starting at {@code srcOff} to {@code dst} starting at
+     * {@code dstOff}, which must have room for at least {@link #maxCompressedLength(int)} bytes.
+     *
+     * @return the length of the compressed data
+     */
+    @SuppressWarnings({"checkstyle:cyclomaticcomplexity", "checkstyle:npathcomplexity", "checkstyle:methodlength"})
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+        int srcEnd = srcOff + srcLen;
+        int dOff = dstOff;
+        int anchor = srcOff;
+
+        if (srcLen >= MIN_LENGTH) {
+            int mfLimit = srcEnd - MF_LIMIT;
+            int matchLimit = srcEnd - LAST_LITERALS;
+            hashTable[hash(src, srcOff)] = srcOff;
+            int sOff = srcOff + 1;
+
+            main:
+            for (; ; ) {
+                // find a match
+                int ref;
+                int skip = 1 << SKIP_STRENGTH;
+                for (; ; ) {
+                    if (sOff > mfLimit) {
+                        break main;
+                    }
+                    int hash = hash(src, sOff);
+                    ref = hashTable[hash];
+                    hashTable[hash] = sOff;
+                    if (isMatch(src, srcOff, ref, sOff)) {
+                        break;
+                    }
+                    sOff += skip++ >>> SKIP_STRENGTH;
+                }
+
+                // extend the match backwards
+                while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+                    sOff--;
+                    ref--;
+                }
+
+                int tokenOff = dOff++;
+                dOff = writeLiterals(src, anchor, sOff - anchor, dst, tokenOff, dOff);
+
+                for (; ; ) {
+                    int offset = sOff - ref;
+                    dst[dOff++] = (byte) offset;
+                    dst[dOff++] = (byte) (offset >>> SHIFT_8);
+
+                    sOff += MIN_MATCH;
+                    ref += MIN_MATCH;
+                    int matchLength = commonBytes(src, ref, sOff, matchLimit);
+                    sOff += matchLength;
+                    dOff = writeMatchLength(matchLength, dst, tokenOff, dOff);
+                    anchor = sOff;
+
+                    if (sOff > mfLimit) {
+                        break main;
+                    }
+
+                    hashTable[hash(src, sOff - 2)] = sOff - 2;
+
+                    // an immediate next match goes without literals
+                    int hash = hash(src, sOff);
+                    ref = hashTable[hash];
+                    hashTable[hash] = sOff;
+                    if (!isMatch(src, srcOff, ref, sOff)) {
+                        break;
+                    }
+                    tokenOff = dOff++;
+                    dst[tokenOff] = 0;
+                }
+
+                sOff++;
+            }
+        }
+
+        int tokenOff = dOff++;
+        dOff = writeLiterals(src, anchor, srcEnd - anchor, dst, tokenOff, dOff);
+        return dOff - dstOff;
+    }
+
+    /**
+     * Decompresses the {@code srcLen} bytes of {@code src} starting at {@code srcOff}, produced by
+     * {@link #compress(byte[], int, int, byte[], int)}, to exactly {@code dstLen} bytes of {@code dst} starting at
+     * {@code dstOff}.
+     *
+     * @throws IllegalArgumentException if the compressed data is malformed or doesn't decompress to {@code dstLen} bytes
+     */
+    @SuppressWarnings({"checkstyle:cyclomaticcomplexity", "checkstyle:npathcomplexity"})
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+        int srcEnd = srcOff + srcLen;
+        int dstEnd = dstOff + dstLen;
+        int sOff = srcOff;
+        int dOff = dstOff;
+
+        for (; ; ) {
+            checkAvailable(1, srcEnd - sOff);
+            int token = src[sOff++] & BYTE_MASK;
+
+            int literalLength = token >>> ML_BITS;
+            if (literalLength == RUN_MASK) {
+                int b;
+                do {
+                    checkAvailable(1, srcEnd - sOff);
+                    b = src[sOff++] & BYTE_MASK;
+                    literalLength += b;
+                } while (b == LENGTH_EXTENSION_MAX);
+            }
+            checkAvailable(literalLength, srcEnd - sOff);
+            checkAvailable(literalLength, dstEnd - dOff);
+            System.arraycopy(src, sOff, dst, dOff, literalLength);
+            sOff += literalLength;
+            dOff += literalLength;
+
+            if (sOff == srcEnd) {
+                // the last sequence has only literals
+                checkAvailable(dstEnd - dOff, 0);
+                return;
+            }
+
+            checkAvailable(2, srcEnd - sOff);
+            int offset = (src[sOff] & BYTE_MASK) | (src[sOff + 1] & BYTE_MASK) << SHIFT_8;
+            sOff += 2;
+            int ref = dOff - offset;
+            if (offset == 0 || ref < dstOff) {
+                throw new IllegalArgumentException("Malformed compressed data, invalid match offset " + offset);
+            }
+
+            int matchLength = token & ML_MASK;
+            if (matchLength == ML_MASK) {
+                int b;
+                do {
+                    checkAvailable(1, srcEnd - sOff);
+                    b = src[sOff++] & BYTE_MASK;
+                    matchLength += b;
+                } while (b == LENGTH_EXTENSION_MAX);
+            }
+            matchLength += MIN_MATCH;
+            checkAvailable(matchLength, dstEnd - dOff);
+
+            if (offset >= matchLength) {
+                System.arraycopy(dst, ref, dst, dOff, matchLength);
+                dOff += matchLength;
+            } else {
+                // the match overlaps the bytes it produces, e.g. a run of the same byte
+                for (int i = 0; i < matchLength; i++) {
+                    dst[dOff++] = dst[ref++];
+                }
+            }
+        }
+    }
+
+    private static void checkAvailable(int needed, int available) {
+        // a negative length means it overflowed
+        if (needed < 0 || needed > available) {
+            throw new IllegalArgumentException("Malformed compressed data, " + needed + " bytes needed but "
+                    + available + " available");
+        }
+    }
+
+    private static boolean isMatch(byte[] src, int srcOff, int ref, int sOff) {
+        return ref >= srcOff && ref < sOff && sOff - ref <= MAX_DISTANCE && readInt(src, ref) == readInt(src, sOff);
+    }
+
+    private static int commonBytes(byte[] src, int ref, int sOff, int limit) {
+        int count = 0;
+        while (sOff + count < limit && src[ref + count] == src[sOff + count]) {
+            count++;
+        }
+        return count;
+    }
+
+    private static int writeLiterals(byte[] src, int srcOff, int length, byte[] dst, int tokenOff, int dOff) {
+        if (length >= RUN_MASK) {
+            dst[tokenOff] = (byte) (RUN_MASK << ML_BITS);
+            dOff = writeLengthExtension(length - RUN_MASK, dst, dOff);
+        } else {
+            dst[tokenOff] = (byte) (length << ML_BITS);
+        }
+        System.arraycopy(src, srcOff, dst, dOff, length);
+        return dOff + length;
+    }
+
+    private static int writeMatchLength(int length, byte[] dst, int tokenOff, int dOff) {
+        if (length >= ML_MASK) {
+            dst[tokenOff] |= ML_MASK;
+            return writeLengthExtension(length - ML_MASK, dst, dOff);
+        }
+        dst[tokenOff] |= length;
+        return dOff;
+    }
+
+    private static int writeLengthExtension(int length, byte[] dst, int dOff) {
+        while (length >= LENGTH_EXTENSION_MAX) {
+            dst[dOff++] = (byte) LENGTH_EXTENSION_MAX;
+            length -= LENGTH_EXTENSION_MAX;
+        }
+        dst[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    private static int hash(byte[] src, int off) {
+        return (readInt(src, off) * HASH_MULTIPLIER) >>> (Integer.SIZE - HASH_LOG);
+    }
+
+    private static int readInt(byte[] src, int off) {
+        return (src[off] & BYTE_MASK)
+                | (src[off + 1] & BYTE_MASK) << SHIFT_8
+                | (src[off + 2] & BYTE_MASK) << SHIFT_16
+                | (src[off + 3] & BYTE_MASK) << SHIFT_24;
+    }
+}
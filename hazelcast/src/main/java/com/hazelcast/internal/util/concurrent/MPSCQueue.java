@@ -16,6 +16,7 @@
 
 package com.hazelcast.internal.util.concurrent;
 
+import com.hazelcast.util.concurrent.HybridIdleStrategy;
 import com.hazelcast.util.concurrent.IdleStrategy;
 
 import java.util.AbstractQueue;
@@ -36,6 +37,9 @@ import static java.util.concurrent.locks.LockSupport.unpark;
  * the thread can idle and eventually can do the more expensive blocking. The blocking is especially a concern for the putting
  * thread, because it needs to notify the blocked thread.
  * <p>
+ * Without an idle strategy the consumer blocks as soon as the queue is empty. With a {@link HybridIdleStrategy} it spins and
+ * yields first and only blocks once the strategy is exhausted. With any other idle strategy it never blocks.
+ * <p>
  * This MPSCQueue is based on 2 stacks; so the items are put in a reverse order by the putting thread, and by the taking thread
  * they are reversed in order again so that the original ordering is restored. Using this approach, if there are multiple items
  * on the stack, the owning thread can take them all using a single CAS. Once this is done, the owning thread can process them
@@ -50,6 +54,7 @@ public final class MPSCQueue<E> extends AbstractQueue<E> implements BlockingQueu
     final AtomicReference<Node> putStack = new AtomicReference<Node>();
     private final AtomicInteger takeStackSize = new AtomicInteger();
     private final IdleStrategy idleStrategy;
+    private final boolean blockWhenIdle;
 
     private Thread consumerThread;
     private Object[] takeStack = new Object[INITIAL_ARRAY_SIZE];
@@ -65,6 +70,7 @@ public final class MPSCQueue<E> extends AbstractQueue<E> implements BlockingQueu
     public MPSCQueue(Thread consumerThread, IdleStrategy idleStrategy) {
         this.consumerThread = checkNotNull(consumerThread, "consumerThread can't be null");
         this.idleStrategy = idleStrategy;
+        this.blockWhenIdle = idleStrategy instanceof HybridIdleStrategy;
     }
 
     /**
@@ -74,6 +80,7 @@ public final class MPSCQueue<E> extends AbstractQueue<E> implements BlockingQueu
      */
     public MPSCQueue(IdleStrategy idleStrategy) {
         this.idleStrategy = idleStrategy;
+        this.blockWhenIdle = idleStrategy instanceof HybridIdleStrategy;
     }
 
     /**
@@ -217,8 +224,11 @@ public final class MPSCQueue<E> extends AbstractQueue<E> implements BlockingQueu
 
             if (currentPutStackHead == null) {
                 if (idleStrategy != null) {
-                    idleStrategy.idle(iteration);
-                    continue;
+                    boolean idleExhausted = idleStrategy.idle(iteration);
+                    iteration++;
+                    if (!(blockWhenIdle && idleExhausted)) {
+                        continue;
+                    }
                 }
 
                 // there is nothing to be take, so lets block.
@@ -19,11 +19,14 @@ package com.hazelcast.map.impl;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.EventJournalConfig;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizeConfig;
 import com.hazelcast.config.WanReplicationRef;
 import com.hazelcast.core.IFunction;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.eviction.impl.FrequencySketch;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.map.eviction.MapEvictionPolicy;
+import com.hazelcast.map.eviction.TinyLfuEvictionPolicy;
 import com.hazelcast.map.impl.eviction.EvictionChecker;
 import com.hazelcast.map.impl.eviction.Evictor;
 import com.hazelcast.map.impl.eviction.EvictorImpl;
@@ -31,6 +34,7 @@ import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListener;
 import com.hazelcast.map.impl.query.QueryEntryFactory;
 import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
 import com.hazelcast.map.impl.record.ObjectRecordFactory;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.nio.ClassLoaderUtil;
@@ -41,6 +45,7 @@ import com.hazelcast.query.impl.IndexInfo;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.predicates.CostBasedQueryOptimizer;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.ObjectNamespace;
 import com.hazelcast.spi.partition.IPartitionService;
@@ -61,8 +66,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
+import static com.hazelcast.internal.eviction.impl.FrequencySketch.DEFAULT_EXPECTED_ENTRY_COUNT;
 import static com.hazelcast.map.impl.eviction.Evictor.NULL_EVICTOR;
 import static com.hazelcast.map.impl.mapstore.MapStoreContextFactory.createMapStoreContext;
+import static com.hazelcast.spi.properties.GroupProperty.INDEX_PARTITIONED;
 import static com.hazelcast.spi.properties.GroupProperty.MAP_EVICTION_BATCH_SIZE;
 import static java.lang.System.getProperty;
 
@@ -87,6 +94,8 @@ public class MapContainer {
     // on-heap indexes are global, meaning there is only one index per map, stored in the mapContainer,
     // so if globalIndexes is null it means that global index is not in use
     protected final Indexes globalIndexes;
+    // index statistics are maintained only for the cost-based query optimizer
+    protected final boolean indexStatisticsEnabled;
 
     // RU_COMPAT_3_9
     /**
@@ -110,6 +119,10 @@ public class MapContainer {
     protected Object wanMergePolicy;
 
     protected volatile Evictor evictor;
+    /**
+     * Counts the accesses to the keys of this map on this member, if the map is evicted by TinyLFU.
+     */
+    protected volatile FrequencySketch frequencySketch;
     protected volatile MapConfig mapConfig;
     protected final EventJournalConfig eventJournalConfig;
 
@@ -134,10 +147,15 @@ public class MapContainer {
         initWanReplication(nodeEngine);
         ClassLoader classloader = mapServiceContext.getNodeEngine().getConfigClassLoader();
         this.extractors = new Extractors(mapConfig.getMapAttributeConfigs(), classloader);
+        this.indexStatisticsEnabled = mapServiceContext.getQueryOptimizer() instanceof CostBasedQueryOptimizer;
         if (shouldUseGlobalIndex(mapConfig)) {
-            this.globalIndexes = new Indexes((InternalSerializationService) serializationService,
-                    mapServiceContext.getIndexProvider(mapConfig), extractors,
-                    true, mapServiceContext.getIndexCopyBehavior());
+            this.globalIndexes = Indexes.newBuilder((InternalSerializationService) serializationService,
+                    mapServiceContext.getIndexCopyBehavior())
+                    .indexProvider(mapServiceContext.getIndexProvider(mapConfig))
+                    .extractors(extractors)
+                    .global(true)
+                    .statisticsEnabled(indexStatisticsEnabled)
+                    .build();
         } else {
             this.globalIndexes = null;
         }
@@ -157,13 +175,37 @@ public class MapContainer {
             NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
             IPartitionService partitionService = nodeEngine.getPartitionService();
             int batchSize = nodeEngine.getProperties().getInteger(MAP_EVICTION_BATCH_SIZE);
-            evictor = new EvictorImpl(mapEvictionPolicy, evictionChecker, partitionService, batchSize);
+            frequencySketch = createFrequencySketch(mapEvictionPolicy, partitionService.getPartitionCount());
+            evictor = new EvictorImpl(mapEvictionPolicy, evictionChecker, partitionService, batchSize, frequencySketch);
+        }
+    }
+
+    private FrequencySketch createFrequencySketch(MapEvictionPolicy mapEvictionPolicy, int partitionCount) {
+        if (!(mapEvictionPolicy instanceof TinyLfuEvictionPolicy)) {
+            return null;
+        }
+        MaxSizeConfig maxSizeConfig = mapConfig.getMaxSizeConfig();
+        long expectedEntryCount = maxSizeConfig.getSize();
+        switch (maxSizeConfig.getMaxSizePolicy()) {
+            case PER_NODE:
+                break;
+            case PER_PARTITION:
+                expectedEntryCount *= partitionCount;
+                break;
+            default:
+                expectedEntryCount = DEFAULT_EXPECTED_ENTRY_COUNT;
         }
+        if (expectedEntryCount <= 0 || maxSizeConfig.getSize() == Integer.MAX_VALUE) {
+            expectedEntryCount = DEFAULT_EXPECTED_ENTRY_COUNT;
+        }
+        // the sketch bounds its own size
+        return new FrequencySketch((int) Math.min(expectedEntryCount, Integer.MAX_VALUE));
     }
 
     protected boolean shouldUseGlobalIndex(MapConfig mapConfig) {
-        // for non-native memory populate a single global index
-        return !mapConfig.getInMemoryFormat().equals(NATIVE);
+        // for non-native memory populate a single global index, unless partitioned indexes are requested
+        return !mapConfig.getInMemoryFormat().equals(NATIVE)
+                && !mapServiceContext.getNodeEngine().getProperties().getBoolean(INDEX_PARTITIONED);
     }
 
     protected static MemoryInfoAccessor getMemoryInfoAccessor() {
@@ -194,6 +236,9 @@ public class MapContainer {
                         return new DataRecordFactory(mapConfig, serializationService, partitioningStrategy);
                     case OBJECT:
                         return new ObjectRecordFactory(mapConfig, serializationService);
+                    case NATIVE:
+                        return new NativeRecordFactory(mapServiceContext.getNativeMemoryManager(), serializationService,
+                                partitioningStrategy);
                     default:
                         throw new IllegalArgumentException("Invalid storage format: " + mapConfig.getInMemoryFormat());
                 }
@@ -237,6 +282,10 @@ public class MapContainer {
         return globalIndexes != null;
     }
 
+    public boolean isIndexStatisticsEnabled() {
+        return indexStatisticsEnabled;
+    }
+
     public WanReplicationPublisher getWanReplicationPublisher() {
         return wanReplicationPublisher;
     }
@@ -324,6 +373,14 @@ public class MapContainer {
         return evictor;
     }
 
+    /**
+     * @return the sketch counting the accesses to the keys of this map on this member, or {@code null} if the
+     * map is not evicted by {@link TinyLfuEvictionPolicy}
+     */
+    public FrequencySketch getFrequencySketch() {
+        return frequencySketch;
+    }
+
     // only used for testing purposes
     public void setEvictor(Evictor evictor) {
         this.evictor = evictor;
@@ -366,12 +423,12 @@ public class MapContainer {
         Map<String, Boolean> definitions = new HashMap<String, Boolean>();
         if (isGlobalIndexEnabled()) {
             for (Index index : globalIndexes.getIndexes()) {
-                definitions.put(index.getAttributeName(), index.isOrdered());
+                definitions.put(index.getDefinition(), index.isOrdered());
             }
         } else {
             for (PartitionContainer container : mapServiceContext.getPartitionContainers()) {
                 for (Index index : container.getIndexes(name).getIndexes()) {
-                    definitions.put(index.getAttributeName(), index.isOrdered());
+                    definitions.put(index.getDefinition(), index.isOrdered());
                 }
             }
         }
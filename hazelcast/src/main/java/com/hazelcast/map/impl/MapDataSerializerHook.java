@@ -19,6 +19,7 @@ package com.hazelcast.map.impl;
 import com.hazelcast.client.impl.protocol.task.map.MapAssignAndGetUuidsOperation;
 import com.hazelcast.client.impl.protocol.task.map.MapAssignAndGetUuidsOperationFactory;
 import com.hazelcast.internal.nearcache.impl.invalidation.BatchNearCacheInvalidation;
+import com.hazelcast.internal.nearcache.impl.invalidation.CompactBatchNearCacheInvalidation;
 import com.hazelcast.internal.nearcache.impl.invalidation.SingleNearCacheInvalidation;
 import com.hazelcast.internal.serialization.DataSerializerHook;
 import com.hazelcast.internal.serialization.impl.ArrayDataSerializableFactory;
@@ -308,8 +309,9 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int EVENT_JOURNAL_READ_RESULT_SET = 145;
     public static final int MERGE_FACTORY = 146;
     public static final int MERGE = 147;
+    public static final int NEAR_CACHE_COMPACT_BATCH_INVALIDATION = 148;
 
-    private static final int LEN = MERGE + 1;
+    private static final int LEN = NEAR_CACHE_COMPACT_BATCH_INVALIDATION + 1;
 
     @Override
     public int getFactoryId() {
@@ -780,6 +782,11 @@ public final class MapDataSerializerHook implements DataSerializerHook {
                 return new BatchNearCacheInvalidation();
             }
         };
+        constructors[NEAR_CACHE_COMPACT_BATCH_INVALIDATION] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new CompactBatchNearCacheInvalidation();
+            }
+        };
         constructors[ADD_INTERCEPTOR] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
             public IdentifiedDataSerializable createNew(Integer arg) {
                 return new AddInterceptorOperation();
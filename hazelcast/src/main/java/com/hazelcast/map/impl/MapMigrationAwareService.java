@@ -279,6 +279,11 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
                 // no indexes to work with
                 continue;
             }
+            if (!indexes.isGlobal()) {
+                // partitioned indexes hold the entries of the migrated partition only, so they leave as a whole
+                indexes.clearAll();
+                continue;
+            }
 
             final Iterator<Record> iterator = recordStore.iterator(now, false);
             while (iterator.hasNext()) {
@@ -21,6 +21,7 @@ import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.PartitioningStrategyConfig;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.map.impl.event.MapEventPublisher;
 import com.hazelcast.map.impl.eviction.ExpirationManager;
 import com.hazelcast.map.impl.journal.MapEventJournal;
@@ -146,6 +147,12 @@ public interface MapServiceContext extends MapServiceContextInterceptorSupport,
 
     MapEventJournal getEventJournal();
 
+    /**
+     * @return the {@link MemoryManager} backing maps with {@link InMemoryFormat#NATIVE} in-memory format,
+     * or {@code null} if native memory is not enabled in the configuration.
+     */
+    MemoryManager getNativeMemoryManager();
+
     MapQueryEngine getMapQueryEngine(String name);
 
     QueryRunner getMapQueryRunner(String name);
@@ -20,8 +20,12 @@ import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.MergePolicyConfig;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.PartitioningStrategyConfig;
 import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.memory.impl.PooledMemoryManager;
+import com.hazelcast.internal.memory.impl.StandardMemoryManager;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.InvocationUtil;
 import com.hazelcast.internal.util.LocalRetryableExecution;
@@ -77,7 +81,9 @@ import com.hazelcast.spi.EventRegistration;
 import com.hazelcast.spi.EventService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.eventservice.impl.TrueEventFilter;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
 import com.hazelcast.spi.partition.IPartitionService;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.ConcurrencyUtil;
@@ -100,6 +106,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.hazelcast.config.NativeMemoryConfig.MemoryAllocatorType.POOLED;
 import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
 import static com.hazelcast.map.impl.MapListenerFlagOperator.setAndGetListenerFlags;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
@@ -154,6 +161,7 @@ class MapServiceContextImpl implements MapServiceContext {
     protected final EventService eventService;
     protected final MapOperationProviders operationProviders;
     protected final ResultProcessorRegistry resultProcessorRegistry;
+    protected final MemoryManager nativeMemoryManager;
     protected ILogger logger;
 
     protected MapService mapService;
@@ -179,6 +187,7 @@ class MapServiceContextImpl implements MapServiceContext {
         this.eventService = nodeEngine.getEventService();
         this.operationProviders = createOperationProviders();
         this.partitioningStrategyFactory = new PartitioningStrategyFactory(nodeEngine.getConfigClassLoader());
+        this.nativeMemoryManager = createNativeMemoryManager();
         this.logger = nodeEngine.getLogger(getClass());
 
         initRecordComparators();
@@ -213,6 +222,26 @@ class MapServiceContextImpl implements MapServiceContext {
     void initRecordComparators() {
         recordComparatorMap.put(InMemoryFormat.OBJECT, new ObjectRecordComparator(serializationService));
         recordComparatorMap.put(InMemoryFormat.BINARY, new DataRecordComparator(serializationService));
+        recordComparatorMap.put(InMemoryFormat.NATIVE, new DataRecordComparator(serializationService));
+    }
+
+    // this method is overridden in another context
+    MemoryManager createNativeMemoryManager() {
+        NativeMemoryConfig nativeMemoryConfig = nodeEngine.getConfig().getNativeMemoryConfig();
+        if (nativeMemoryConfig == null || !nativeMemoryConfig.isEnabled()) {
+            return null;
+        }
+        long size = nativeMemoryConfig.getSize().bytes();
+        MemoryManager memoryManager;
+        if (nativeMemoryConfig.getAllocatorType() == POOLED) {
+            int partitionThreadCount = ((InternalOperationService) nodeEngine.getOperationService()).getPartitionThreadCount();
+            memoryManager = new PooledMemoryManager(size, nativeMemoryConfig.getMinBlockSize(),
+                    nativeMemoryConfig.getPageSize(), partitionThreadCount);
+        } else {
+            memoryManager = new StandardMemoryManager(size);
+        }
+        ((NodeEngineImpl) nodeEngine).getMetricsRegistry().scanAndRegister(memoryManager, "memory.native");
+        return memoryManager;
     }
 
     private MapEventJournal createEventJournal() {
@@ -435,6 +464,10 @@ class MapServiceContextImpl implements MapServiceContext {
         clearPartitions(true, false);
         mapNearCacheManager.shutdown();
         mapContainers.clear();
+        if (nativeMemoryManager != null) {
+            ((NodeEngineImpl) nodeEngine).getMetricsRegistry().deregister(nativeMemoryManager);
+            nativeMemoryManager.dispose();
+        }
     }
 
     @Override
@@ -513,6 +546,11 @@ class MapServiceContextImpl implements MapServiceContext {
         return mapEventPublisher;
     }
 
+    @Override
+    public MemoryManager getNativeMemoryManager() {
+        return nativeMemoryManager;
+    }
+
     @Override
     public MapEventJournal getEventJournal() {
         return eventJournal;
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+
+/**
+ * Owned entry cost estimator for maps which have {@link InMemoryFormat#NATIVE} memory-format.
+ * Estimates the native memory footprint of an entry: its hash slot plus the record block
+ * together with its key and value blobs.
+ */
+class NativeMapEntryCostEstimator
+        implements EntryCostEstimator<Data, Record> {
+
+    /**
+     * An 8-byte key hash and an 8-byte record address.
+     */
+    private static final int HASH_SLOT_COST_IN_BYTES = 16;
+
+    private volatile long estimate;
+
+    NativeMapEntryCostEstimator() {
+    }
+
+    @Override
+    public long getEstimate() {
+        return estimate;
+    }
+
+    @Override
+    public void adjustEstimateBy(long adjustment) {
+        this.estimate += adjustment;
+    }
+
+    @Override
+    public void reset() {
+        estimate = 0L;
+    }
+
+    @Override
+    public long calculateValueCost(Record value) {
+        return value.getCost();
+    }
+
+    @Override
+    public long calculateEntryCost(Data key, Record value) {
+        // the key blob is already included in the record's cost
+        return HASH_SLOT_COST_IN_BYTES + value.getCost();
+    }
+}
@@ -118,8 +118,12 @@ public class PartitionContainer {
         InternalSerializationService ss = (InternalSerializationService) nodeEngine.getSerializationService();
         IndexProvider indexProvider = serviceContext.getIndexProvider(mapConfig);
         if (!mapContainer.isGlobalIndexEnabled()) {
-            Indexes indexesForMap = new Indexes(ss, indexProvider, mapContainer.getExtractors(), false,
-                    serviceContext.getIndexCopyBehavior());
+            Indexes indexesForMap = Indexes.newBuilder(ss, serviceContext.getIndexCopyBehavior())
+                    .indexProvider(indexProvider)
+                    .extractors(mapContainer.getExtractors())
+                    .global(false)
+                    .statisticsEnabled(mapContainer.isIndexStatisticsEnabled())
+                    .build();
             indexes.putIfAbsent(name, indexesForMap);
         }
         RecordStore recordStore = serviceContext.createRecordStore(mapContainer, partitionId, keyLoader);
@@ -264,7 +268,12 @@ public class PartitionContainer {
                     mapServiceContext.getNodeEngine().getSerializationService();
             Extractors extractors = mapServiceContext.getMapContainer(name).getExtractors();
             IndexProvider indexProvider = mapServiceContext.getIndexProvider(mapContainer.getMapConfig());
-            Indexes indexesForMap = new Indexes(ss, indexProvider, extractors, false, mapServiceContext.getIndexCopyBehavior());
+            Indexes indexesForMap = Indexes.newBuilder(ss, mapServiceContext.getIndexCopyBehavior())
+                    .indexProvider(indexProvider)
+                    .extractors(extractors)
+                    .global(false)
+                    .statisticsEnabled(mapContainer.isIndexStatisticsEnabled())
+                    .build();
             ixs = indexes.putIfAbsent(name, indexesForMap);
             if (ixs == null) {
                 ixs = indexesForMap;
@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.eviction;
 
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.eviction.impl.FrequencySketch;
 import com.hazelcast.map.eviction.MapEvictionPolicy;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.recordstore.LazyEntryViewFromRecord;
@@ -27,6 +28,7 @@ import com.hazelcast.spi.partition.IPartition;
 import com.hazelcast.spi.partition.IPartitionService;
 import com.hazelcast.util.Clock;
 
+import static com.hazelcast.internal.eviction.impl.FrequencySketch.hash;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.ThreadUtil.assertRunningOnPartitionThread;
 
@@ -39,13 +41,24 @@ public class EvictorImpl implements Evictor {
     protected final MapEvictionPolicy mapEvictionPolicy;
 
     private final int batchSize;
+    private final FrequencySketch frequencySketch;
 
     public EvictorImpl(MapEvictionPolicy mapEvictionPolicy,
                        EvictionChecker evictionChecker, IPartitionService partitionService, int batchSize) {
+        this(mapEvictionPolicy, evictionChecker, partitionService, batchSize, null);
+    }
+
+    /**
+     * @param frequencySketch if not {@code null}, entries are first compared by the access frequencies of their
+     *                        keys estimated by the sketch, then by the {@code mapEvictionPolicy}
+     */
+    public EvictorImpl(MapEvictionPolicy mapEvictionPolicy, EvictionChecker evictionChecker,
+                       IPartitionService partitionService, int batchSize, FrequencySketch frequencySketch) {
         this.evictionChecker = checkNotNull(evictionChecker);
         this.partitionService = checkNotNull(partitionService);
         this.mapEvictionPolicy = checkNotNull(mapEvictionPolicy);
         this.batchSize = batchSize;
+        this.frequencySketch = frequencySketch;
     }
 
     @Override
@@ -74,7 +87,7 @@ public class EvictorImpl implements Evictor {
 
             if (selected == null) {
                 selected = candidate;
-            } else if (mapEvictionPolicy.compare(candidate, selected) < 0) {
+            } else if (compare(candidate, selected) < 0) {
                 selected = candidate;
             }
         }
@@ -82,6 +95,17 @@ public class EvictorImpl implements Evictor {
         return selected == null ? excluded : selected;
     }
 
+    private int compare(EntryView candidate, EntryView selected) {
+        if (frequencySketch != null) {
+            int candidateFrequency = frequencySketch.frequency(hash(getDataKey(candidate)));
+            int selectedFrequency = frequencySketch.frequency(hash(getDataKey(selected)));
+            if (candidateFrequency != selectedFrequency) {
+                return candidateFrequency < selectedFrequency ? -1 : 1;
+            }
+        }
+        return mapEvictionPolicy.compare(candidate, selected);
+    }
+
     private Data getDataKey(EntryView candidate) {
         return getRecordFromEntryView(candidate).getKey();
     }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.iterator;
+
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.impl.query.Query;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.projection.Projection;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.util.IterationType;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Future;
+
+import static com.hazelcast.util.ExceptionUtil.rethrow;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Base class for streaming the result of a query over all the partitions of a map. The partitions are queried
+ * one after another, in chunks of about {@code fetchSize} results, with the same per-partition cursor as
+ * {@link AbstractMapQueryPartitionIterator}.
+ * <p>
+ * The fetch of the next chunk is sent as soon as a chunk arrives, so the next chunk is transferred while the
+ * current one is consumed, and no further chunk is requested until the current one is exhausted. At most two
+ * chunks are held at any time: the memory needed by the iteration depends on the fetch size, not on the size of
+ * the result, which is why no result size limit applies.
+ * <p>
+ * <b>NOTE</b>
+ * Iterating the map should be done only when the {@link IMap} is not being
+ * mutated and the cluster is stable (there are no migrations or membership changes).
+ * In other cases, the iterator may not return some entries or may return an entry twice.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @param <R> the return type of the projection
+ * @param <T> the type of the response to a fetch
+ */
+public abstract class AbstractMapQueryIterator<K, V, R, T> implements Iterator<R> {
+
+    protected final int fetchSize;
+    protected final Query query;
+
+    private final int partitionCount;
+    private int partitionId;
+    private boolean started;
+    private Future<T> pendingFetch;
+    private List<Data> chunk = Collections.emptyList();
+    private int index;
+
+    protected AbstractMapQueryIterator(IMap<K, V> map, int partitionCount, int fetchSize, Predicate<K, V> predicate,
+                                       Projection<Entry<K, V>, R> projection) {
+        this.fetchSize = checkPositive(fetchSize, "fetchSize should be positive");
+        this.partitionCount = partitionCount;
+        this.query = Query.of()
+                          .mapName(map.getName())
+                          .iterationType(IterationType.VALUE)
+                          .predicate(predicate)
+                          .projection(projection)
+                          .build();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (index == chunk.size()) {
+            if (!advance()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return getSerializationService().toObject(chunk.get(index++));
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Removing when iterating map with query is not supported");
+    }
+
+    /**
+     * Waits for the pending chunk, makes it the current one and sends the fetch of the following one.
+     *
+     * @return {@code false} if all the partitions have been exhausted, {@code true} otherwise
+     */
+    private boolean advance() {
+        if (!started) {
+            started = true;
+            pendingFetch = partitionCount > 0 ? fetch(partitionId, Integer.MAX_VALUE) : null;
+        }
+        if (pendingFetch == null) {
+            return false;
+        }
+        T response;
+        try {
+            response = pendingFetch.get();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+        List<Data> results = getResults(response);
+        int nextTableIndex = getNextTableIndex(response);
+        if (!results.isEmpty() && nextTableIndex >= 0) {
+            pendingFetch = fetch(partitionId, nextTableIndex);
+        } else if (++partitionId < partitionCount) {
+            pendingFetch = fetch(partitionId, Integer.MAX_VALUE);
+        } else {
+            pendingFetch = null;
+        }
+        chunk = results;
+        index = 0;
+        return true;
+    }
+
+    /**
+     * Sends the fetch of a chunk of the given partition.
+     *
+     * @param partitionId the partition to fetch from
+     * @param tableIndex  the table index to resume the partition from, {@link Integer#MAX_VALUE} to start it
+     * @return the future response
+     */
+    protected abstract Future<T> fetch(int partitionId, int tableIndex);
+
+    /**
+     * @return the serialized results held by the given response
+     */
+    protected abstract List<Data> getResults(T response);
+
+    /**
+     * @return the table index to resume the partition from, or a negative value if the partition is exhausted
+     */
+    protected abstract int getNextTableIndex(T response);
+
+    protected abstract SerializationService getSerializationService();
+}
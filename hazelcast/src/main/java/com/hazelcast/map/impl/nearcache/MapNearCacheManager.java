@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.nearcache;
 
 import com.hazelcast.core.IFunction;
 import com.hazelcast.internal.cluster.ClusterService;
+import com.hazelcast.internal.memory.MemoryManager;
 import com.hazelcast.internal.nearcache.NearCache;
 import com.hazelcast.internal.nearcache.impl.DefaultNearCacheManager;
 import com.hazelcast.internal.nearcache.impl.invalidation.BatchInvalidator;
@@ -42,6 +43,7 @@ import com.hazelcast.spi.properties.HazelcastProperties;
 
 import static com.hazelcast.core.EntryEventType.INVALIDATION;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+import static com.hazelcast.spi.properties.GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_ADAPTIVE_ENABLED;
 import static com.hazelcast.spi.properties.GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_ENABLED;
 import static com.hazelcast.spi.properties.GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS;
 import static com.hazelcast.spi.properties.GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_SIZE;
@@ -71,14 +73,25 @@ public class MapNearCacheManager extends DefaultNearCacheManager {
         this.repairingTask = createRepairingInvalidationTask();
     }
 
+    /**
+     * Near Caches on members allocate from the native memory of the map service, which is created after
+     * this manager and disposed by the map service itself.
+     */
+    @Override
+    protected MemoryManager getMemoryManager() {
+        return mapServiceContext.getNativeMemoryManager();
+    }
+
     private Invalidator createInvalidator() {
         HazelcastProperties hazelcastProperties = nodeEngine.getProperties();
         int batchSize = hazelcastProperties.getInteger(MAP_INVALIDATION_MESSAGE_BATCH_SIZE);
         int batchFrequencySeconds = hazelcastProperties.getInteger(MAP_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS);
         boolean batchingEnabled = hazelcastProperties.getBoolean(MAP_INVALIDATION_MESSAGE_BATCH_ENABLED) && batchSize > 1;
+        boolean adaptive = hazelcastProperties.getBoolean(MAP_INVALIDATION_MESSAGE_BATCH_ADAPTIVE_ENABLED);
 
         if (batchingEnabled) {
-            return new BatchInvalidator(SERVICE_NAME, batchSize, batchFrequencySeconds, INVALIDATION_ACCEPTOR, nodeEngine);
+            return new BatchInvalidator(SERVICE_NAME, batchSize, batchFrequencySeconds, adaptive, INVALIDATION_ACCEPTOR,
+                    nodeEngine);
         } else {
             return new NonStopInvalidator(SERVICE_NAME, INVALIDATION_ACCEPTOR, nodeEngine);
         }
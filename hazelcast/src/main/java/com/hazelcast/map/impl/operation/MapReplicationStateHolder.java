@@ -138,14 +138,14 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable, Ve
             if (mapContainer.isGlobalIndexEnabled()) {
                 // global-index
                 for (Index index : mapContainer.getIndexes().getIndexes()) {
-                    indexInfos.add(new IndexInfo(index.getAttributeName(), index.isOrdered()));
+                    indexInfos.add(new IndexInfo(index.getDefinition(), index.isOrdered()));
                 }
             } else {
                 // partitioned-index
                 final Indexes indexes = mapContainer.getIndexes(container.getPartitionId());
                 if (indexes != null && indexes.hasIndex()) {
                     for (Index index : indexes.getIndexes()) {
-                        indexInfos.add(new IndexInfo(index.getAttributeName(), index.isOrdered()));
+                        indexInfos.add(new IndexInfo(index.getDefinition(), index.isOrdered()));
                     }
                 }
             }
@@ -241,7 +241,7 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable, Ve
             for (IndexInfo indexInfo : indexInfos) {
                 Indexes indexes = mapContainer.getIndexes();
                 // optimisation not to synchronize each partition thread on the addOrGetIndex method
-                if (indexes.getIndex(indexInfo.getAttributeName()) == null) {
+                if (indexes.getIndexByDefinition(indexInfo.getAttributeName()) == null) {
                     indexes.addOrGetIndex(indexInfo.getAttributeName(), indexInfo.isOrdered());
                 }
             }
@@ -297,7 +297,7 @@ public class PostJoinMapOperation extends Operation implements IdentifiedDataSer
             // GLOBAL-INDEX
             MapIndexInfo mapIndexInfo = new MapIndexInfo(mapContainer.getName());
             for (Index index : mapContainer.getIndexes().getIndexes()) {
-                mapIndexInfo.addIndexInfo(index.getAttributeName(), index.isOrdered());
+                mapIndexInfo.addIndexInfo(index.getDefinition(), index.isOrdered());
             }
             indexInfoList.add(mapIndexInfo);
         } else {
@@ -310,7 +310,7 @@ public class PostJoinMapOperation extends Operation implements IdentifiedDataSer
                 final Indexes indexes = mapContainer.getIndexes(partitionContainer.getPartitionId());
                 if (indexes != null && indexes.hasIndex()) {
                     for (Index index : indexes.getIndexes()) {
-                        indexInfos.add(new IndexInfo(index.getAttributeName(), index.isOrdered()));
+                        indexInfos.add(new IndexInfo(index.getDefinition(), index.isOrdered()));
                     }
                 }
             }
@@ -25,6 +25,7 @@ import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.Records;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.IndexInfo;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.MapIndexInfo;
@@ -87,11 +88,10 @@ public class SynchronizeIndexesForPartitionTask implements PartitionSpecificRunn
             Indexes indexes = mapContainer.getIndexes(partitionId);
 
             // identify missing indexes
-            List<IndexInfo> missingIndexes = new ArrayList<IndexInfo>();
+            List<Index> missingIndexes = new ArrayList<Index>();
             for (IndexInfo indexInfo : mapIndexInfo.getIndexInfos()) {
-                if (indexes.getIndex(indexInfo.getAttributeName()) == null) {
-                    indexes.addOrGetIndex(indexInfo.getAttributeName(), indexInfo.isOrdered());
-                    missingIndexes.add(indexInfo);
+                if (indexes.getIndexByDefinition(indexInfo.getAttributeName()) == null) {
+                    missingIndexes.add(indexes.addOrGetIndex(indexInfo.getAttributeName(), indexInfo.isOrdered()));
                 }
             }
 
@@ -103,8 +103,8 @@ public class SynchronizeIndexesForPartitionTask implements PartitionSpecificRunn
                 Data key = record.getKey();
                 Object value = Records.getValueOrCachedValue(record, serializationService);
                 QueryableEntry queryEntry = mapContainer.newQueryEntry(key, value);
-                for (IndexInfo missingIndex : missingIndexes) {
-                    indexes.getIndex(missingIndex.getAttributeName()).saveEntryIndex(queryEntry, null);
+                for (Index missingIndex : missingIndexes) {
+                    missingIndex.saveEntryIndex(queryEntry, null);
                 }
             }
         }
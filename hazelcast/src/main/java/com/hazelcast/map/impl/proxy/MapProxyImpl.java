@@ -34,6 +34,7 @@ import com.hazelcast.map.QueryCache;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.SimpleEntryView;
 import com.hazelcast.map.impl.iterator.MapPartitionIterator;
+import com.hazelcast.map.impl.iterator.MapQueryIterator;
 import com.hazelcast.map.impl.iterator.MapQueryPartitionIterator;
 import com.hazelcast.map.impl.journal.MapEventJournalReadOperation;
 import com.hazelcast.map.impl.journal.MapEventJournalSubscribeOperation;
@@ -61,6 +62,7 @@ import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.projection.Projection;
+import com.hazelcast.projection.Projections;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.TruePredicate;
@@ -86,6 +88,8 @@ import static com.hazelcast.config.InMemoryFormat.NATIVE;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static com.hazelcast.map.impl.query.QueryResultUtils.transformToSet;
 import static com.hazelcast.map.impl.querycache.subscriber.QueryCacheRequest.newQueryCacheRequest;
+import static com.hazelcast.query.QueryConstants.KEY_ATTRIBUTE_NAME;
+import static com.hazelcast.query.QueryConstants.THIS_ATTRIBUTE_NAME;
 import static com.hazelcast.util.MapUtil.createHashMap;
 import static com.hazelcast.util.Preconditions.checkNoNullInside;
 import static com.hazelcast.util.Preconditions.checkNotInstanceOf;
@@ -864,6 +868,82 @@ public class MapProxyImpl<K, V> extends MapProxySupport<K, V> implements EventJo
         return new MapQueryPartitionIterator<K, V, R>(this, fetchSize, partitionId, predicate, projection);
     }
 
+    /**
+     * Returns an iterator for streaming the result of the projection on the entries of all the partitions
+     * which satisfy the {@code predicate}.
+     * <p>
+     * Unlike {@link #entrySet(Predicate)}, {@link #keySet(Predicate)} and {@link #values(Predicate)}, the result is
+     * never materialized: the partitions are queried one after another, in batches of about {@code fetchSize}
+     * results, and the next batch is fetched while the current one is being iterated. At most two batches are held
+     * in memory at a time, so the result is not limited by the query result size limit.
+     * You may control the size of the batch by changing the {@code fetchSize} parameter.
+     * The underlying implementation may send more values in one batch than {@code fetchSize} if it needs to get to
+     * a "safepoint" to later resume iteration.
+     * Predicates of type {@link PagingPredicate} are not supported.
+     * <p>
+     * <b>NOTE</b>
+     * Iterating the map should be done only when the {@link IMap} is not being
+     * mutated and the cluster is stable (there are no migrations or membership changes).
+     * In other cases, the iterator may not return some entries or may return an entry twice.
+     *
+     * @param fetchSize  the size of the batches which will be sent when iterating the data
+     * @param projection the projection to apply before returning the value. {@code null} value is not allowed
+     * @param predicate  the predicate which the entries must match. {@code null} value is not allowed
+     * @param <R>        the return type
+     * @return the iterator for the projected entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    public <R> Iterator<R> iterator(int fetchSize, Projection<Map.Entry<K, V>, R> projection, Predicate<K, V> predicate) {
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Paging predicate is not allowed when iterating map by query");
+        }
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        // HazelcastInstanceAware handled by cloning
+        projection = serializationService.toObject(serializationService.toData(projection));
+        handleHazelcastInstanceAwareParams(predicate);
+        return new MapQueryIterator<K, V, R>(this, fetchSize, predicate, projection);
+    }
+
+    /**
+     * Returns an iterator for streaming the entries which satisfy the {@code predicate}, the streaming
+     * counterpart of {@link #entrySet(Predicate)}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param predicate the predicate which the entries must match. {@code null} value is not allowed
+     * @return the iterator for the matching entries
+     * @see #iterator(int, Projection, Predicate)
+     */
+    public Iterator<Map.Entry<K, V>> entrySetIterator(int fetchSize, Predicate<K, V> predicate) {
+        return iterator(fetchSize, Projections.<Map.Entry<K, V>>identity(), predicate);
+    }
+
+    /**
+     * Returns an iterator for streaming the keys of the entries which satisfy the {@code predicate}, the streaming
+     * counterpart of {@link #keySet(Predicate)}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param predicate the predicate which the entries must match. {@code null} value is not allowed
+     * @return the iterator for the matching keys
+     * @see #iterator(int, Projection, Predicate)
+     */
+    public Iterator<K> keySetIterator(int fetchSize, Predicate<K, V> predicate) {
+        return iterator(fetchSize, Projections.<Map.Entry<K, V>, K>singleAttribute(KEY_ATTRIBUTE_NAME.value()), predicate);
+    }
+
+    /**
+     * Returns an iterator for streaming the values of the entries which satisfy the {@code predicate}, the streaming
+     * counterpart of {@link #values(Predicate)}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param predicate the predicate which the entries must match. {@code null} value is not allowed
+     * @return the iterator for the matching values
+     * @see #iterator(int, Projection, Predicate)
+     */
+    public Iterator<V> valuesIterator(int fetchSize, Predicate<K, V> predicate) {
+        return iterator(fetchSize, Projections.<Map.Entry<K, V>, V>singleAttribute(THIS_ATTRIBUTE_NAME.value()), predicate);
+    }
+
     @Override
     public ICompletableFuture<EventJournalInitialSubscriberState> subscribeToEventJournal(int partitionId) {
         final MapEventJournalSubscribeOperation op = new MapEventJournalSubscribeOperation(name);
@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.query;
 
 import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.impl.ColumnarAccumulator;
 import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
@@ -34,6 +35,9 @@ import java.util.Map;
  * Contains the result of the evaluation of an aggregation on a specific Partition or Node.
  * <p>
  * At the end of the aggregation execution path all AggregationResults are merged into one AggregationResult.
+ * <p>
+ * The entries {@link #add added} to the result are accumulated through a {@link ColumnarAccumulator}, so they may be
+ * buffered until the aggregator is accessed, combined, serialized or the result construction completes.
  */
 public class AggregationResult implements Result<AggregationResult>, IdentifiedDataSerializable {
 
@@ -41,6 +45,7 @@ public class AggregationResult implements Result<AggregationResult>, IdentifiedD
     private Collection<Integer> partitionIds;
 
     private final transient SerializationService serializationService;
+    private transient ColumnarAccumulator accumulator;
 
     public AggregationResult() {
         this.serializationService = null;
@@ -53,6 +58,7 @@ public class AggregationResult implements Result<AggregationResult>, IdentifiedD
 
     @SuppressWarnings("unchecked")
     public <R> Aggregator<?, R> getAggregator() {
+        flushAccumulator();
         return aggregator;
     }
 
@@ -71,6 +77,8 @@ public class AggregationResult implements Result<AggregationResult>, IdentifiedD
             partitionIds = new ArrayList<Integer>(otherPartitionIds.size());
         }
         partitionIds.addAll(otherPartitionIds);
+        flushAccumulator();
+        result.flushAccumulator();
         aggregator.combine(result.aggregator);
     }
 
@@ -83,7 +91,10 @@ public class AggregationResult implements Result<AggregationResult>, IdentifiedD
 
     @Override
     public void add(QueryableEntry entry) {
-        aggregator.accumulate(entry);
+        if (accumulator == null) {
+            accumulator = new ColumnarAccumulator(aggregator);
+        }
+        accumulator.accumulate(entry);
     }
 
     @Override
@@ -100,6 +111,7 @@ public class AggregationResult implements Result<AggregationResult>, IdentifiedD
 
     @Override
     public void completeConstruction(Collection<Integer> partitionIds) {
+        flushAccumulator();
         setPartitionIds(partitionIds);
     }
 
@@ -108,6 +120,12 @@ public class AggregationResult implements Result<AggregationResult>, IdentifiedD
         this.partitionIds = new ArrayList<Integer>(partitionIds);
     }
 
+    private void flushAccumulator() {
+        if (accumulator != null) {
+            accumulator.flush();
+        }
+    }
+
     @Override
     public int getFactoryId() {
         return MapDataSerializerHook.F_ID;
@@ -120,6 +138,7 @@ public class AggregationResult implements Result<AggregationResult>, IdentifiedD
 
     @Override
     public void writeData(ObjectDataOutput out) throws IOException {
+        flushAccumulator();
         int partitionSize = (partitionIds == null) ? 0 : partitionIds.size();
         out.writeInt(partitionSize);
         if (partitionSize > 0) {
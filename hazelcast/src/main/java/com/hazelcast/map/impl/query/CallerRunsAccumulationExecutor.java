@@ -22,6 +22,8 @@ import com.hazelcast.spi.serialization.SerializationService;
 
 import java.util.Collection;
 
+import static com.hazelcast.aggregation.impl.ColumnarAccumulator.accumulateAll;
+
 /**
  * Implementation of the {@link AccumulationExecutor} that runs the accumulation in the calling thread in a sequential fashion.
  */
@@ -39,9 +41,7 @@ public class CallerRunsAccumulationExecutor implements AccumulationExecutor {
             Aggregator aggregator, Collection<QueryableEntry> entries, Collection<Integer> partitionIds) {
         Aggregator resultAggregator = serializationService.toObject(serializationService.toData(aggregator));
         try {
-            for (QueryableEntry entry : entries) {
-                resultAggregator.accumulate(entry);
-            }
+            accumulateAll(resultAggregator, entries);
         } finally {
             resultAggregator.onAccumulationFinished();
         }
@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.query;
 
 import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.query.impl.CompositeIndexImpl;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.IndexCopyBehavior;
 import com.hazelcast.query.impl.IndexImpl;
@@ -26,6 +27,9 @@ public class DefaultIndexProvider implements IndexProvider {
     @Override
     public Index createIndex(String attributeName, boolean ordered, Extractors extractors,
                              InternalSerializationService ss, IndexCopyBehavior copyBehavior) {
+        if (CompositeIndexImpl.isComposite(attributeName)) {
+            return new CompositeIndexImpl(attributeName, ordered, ss, extractors, copyBehavior);
+        }
         return new IndexImpl(attributeName, ordered, ss, extractors, copyBehavior);
     }
 }
@@ -110,7 +110,9 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     private Result runQueryOnLocalPartitions(Query query) {
         BitSet mutablePartitionIds = getLocalPartitionIds();
 
-        Result result = doRunQueryOnQueryThreads(query, mutablePartitionIds, Target.LOCAL_NODE);
+        Result result = isQueriedOnPartitionThreads(query)
+                ? populateResult(query, mutablePartitionIds)
+                : doRunQueryOnQueryThreads(query, mutablePartitionIds, Target.LOCAL_NODE);
         if (isResultFromAnyPartitionMissing(mutablePartitionIds)) {
             doRunQueryOnPartitionThreads(query, mutablePartitionIds, result);
         }
@@ -123,7 +125,9 @@ public class MapQueryEngineImpl implements MapQueryEngine {
     private Result runQueryOnAllPartitions(Query query) {
         BitSet mutablePartitionIds = getAllPartitionIds();
 
-        Result result = doRunQueryOnQueryThreads(query, mutablePartitionIds, Target.ALL_NODES);
+        Result result = isQueriedOnPartitionThreads(query)
+                ? populateResult(query, mutablePartitionIds)
+                : doRunQueryOnQueryThreads(query, mutablePartitionIds, Target.ALL_NODES);
         if (isResultFromAnyPartitionMissing(mutablePartitionIds)) {
             doRunQueryOnPartitionThreads(query, mutablePartitionIds, result);
         }
@@ -142,6 +146,15 @@ public class MapQueryEngineImpl implements MapQueryEngine {
         }
     }
 
+    /**
+     * Maps with partitioned indexes, which includes the NATIVE ones, can be queried only by the partition
+     * threads: there's no point in trying the query threads first, the partitions are queried in parallel
+     * by their threads straight away.
+     */
+    private boolean isQueriedOnPartitionThreads(Query query) {
+        return !mapServiceContext.getMapContainer(query.getMapName()).isGlobalIndexEnabled();
+    }
+
     private Result doRunQueryOnQueryThreads(Query query, BitSet partitionIds, Target target) {
         Result result = populateResult(query, partitionIds);
         List<Future<Result>> futures = dispatchOnQueryThreads(query, target);
@@ -26,6 +26,7 @@ import java.util.Collection;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 
+import static com.hazelcast.aggregation.impl.ColumnarAccumulator.accumulateAll;
 import static com.hazelcast.util.FutureUtil.RETHROW_EVERYTHING;
 import static com.hazelcast.util.FutureUtil.returnWithDeadline;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -119,9 +120,7 @@ public class ParallelAccumulationExecutor implements AccumulationExecutor {
         @Override
         public Aggregator call() throws Exception {
             try {
-                for (QueryableEntry entry : entries) {
-                    aggregator.accumulate(entry);
-                }
+                accumulateAll(aggregator, entries);
             } finally {
                 aggregator.onAccumulationFinished();
             }
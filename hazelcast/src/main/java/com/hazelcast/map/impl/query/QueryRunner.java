@@ -35,6 +35,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+
 /**
  * Runs query operations in the calling thread (thus blocking it)
  * <p>
@@ -102,6 +104,12 @@ public class QueryRunner {
         Collection<Integer> initialPartitions = mapServiceContext.getOwnedPartitions();
         MapContainer mapContainer = mapServiceContext.getMapContainer(query.getMapName());
 
+        if (mapContainer.getMapConfig().getInMemoryFormat() == NATIVE || !mapContainer.isGlobalIndexEnabled()) {
+            // native storage and partitioned indexes can be accessed only by their partition threads,
+            // so let the caller fall back to querying on partition threads
+            return populateEmptyResult(query, initialPartitions);
+        }
+
         // to optimize the query we need to get any index instance
         Indexes indexes = mapContainer.getIndexes();
         if (indexes == null) {
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.serialization.impl.HeapData;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
+
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * A <i>Flyweight</i> {@link Record} whose state lives entirely in a native memory block.
+ * Instances are cheap, short-lived views over the block at {@link #address()}; the block
+ * itself is owned by the storage which holds the record and is freed deterministically
+ * by {@link #dispose()}.
+ * <p>
+ * Memory layout of the record block (all fields are {@code long}s):
+ * <pre>
+ * NEXT | KEY_HASH | KEY | VALUE | VERSION | TTL | CREATION_TIME | HITS
+ *      | LAST_ACCESS_TIME | LAST_UPDATE_TIME | LAST_STORED_TIME | EXPIRATION_TIME
+ * </pre>
+ * {@code NEXT} links records which share a hash slot, {@code KEY} and {@code VALUE} hold the addresses
+ * of blobs laid out as an {@code int} length followed by the serialized bytes of the {@link Data}.
+ * <p>
+ * Records can be accessed by only their own partition thread.
+ */
+public final class NativeRecord implements Record<Data> {
+
+    /**
+     * Size of the record block in bytes.
+     */
+    public static final int SIZE = 12 * LONG_SIZE_IN_BYTES;
+
+    private static final int NEXT_OFFSET = 0;
+    private static final int KEY_HASH_OFFSET = 8;
+    private static final int KEY_OFFSET = 16;
+    private static final int VALUE_OFFSET = 24;
+    private static final int VERSION_OFFSET = 32;
+    private static final int TTL_OFFSET = 40;
+    private static final int CREATION_TIME_OFFSET = 48;
+    private static final int HITS_OFFSET = 56;
+    private static final int LAST_ACCESS_TIME_OFFSET = 64;
+    private static final int LAST_UPDATE_TIME_OFFSET = 72;
+    private static final int LAST_STORED_TIME_OFFSET = 80;
+    private static final int EXPIRATION_TIME_OFFSET = 88;
+
+    // equality of Data ignores the partition hash, which is stored in the first int of the payload
+    private static final int DATA_COMPARE_OFFSET = HeapData.TYPE_OFFSET;
+
+    private final MemoryAccessor mem;
+    private final MemoryAllocator malloc;
+    private final long address;
+
+    public NativeRecord(MemoryManager memoryManager, long address) {
+        assert address != NULL_ADDRESS : "NativeRecord cannot be created over NULL_ADDRESS";
+        this.mem = memoryManager.getAccessor();
+        this.malloc = memoryManager.getAllocator();
+        this.address = address;
+    }
+
+    /**
+     * Allocates a new record block holding the given value. The key is set later, when the
+     * record is put into its storage.
+     */
+    public static NativeRecord allocate(MemoryManager memoryManager, Data value) {
+        long address = memoryManager.getAllocator().allocate(SIZE);
+        NativeRecord record = new NativeRecord(memoryManager, address);
+        record.setValue(value);
+        return record;
+    }
+
+    public long address() {
+        return address;
+    }
+
+    public long getNext() {
+        return mem.getLong(address + NEXT_OFFSET);
+    }
+
+    public void setNext(long next) {
+        mem.putLong(address + NEXT_OFFSET, next);
+    }
+
+    public long getKeyHash() {
+        return mem.getLong(address + KEY_HASH_OFFSET);
+    }
+
+    public boolean hasKey() {
+        return mem.getLong(address + KEY_OFFSET) != NULL_ADDRESS;
+    }
+
+    public void setKey(Data key) {
+        mem.putLong(address + KEY_HASH_OFFSET, key.hash64());
+        writeBlob(KEY_OFFSET, key);
+    }
+
+    /**
+     * @return {@code true} if the stored key is equal to the given one, as defined by {@link Data#equals(Object)}
+     */
+    public boolean keyEquals(Data key, long keyHash) {
+        if (getKeyHash() != keyHash) {
+            return false;
+        }
+        long blob = mem.getLong(address + KEY_OFFSET);
+        int length = mem.getInt(blob);
+        if (length != key.totalSize()) {
+            return false;
+        }
+        byte[] bytes = key.toByteArray();
+        long base = blob + INT_SIZE_IN_BYTES;
+        for (int i = length - 1; i >= DATA_COMPARE_OFFSET; i--) {
+            if (mem.getByte(base + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Frees the record block together with its key and value blobs.
+     * The record must not be accessed after this call.
+     */
+    public void dispose() {
+        freeBlob(KEY_OFFSET);
+        freeBlob(VALUE_OFFSET);
+        malloc.free(address, SIZE);
+    }
+
+    @Override
+    public Data getKey() {
+        return readBlob(KEY_OFFSET);
+    }
+
+    @Override
+    public Data getValue() {
+        return readBlob(VALUE_OFFSET);
+    }
+
+    @Override
+    public void setValue(Data value) {
+        writeBlob(VALUE_OFFSET, value);
+    }
+
+    @Override
+    public void onAccess(long now) {
+        setHits(getHits() + 1);
+        setLastAccessTime(now);
+    }
+
+    @Override
+    public void onUpdate(long now) {
+        setVersion(getVersion() + 1);
+        setLastUpdateTime(now);
+    }
+
+    @Override
+    public void onStore() {
+        setLastStoredTime(Clock.currentTimeMillis());
+    }
+
+    @Override
+    public long getCost() {
+        return SIZE + blobSize(KEY_OFFSET) + blobSize(VALUE_OFFSET);
+    }
+
+    @Override
+    public long getVersion() {
+        return mem.getLong(address + VERSION_OFFSET);
+    }
+
+    @Override
+    public void setVersion(long version) {
+        mem.putLong(address + VERSION_OFFSET, version);
+    }
+
+    @Override
+    public Object getCachedValueUnsafe() {
+        return Record.NOT_CACHED;
+    }
+
+    @Override
+    public boolean casCachedValue(Object expectedValue, Object newValue) {
+        return true;
+    }
+
+    @Override
+    public long getTtl() {
+        return mem.getLong(address + TTL_OFFSET);
+    }
+
+    @Override
+    public void setTtl(long ttl) {
+        mem.putLong(address + TTL_OFFSET, ttl);
+    }
+
+    @Override
+    public long getLastAccessTime() {
+        return mem.getLong(address + LAST_ACCESS_TIME_OFFSET);
+    }
+
+    @Override
+    public void setLastAccessTime(long lastAccessTime) {
+        mem.putLong(address + LAST_ACCESS_TIME_OFFSET, lastAccessTime);
+    }
+
+    @Override
+    public long getLastUpdateTime() {
+        return mem.getLong(address + LAST_UPDATE_TIME_OFFSET);
+    }
+
+    @Override
+    public void setLastUpdateTime(long lastUpdatedTime) {
+        mem.putLong(address + LAST_UPDATE_TIME_OFFSET, lastUpdatedTime);
+    }
+
+    @Override
+    public long getCreationTime() {
+        return mem.getLong(address + CREATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setCreationTime(long creationTime) {
+        mem.putLong(address + CREATION_TIME_OFFSET, creationTime);
+    }
+
+    @Override
+    public long getHits() {
+        return mem.getLong(address + HITS_OFFSET);
+    }
+
+    @Override
+    public void setHits(long hits) {
+        mem.putLong(address + HITS_OFFSET, hits);
+    }
+
+    @Override
+    public long getExpirationTime() {
+        return mem.getLong(address + EXPIRATION_TIME_OFFSET);
+    }
+
+    @Override
+    public void setExpirationTime(long expirationTime) {
+        mem.putLong(address + EXPIRATION_TIME_OFFSET, expirationTime);
+    }
+
+    @Override
+    public long getLastStoredTime() {
+        return mem.getLong(address + LAST_STORED_TIME_OFFSET);
+    }
+
+    @Override
+    public void setLastStoredTime(long lastStoredTime) {
+        mem.putLong(address + LAST_STORED_TIME_OFFSET, lastStoredTime);
+    }
+
+    @Override
+    public long getSequence() {
+        return NOT_AVAILABLE;
+    }
+
+    @Override
+    public void setSequence(long sequence) {
+    }
+
+    private Data readBlob(int offset) {
+        long blob = mem.getLong(address + offset);
+        if (blob == NULL_ADDRESS) {
+            return null;
+        }
+        int length = mem.getInt(blob);
+        byte[] bytes = new byte[length];
+        mem.copyToByteArray(blob + INT_SIZE_IN_BYTES, bytes, 0, length);
+        return new HeapData(bytes);
+    }
+
+    private void writeBlob(int offset, Data data) {
+        freeBlob(offset);
+        if (data == null) {
+            return;
+        }
+        int length = data.totalSize();
+        long blob = malloc.allocate(INT_SIZE_IN_BYTES + length);
+        mem.putInt(blob, length);
+        if (length > 0) {
+            mem.copyFromByteArray(data.toByteArray(), 0, blob + INT_SIZE_IN_BYTES, length);
+        }
+        mem.putLong(address + offset, blob);
+    }
+
+    private void freeBlob(int offset) {
+        long blob = mem.getLong(address + offset);
+        if (blob != NULL_ADDRESS) {
+            malloc.free(blob, INT_SIZE_IN_BYTES + mem.getInt(blob));
+            mem.putLong(address + offset, NULL_ADDRESS);
+        }
+    }
+
+    private long blobSize(int offset) {
+        long blob = mem.getLong(address + offset);
+        return blob == NULL_ADDRESS ? 0 : INT_SIZE_IN_BYTES + mem.getInt(blob);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return address == ((NativeRecord) o).address;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (address ^ (address >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "NativeRecord{address=" + address + '}';
+    }
+}
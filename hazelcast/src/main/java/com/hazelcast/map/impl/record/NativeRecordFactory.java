@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.record;
+
+import com.hazelcast.core.PartitioningStrategy;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+
+/**
+ * Creates {@link NativeRecord}s for maps with {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE}
+ * in-memory format.
+ */
+public class NativeRecordFactory implements RecordFactory<Data> {
+
+    private final MemoryManager memoryManager;
+    private final SerializationService serializationService;
+    private final PartitioningStrategy partitionStrategy;
+
+    public NativeRecordFactory(MemoryManager memoryManager, SerializationService serializationService,
+                               PartitioningStrategy partitionStrategy) {
+        this.memoryManager = memoryManager;
+        this.serializationService = serializationService;
+        this.partitionStrategy = partitionStrategy;
+    }
+
+    @Override
+    public Record<Data> newRecord(Object value) {
+        assert value != null : "value can not be null";
+
+        Data data = serializationService.toData(value, partitionStrategy);
+        return NativeRecord.allocate(memoryManager, data);
+    }
+
+    @Override
+    public void setValue(Record<Data> record, Object value) {
+        assert value != null : "value can not be null";
+
+        Data v;
+        if (value instanceof Data) {
+            v = (Data) value;
+        } else {
+            v = serializationService.toData(value, partitionStrategy);
+        }
+        record.setValue(v);
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.recordstore;
 
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.eviction.impl.FrequencySketch;
 import com.hazelcast.internal.nearcache.impl.invalidation.InvalidationQueue;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.event.MapEventPublisher;
@@ -311,12 +312,23 @@ abstract class AbstractEvictableRecordStore extends AbstractRecordStore {
     }
 
     protected void accessRecord(Record record, long now) {
+        recordAccessFrequency(record.getKey());
         record.onAccess(now);
         updateStatsOnGet(now);
         long maxIdleMillis = calculateMaxIdleMillis(mapContainer.getMapConfig());
         setExpirationTime(record, maxIdleMillis);
     }
 
+    /**
+     * Counts an access to the given key if the map is evicted by TinyLFU, whether the key is stored or not.
+     */
+    protected void recordAccessFrequency(Data key) {
+        FrequencySketch frequencySketch = mapContainer.getFrequencySketch();
+        if (frequencySketch != null) {
+            frequencySketch.increment(FrequencySketch.hash(key));
+        }
+    }
+
     protected void mergeRecordExpiration(Record record, EntryView mergingEntry) {
         mergeRecordExpiration(record, mergingEntry.getTtl(), mergingEntry.getCreationTime(), mergingEntry.getLastAccessTime(),
                 mergingEntry.getLastUpdateTime());
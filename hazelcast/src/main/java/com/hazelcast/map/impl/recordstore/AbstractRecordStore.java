@@ -103,6 +103,9 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     @Override
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        if (memoryFormat == InMemoryFormat.NATIVE) {
+            return new NativeStorageImpl(recordFactory, mapServiceContext.getNativeMemoryManager(), serializationService);
+        }
         return new StorageImpl(recordFactory, memoryFormat, serializationService);
     }
 
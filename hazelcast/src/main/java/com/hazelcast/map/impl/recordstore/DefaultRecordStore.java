@@ -310,6 +310,9 @@ public class DefaultRecordStore extends AbstractEvictableRecordStore {
 
     @Override
     public Record loadRecordOrNull(Data key, boolean backup) {
+        if (!backup) {
+            recordAccessFrequency(key);
+        }
         Record record = null;
         Object value = mapDataStore.load(key);
         if (value != null) {
@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryManager;
+import com.hazelcast.internal.util.ThreadLocalRandomProvider;
+import com.hazelcast.internal.util.hashslot.HashSlotArray8byteKey;
+import com.hazelcast.internal.util.hashslot.HashSlotCursor8byteKey;
+import com.hazelcast.internal.util.hashslot.impl.HashSlotArray8byteKeyImpl;
+import com.hazelcast.map.impl.EntryCostEstimator;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.NativeRecord;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+import static com.hazelcast.internal.memory.MemoryAllocator.NULL_ADDRESS;
+import static com.hazelcast.internal.util.hashslot.impl.CapacityUtil.DEFAULT_LOAD_FACTOR;
+import static com.hazelcast.map.impl.OwnedEntryCostEstimatorFactory.createMapSizeEstimator;
+import static com.hazelcast.nio.Bits.LONG_SIZE_IN_BYTES;
+
+/**
+ * {@link Storage} implementation for maps with {@link com.hazelcast.config.InMemoryFormat#NATIVE NATIVE}
+ * in-memory format. Keys, values and record metadata are all kept off-heap in {@link NativeRecord} blocks.
+ * <p>
+ * Records are indexed by an off-heap {@link HashSlotArray8byteKey}, keyed by the 64-bit hash of the key.
+ * The value part of each slot holds the address of the first record in the slot's bucket; records whose
+ * keys share the same hash are chained through their {@code NEXT} field.
+ * <p>
+ * Native memory is freed deterministically as soon as a record is removed or replaced. Like the rest of a
+ * {@link RecordStore}, this storage can be accessed by only its own partition thread.
+ */
+public class NativeStorageImpl implements Storage<Data, Record> {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MUTATION_TOLERANT_ITERATOR_BATCH_SIZE = 128;
+
+    // see the memory layout described in HashSlotArray: an 8-byte key followed by the 8-byte value block
+    private static final int SLOT_LENGTH = 2 * LONG_SIZE_IN_BYTES;
+    private static final int SLOT_VALUE_OFFSET = LONG_SIZE_IN_BYTES;
+
+    private final RecordFactory<Data> recordFactory;
+    private final MemoryManager memoryManager;
+    private final MemoryAccessor mem;
+    private final SerializationService serializationService;
+    private final HashSlotArray8byteKey table;
+
+    private int size;
+    private boolean destroyed;
+
+    // not final for testing purposes.
+    private EntryCostEstimator<Data, Record> entryCostEstimator;
+
+    NativeStorageImpl(RecordFactory<Data> recordFactory, MemoryManager memoryManager,
+                      SerializationService serializationService) {
+        this.recordFactory = recordFactory;
+        this.memoryManager = memoryManager;
+        this.mem = memoryManager.getAccessor();
+        this.serializationService = serializationService;
+        this.entryCostEstimator = createMapSizeEstimator(NATIVE);
+        this.table = new HashSlotArray8byteKeyImpl(NULL_ADDRESS, memoryManager, LONG_SIZE_IN_BYTES,
+                INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+        this.table.gotoNew();
+    }
+
+    @Override
+    public void put(Data key, Record record) {
+        NativeRecord nativeRecord = (NativeRecord) record;
+        if (!nativeRecord.hasKey()) {
+            nativeRecord.setKey(key);
+        }
+        long keyHash = nativeRecord.getKeyHash();
+        long slotValueAddress = table.ensure(keyHash);
+        if (slotValueAddress > 0) {
+            nativeRecord.setNext(NULL_ADDRESS);
+            mem.putLong(slotValueAddress, nativeRecord.address());
+            size++;
+            updateCostEstimate(entryCostEstimator.calculateEntryCost(key, nativeRecord));
+            return;
+        }
+
+        slotValueAddress = -slotValueAddress;
+        long previous = NULL_ADDRESS;
+        long current = mem.getLong(slotValueAddress);
+        while (current != NULL_ADDRESS) {
+            NativeRecord existing = toRecord(current);
+            if (existing.keyEquals(key, keyHash)) {
+                if (current != nativeRecord.address()) {
+                    nativeRecord.setNext(existing.getNext());
+                    link(slotValueAddress, previous, nativeRecord.address());
+                    updateCostEstimate(-entryCostEstimator.calculateValueCost(existing));
+                    updateCostEstimate(entryCostEstimator.calculateValueCost(nativeRecord));
+                    existing.dispose();
+                }
+                return;
+            }
+            previous = current;
+            current = existing.getNext();
+        }
+
+        nativeRecord.setNext(mem.getLong(slotValueAddress));
+        mem.putLong(slotValueAddress, nativeRecord.address());
+        size++;
+        updateCostEstimate(entryCostEstimator.calculateEntryCost(key, nativeRecord));
+    }
+
+    @Override
+    public void updateRecordValue(Data key, Record record, Object value) {
+        updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
+
+        recordFactory.setValue(record, value);
+
+        updateCostEstimate(entryCostEstimator.calculateValueCost(record));
+    }
+
+    @Override
+    public Record get(Data key) {
+        long address = find(key);
+        return address == NULL_ADDRESS ? null : toRecord(address);
+    }
+
+    @Override
+    public Record getIfSameKey(Data key) {
+        throw new UnsupportedOperationException("NativeStorageImpl#getIfSameKey");
+    }
+
+    @Override
+    public void removeRecord(Record record) {
+        if (record == null) {
+            return;
+        }
+
+        NativeRecord nativeRecord = (NativeRecord) record;
+        long keyHash = nativeRecord.getKeyHash();
+        long slotValueAddress = table.get(keyHash);
+        if (slotValueAddress == NULL_ADDRESS) {
+            return;
+        }
+
+        long previous = NULL_ADDRESS;
+        long current = mem.getLong(slotValueAddress);
+        while (current != NULL_ADDRESS && current != nativeRecord.address()) {
+            previous = current;
+            current = toRecord(current).getNext();
+        }
+        if (current == NULL_ADDRESS) {
+            return;
+        }
+
+        long next = nativeRecord.getNext();
+        if (previous == NULL_ADDRESS && next == NULL_ADDRESS) {
+            table.remove(keyHash);
+        } else {
+            link(slotValueAddress, previous, next);
+        }
+        size--;
+        // the native estimator derives the whole entry cost from the record, which also holds the key
+        updateCostEstimate(-entryCostEstimator.calculateEntryCost(null, nativeRecord));
+        nativeRecord.dispose();
+    }
+
+    @Override
+    public boolean containsKey(Data key) {
+        return find(key) != NULL_ADDRESS;
+    }
+
+    /**
+     * Returns a snapshot of the records currently in this storage. Removing a record from this storage
+     * does not invalidate the other records of the snapshot, but the removed one must not be accessed anymore.
+     * Removing through the returned collection's iterator affects the snapshot only.
+     */
+    @Override
+    public Collection<Record> values() {
+        long[] addresses = new long[size];
+        int count = 0;
+        for (HashSlotCursor8byteKey cursor = table.cursor(); cursor.advance(); ) {
+            long current = mem.getLong(cursor.valueAddress());
+            for (; current != NULL_ADDRESS; current = toRecord(current).getNext()) {
+                addresses[count++] = current;
+            }
+        }
+        return new RecordSnapshot(addresses, count);
+    }
+
+    /**
+     * The returned iterator keeps only a bounded batch of on-heap keys and looks each record up on
+     * {@link Iterator#next()}, so records removed in the meantime are skipped rather than accessed.
+     */
+    @Override
+    public Iterator<Record> mutationTolerantIterator() {
+        return new MutationTolerantIterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        if (destroyed) {
+            return;
+        }
+
+        for (HashSlotCursor8byteKey cursor = table.cursor(); cursor.advance(); ) {
+            long current = mem.getLong(cursor.valueAddress());
+            while (current != NULL_ADDRESS) {
+                NativeRecord record = toRecord(current);
+                current = record.getNext();
+                record.dispose();
+            }
+        }
+        table.clear();
+        table.trimToSize();
+        size = 0;
+
+        entryCostEstimator.reset();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+        if (!destroyed) {
+            table.dispose();
+            destroyed = true;
+        }
+    }
+
+    @Override
+    public EntryCostEstimator getEntryCostEstimator() {
+        return entryCostEstimator;
+    }
+
+    @Override
+    public void setEntryCostEstimator(EntryCostEstimator entryCostEstimator) {
+        this.entryCostEstimator = entryCostEstimator;
+    }
+
+    @Override
+    public void disposeDeferredBlocks() {
+        // NOP intentionally, blocks are freed as soon as they are not needed anymore.
+    }
+
+    @Override
+    public Iterable<LazyEntryViewFromRecord> getRandomSamples(int sampleCount) {
+        if (sampleCount < 0) {
+            throw new IllegalArgumentException("Sample count cannot be a negative value.");
+        }
+        if (sampleCount == 0 || size == 0) {
+            return Collections.emptyList();
+        }
+
+        List<LazyEntryViewFromRecord> samples = new ArrayList<LazyEntryViewFromRecord>(sampleCount);
+        long capacity = table.capacity();
+        long mask = capacity - 1;
+        long firstSlot = ThreadLocalRandomProvider.get().nextInt((int) capacity);
+        for (long i = 0; i < capacity && samples.size() < sampleCount; i++) {
+            long current = bucketHead((firstSlot + i) & mask);
+            while (current != NULL_ADDRESS && samples.size() < sampleCount) {
+                NativeRecord record = toRecord(current);
+                samples.add(new LazyEntryViewFromRecord<Record>(record, serializationService));
+                current = record.getNext();
+            }
+        }
+        return samples;
+    }
+
+    @Override
+    public MapKeysWithCursor fetchKeys(int tableIndex, int size) {
+        List<Data> keys = new ArrayList<Data>(size);
+        int newTableIndex = fetchKeys(tableIndex, size, keys);
+        return new MapKeysWithCursor(keys, newTableIndex);
+    }
+
+    @Override
+    public MapEntriesWithCursor fetchEntries(int tableIndex, int size, SerializationService serializationService) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<Map.Entry<Data, Data>>(size);
+        int nextTableIndex = startTableIndex(tableIndex);
+        int counter = 0;
+        while (nextTableIndex >= 0 && counter < size) {
+            long current = bucketHead(nextTableIndex--);
+            while (current != NULL_ADDRESS) {
+                NativeRecord record = toRecord(current);
+                entries.add(new AbstractMap.SimpleEntry<Data, Data>(record.getKey(), record.getValue()));
+                counter++;
+                current = record.getNext();
+            }
+        }
+        return new MapEntriesWithCursor(entries, nextTableIndex);
+    }
+
+    private int fetchKeys(int tableIndex, int size, List<Data> keys) {
+        int nextTableIndex = startTableIndex(tableIndex);
+        int counter = 0;
+        while (nextTableIndex >= 0 && counter < size) {
+            long current = bucketHead(nextTableIndex--);
+            while (current != NULL_ADDRESS) {
+                NativeRecord record = toRecord(current);
+                keys.add(record.getKey());
+                counter++;
+                current = record.getNext();
+            }
+        }
+        return nextTableIndex;
+    }
+
+    private int startTableIndex(int tableIndex) {
+        long capacity = table.capacity();
+        return tableIndex >= 0 && tableIndex < capacity ? tableIndex : (int) capacity - 1;
+    }
+
+    private long find(Data key) {
+        long keyHash = key.hash64();
+        long slotValueAddress = table.get(keyHash);
+        if (slotValueAddress == NULL_ADDRESS) {
+            return NULL_ADDRESS;
+        }
+        long current = mem.getLong(slotValueAddress);
+        while (current != NULL_ADDRESS) {
+            NativeRecord record = toRecord(current);
+            if (record.keyEquals(key, keyHash)) {
+                return current;
+            }
+            current = record.getNext();
+        }
+        return NULL_ADDRESS;
+    }
+
+    /**
+     * Returns the first record of the bucket in the given slot; an unassigned slot holds {@code NULL_ADDRESS}.
+     */
+    private long bucketHead(long slot) {
+        return mem.getLong(table.address() + slot * SLOT_LENGTH + SLOT_VALUE_OFFSET);
+    }
+
+    private void link(long slotValueAddress, long previous, long next) {
+        if (previous == NULL_ADDRESS) {
+            mem.putLong(slotValueAddress, next);
+        } else {
+            toRecord(previous).setNext(next);
+        }
+    }
+
+    private NativeRecord toRecord(long address) {
+        return new NativeRecord(memoryManager, address);
+    }
+
+    private void updateCostEstimate(long entrySize) {
+        entryCostEstimator.adjustEstimateBy(entrySize);
+    }
+
+    /**
+     * Snapshot of record addresses, see {@link #values()}.
+     */
+    private final class RecordSnapshot extends AbstractCollection<Record> {
+
+        private final long[] addresses;
+        private int count;
+
+        RecordSnapshot(long[] addresses, int count) {
+            this.addresses = addresses;
+            this.count = count;
+        }
+
+        @Override
+        public Iterator<Record> iterator() {
+            return new Iterator<Record>() {
+                private int index;
+                private int lastReturned = -1;
+
+                @Override
+                public boolean hasNext() {
+                    while (index < addresses.length && addresses[index] == NULL_ADDRESS) {
+                        index++;
+                    }
+                    return index < addresses.length;
+                }
+
+                @Override
+                public Record next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    lastReturned = index;
+                    return toRecord(addresses[index++]);
+                }
+
+                @Override
+                public void remove() {
+                    if (lastReturned < 0) {
+                        throw new IllegalStateException();
+                    }
+                    addresses[lastReturned] = NULL_ADDRESS;
+                    lastReturned = -1;
+                    count--;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    private final class MutationTolerantIterator implements Iterator<Record> {
+
+        private final List<Data> keys = new ArrayList<Data>(MUTATION_TOLERANT_ITERATOR_BATCH_SIZE);
+        private int tableIndex = Integer.MAX_VALUE;
+        private int keyIndex;
+        // only the key is retained between calls, the record may be removed in the meantime
+        private Data nextKey;
+
+        @Override
+        public boolean hasNext() {
+            while (nextKey == null) {
+                if (destroyed) {
+                    return false;
+                }
+                if (keyIndex == keys.size()) {
+                    if (tableIndex < 0) {
+                        return false;
+                    }
+                    keys.clear();
+                    keyIndex = 0;
+                    tableIndex = fetchKeys(tableIndex, MUTATION_TOLERANT_ITERATOR_BATCH_SIZE, keys);
+                    continue;
+                }
+                Data key = keys.get(keyIndex++);
+                if (containsKey(key)) {
+                    nextKey = key;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Record next() {
+            while (hasNext()) {
+                Record record = get(nextKey);
+                nextKey = null;
+                if (record != null) {
+                    return record;
+                }
+            }
+            throw new NoSuchElementException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove() is not supported by this iterator");
+        }
+    }
+}
@@ -81,6 +81,35 @@ public interface IOService {
 
     boolean useDirectSocketBuffer();
 
+    /**
+     * Checks if large packets sent to other members should be compressed. Packets are only compressed if the
+     * receiving member enabled compression too.
+     *
+     * @return {@code true} if compression is enabled, {@code false} otherwise
+     */
+    boolean isSocketCompressionEnabled();
+
+    /**
+     * The minimum payload size of a packet to be compressed
+     *
+     * @return size in bytes
+     */
+    int getSocketCompressionThreshold();
+
+    /**
+     * The number of connections to open to each other member
+     *
+     * @return the number of connections
+     */
+    int getSocketConnectionsPerMember();
+
+    /**
+     * The number of partitions, which bounds the partition ids of the packets written to other members
+     *
+     * @return the number of partitions
+     */
+    int getPartitionCount();
+
     /**
      * Size of receive buffers for connections opened by clients
      *
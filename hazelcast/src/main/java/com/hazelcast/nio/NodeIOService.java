@@ -29,6 +29,7 @@ import com.hazelcast.internal.cluster.impl.ClusterServiceImpl;
 import com.hazelcast.internal.networking.ChannelFactory;
 import com.hazelcast.internal.networking.ChannelInboundHandler;
 import com.hazelcast.internal.networking.ChannelOutboundHandler;
+import com.hazelcast.internal.networking.nio.IOTransport;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.logging.LoggingService;
 import com.hazelcast.nio.tcp.TcpIpConnection;
@@ -187,6 +188,26 @@ public class NodeIOService implements IOService {
         return node.getProperties().getBoolean(GroupProperty.SOCKET_CLIENT_BIND_ANY);
     }
 
+    @Override
+    public boolean isSocketCompressionEnabled() {
+        return node.getProperties().getBoolean(GroupProperty.SOCKET_COMPRESSION_ENABLED);
+    }
+
+    @Override
+    public int getSocketCompressionThreshold() {
+        return node.getProperties().getInteger(GroupProperty.SOCKET_COMPRESSION_THRESHOLD);
+    }
+
+    @Override
+    public int getSocketConnectionsPerMember() {
+        return node.getProperties().getInteger(GroupProperty.SOCKET_CONNECTIONS_PER_MEMBER);
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return node.getPartitionService().getPartitionCount();
+    }
+
     @Override
     public int getSocketReceiveBufferSize() {
         return node.getProperties().getInteger(GroupProperty.SOCKET_RECEIVE_BUFFER_SIZE);
@@ -199,7 +220,13 @@ public class NodeIOService implements IOService {
 
     @Override
     public boolean useDirectSocketBuffer() {
-        return node.getProperties().getBoolean(GroupProperty.SOCKET_BUFFER_DIRECT);
+        if (node.getProperties().getBoolean(GroupProperty.SOCKET_BUFFER_DIRECT)) {
+            return true;
+        }
+        // copying through heap buffers is exactly what the epoll transport is meant to avoid; but when epoll
+        // is not available, the event loop group falls back to NIO and so do the buffers
+        IOTransport transport = IOTransport.fromString(node.getProperties().getString(GroupProperty.IO_TRANSPORT));
+        return transport == IOTransport.EPOLL && transport.isAvailable();
     }
 
     @Override
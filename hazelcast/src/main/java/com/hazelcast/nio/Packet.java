@@ -42,9 +42,9 @@ public final class Packet extends HeapData implements OutboundFrame {
     //             PACKET HEADER FLAGS
     //
     // Flags are dispatched against in a cascade:
-    // 1. URGENT (bit 4)
+    // 1. URGENT (bit 4) and COMPRESSED (bit 7)
     // 2. Packet type (bits 0, 2, 5)
-    // 3. Flags specific to a given packet type (bits 1, 6)
+    // 3. Flags specific to a given packet type (bits 1, 3, 6)
 
 
     // 1. URGENT flag
@@ -54,6 +54,12 @@ public final class Packet extends HeapData implements OutboundFrame {
      */
     public static final int FLAG_URGENT = 1 << 4;
 
+    /**
+     * Marks the payload of the packet as compressed. It is only raised on the wire: the payload of a compressed
+     * packet is decompressed before the packet is handed over to the packet handlers.
+     */
+    public static final int FLAG_COMPRESSED = 1 << 7;
+
 
     // 2. Packet type flags, encode up to 7 packet types.
     //
@@ -89,6 +95,10 @@ public final class Packet extends HeapData implements OutboundFrame {
      * Marks an Operation packet as Operation control (like invocation-heartbeats)
      */
     public static final int FLAG_OP_CONTROL = 1 << 6;
+    /**
+     * Marks an Operation packet as a batch of backups, which is split up as soon as it arrives
+     */
+    public static final int FLAG_OP_BACKUP_BATCH = 1 << 3;
 
 
     // 3.b Jet packet flags
@@ -99,6 +109,18 @@ public final class Packet extends HeapData implements OutboundFrame {
     public static final int FLAG_JET_FLOW_CONTROL = 1 << 1;
 
 
+    // 3.c Bind packet flags
+
+    /**
+     * Marks a Bind packet as sent by a member which accepts compressed packets on the connection
+     */
+    public static final int FLAG_BIND_COMPRESSION = 1 << 1;
+    /**
+     * Marks a Bind packet as sent over a secondary connection of a member pair
+     */
+    public static final int FLAG_BIND_SECONDARY = 1 << 6;
+
+
     //            END OF HEADER FLAG SECTION
 
 
@@ -286,7 +308,8 @@ public final class Packet extends HeapData implements OutboundFrame {
             @Override
             public String describeFlags(char flags) {
                 return "[isResponse=" + isFlagRaised(flags, FLAG_OP_RESPONSE)
-                        + ", isOpControl=" + isFlagRaised(flags, FLAG_OP_CONTROL) + ']';
+                        + ", isOpControl=" + isFlagRaised(flags, FLAG_OP_CONTROL)
+                        + ", isBackupBatch=" + isFlagRaised(flags, FLAG_OP_BACKUP_BATCH) + ']';
             }
         },
         /**
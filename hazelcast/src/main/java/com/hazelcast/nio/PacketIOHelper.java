@@ -57,15 +57,10 @@ public class PacketIOHelper {
      */
     public boolean writeTo(Packet packet, ByteBuffer dst) {
         if (!headerComplete) {
-            if (dst.remaining() < HEADER_SIZE) {
+            if (!writeHeaderTo(packet, dst)) {
                 return false;
             }
-
-            dst.put(VERSION);
-            dst.putChar(packet.getFlags());
-            dst.putInt(packet.getPartitionId());
             size = packet.totalSize();
-            dst.putInt(size);
             headerComplete = true;
         }
 
@@ -77,6 +72,24 @@ public class PacketIOHelper {
         }
     }
 
+    /**
+     * Writes the header of the packet to the supplied {@code ByteBuffer}, so the payload can be written separately.
+     *
+     * @param dst the destination byte buffer
+     * @return {@code true} if the header is written; {@code false} if it doesn't fit in the buffer and nothing is written
+     */
+    public static boolean writeHeaderTo(Packet packet, ByteBuffer dst) {
+        if (dst.remaining() < HEADER_SIZE) {
+            return false;
+        }
+
+        dst.put(VERSION);
+        dst.putChar(packet.getFlags());
+        dst.putInt(packet.getPartitionId());
+        dst.putInt(packet.totalSize());
+        return true;
+    }
+
     private boolean writeValue(Packet packet, ByteBuffer dst) {
         if (size > 0) {
             // the number of bytes that can be written to the bb.
@@ -18,12 +18,16 @@ package com.hazelcast.nio.tcp;
 
 import com.hazelcast.internal.networking.ChannelInboundHandler;
 import com.hazelcast.internal.networking.nio.ChannelInboundHandlerWithCounters;
+import com.hazelcast.internal.util.LZ4Codec;
+import com.hazelcast.nio.Bits;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.nio.PacketIOHelper;
 import com.hazelcast.spi.impl.PacketHandler;
 
 import java.nio.ByteBuffer;
 
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Packet.FLAG_COMPRESSED;
 import static com.hazelcast.nio.Packet.FLAG_URGENT;
 
 /**
@@ -31,6 +35,8 @@ import static com.hazelcast.nio.Packet.FLAG_URGENT;
  *
  * It reads as many packets from the src ByteBuffer as possible, and each of the Packets is send to the {@link PacketHandler}.
  *
+ * Compressed packets are decompressed before they are sent to the {@link PacketHandler}.
+ *
  * @see PacketHandler
  * @see PacketEncoder
  */
@@ -52,10 +58,25 @@ public class PacketDecoder extends ChannelInboundHandlerWithCounters {
             if (packet == null) {
                 break;
             }
+            if (packet.isFlagRaised(FLAG_COMPRESSED)) {
+                packet = decompress(packet);
+            }
             onPacketComplete(packet);
         }
     }
 
+    private Packet decompress(Packet packet) {
+        byte[] compressed = packet.toByteArray();
+        int uncompressedSize = Bits.readInt(compressed, 0, true);
+        byte[] payload = new byte[uncompressedSize];
+        LZ4Codec.decompress(compressed, INT_SIZE_IN_BYTES, compressed.length - INT_SIZE_IN_BYTES,
+                payload, 0, uncompressedSize);
+        if (connection != null) {
+            connection.getConnectionManager().onPacketDecompressed(compressed.length, uncompressedSize);
+        }
+        return new Packet(payload, packet.getPartitionId()).resetFlagsTo(packet.getFlags() & ~FLAG_COMPRESSED);
+    }
+
     protected void onPacketComplete(Packet packet) throws Exception {
         if (packet.isFlagRaised(FLAG_URGENT)) {
             priorityPacketsRead.inc();
@@ -17,10 +17,17 @@
 package com.hazelcast.nio.tcp;
 
 import com.hazelcast.internal.networking.ChannelOutboundHandler;
+import com.hazelcast.internal.networking.GatheringChannelOutboundHandler;
+import com.hazelcast.internal.util.LZ4Codec;
+import com.hazelcast.nio.Bits;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.nio.PacketIOHelper;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Packet.FLAG_COMPRESSED;
 
 /**
  * A {@link ChannelOutboundHandler} that for member to member communication.
@@ -30,14 +37,115 @@ import java.nio.ByteBuffer;
  * It makes use of a flyweight to allow the sharing of a packet-instance over multiple connections. The flyweight contains
  * the actual 'position' state of what has been written.
  *
+ * Large payloads can be referenced instead of copied, see {@link GatheringChannelOutboundHandler}.
+ *
+ * If compression is enabled on the connection, payloads of at least the compression threshold are compressed with
+ * the {@link LZ4Codec} into a new packet with the {@link Packet#FLAG_COMPRESSED} flag raised; the original packet isn't
+ * modified since it can be shared with other connections. The compressed payload starts with the length of the
+ * uncompressed payload. Payloads which don't get smaller are written as they are.
+ *
  * @see PacketDecoder
  */
-public class PacketEncoder implements ChannelOutboundHandler<Packet> {
+public class PacketEncoder implements GatheringChannelOutboundHandler<Packet> {
+
+    /**
+     * The largest compression buffer kept between packets; larger packets are compressed into a buffer which is
+     * dropped once the packet is compressed, so a single oversized packet doesn't pin its buffer for the lifetime
+     * of the connection.
+     */
+    static final int MAX_RETAINED_COMPRESSION_BUFFER_SIZE = 1 << 20;
 
     private final PacketIOHelper packetWriter = new PacketIOHelper();
+    private final TcpIpConnection connection;
+    private final int compressionThreshold;
+    private final LZ4Codec codec;
+    private byte[] compressionBuffer;
+
+    // the packet being written and the packet actually written to the wire for it, which is the compressed form of
+    // the packet if it got compressed
+    private Packet source;
+    private Packet wire;
+
+    public PacketEncoder() {
+        this(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param connection           the connection the packets are written to, which tells if compression is enabled
+     * @param compressionThreshold the minimum payload size of a packet to be compressed
+     */
+    public PacketEncoder(TcpIpConnection connection, int compressionThreshold) {
+        this.connection = connection;
+        this.compressionThreshold = compressionThreshold;
+        this.codec = connection == null ? null : new LZ4Codec();
+    }
 
     @Override
     public boolean onWrite(Packet packet, ByteBuffer dst) {
-        return packetWriter.writeTo(packet, dst);
+        if (!packetWriter.writeTo(toWire(packet), dst)) {
+            return false;
+        }
+        source = null;
+        wire = null;
+        return true;
+    }
+
+    @Override
+    public ByteBuffer onWriteByReference(Packet packet, ByteBuffer dst, int minPayloadSize) {
+        Packet wirePacket = toWire(packet);
+        int payloadSize = wirePacket.totalSize();
+        if (payloadSize < minPayloadSize || !PacketIOHelper.writeHeaderTo(wirePacket, dst)) {
+            return null;
+        }
+        source = null;
+        wire = null;
+        return ByteBuffer.wrap(wirePacket.toByteArray(), 0, payloadSize);
+    }
+
+    /**
+     * Returns the packet to write to the wire for the given packet. A packet is compressed at most once, even if
+     * it takes several calls to write it.
+     */
+    private Packet toWire(Packet packet) {
+        if (packet == source) {
+            return wire;
+        }
+        source = packet;
+        wire = compress(packet);
+        return wire;
+    }
+
+    private Packet compress(Packet packet) {
+        int payloadSize = packet.totalSize();
+        if (payloadSize < compressionThreshold || connection == null || !connection.isCompressionEnabled()) {
+            return packet;
+        }
+
+        byte[] buffer = compressionBuffer(INT_SIZE_IN_BYTES + LZ4Codec.maxCompressedLength(payloadSize));
+        Bits.writeInt(buffer, 0, payloadSize, true);
+        int compressedSize = INT_SIZE_IN_BYTES
+                + codec.compress(packet.toByteArray(), 0, payloadSize, buffer, INT_SIZE_IN_BYTES);
+        if (compressedSize >= payloadSize) {
+            return packet;
+        }
+
+        connection.getConnectionManager().onPacketCompressed(payloadSize, compressedSize);
+        Packet compressed = new Packet(Arrays.copyOf(buffer, compressedSize), packet.getPartitionId());
+        return compressed.resetFlagsTo(packet.getFlags() | FLAG_COMPRESSED);
+    }
+
+    private byte[] compressionBuffer(int size) {
+        if (size > MAX_RETAINED_COMPRESSION_BUFFER_SIZE) {
+            return new byte[size];
+        }
+        if (compressionBuffer == null || compressionBuffer.length < size) {
+            compressionBuffer = new byte[size];
+        }
+        return compressionBuffer;
+    }
+
+    // just for testing
+    byte[] getCompressionBuffer() {
+        return compressionBuffer;
     }
 }
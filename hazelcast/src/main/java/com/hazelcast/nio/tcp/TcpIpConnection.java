@@ -65,6 +65,14 @@ public final class TcpIpConnection implements Connection {
 
     private volatile String closeReason;
 
+    // set when the bind packet of the other side is received
+    private volatile boolean compressionEnabled;
+
+    // set if the connection is a secondary connection of a connection group
+    private volatile boolean secondary;
+
+    private volatile TcpIpConnectionGroup group;
+
     public TcpIpConnection(TcpIpConnectionManager connectionManager,
                            int connectionId,
                            Channel channel) {
@@ -102,6 +110,43 @@ public final class TcpIpConnection implements Connection {
         return connectionManager;
     }
 
+    /**
+     * Checks if large packets written to this connection are compressed, which is the case if both sides of the
+     * connection enabled compression.
+     *
+     * @return {@code true} if packets may be compressed, {@code false} otherwise
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Checks if this connection is a secondary connection to another member, which isn't registered for the
+     * member but carries some of the packets written to the primary connection of its
+     * {@link TcpIpConnectionGroup group}.
+     *
+     * @return {@code true} if the connection is a secondary connection, {@code false} otherwise
+     */
+    public boolean isSecondary() {
+        return secondary;
+    }
+
+    void setSecondary(boolean secondary) {
+        this.secondary = secondary;
+    }
+
+    TcpIpConnectionGroup getGroup() {
+        return group;
+    }
+
+    void setGroup(TcpIpConnectionGroup group) {
+        this.group = group;
+    }
+
     @Override
     public InetAddress getInetAddress() {
         return channel.socket().getInetAddress();
@@ -203,6 +248,10 @@ public final class TcpIpConnection implements Connection {
         }
 
         connectionManager.onConnectionClose(this);
+        if (secondary) {
+            // the member stays connected through the primary connection, which reports its own failure
+            return;
+        }
         ioService.onDisconnect(endPoint, cause);
         if (cause != null && errorHandler != null) {
             errorHandler.onError(cause);
@@ -255,6 +304,7 @@ public final class TcpIpConnection implements Connection {
                 + ", endpoint=" + endPoint
                 + ", alive=" + alive
                 + ", type=" + type
+                + (secondary ? ", secondary" : "")
                 + "]";
     }
 }
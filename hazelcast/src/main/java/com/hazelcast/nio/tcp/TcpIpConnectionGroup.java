@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.tcp;
+
+import com.hazelcast.internal.networking.Channel;
+import com.hazelcast.internal.networking.nio.MigratablePipeline;
+import com.hazelcast.internal.networking.nio.NioChannel;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The connections between this member and another member if several connections per member pair are configured.
+ * <p>
+ * The group consists of the primary connection, which is the connection registered for the other member and the
+ * one all traffic goes through until the group is complete, and the secondary connections, which are opened by
+ * the member with the lower address once the primary connection is bound. Partition specific packets are spread
+ * over the connections of the group by partition id; all other packets keep using the primary connection.
+ * <p>
+ * The connection of a partition is fixed by the first packet of the partition: a partition first written to once
+ * the group is complete gets the connection selected by its id, a partition first written to before goes to the
+ * primary connection. Such a partition is moved to the connection selected by its id once the group is complete
+ * and the primary connection has no queued packets left, so its packets queued on the primary connection can't
+ * be overtaken; other than that the connection of a partition never changes, which preserves the order of the
+ * packets of a partition.
+ * <p>
+ * Only the primary connection takes the group down: if it is closed, all connections of the group are closed and
+ * a new group is created when the other member is connected again. A secondary connection that is closed, e.g.
+ * because the other member doesn't use several connections, just leaves the group. Its partitions move to the
+ * primary connection and the group never becomes complete again, so it falls back to the primary connection for
+ * all partitions not bound to another secondary connection yet.
+ */
+final class TcpIpConnectionGroup {
+
+    private static final int UNASSIGNED = -1;
+    private static final int PRIMARY = 0;
+
+    // a secondary connection that left the group leaves a null slot
+    private final TcpIpConnection[] connections;
+    // the index of the connection of each partition, assigned by the first packet of the partition
+    private final AtomicIntegerArray partitionConnections;
+
+    // guarded by this
+    private int size;
+    // guarded by this
+    private boolean closed;
+    // guarded by this
+    private boolean secondaryLeft;
+
+    private volatile boolean complete;
+
+    TcpIpConnectionGroup(TcpIpConnection primary, int connectionCount, int partitionCount) {
+        this.connections = new TcpIpConnection[connectionCount];
+        this.partitionConnections = new AtomicIntegerArray(partitionCount);
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            partitionConnections.set(partitionId, UNASSIGNED);
+        }
+        connections[PRIMARY] = primary;
+        size = 1;
+        join(primary);
+    }
+
+    TcpIpConnection getPrimary() {
+        return connections[PRIMARY];
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Adds a bound secondary connection to the group.
+     *
+     * @return {@code true} if the connection was added, {@code false} if the group is closed or already complete
+     */
+    boolean add(TcpIpConnection secondary) {
+        synchronized (this) {
+            if (closed || size == connections.length) {
+                return false;
+            }
+            connections[size++] = secondary;
+            join(secondary);
+            if (size == connections.length && !secondaryLeft) {
+                complete = true;
+            }
+        }
+        // a connection closed before it joined didn't close or leave the group
+        if (!getPrimary().isAlive()) {
+            close("Primary connection of the group " + getPrimary() + " is closed", null);
+        } else if (!secondary.isAlive()) {
+            remove(secondary);
+        }
+        return true;
+    }
+
+    private void join(TcpIpConnection connection) {
+        connection.setGroup(this);
+        connection.getChannel().attributeMap().put(MigratablePipeline.GROUP_ATTRIBUTE, this);
+    }
+
+    /**
+     * Removes a closed secondary connection from the group. The partitions of the connection move to the primary
+     * connection; the packets still queued on the closed connection are lost, just like the ones of any other
+     * closed connection.
+     *
+     * @param secondary the secondary connection
+     */
+    void remove(TcpIpConnection secondary) {
+        int index = PRIMARY;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            for (int i = 1; i < size; i++) {
+                if (connections[i] == secondary) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index == PRIMARY) {
+                return;
+            }
+            connections[index] = null;
+            secondaryLeft = true;
+            complete = false;
+        }
+        for (int partitionId = 0; partitionId < partitionConnections.length(); partitionId++) {
+            partitionConnections.compareAndSet(partitionId, index, PRIMARY);
+        }
+    }
+
+    /**
+     * Selects the connection to write a packet of the given partition to. The first call for a partition fixes
+     * its connection, which is the primary connection if the group isn't complete yet.
+     *
+     * @param partitionId the partition id of the packet, or a negative value if it isn't partition specific
+     * @return the connection
+     */
+    TcpIpConnection select(int partitionId) {
+        TcpIpConnection primary = connections[PRIMARY];
+        if (partitionId < 0) {
+            return primary;
+        }
+        int index = partitionConnections.get(partitionId);
+        if (index == UNASSIGNED) {
+            // a concurrent first packet of the partition may have assigned it already, so the winner is read back
+            partitionConnections.compareAndSet(partitionId, UNASSIGNED, complete ? partitionId % connections.length : PRIMARY);
+            index = partitionConnections.get(partitionId);
+        } else if (index == PRIMARY && complete) {
+            index = rebalance(partitionId);
+        }
+        TcpIpConnection connection = connections[index];
+        // the slot of a secondary connection that left the group may still be read by a racing select
+        return connection != null ? connection : primary;
+    }
+
+    /**
+     * Moves a partition first written to before the group was complete from the primary connection to the
+     * connection selected by its id. This is done only once the primary connection has no queued packets: every
+     * packet of the partition written before has been taken by the IO thread of the primary connection then, so
+     * the packets written to the other connection can't overtake them.
+     */
+    private int rebalance(int partitionId) {
+        int index = partitionId % connections.length;
+        if (index == PRIMARY || !isDrained(connections[PRIMARY])) {
+            return PRIMARY;
+        }
+        partitionConnections.compareAndSet(partitionId, PRIMARY, index);
+        return partitionConnections.get(partitionId);
+    }
+
+    private static boolean isDrained(TcpIpConnection connection) {
+        Channel channel = connection.getChannel();
+        return channel instanceof NioChannel && ((NioChannel) channel).outboundPipeline().isDrained();
+    }
+
+    /**
+     * Closes all connections of the group.
+     *
+     * @param reason the reason of closing the group
+     * @param cause  the cause of closing the group, which is passed on to the primary connection so the other
+     *               member is reconnected as if the primary connection failed
+     */
+    void close(String reason, Throwable cause) {
+        TcpIpConnection[] toClose;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            complete = false;
+            toClose = new TcpIpConnection[size];
+            System.arraycopy(connections, 0, toClose, 0, size);
+        }
+        for (TcpIpConnection connection : toClose) {
+            if (connection != null) {
+                connection.close(reason, cause);
+            }
+        }
+    }
+}
@@ -48,6 +48,11 @@ import java.net.UnknownHostException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -76,6 +81,8 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
 
     private final boolean spoofingChecks;
 
+    private final int connectionsPerMember;
+
     private final IOService ioService;
 
     private final ConstructorFunction<Address, TcpIpConnectionErrorHandler> monitorConstructor
@@ -106,6 +113,10 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
     private final Set<TcpIpConnection> activeConnections =
             Collections.newSetFromMap(new ConcurrentHashMap<TcpIpConnection, Boolean>());
 
+    // secondary connections bound before the primary connection to their member; guarded by this
+    private final Map<Address, List<TcpIpConnection>> pendingSecondaryConnections
+            = new HashMap<Address, List<TcpIpConnection>>();
+
     @Probe(name = "textCount", level = MANDATORY)
     private final AtomicInteger allTextConnections = new AtomicInteger();
 
@@ -121,6 +132,15 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
     private final MwCounter openedCount = newMwCounter();
     @Probe
     private final MwCounter closedCount = newMwCounter();
+    // the size of the payloads of compressed packets before and after compression
+    @Probe
+    private final MwCounter uncompressedBytesWritten = newMwCounter();
+    @Probe
+    private final MwCounter compressedBytesWritten = newMwCounter();
+    @Probe
+    private final MwCounter compressedBytesRead = newMwCounter();
+    @Probe
+    private final MwCounter uncompressedBytesRead = newMwCounter();
 
     private final ScheduledExecutorService scheduler;
 
@@ -156,6 +176,7 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         this.scheduler = new ScheduledThreadPoolExecutor(SCHEDULER_POOL_SIZE,
                 new ThreadFactoryImpl(createThreadPoolName(ioService.getHazelcastName(), "TcpIpConnectionManager")));
         this.spoofingChecks = properties != null && properties.getBoolean(GroupProperty.BIND_SPOOFING_CHECKS);
+        this.connectionsPerMember = ioService.getSocketConnectionsPerMember();
         metricsRegistry.scanAndRegister(this, "tcp.connection");
         checkSslAllowed();
     }
@@ -211,7 +232,14 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         assert packet.getPacketType() == Packet.Type.BIND;
 
         BindMessage bind = ioService.getSerializationService().toObject(packet);
-        bind((TcpIpConnection) packet.getConn(), bind.getLocalAddress(), bind.getTargetAddress(), bind.shouldReply());
+        TcpIpConnection connection = (TcpIpConnection) packet.getConn();
+        // packets are only compressed if both sides want to
+        connection.setCompressionEnabled(ioService.isSocketCompressionEnabled()
+                && packet.isFlagRaised(Packet.FLAG_BIND_COMPRESSION));
+        if (packet.isFlagRaised(Packet.FLAG_BIND_SECONDARY)) {
+            connection.setSecondary(true);
+        }
+        bind(connection, bind.getLocalAddress(), bind.getTargetAddress(), bind.shouldReply());
     }
 
     /**
@@ -238,12 +266,22 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
             return false;
         }
 
+        if (connection.isSecondary() && connectionsPerMember <= 1) {
+            // rejected before the bind is answered, so the other member never adds the connection to its group
+            connection.close("Secondary connections are not used by " + ioService.getThisAddress(), null);
+            return false;
+        }
+
         connection.setEndPoint(remoteEndPoint);
         ioService.onSuccessfulConnection(remoteEndPoint);
         if (reply) {
             sendBindRequest(connection, remoteEndPoint, false);
         }
 
+        if (connection.isSecondary()) {
+            return bindSecondary(connection, remoteEndPoint);
+        }
+
         if (checkAlreadyConnected(connection, remoteEndPoint)) {
             return false;
         }
@@ -251,6 +289,28 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         return registerConnection(remoteEndPoint, connection);
     }
 
+    private boolean bindSecondary(TcpIpConnection connection, Address remoteEndPoint) {
+        if (connectionsPerMember > 1) {
+            Connection primary = connectionsMap.get(remoteEndPoint);
+            if (primary == null) {
+                // the other member opened the secondary connection before this member bound the primary one
+                List<TcpIpConnection> pending = pendingSecondaryConnections.get(remoteEndPoint);
+                if (pending == null) {
+                    pending = new LinkedList<TcpIpConnection>();
+                    pendingSecondaryConnections.put(remoteEndPoint, pending);
+                }
+                pending.add(connection);
+                return true;
+            }
+            TcpIpConnectionGroup group = primary instanceof TcpIpConnection ? ((TcpIpConnection) primary).getGroup() : null;
+            if (group != null && group.add(connection)) {
+                return true;
+            }
+        }
+        connection.close("No connection group to join for " + remoteEndPoint, null);
+        return false;
+    }
+
     private boolean ensureValidBindSource(TcpIpConnection connection, Address remoteEndPoint) {
         try {
             InetAddress originalRemoteAddr = connection.getRemoteSocketAddress().getAddress();
@@ -321,6 +381,9 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
                 }
             }
             connectionsMap.put(remoteEndPoint, connection);
+            if (connectionsPerMember > 1 && connection instanceof TcpIpConnection && !connection.isClient()) {
+                createConnectionGroup((TcpIpConnection) connection, remoteEndPoint);
+            }
 
             ioService.getEventService().executeEventCallback(new StripedRunnable() {
                 @Override
@@ -341,6 +404,50 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         }
     }
 
+    private void createConnectionGroup(TcpIpConnection primary, Address remoteEndPoint) {
+        if (primary.getGroup() != null) {
+            return;
+        }
+        TcpIpConnectionGroup group = new TcpIpConnectionGroup(primary, connectionsPerMember, ioService.getPartitionCount());
+        List<TcpIpConnection> pending = pendingSecondaryConnections.remove(remoteEndPoint);
+        if (pending != null) {
+            for (TcpIpConnection secondary : pending) {
+                if (!group.add(secondary)) {
+                    secondary.close("Connection group of " + primary + " is already complete", null);
+                }
+            }
+        }
+        if (opensSecondaryConnections(remoteEndPoint)) {
+            for (int i = 1; i < connectionsPerMember; i++) {
+                connector.asyncConnectSecondary(remoteEndPoint);
+            }
+        }
+    }
+
+    /**
+     * The member with the lower address opens the secondary connections, so they are opened only once.
+     */
+    private boolean opensSecondaryConnections(Address remoteEndPoint) {
+        Address thisAddress = ioService.getThisAddress();
+        int order = thisAddress.getHost().compareTo(remoteEndPoint.getHost());
+        return order < 0 || (order == 0 && thisAddress.getPort() < remoteEndPoint.getPort());
+    }
+
+    private synchronized void removePendingSecondaryConnection(TcpIpConnection connection) {
+        List<TcpIpConnection> pending = pendingSecondaryConnections.get(connection.getEndPoint());
+        if (pending == null) {
+            return;
+        }
+        for (Iterator<TcpIpConnection> it = pending.iterator(); it.hasNext(); ) {
+            if (it.next() == connection) {
+                it.remove();
+            }
+        }
+        if (pending.isEmpty()) {
+            pendingSecondaryConnections.remove(connection.getEndPoint());
+        }
+    }
+
     private boolean checkAlreadyConnected(TcpIpConnection connection, Address remoteEndPoint) {
         final Connection existingConnection = connectionsMap.get(remoteEndPoint);
         if (existingConnection != null && existingConnection.isAlive()) {
@@ -366,10 +473,32 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         BindMessage bind = new BindMessage(ioService.getThisAddress(), remoteEndPoint, reply);
         byte[] bytes = ioService.getSerializationService().toBytes(bind);
         Packet packet = new Packet(bytes).setPacketType(Packet.Type.BIND);
+        if (ioService.isSocketCompressionEnabled()) {
+            packet.raiseFlags(Packet.FLAG_BIND_COMPRESSION);
+        }
+        if (connection.isSecondary()) {
+            packet.raiseFlags(Packet.FLAG_BIND_SECONDARY);
+        }
         connection.write(packet);
         //now you can send anything...
     }
 
+    /**
+     * Records the compression of a packet payload from {@code uncompressedSize} to {@code compressedSize} bytes.
+     */
+    void onPacketCompressed(int uncompressedSize, int compressedSize) {
+        uncompressedBytesWritten.inc(uncompressedSize);
+        compressedBytesWritten.inc(compressedSize);
+    }
+
+    /**
+     * Records the decompression of a packet payload from {@code compressedSize} to {@code uncompressedSize} bytes.
+     */
+    void onPacketDecompressed(int compressedSize, int uncompressedSize) {
+        compressedBytesRead.inc(compressedSize);
+        uncompressedBytesRead.inc(uncompressedSize);
+    }
+
     Channel createChannel(SocketChannel socketChannel, boolean client) throws Exception {
         Channel wrapper = channelFactory.create(socketChannel, client, ioService.useDirectSocketBuffer());
         acceptedSockets.add(wrapper);
@@ -445,6 +574,22 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
 
         activeConnections.remove(connection);
 
+        if (connection instanceof TcpIpConnection) {
+            TcpIpConnection tcpConnection = (TcpIpConnection) connection;
+            TcpIpConnectionGroup group = tcpConnection.getGroup();
+            if (group != null && group.getPrimary() == connection) {
+                group.close("Primary connection " + connection + " of the group closed", connection.getCloseCause());
+            } else if (group != null) {
+                // the member stays connected through the other connections of the group
+                group.remove(tcpConnection);
+            }
+            if (tcpConnection.isSecondary()) {
+                // secondary connections are neither registered nor reported to the listeners
+                removePendingSecondaryConnection(tcpConnection);
+                return;
+            }
+        }
+
         Address endPoint = connection.getEndPoint();
         if (endPoint != null) {
             connectionsInProgress.remove(endPoint);
@@ -520,6 +665,7 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         acceptedSockets.clear();
         connectionsInProgress.clear();
         connectionsMap.clear();
+        pendingSecondaryConnections.clear();
         monitors.clear();
         activeConnections.clear();
     }
@@ -588,7 +734,7 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
             return false;
         }
 
-        return connection.write(packet);
+        return select(connection, packet).write(packet);
     }
 
     /**
@@ -605,7 +751,7 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
     private boolean send(Packet packet, Address target, SendTask sendTask) {
         Connection connection = getConnection(target);
         if (connection != null) {
-            return connection.write(packet);
+            return select(connection, packet).write(packet);
         }
 
         if (sendTask == null) {
@@ -627,6 +773,19 @@ public class TcpIpConnectionManager implements ConnectionManager, PacketHandler
         return false;
     }
 
+    /**
+     * Selects the connection of the connection group of the given connection to write the packet to.
+     */
+    private static Connection select(Connection connection, Packet packet) {
+        if (connection instanceof TcpIpConnection) {
+            TcpIpConnectionGroup group = ((TcpIpConnection) connection).getGroup();
+            if (group != null) {
+                return group.select(packet.getPartitionId());
+            }
+        }
+        return connection;
+    }
+
     private final class SendTask implements Runnable {
         private final Packet packet;
         private final Address target;
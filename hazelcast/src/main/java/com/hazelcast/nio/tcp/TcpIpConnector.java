@@ -63,7 +63,16 @@ public class TcpIpConnector {
 
     void asyncConnect(Address address, boolean silent) {
         ioService.shouldConnectTo(address);
-        ioService.executeAsync(new ConnectTask(address, silent));
+        ioService.executeAsync(new ConnectTask(address, silent, false));
+    }
+
+    /**
+     * Opens a secondary connection to a member which is already connected.
+     *
+     * @see TcpIpConnectionGroup
+     */
+    void asyncConnectSecondary(Address address) {
+        ioService.executeAsync(new ConnectTask(address, true, true));
     }
 
     private boolean useAnyOutboundPort() {
@@ -88,10 +97,12 @@ public class TcpIpConnector {
     private final class ConnectTask implements Runnable {
         private final Address address;
         private final boolean silent;
+        private final boolean secondary;
 
-        public ConnectTask(Address address, boolean silent) {
+        public ConnectTask(Address address, boolean silent, boolean secondary) {
             this.address = address;
             this.silent = silent;
+            this.secondary = secondary;
         }
 
         @Override
@@ -128,7 +139,12 @@ public class TcpIpConnector {
                 }
             } catch (Throwable e) {
                 logger.finest(e);
-                connectionManager.failedConnection(address, e, silent);
+                if (secondary) {
+                    // the member stays connected through the primary connection
+                    logger.warning("Could not open a secondary connection to " + address + ": " + e.getMessage());
+                } else {
+                    connectionManager.failedConnection(address, e, silent);
+                }
             }
         }
 
@@ -183,6 +199,7 @@ public class TcpIpConnector {
                 ioService.interceptSocket(socketChannel.socket(), false);
                 socketChannel.configureBlocking(false);
                 TcpIpConnection connection = connectionManager.newConnection(channel, address);
+                connection.setSecondary(secondary);
                 connectionManager.sendBindRequest(connection, address, true);
             } catch (Exception e) {
                 closeSocket(socketChannel);
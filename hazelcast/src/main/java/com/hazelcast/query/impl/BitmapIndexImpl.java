@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.query.impl.getters.Extractors;
+
+import static com.hazelcast.config.MapIndexConfig.BITMAP_INDEX_PREFIX;
+import static com.hazelcast.config.MapIndexConfig.BITMAP_INDEX_SUFFIX;
+
+/**
+ * Unordered index backed by a {@link BitmapIndexStore}, declared by an attribute wrapped in
+ * {@code bitmap(...)}, e.g. {@code "bitmap(status)"}. The index is registered under the plain
+ * attribute name, so the predicates over the attribute use it like any other index.
+ *
+ * @see com.hazelcast.config.MapIndexConfig#setAttribute(String)
+ */
+public class BitmapIndexImpl extends IndexImpl {
+
+    public BitmapIndexImpl(String attributeName, InternalSerializationService ss, Extractors extractors,
+                           IndexCopyBehavior copyQueryResultOn, RecordOrdinals ordinals) {
+        super(attributeName, false, ss, extractors, copyQueryResultOn, new BitmapIndexStore(ordinals, copyQueryResultOn));
+    }
+
+    @Override
+    public String getDefinition() {
+        return BITMAP_INDEX_PREFIX + getAttributeName() + BITMAP_INDEX_SUFFIX;
+    }
+}
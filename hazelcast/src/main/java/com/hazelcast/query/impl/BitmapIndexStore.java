@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.collection.SparseBitmap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Store indexes as bitmaps, specialised for attributes with few distinct values.
+ * <p>
+ * Each distinct value maps to a {@link SparseBitmap} of the ordinals of the records holding it, the
+ * ordinals being assigned by the {@link RecordOrdinals} shared by the bitmap indexes of the same
+ * {@link Indexes}. Queries return {@link BitmapResultSet}s, so the results of several bitmap indexes
+ * are combined bitmap-wise. Like in {@link UnsortedIndexStore}, range queries scan the distinct values.
+ * <p>
+ * A lookup of several values always yields a new bitmap. The bitmap of a single value is shared according
+ * to the {@link IndexCopyBehavior}:
+ * <ul>
+ * <li>COPY_ON_READ - the bitmap is copied for each lookup.</li>
+ * <li>COPY_ON_WRITE - each update of a bitmap replaces it with an updated copy, so lookups share the
+ * bitmaps, which never change once they are stored.</li>
+ * <li>NEVER - lookups share the bitmaps, which are updated in place. Only safe when the index isn't
+ * updated while its results are used, e.g. for partitioned indexes.</li>
+ * </ul>
+ */
+public class BitmapIndexStore extends BaseIndexStore {
+
+    private final RecordOrdinals ordinals;
+    private final IndexCopyBehavior copyOn;
+
+    // guarded by the lock of the store
+    private final Map<Comparable, SparseBitmap> bitmaps = new HashMap<Comparable, SparseBitmap>();
+
+    public BitmapIndexStore(RecordOrdinals ordinals, IndexCopyBehavior copyOn) {
+        super(copyOn);
+        this.ordinals = ordinals;
+        this.copyOn = copyOn;
+    }
+
+    @Override
+    void newIndexInternal(Comparable newValue, QueryableEntry record) {
+        int ordinal = ordinals.assign(record);
+        SparseBitmap bitmap = bitmaps.get(newValue);
+        if (bitmap == null) {
+            bitmap = new SparseBitmap();
+            bitmaps.put(newValue, bitmap);
+        } else if (copyOn == IndexCopyBehavior.COPY_ON_WRITE) {
+            bitmap = bitmap.copy();
+            bitmaps.put(newValue, bitmap);
+        }
+        bitmap.add(ordinal);
+    }
+
+    @Override
+    void removeIndexInternal(Comparable oldValue, Data indexKey) {
+        int ordinal = ordinals.getOrdinal(indexKey);
+        SparseBitmap bitmap = bitmaps.get(oldValue);
+        if (ordinal < 0 || bitmap == null) {
+            return;
+        }
+        if (copyOn == IndexCopyBehavior.COPY_ON_WRITE) {
+            bitmap = bitmap.copy();
+            bitmaps.put(oldValue, bitmap);
+        }
+        bitmap.remove(ordinal);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(oldValue);
+        }
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            bitmaps.clear();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        if (from.compareTo(to) > 0) {
+            return getSubRecords(to, true, from, true);
+        }
+        return getSubRecords(from, true, to, true);
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        takeReadLock();
+        try {
+            SparseBitmap result = new SparseBitmap();
+            for (Map.Entry<Comparable, SparseBitmap> entry : bitmaps.entrySet()) {
+                Comparable value = entry.getKey();
+                if (value instanceof IndexImpl.NullObject) {
+                    continue;
+                }
+                int fromResult = value.compareTo(from);
+                int toResult = value.compareTo(to);
+                if ((fromInclusive ? fromResult >= 0 : fromResult > 0) && (toInclusive ? toResult <= 0 : toResult < 0)) {
+                    result = SparseBitmap.or(result, entry.getValue());
+                }
+            }
+            return toResultSet(result);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            SparseBitmap result = new SparseBitmap();
+            for (Map.Entry<Comparable, SparseBitmap> entry : bitmaps.entrySet()) {
+                Comparable value = entry.getKey();
+                if (value instanceof IndexImpl.NullObject) {
+                    continue;
+                }
+                if (matches(comparisonType, searchedValue.compareTo(value))) {
+                    result = SparseBitmap.or(result, entry.getValue());
+                }
+            }
+            return toResultSet(result);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    private static boolean matches(ComparisonType comparisonType, int result) {
+        switch (comparisonType) {
+            case LESSER:
+                return result > 0;
+            case LESSER_EQUAL:
+                return result >= 0;
+            case GREATER:
+                return result < 0;
+            case GREATER_EQUAL:
+                return result <= 0;
+            case NOT_EQUAL:
+                return result != 0;
+            default:
+                throw new IllegalStateException("Unrecognized comparisonType: " + comparisonType);
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        takeReadLock();
+        try {
+            SparseBitmap bitmap = bitmaps.get(value);
+            if (bitmap == null) {
+                return toResultSet(new SparseBitmap());
+            }
+            return toResultSet(copyOn == IndexCopyBehavior.COPY_ON_READ ? bitmap.copy() : bitmap);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            SparseBitmap result = new SparseBitmap();
+            for (Comparable value : values) {
+                SparseBitmap bitmap = bitmaps.get(value);
+                if (bitmap != null) {
+                    result = SparseBitmap.or(result, bitmap);
+                }
+            }
+            return toResultSet(result);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    /**
+     * Creates a result set of the given bitmap. Must be called under the read lock, so the epoch of the
+     * ordinals is consistent with the bitmap.
+     */
+    private Set<QueryableEntry> toResultSet(SparseBitmap bitmap) {
+        return new BitmapResultSet(bitmap, ordinals, ordinals.currentEpoch());
+    }
+
+    @Override
+    public String toString() {
+        return "BitmapIndexStore{"
+                + "bitmaps=" + bitmaps.size()
+                + '}';
+    }
+}
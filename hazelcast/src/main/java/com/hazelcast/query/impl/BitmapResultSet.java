@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.util.collection.SparseBitmap;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Result set of a {@link BitmapIndexStore}: a bitmap of record ordinals, resolved to the records
+ * lazily while iterating.
+ * <p>
+ * Unless the index copy behavior is {@link IndexCopyBehavior#NEVER NEVER}, the bitmap is a snapshot taken
+ * when the result set is created, so the result set never changes its membership, except for the records
+ * removed in the meantime, which are skipped. Result sets sharing the
+ * same {@link RecordOrdinals} are combined by {@link #intersect(List)} and {@link #union(List)} without
+ * resolving any record.
+ */
+public final class BitmapResultSet extends AbstractSet<QueryableEntry> {
+
+    private static final int SIZE_UNINITIALIZED = -1;
+
+    private final SparseBitmap bitmap;
+    private final RecordOrdinals ordinals;
+    private final long epoch;
+    private int cachedSize = SIZE_UNINITIALIZED;
+
+    /**
+     * @param bitmap   the ordinals of the records; the bitmap must not be modified afterwards, unless the
+     *                 index copy behavior is {@link IndexCopyBehavior#NEVER NEVER}
+     * @param ordinals the ordinals the bitmap refers to
+     * @param epoch    the epoch of the ordinals at which the bitmap was captured
+     */
+    public BitmapResultSet(SparseBitmap bitmap, RecordOrdinals ordinals, long epoch) {
+        this.bitmap = bitmap;
+        this.ordinals = ordinals;
+        this.epoch = epoch;
+    }
+
+    /**
+     * Replaces the bitmap result sets of the given list which share the same ordinals with their intersection.
+     *
+     * @param resultSets the result sets to intersect, modified in place
+     */
+    public static void intersect(List<Set<QueryableEntry>> resultSets) {
+        combine(resultSets, true);
+    }
+
+    /**
+     * Replaces the bitmap result sets of the given list which share the same ordinals with their union.
+     *
+     * @param resultSets the result sets to unite, modified in place
+     */
+    public static void union(List<Set<QueryableEntry>> resultSets) {
+        combine(resultSets, false);
+    }
+
+    private static void combine(List<Set<QueryableEntry>> resultSets, boolean intersection) {
+        for (int i = 0; i < resultSets.size(); i++) {
+            if (!(resultSets.get(i) instanceof BitmapResultSet)) {
+                continue;
+            }
+            BitmapResultSet combined = (BitmapResultSet) resultSets.get(i);
+            ListIterator<Set<QueryableEntry>> iterator = resultSets.listIterator(i + 1);
+            while (iterator.hasNext()) {
+                Set<QueryableEntry> resultSet = iterator.next();
+                if (resultSet instanceof BitmapResultSet && ((BitmapResultSet) resultSet).ordinals == combined.ordinals) {
+                    BitmapResultSet other = (BitmapResultSet) resultSet;
+                    SparseBitmap bitmap = intersection
+                            ? SparseBitmap.and(combined.bitmap, other.bitmap)
+                            : SparseBitmap.or(combined.bitmap, other.bitmap);
+                    combined = new BitmapResultSet(bitmap, combined.ordinals, Math.min(combined.epoch, other.epoch));
+                    iterator.remove();
+                }
+            }
+            resultSets.set(i, combined);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof QueryableEntry)) {
+            return false;
+        }
+        int ordinal = ordinals.getOrdinal(((QueryableEntry) o).getKeyData());
+        return ordinal >= 0 && bitmap.contains(ordinal) && ordinals.getEntry(ordinal, epoch) != null;
+    }
+
+    @Override
+    public Iterator<QueryableEntry> iterator() {
+        return new It();
+    }
+
+    @Override
+    public int size() {
+        if (cachedSize == SIZE_UNINITIALIZED) {
+            int calculatedSize = 0;
+            for (Iterator<QueryableEntry> it = iterator(); it.hasNext(); it.next()) {
+                calculatedSize++;
+            }
+            cachedSize = calculatedSize;
+        }
+        return cachedSize;
+    }
+
+    /**
+     * @return the size of this result set, including the records removed since it was created
+     */
+    public int estimatedSize() {
+        return cachedSize == SIZE_UNINITIALIZED ? bitmap.cardinality() : cachedSize;
+    }
+
+    private class It implements Iterator<QueryableEntry> {
+
+        private final SparseBitmap.Cursor cursor = bitmap.cursor();
+        private QueryableEntry next;
+
+        It() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            QueryableEntry current = next;
+            advance();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && cursor.advance()) {
+                next = ordinals.getEntry(cursor.value(), epoch);
+            }
+        }
+    }
+}
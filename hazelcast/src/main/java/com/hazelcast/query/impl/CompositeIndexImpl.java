@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.config.MapIndexConfig.COMPOSITE_ATTRIBUTE_SEPARATOR;
+import static com.hazelcast.query.impl.TypeConverters.NULL_CONVERTER;
+
+/**
+ * Index over several attributes of an entry, declared by a comma-separated attribute list,
+ * e.g. {@code "tenantId,status,timestamp"}. The index keys are {@link CompositeValue}s.
+ * <p>
+ * Ordered composite indexes serve lookups which match a prefix of the attributes by equality,
+ * optionally followed by a range over the next attribute; see {@link #getSubRecords(Comparable, boolean,
+ * Comparable, boolean)}. Unordered composite indexes serve equality on all the attributes only.
+ */
+public class CompositeIndexImpl extends IndexImpl {
+
+    private final String[] components;
+
+    public CompositeIndexImpl(String attributeName, boolean ordered, InternalSerializationService ss,
+                              Extractors extractors, IndexCopyBehavior copyQueryResultOn) {
+        super(canonicalize(attributeName), ordered, ss, extractors, copyQueryResultOn);
+        this.components = parseComponents(attributeName);
+    }
+
+    /**
+     * @return {@code true} if the given index attribute declares a composite index
+     */
+    public static boolean isComposite(String attributeName) {
+        return attributeName.indexOf(COMPOSITE_ATTRIBUTE_SEPARATOR) >= 0;
+    }
+
+    /**
+     * Returns the canonical form of the given index attribute: composite attributes are stripped
+     * of the whitespace around their components, other attributes are returned as they are.
+     */
+    public static String canonicalize(String attributeName) {
+        if (!isComposite(attributeName)) {
+            return attributeName;
+        }
+        String[] components = parseComponents(attributeName);
+        StringBuilder sb = new StringBuilder(attributeName.length());
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                sb.append(COMPOSITE_ATTRIBUTE_SEPARATOR);
+            }
+            sb.append(components[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String[] parseComponents(String attributeName) {
+        String[] components = attributeName.split(String.valueOf(COMPOSITE_ATTRIBUTE_SEPARATOR));
+        for (int i = 0; i < components.length; i++) {
+            components[i] = components[i].trim();
+        }
+        return components;
+    }
+
+    /**
+     * @return the names of the indexed attributes, in index order
+     */
+    public String[] getComponents() {
+        return components;
+    }
+
+    /**
+     * Extracts the composite value of the entry. A component with several values, e.g. {@code "tags[any]"},
+     * yields one composite value per combination of the component values. An entry with a component value
+     * which isn't {@link Comparable} yields no composite value at all, so the entry isn't indexed rather than
+     * the update of the entry failing.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Object extractAttributeValue(Data key, Object value) {
+        Comparable[] values = new Comparable[components.length];
+        List<Comparable>[] multiValues = null;
+        for (int i = 0; i < components.length; i++) {
+            Object attributeValue = QueryableEntry.extractAttributeValue(extractors, ss, components[i], key, value);
+            if (attributeValue instanceof MultiResult) {
+                List<Comparable> componentValues = sanitizeComponents(((MultiResult<Object>) attributeValue).getResults());
+                if (componentValues == null) {
+                    return new MultiResult<CompositeValue>();
+                }
+                if (multiValues == null) {
+                    multiValues = new List[components.length];
+                }
+                multiValues[i] = componentValues;
+            } else {
+                values[i] = sanitizeComponent(attributeValue);
+                if (values[i] == null) {
+                    return new MultiResult<CompositeValue>();
+                }
+            }
+        }
+        if (multiValues == null) {
+            return new CompositeValue(values);
+        }
+        MultiResult<CompositeValue> compositeValues = new MultiResult<CompositeValue>();
+        combine(values, multiValues, 0, compositeValues);
+        return compositeValues;
+    }
+
+    /**
+     * @return the sanitized values, or {@code null} if one of them isn't {@link Comparable}
+     */
+    private static List<Comparable> sanitizeComponents(List<Object> values) {
+        List<Comparable> sanitized = new ArrayList<Comparable>(values.size());
+        for (Object value : values) {
+            Comparable component = sanitizeComponent(value);
+            if (component == null) {
+                return null;
+            }
+            sanitized.add(component);
+        }
+        return sanitized;
+    }
+
+    /**
+     * @return the sanitized value, or {@code null} if it isn't {@link Comparable}
+     */
+    private static Comparable sanitizeComponent(Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (!(value instanceof Comparable)) {
+            return null;
+        }
+        Comparable comparable = (Comparable) value;
+        return comparable.getClass().isEnum() ? TypeConverters.ENUM_CONVERTER.convert(comparable) : comparable;
+    }
+
+    private static void combine(Comparable[] values, List<Comparable>[] multiValues, int component,
+                                MultiResult<CompositeValue> compositeValues) {
+        if (component == values.length) {
+            compositeValues.add(new CompositeValue(values.clone()));
+        } else if (multiValues[component] == null) {
+            combine(values, multiValues, component + 1, compositeValues);
+        } else {
+            for (Comparable value : multiValues[component]) {
+                values[component] = value;
+                combine(values, multiValues, component + 1, compositeValues);
+            }
+        }
+    }
+
+    @Override
+    protected IndexStatistics createStatistics() {
+        return new CompositeIndexStatistics(components.length);
+    }
+
+    @Override
+    protected TypeConverter createConverter(QueryableEntry entry, TypeConverter currentConverter) {
+        TypeConverter[] converters = new TypeConverter[components.length];
+        for (int i = 0; i < components.length; i++) {
+            TypeConverter converter = currentConverter == null ? NULL_CONVERTER
+                    : ((CompositeConverter) currentConverter).converters[i];
+            converters[i] = converter == NULL_CONVERTER ? entry.getConverter(components[i]) : converter;
+        }
+        return new CompositeConverter(converters);
+    }
+
+    @Override
+    protected boolean isConverterResolved(TypeConverter converter) {
+        return converter != null && ((CompositeConverter) converter).isResolved();
+    }
+
+    /**
+     * Converts each component of a {@link CompositeValue} by the converter of its attribute.
+     * {@link IndexImpl#NULL} and the infinities are passed through as they are.
+     */
+    static final class CompositeConverter implements TypeConverter {
+
+        private final TypeConverter[] converters;
+
+        CompositeConverter(TypeConverter[] converters) {
+            this.converters = converters;
+        }
+
+        boolean isResolved() {
+            for (TypeConverter converter : converters) {
+                if (converter == NULL_CONVERTER) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Comparable convert(Comparable value) {
+            if (!(value instanceof CompositeValue)) {
+                throw new IllegalArgumentException("Composite index can be queried by a CompositeValue only: " + value);
+            }
+            Comparable[] components = ((CompositeValue) value).getComponents();
+            if (components.length != converters.length) {
+                throw new IllegalArgumentException("Expected " + converters.length + " components, got: " + value);
+            }
+            Comparable[] converted = new Comparable[components.length];
+            for (int i = 0; i < components.length; i++) {
+                Comparable component = components[i];
+                if (component == null) {
+                    converted[i] = NULL;
+                } else {
+                    converted[i] = isSpecial(component) ? component : converters[i].convert(component);
+                }
+            }
+            return new CompositeValue(converted);
+        }
+
+        private static boolean isSpecial(Comparable component) {
+            return component instanceof IndexImpl.NullObject
+                    || component == CompositeValue.NEGATIVE_INFINITY || component == CompositeValue.POSITIVE_INFINITY;
+        }
+    }
+}
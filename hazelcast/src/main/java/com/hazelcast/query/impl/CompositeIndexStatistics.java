@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static com.hazelcast.query.impl.CompositeValue.NEGATIVE_INFINITY;
+import static com.hazelcast.query.impl.CompositeValue.POSITIVE_INFINITY;
+
+/**
+ * Statistics of a {@link CompositeIndexImpl}. Besides the statistics of the {@link CompositeValue}s, they
+ * keep the statistics of each component, which estimate the ranges over a composite index: the histogram
+ * can't handle composite values, but the components of a range lookup are an equality prefix followed by
+ * a range over a single component.
+ */
+final class CompositeIndexStatistics extends IndexStatistics {
+
+    private final IndexStatistics[] components;
+
+    CompositeIndexStatistics(int componentCount) {
+        components = new IndexStatistics[componentCount];
+        for (int i = 0; i < componentCount; i++) {
+            components[i] = new IndexStatistics();
+        }
+    }
+
+    @Override
+    public void onInsert(Object value) {
+        super.onInsert(value);
+        for (int i = 0; i < components.length; i++) {
+            components[i].onInsert(component(value, i));
+        }
+    }
+
+    @Override
+    public void onUpdate(Object oldValue, Object newValue) {
+        super.onUpdate(oldValue, newValue);
+        for (int i = 0; i < components.length; i++) {
+            components[i].onUpdate(component(oldValue, i), component(newValue, i));
+        }
+    }
+
+    @Override
+    public void onRemove(Object value) {
+        super.onRemove(value);
+        for (int i = 0; i < components.length; i++) {
+            components[i].onRemove(component(value, i));
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        for (IndexStatistics component : components) {
+            component.clear();
+        }
+    }
+
+    /**
+     * @return the statistics of the component at the given position
+     */
+    IndexStatistics getComponentStatistics(int component) {
+        return components[component];
+    }
+
+    /**
+     * Estimates the number of entries in a range of composite values as the number of entries times the
+     * selectivity of each component: the selectivity of an equality for the components which are equal in
+     * both bounds, followed by the selectivity of the range over the first component which isn't. The
+     * components after it are padded with infinities and don't restrict the range.
+     */
+    @Override
+    public double estimateRangeCount(Comparable from, Comparable to) {
+        if (!(from instanceof CompositeValue) || !(to instanceof CompositeValue)) {
+            return super.estimateRangeCount(from, to);
+        }
+        Comparable[] fromComponents = ((CompositeValue) from).getComponents();
+        Comparable[] toComponents = ((CompositeValue) to).getComponents();
+        double selectivity = 1;
+        for (int i = 0; i < components.length; i++) {
+            IndexStatistics component = components[i];
+            long entries = component.getEntryCount();
+            if (entries == 0) {
+                return 0;
+            }
+            Comparable lower = fromComponents[i];
+            Comparable upper = toComponents[i];
+            if (lower.equals(upper) && !isInfinity(lower)) {
+                selectivity *= component.estimateEqualCount() / entries;
+                continue;
+            }
+            Comparable lowerBound = toBound(lower);
+            Comparable upperBound = toBound(upper);
+            if (lowerBound != null || upperBound != null) {
+                selectivity *= component.estimateRangeCount(lowerBound, upperBound) / entries;
+            }
+            break;
+        }
+        return getEntryCount() * selectivity;
+    }
+
+    private static boolean isInfinity(Comparable component) {
+        return component == NEGATIVE_INFINITY || component == POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return the value of the given range bound, or {@code null} if the range is open on that side:
+     * the bound is an infinity or it's the null value which a range without a lower bound starts after
+     */
+    private static Comparable toBound(Comparable component) {
+        return isInfinity(component) || component instanceof IndexImpl.NullObject ? null : component;
+    }
+
+    /**
+     * @return the values of the given component of the given composite value, a {@link MultiResult} of
+     * the distinct component values if the composite value is a {@link MultiResult}
+     */
+    @SuppressWarnings("unchecked")
+    private static Object component(Object value, int component) {
+        if (value instanceof CompositeValue) {
+            return ((CompositeValue) value).getComponents()[component];
+        }
+        if (!(value instanceof MultiResult)) {
+            return value;
+        }
+        Set<Comparable> values = new LinkedHashSet<Comparable>();
+        for (CompositeValue compositeValue : ((MultiResult<CompositeValue>) value).getResults()) {
+            values.add(compositeValue.getComponents()[component]);
+        }
+        return new MultiResult<Comparable>(new ArrayList<Comparable>(values));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import java.util.Arrays;
+
+/**
+ * Value of a composite index: an ordered tuple of the values of the indexed attributes.
+ * <p>
+ * Composite values are ordered lexicographically, component by component. Within a component
+ * {@link #NEGATIVE_INFINITY} sorts before {@link IndexImpl#NULL}, which sorts before any other value,
+ * and {@link #POSITIVE_INFINITY} sorts after every value. The infinities are never stored in an index,
+ * they pad the search bounds of prefix and range lookups.
+ */
+public final class CompositeValue implements Comparable<CompositeValue> {
+
+    /**
+     * Component which is less than any other component value, including {@link IndexImpl#NULL}.
+     */
+    public static final Comparable NEGATIVE_INFINITY = new Infinity(-1);
+
+    /**
+     * Component which is greater than any other component value.
+     */
+    public static final Comparable POSITIVE_INFINITY = new Infinity(1);
+
+    private final Comparable[] components;
+
+    public CompositeValue(Comparable[] components) {
+        this.components = components;
+    }
+
+    /**
+     * Creates a composite value of the given width which starts with the given prefix components,
+     * followed by the given filler up to the width.
+     */
+    public static CompositeValue padded(int width, Comparable[] prefix, Comparable filler) {
+        Comparable[] components = Arrays.copyOf(prefix, width);
+        Arrays.fill(components, prefix.length, width, filler);
+        return new CompositeValue(components);
+    }
+
+    public Comparable[] getComponents() {
+        return components;
+    }
+
+    @Override
+    public int compareTo(CompositeValue that) {
+        int length = Math.min(components.length, that.components.length);
+        for (int i = 0; i < length; i++) {
+            int order = compareComponents(components[i], that.components[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return components.length - that.components.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareComponents(Comparable left, Comparable right) {
+        if (left == right) {
+            return 0;
+        }
+        if (left instanceof Infinity) {
+            return ((Infinity) left).sign;
+        }
+        if (right instanceof Infinity) {
+            return -((Infinity) right).sign;
+        }
+        if (left instanceof IndexImpl.NullObject) {
+            return right instanceof IndexImpl.NullObject ? 0 : -1;
+        }
+        if (right instanceof IndexImpl.NullObject) {
+            return 1;
+        }
+        return left.compareTo(right);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(components, ((CompositeValue) o).components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+
+    private static final class Infinity implements Comparable {
+
+        private final int sign;
+
+        Infinity(int sign) {
+            this.sign = sign;
+        }
+
+        @Override
+        public int compareTo(Object o) {
+            return o == this ? 0 : sign;
+        }
+
+        @Override
+        public String toString() {
+            return sign < 0 ? "-INF" : "+INF";
+        }
+    }
+}
@@ -32,6 +32,17 @@ public interface Index {
      */
     String getAttributeName();
 
+    /**
+     * Returns the definition this index is created from, which is what a
+     * member needs to recreate the same index, e.g. {@code "bitmap(status)"}
+     * for a bitmap index over the {@code status} attribute.
+     *
+     * @return the definition of this index; the same as the attribute name
+     * for all but bitmap indexes.
+     * @see Indexes#addOrGetIndex
+     */
+    String getDefinition();
+
     /**
      * Tells whether this index is ordered or not.
      * <p>
@@ -114,6 +125,14 @@ public interface Index {
      */
     Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue);
 
+    /**
+     * @return the statistics of the values stored in this index, maintained as
+     * the entries are saved and removed; or {@code null} if no statistics are
+     * maintained for this index, which is the case unless the cost-based query
+     * optimizer is configured.
+     */
+    IndexStatistics getStatistics();
+
     /**
      * Clears out all entries from this index.
      */
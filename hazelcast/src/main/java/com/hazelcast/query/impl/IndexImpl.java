@@ -38,9 +38,11 @@ public class IndexImpl implements Index {
     public static final NullObject NULL = new NullObject();
 
     protected final InternalSerializationService ss;
-    protected final IndexStore indexStore;
+    protected volatile IndexStore indexStore;
     protected final Extractors extractors;
     private final IndexCopyBehavior copyQueryResultOn;
+    // maintained only if enabled before the index is published, see enableStatistics()
+    private IndexStatistics statistics;
 
     private volatile TypeConverter converter;
 
@@ -54,10 +56,34 @@ public class IndexImpl implements Index {
         this.ss = ss;
         this.extractors = extractors;
         this.copyQueryResultOn = copyQueryResultOn;
-        this.indexStore = createIndexStore(ordered);
+        this.indexStore = createIndexStore(ordered, null);
     }
 
-    public IndexStore createIndexStore(boolean ordered) {
+    /**
+     * Creates an index backed by the given store. The store of an unordered index is never recreated,
+     * so it's used for the whole lifetime of the index.
+     */
+    protected IndexImpl(String attributeName, boolean ordered, InternalSerializationService ss, Extractors extractors,
+                        IndexCopyBehavior copyQueryResultOn, IndexStore indexStore) {
+        this.attributeName = attributeName;
+        this.ordered = ordered;
+        this.ss = ss;
+        this.extractors = extractors;
+        this.copyQueryResultOn = copyQueryResultOn;
+        this.indexStore = indexStore;
+    }
+
+    /**
+     * Creates the store of this index. Ordered indexes over numeric attributes get a
+     * {@link NumericSortedIndexStore}, which is possible only once the converter of the attribute is known.
+     *
+     * @param ordered   {@code true} if the index is ordered
+     * @param converter the converter of the indexed attribute, or {@code null} if it's not known yet
+     */
+    public IndexStore createIndexStore(boolean ordered, TypeConverter converter) {
+        if (ordered && NumericSortedIndexStore.isSupported(converter)) {
+            return new NumericSortedIndexStore(converter, copyQueryResultOn);
+        }
         return ordered ? new SortedIndexStore(copyQueryResultOn) : new UnsortedIndexStore(copyQueryResultOn);
     }
 
@@ -70,26 +96,70 @@ public class IndexImpl implements Index {
          * another thread can query over indexes without knowing the converter and
          * this causes to class cast exceptions.
          */
-        if (converter == null || converter == NULL_CONVERTER) {
-            converter = entry.getConverter(attributeName);
+        if (!isConverterResolved(converter)) {
+            initConverter(entry);
         }
 
         Object newAttributeValue = extractAttributeValue(entry.getKeyData(), entry.getTargetObject(false));
         if (oldRecordValue == null) {
             indexStore.newIndex(newAttributeValue, entry);
+            if (statistics != null) {
+                statistics.onInsert(newAttributeValue);
+            }
         } else {
             Object oldAttributeValue = extractAttributeValue(entry.getKeyData(), oldRecordValue);
             indexStore.updateIndex(oldAttributeValue, newAttributeValue, entry);
+            if (statistics != null) {
+                statistics.onUpdate(oldAttributeValue, newAttributeValue);
+            }
+        }
+    }
+
+    /**
+     * Initializes the converter from the given entry. If nothing has been indexed yet, the store is
+     * recreated to match the attribute type; it's published before the converter, so any thread which
+     * sees the converter sees the matching store as well.
+     */
+    private synchronized void initConverter(QueryableEntry entry) {
+        TypeConverter currentConverter = converter;
+        if (isConverterResolved(currentConverter)) {
+            return;
+        }
+        TypeConverter newConverter = createConverter(entry, currentConverter);
+        if (ordered && currentConverter == null && newConverter != NULL_CONVERTER) {
+            indexStore = createIndexStore(ordered, newConverter);
         }
+        converter = newConverter;
     }
 
     @Override
     public void removeEntryIndex(Data key, Object value) {
         Object attributeValue = extractAttributeValue(key, value);
         indexStore.removeIndex(attributeValue, key);
+        if (statistics != null) {
+            statistics.onRemove(attributeValue);
+        }
+    }
+
+    /**
+     * Creates the converter of the indexed attribute from the given entry.
+     *
+     * @param entry            the entry being indexed
+     * @param currentConverter the converter created so far, or {@code null} if there is none
+     */
+    protected TypeConverter createConverter(QueryableEntry entry, TypeConverter currentConverter) {
+        return entry.getConverter(attributeName);
     }
 
-    private Object extractAttributeValue(Data key, Object value) {
+    /**
+     * @return {@code true} if the given converter is final, i.e. there is no need to create it from
+     * the following entries anymore
+     */
+    protected boolean isConverterResolved(TypeConverter converter) {
+        return converter != null && converter != NULL_CONVERTER;
+    }
+
+    protected Object extractAttributeValue(Data key, Object value) {
         return QueryableEntry.extractAttributeValue(extractors, ss, attributeName, key, value);
     }
 
@@ -133,6 +203,17 @@ public class IndexImpl implements Index {
         return indexStore.getSubRecordsBetween(convert(fromAttributeValue), convert(toAttributeValue));
     }
 
+    /**
+     * Returns the records whose attribute value lies in the given range, the bounds of which may be
+     * inclusive or exclusive. An empty set is returned if {@code from} is greater than {@code to}.
+     */
+    public Set<QueryableEntry> getSubRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        if (converter == null) {
+            return Collections.EMPTY_SET;
+        }
+        return indexStore.getSubRecords(convert(from), fromInclusive, convert(to), toInclusive);
+    }
+
     /**
      * Note: the fact that the given attributeValue is of type Comparable doesn't mean that this value is of the same
      * type as the one that's stored in the index, thus the conversion is needed.
@@ -152,9 +233,32 @@ public class IndexImpl implements Index {
         return converter;
     }
 
+    /**
+     * Makes this index maintain the statistics returned by {@link #getStatistics()}. Must be called before
+     * the index is published to other threads and before any entry is saved into it.
+     */
+    void enableStatistics() {
+        statistics = createStatistics();
+    }
+
+    /**
+     * Creates the statistics maintained by this index once they are enabled.
+     */
+    protected IndexStatistics createStatistics() {
+        return new IndexStatistics();
+    }
+
+    @Override
+    public IndexStatistics getStatistics() {
+        return statistics;
+    }
+
     @Override
     public void clear() {
         indexStore.clear();
+        if (statistics != null) {
+            statistics.clear();
+        }
         converter = null;
     }
 
@@ -168,6 +272,11 @@ public class IndexImpl implements Index {
         return attributeName;
     }
 
+    @Override
+    public String getDefinition() {
+        return attributeName;
+    }
+
     @Override
     public boolean isOrdered() {
         return ordered;
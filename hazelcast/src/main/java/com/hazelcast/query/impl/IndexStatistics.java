@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.cardinality.impl.hyperloglog.HyperLogLog;
+import com.hazelcast.cardinality.impl.hyperloglog.impl.HyperLogLogImpl;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+
+/**
+ * Statistics of the values stored in an index, maintained incrementally as entries are saved into
+ * and removed from the index. They are used by the
+ * {@link com.hazelcast.query.impl.predicates.CostBasedQueryOptimizer} to estimate the number of
+ * entries matched by a predicate.
+ * <p>
+ * The statistics consist of:
+ * <ul>
+ * <li>the number of indexed entries,</li>
+ * <li>the number of distinct values, estimated by a {@link HyperLogLog}. The sketch doesn't support
+ * removals, so the estimate covers all the values seen since the index was last cleared and it is
+ * capped by the number of entries,</li>
+ * <li>a histogram of numeric values with logarithmic buckets: a bucket per power of two for positive and
+ * negative values, which supports both additions and removals.</li>
+ * </ul>
+ * All the estimates are approximate and they are safe to read while the index is being updated.
+ */
+public class IndexStatistics {
+
+    /**
+     * Share of the entries assumed to be matched by a range over values the histogram can't handle.
+     */
+    public static final double DEFAULT_RANGE_SELECTIVITY = 1d / 3;
+
+    private static final int HLL_PRECISION = 12;
+    // a bucket for zero, -1 and each power of two of positive and negative values
+    private static final int BUCKET_COUNT = 2 * Long.SIZE;
+    private static final int ZERO_BUCKET = Long.SIZE;
+
+    private final AtomicLong entryCount = new AtomicLong();
+    private final AtomicLong numericValueCount = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_COUNT);
+    private HyperLogLog distinctValues = new HyperLogLogImpl(HLL_PRECISION);
+
+    /**
+     * Accounts for a new entry with the given attribute value.
+     */
+    public void onInsert(Object value) {
+        entryCount.incrementAndGet();
+        addValue(value);
+    }
+
+    /**
+     * Accounts for an update of an entry's attribute value.
+     */
+    public void onUpdate(Object oldValue, Object newValue) {
+        removeValue(oldValue);
+        addValue(newValue);
+    }
+
+    /**
+     * Accounts for a removal of an entry with the given attribute value.
+     */
+    public void onRemove(Object value) {
+        entryCount.decrementAndGet();
+        removeValue(value);
+    }
+
+    /**
+     * Resets the statistics after the index is cleared.
+     */
+    public void clear() {
+        synchronized (this) {
+            distinctValues = new HyperLogLogImpl(HLL_PRECISION);
+        }
+        entryCount.set(0);
+        numericValueCount.set(0);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+    /**
+     * @return the number of indexed entries
+     */
+    public long getEntryCount() {
+        return Math.max(0, entryCount.get());
+    }
+
+    /**
+     * @return the estimated number of distinct indexed values
+     */
+    public long getDistinctValueCount() {
+        long entries = getEntryCount();
+        if (entries == 0) {
+            return 0;
+        }
+        long distinct;
+        synchronized (this) {
+            distinct = distinctValues.estimate();
+        }
+        return Math.max(1, Math.min(distinct, entries));
+    }
+
+    /**
+     * @return the estimated number of entries having an attribute value equal to a given value, assuming
+     * the values are distributed uniformly
+     */
+    public double estimateEqualCount() {
+        long distinct = getDistinctValueCount();
+        return distinct == 0 ? 0 : (double) getEntryCount() / distinct;
+    }
+
+    /**
+     * Estimates the number of entries with an attribute value in the given range.
+     *
+     * @param from the lower bound of the range, or {@code null} if the range has no lower bound
+     * @param to   the upper bound of the range, or {@code null} if the range has no upper bound
+     * @return the estimated number of entries
+     */
+    public double estimateRangeCount(Comparable from, Comparable to) {
+        long entries = getEntryCount();
+        boolean fromNumeric = from == null || from instanceof Number;
+        boolean toNumeric = to == null || to instanceof Number;
+        long numericValues = numericValueCount.get();
+        if (!fromNumeric || !toNumeric || numericValues <= 0) {
+            return entries * DEFAULT_RANGE_SELECTIVITY;
+        }
+        double lower = from == null ? Double.NEGATIVE_INFINITY : ((Number) from).doubleValue();
+        double upper = to == null ? Double.POSITIVE_INFINITY : ((Number) to).doubleValue();
+        if (lower > upper) {
+            return 0;
+        }
+        double matched = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            long count = histogram.get(bucket);
+            if (count > 0) {
+                matched += count * overlap(bucket, lower, upper);
+            }
+        }
+        // entries with non-numeric values, e.g. nulls, never match a numeric range
+        return Math.min(entries, matched);
+    }
+
+    private void addValue(Object value) {
+        if (value instanceof MultiResult) {
+            for (Object item : (List) ((MultiResult) value).getResults()) {
+                addSingleValue(item);
+            }
+        } else {
+            addSingleValue(value);
+        }
+    }
+
+    private void addSingleValue(Object value) {
+        long hash = MurmurHash3_fmix(value == null ? 0L : (long) value.hashCode());
+        synchronized (this) {
+            distinctValues.add(hash);
+        }
+        if (value instanceof Number) {
+            numericValueCount.incrementAndGet();
+            histogram.incrementAndGet(bucketOf((Number) value));
+        }
+    }
+
+    private void removeValue(Object value) {
+        if (value instanceof MultiResult) {
+            for (Object item : (List) ((MultiResult) value).getResults()) {
+                removeSingleValue(item);
+            }
+        } else {
+            removeSingleValue(value);
+        }
+    }
+
+    private void removeSingleValue(Object value) {
+        if (value instanceof Number) {
+            numericValueCount.decrementAndGet();
+            histogram.decrementAndGet(bucketOf((Number) value));
+        }
+    }
+
+    static int bucketOf(Number number) {
+        long value = number instanceof Double || number instanceof Float
+                ? (long) Math.floor(number.doubleValue()) : number.longValue();
+        if (value >= 0) {
+            return value == 0 ? ZERO_BUCKET : ZERO_BUCKET + Long.SIZE - Long.numberOfLeadingZeros(value);
+        }
+        long complement = ~value;
+        return complement == 0 ? ZERO_BUCKET - 1 : ZERO_BUCKET - 1 - (Long.SIZE - Long.numberOfLeadingZeros(complement));
+    }
+
+    /**
+     * @return the lowest value of the given bucket
+     */
+    static double bucketLowerBound(int bucket) {
+        if (bucket >= ZERO_BUCKET) {
+            return bucket == ZERO_BUCKET ? 0 : Math.pow(2, bucket - ZERO_BUCKET - 1);
+        }
+        return -bucketUpperBound(2 * ZERO_BUCKET - 1 - bucket);
+    }
+
+    /**
+     * @return the value just above the highest value of the given bucket
+     */
+    static double bucketUpperBound(int bucket) {
+        if (bucket >= ZERO_BUCKET) {
+            return Math.pow(2, bucket - ZERO_BUCKET);
+        }
+        return -bucketLowerBound(2 * ZERO_BUCKET - 1 - bucket);
+    }
+
+    /**
+     * @return the share of the given bucket which lies in the given range, assuming the values in the
+     * bucket are distributed uniformly
+     */
+    private static double overlap(int bucket, double lower, double upper) {
+        double bucketLower = bucketLowerBound(bucket);
+        double bucketUpper = bucketUpperBound(bucket);
+        double overlapLower = Math.max(lower, bucketLower);
+        // the upper bound of the range is inclusive, the one of the bucket isn't
+        double overlapUpper = Math.min(Math.floor(upper) + 1, bucketUpper);
+        if (overlapUpper <= overlapLower) {
+            return 0;
+        }
+        return (overlapUpper - overlapLower) / (bucketUpper - bucketLower);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexStatistics{entryCount=" + getEntryCount() + ", distinctValueCount=" + getDistinctValueCount() + '}';
+    }
+}
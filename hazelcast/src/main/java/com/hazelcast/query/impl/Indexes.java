@@ -16,7 +16,9 @@
 
 package com.hazelcast.query.impl;
 
+import com.hazelcast.config.MapIndexConfig;
 import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.impl.query.DefaultIndexProvider;
 import com.hazelcast.map.impl.query.IndexProvider;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.query.IndexAwarePredicate;
@@ -24,6 +26,8 @@ import com.hazelcast.query.Predicate;
 import com.hazelcast.query.QueryException;
 import com.hazelcast.query.impl.getters.Extractors;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -34,9 +38,13 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class Indexes {
     private static final Index[] EMPTY_INDEX = {};
+    private static final CompositeIndexImpl[] EMPTY_COMPOSITE_INDEX = {};
     private final ConcurrentMap<String, Index> mapIndexes = new ConcurrentHashMap<String, Index>(3);
     private final AtomicReference<Index[]> indexes = new AtomicReference<Index[]>(EMPTY_INDEX);
+    private volatile CompositeIndexImpl[] compositeIndexes = EMPTY_COMPOSITE_INDEX;
+    private final RecordOrdinals recordOrdinals = new RecordOrdinals();
     private final IndexCopyBehavior copyBehavior;
+    private final boolean statisticsEnabled;
     private volatile boolean hasIndex;
     private final InternalSerializationService serializationService;
     private final IndexProvider indexProvider;
@@ -46,23 +54,52 @@ public class Indexes {
 
     public Indexes(InternalSerializationService serializationService, IndexProvider indexProvider,
                    Extractors extractors, boolean global, IndexCopyBehavior copyBehavior) {
+        this(serializationService, indexProvider, extractors, global, copyBehavior, false);
+    }
+
+    private Indexes(InternalSerializationService serializationService, IndexProvider indexProvider,
+                    Extractors extractors, boolean global, IndexCopyBehavior copyBehavior, boolean statisticsEnabled) {
         this.serializationService = serializationService;
         this.indexProvider = indexProvider;
         this.extractors = extractors;
         this.global = global;
         this.copyBehavior = copyBehavior;
+        this.statisticsEnabled = statisticsEnabled;
+    }
+
+    /**
+     * @param serializationService the serialization service of the indexed data structure
+     * @param copyBehavior         the copy behavior of the query results of the indexes
+     * @return a new builder of {@link Indexes}
+     */
+    public static Builder newBuilder(InternalSerializationService serializationService, IndexCopyBehavior copyBehavior) {
+        return new Builder(serializationService, copyBehavior);
     }
 
     public synchronized Index destroyIndex(String attribute) {
-        return mapIndexes.remove(attribute);
+        Index index = mapIndexes.remove(canonicalize(attribute));
+        if (index instanceof CompositeIndexImpl) {
+            updateCompositeIndexes();
+        }
+        return index;
     }
 
     public synchronized Index addOrGetIndex(String attribute, boolean ordered) {
+        boolean bitmap = MapIndexConfig.isBitmapIndexAttribute(attribute);
+        attribute = canonicalize(attribute);
         Index index = mapIndexes.get(attribute);
         if (index != null) {
             return index;
         }
-        index = indexProvider.createIndex(attribute, ordered, extractors, serializationService, copyBehavior);
+        if (bitmap) {
+            // bitmap indexes share the record ordinals of this instance, so they're not left to the provider
+            index = new BitmapIndexImpl(attribute, serializationService, extractors, copyBehavior, recordOrdinals);
+        } else {
+            index = indexProvider.createIndex(attribute, ordered, extractors, serializationService, copyBehavior);
+        }
+        if (statisticsEnabled && index instanceof IndexImpl) {
+            ((IndexImpl) index).enableStatistics();
+        }
         mapIndexes.put(attribute, index);
         Object[] indexObjects = mapIndexes.values().toArray();
         Index[] newIndexes = new Index[indexObjects.length];
@@ -70,21 +107,54 @@ public class Indexes {
             newIndexes[i] = (Index) indexObjects[i];
         }
         indexes.set(newIndexes);
+        if (index instanceof CompositeIndexImpl) {
+            updateCompositeIndexes();
+        }
         hasIndex = true;
         return index;
     }
 
+    /**
+     * Returns the name an index is registered under: bitmap indexes are registered under the attribute
+     * they index, composite indexes under their canonical attribute list.
+     */
+    private static String canonicalize(String attribute) {
+        if (MapIndexConfig.isBitmapIndexAttribute(attribute)) {
+            return MapIndexConfig.getBitmapIndexedAttribute(attribute);
+        }
+        return CompositeIndexImpl.canonicalize(attribute);
+    }
+
+    private void updateCompositeIndexes() {
+        List<CompositeIndexImpl> newCompositeIndexes = new ArrayList<CompositeIndexImpl>();
+        for (Index index : mapIndexes.values()) {
+            if (index instanceof CompositeIndexImpl) {
+                newCompositeIndexes.add((CompositeIndexImpl) index);
+            }
+        }
+        compositeIndexes = newCompositeIndexes.toArray(EMPTY_COMPOSITE_INDEX);
+    }
+
     public Index[] getIndexes() {
         return indexes.get();
     }
 
+    /**
+     * @return the composite indexes, i.e. the indexes over several attributes
+     */
+    public CompositeIndexImpl[] getCompositeIndexes() {
+        return compositeIndexes;
+    }
+
     public void destroyIndexes() {
         for (Index index : getIndexes()) {
             index.destroy();
         }
 
         indexes.set(EMPTY_INDEX);
+        compositeIndexes = EMPTY_COMPOSITE_INDEX;
         mapIndexes.clear();
+        recordOrdinals.clear();
         hasIndex = false;
     }
 
@@ -95,6 +165,7 @@ public class Indexes {
         for (Index index : getIndexes()) {
             index.clear();
         }
+        recordOrdinals.clear();
     }
 
     public void removeEntryIndex(Data key, Object value) throws QueryException {
@@ -102,6 +173,7 @@ public class Indexes {
         for (Index index : indexes) {
             index.removeEntryIndex(key, value);
         }
+        recordOrdinals.release(key);
     }
 
     public boolean hasIndex() {
@@ -136,6 +208,17 @@ public class Indexes {
         return mapIndexes.get(attribute);
     }
 
+    /**
+     * Get index created from a given definition, see {@link Index#getDefinition()}. If the index does not exist
+     * then returns null.
+     *
+     * @param definition the definition of the index, e.g. {@code "bitmap(status)"}
+     * @return Index for definition or null if the index does not exist.
+     */
+    public Index getIndexByDefinition(String definition) {
+        return mapIndexes.get(canonicalize(definition));
+    }
+
     public Set<QueryableEntry> query(Predicate predicate) {
         if (hasIndex) {
             QueryContext queryContext = new QueryContext(this);
@@ -148,4 +231,55 @@ public class Indexes {
         }
         return null;
     }
+
+    /**
+     * Builder for {@link Indexes}. By default, it builds global indexes created by the {@link DefaultIndexProvider},
+     * without extractors and without statistics.
+     */
+    public static final class Builder {
+
+        private final InternalSerializationService serializationService;
+        private final IndexCopyBehavior copyBehavior;
+        private IndexProvider indexProvider = new DefaultIndexProvider();
+        private Extractors extractors = Extractors.empty();
+        private boolean global = true;
+        private boolean statisticsEnabled;
+
+        private Builder(InternalSerializationService serializationService, IndexCopyBehavior copyBehavior) {
+            this.serializationService = serializationService;
+            this.copyBehavior = copyBehavior;
+        }
+
+        public Builder indexProvider(IndexProvider indexProvider) {
+            this.indexProvider = indexProvider;
+            return this;
+        }
+
+        public Builder extractors(Extractors extractors) {
+            this.extractors = extractors;
+            return this;
+        }
+
+        /**
+         * @param global {@code true} if the indexes cover all the partitions of a member, {@code false} if
+         *               they cover a single partition
+         */
+        public Builder global(boolean global) {
+            this.global = global;
+            return this;
+        }
+
+        /**
+         * @param statisticsEnabled {@code true} if the indexes should maintain the {@link IndexStatistics} used by
+         *                          the cost-based query optimizer, {@code false} otherwise
+         */
+        public Builder statisticsEnabled(boolean statisticsEnabled) {
+            this.statisticsEnabled = statisticsEnabled;
+            return this;
+        }
+
+        public Indexes build() {
+            return new Indexes(serializationService, indexProvider, extractors, global, copyBehavior, statisticsEnabled);
+        }
+    }
 }
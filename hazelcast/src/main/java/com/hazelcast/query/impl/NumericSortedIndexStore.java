@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.collection.Long2ObjectSortedMap;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.hazelcast.query.impl.TypeConverters.BYTE_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.DOUBLE_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.FLOAT_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.INTEGER_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.LONG_CONVERTER;
+import static com.hazelcast.query.impl.TypeConverters.SHORT_CONVERTER;
+
+/**
+ * Store indexes rankly, specialised for numeric attributes.
+ * <p>
+ * Attribute values are encoded into order-preserving {@code long}s and kept in a
+ * {@link Long2ObjectSortedMap}, so neither the values are boxed nor a map is created per
+ * distinct value: a value held by a single entry maps directly to the {@link QueryableEntry}, only
+ * values shared by several entries map to a {@code Map<Data, QueryableEntry>}. Range queries are
+ * served by a cursor over the sorted map.
+ * <p>
+ * The encoding follows the natural ordering of the attribute type, including {@link Double#compareTo}
+ * semantics for {@code -0.0} and {@code NaN}.
+ */
+public class NumericSortedIndexStore extends BaseIndexStore {
+
+    private final TypeConverter converter;
+    private final boolean floatingPoint;
+    private final boolean copyOnWrite;
+
+    private final Long2ObjectSortedMap<Object> recordMap = new Long2ObjectSortedMap<Object>();
+
+    private volatile Map<Data, QueryableEntry> recordsWithNullValue;
+
+    public NumericSortedIndexStore(TypeConverter converter, IndexCopyBehavior copyOn) {
+        super(copyOn);
+        assert copyOn != null;
+        assert isSupported(converter) : "Unsupported converter " + converter;
+        this.converter = converter;
+        this.floatingPoint = converter == DOUBLE_CONVERTER || converter == FLOAT_CONVERTER;
+        this.copyOnWrite = copyOn == IndexCopyBehavior.COPY_ON_WRITE;
+        if (copyOnWrite) {
+            recordsWithNullValue = Collections.emptyMap();
+        } else {
+            recordsWithNullValue = new ConcurrentHashMap<Data, QueryableEntry>();
+        }
+    }
+
+    /**
+     * @return {@code true} if attributes of the type handled by the given converter can be stored
+     * in a {@link NumericSortedIndexStore}
+     */
+    public static boolean isSupported(TypeConverter converter) {
+        return converter == LONG_CONVERTER || converter == INTEGER_CONVERTER || converter == SHORT_CONVERTER
+                || converter == BYTE_CONVERTER || converter == DOUBLE_CONVERTER || converter == FLOAT_CONVERTER;
+    }
+
+    @Override
+    void newIndexInternal(Comparable newValue, QueryableEntry record) {
+        if (newValue instanceof IndexImpl.NullObject) {
+            if (copyOnWrite) {
+                Map<Data, QueryableEntry> copy = new HashMap<Data, QueryableEntry>(recordsWithNullValue);
+                copy.put(record.getKeyData(), record);
+                recordsWithNullValue = copy;
+            } else {
+                recordsWithNullValue.put(record.getKeyData(), record);
+            }
+            return;
+        }
+
+        long key = toKey(newValue);
+        Object records = recordMap.get(key);
+        if (records == null) {
+            recordMap.put(key, record);
+        } else if (records instanceof QueryableEntry) {
+            QueryableEntry existing = (QueryableEntry) records;
+            if (existing.getKeyData().equals(record.getKeyData())) {
+                recordMap.put(key, record);
+            } else {
+                Map<Data, QueryableEntry> map = newRecords();
+                map.put(existing.getKeyData(), existing);
+                map.put(record.getKeyData(), record);
+                recordMap.put(key, map);
+            }
+        } else {
+            Map<Data, QueryableEntry> map = asMap(records);
+            if (copyOnWrite) {
+                map = new HashMap<Data, QueryableEntry>(map);
+                map.put(record.getKeyData(), record);
+                recordMap.put(key, map);
+            } else {
+                map.put(record.getKeyData(), record);
+            }
+        }
+    }
+
+    @Override
+    void removeIndexInternal(Comparable oldValue, Data indexKey) {
+        if (oldValue instanceof IndexImpl.NullObject) {
+            if (copyOnWrite) {
+                Map<Data, QueryableEntry> copy = new HashMap<Data, QueryableEntry>(recordsWithNullValue);
+                copy.remove(indexKey);
+                recordsWithNullValue = copy;
+            } else {
+                recordsWithNullValue.remove(indexKey);
+            }
+            return;
+        }
+
+        long key = toKey(oldValue);
+        Object records = recordMap.get(key);
+        if (records == null) {
+            return;
+        }
+        if (records instanceof QueryableEntry) {
+            if (((QueryableEntry) records).getKeyData().equals(indexKey)) {
+                recordMap.remove(key);
+            }
+            return;
+        }
+
+        Map<Data, QueryableEntry> map = asMap(records);
+        if (copyOnWrite) {
+            map = new HashMap<Data, QueryableEntry>(map);
+        }
+        map.remove(indexKey);
+        if (map.size() == 1) {
+            // shrink back to the compact form
+            recordMap.put(key, map.values().iterator().next());
+        } else if (map.isEmpty()) {
+            recordMap.remove(key);
+        } else if (copyOnWrite) {
+            recordMap.put(key, map);
+        }
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            recordsWithNullValue.clear();
+            recordMap.clear();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecordsBetween(Comparable from, Comparable to) {
+        takeReadLock();
+        try {
+            MultiResultSet results = createMultiResultSet();
+            long fromKey = toKey(from);
+            long toKey = toKey(to);
+            if (fromKey <= toKey) {
+                addAll(results, recordMap.cursor(fromKey, true, toKey, true));
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        takeReadLock();
+        try {
+            MultiResultSet results = createMultiResultSet();
+            long fromKey = toKey(from);
+            long toKey = toKey(to);
+            if (fromKey <= toKey) {
+                addAll(results, recordMap.cursor(fromKey, fromInclusive, toKey, toInclusive));
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
+        takeReadLock();
+        try {
+            MultiResultSet results = createMultiResultSet();
+            long key = toKey(searchedValue);
+            switch (comparisonType) {
+                case LESSER:
+                    addAll(results, recordMap.cursor(Long.MIN_VALUE, true, key, false));
+                    break;
+                case LESSER_EQUAL:
+                    addAll(results, recordMap.cursor(Long.MIN_VALUE, true, key, true));
+                    break;
+                case GREATER:
+                    addAll(results, recordMap.cursor(key, false, Long.MAX_VALUE, true));
+                    break;
+                case GREATER_EQUAL:
+                    addAll(results, recordMap.cursor(key, true, Long.MAX_VALUE, true));
+                    break;
+                case NOT_EQUAL:
+                    addAll(results, recordMap.cursor(Long.MIN_VALUE, true, key, false));
+                    addAll(results, recordMap.cursor(key, false, Long.MAX_VALUE, true));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unrecognized comparisonType: " + comparisonType);
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        takeReadLock();
+        try {
+            if (value instanceof IndexImpl.NullObject) {
+                return toSingleResultSet(recordsWithNullValue);
+            }
+            Object records = recordMap.get(toKey(value));
+            if (records instanceof QueryableEntry) {
+                QueryableEntry entry = (QueryableEntry) records;
+                return new SingleResultSet(Collections.singletonMap(entry.getKeyData(), entry));
+            }
+            return toSingleResultSet(asMap(records));
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        takeReadLock();
+        try {
+            MultiResultSet results = createMultiResultSet();
+            Map<Data, QueryableEntry> singleRecords = null;
+            for (Comparable value : values) {
+                if (value instanceof IndexImpl.NullObject) {
+                    copyToMultiResultSet(results, recordsWithNullValue);
+                } else {
+                    singleRecords = add(results, singleRecords, recordMap.get(toKey(value)));
+                }
+            }
+            if (singleRecords != null) {
+                results.addResultSet(singleRecords);
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    private void addAll(MultiResultSet results, Long2ObjectSortedMap.Cursor<Object> cursor) {
+        Map<Data, QueryableEntry> singleRecords = null;
+        while (cursor.advance()) {
+            singleRecords = add(results, singleRecords, cursor.value());
+        }
+        if (singleRecords != null) {
+            results.addResultSet(singleRecords);
+        }
+    }
+
+    /**
+     * Adds the given records to the results. The records of values held by a single entry are
+     * collected into a single map, which is created on demand and returned.
+     */
+    private Map<Data, QueryableEntry> add(MultiResultSet results, Map<Data, QueryableEntry> singleRecords,
+                                          Object records) {
+        if (records instanceof QueryableEntry) {
+            QueryableEntry entry = (QueryableEntry) records;
+            if (singleRecords == null) {
+                singleRecords = new HashMap<Data, QueryableEntry>();
+            }
+            singleRecords.put(entry.getKeyData(), entry);
+        } else if (records != null) {
+            copyToMultiResultSet(results, asMap(records));
+        }
+        return singleRecords;
+    }
+
+    private Map<Data, QueryableEntry> newRecords() {
+        return copyOnWrite
+                ? new HashMap<Data, QueryableEntry>()
+                : new ConcurrentHashMap<Data, QueryableEntry>(2, LOAD_FACTOR, 1);
+    }
+
+    /**
+     * Encodes the given attribute value into a {@code long} which sorts the same way as the value.
+     */
+    private long toKey(Comparable value) {
+        Number number = value instanceof Number ? (Number) value : (Number) converter.convert(value);
+        if (!floatingPoint) {
+            return number.longValue();
+        }
+        long bits = Double.doubleToLongBits(number.doubleValue());
+        // flip the magnitude bits of negative values, so the signed comparison of the bits matches Double.compare
+        return bits ^ ((bits >> (Long.SIZE - 1)) & Long.MAX_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Data, QueryableEntry> asMap(Object records) {
+        return (Map<Data, QueryableEntry>) records;
+    }
+
+    @Override
+    public String toString() {
+        return "NumericSortedIndexStore{"
+                + "recordMap=" + recordMap.size()
+                + '}';
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.nio.serialization.Data;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Assigns dense {@code int} ordinals to the records of an {@link Indexes} instance, so
+ * {@link BitmapIndexStore}s can represent sets of records as bitmaps. All the bitmap indexes of an
+ * {@link Indexes} instance share its ordinals, which is what lets their bitmaps be combined directly.
+ * <p>
+ * The ordinals of removed records are reused. To keep the bitmaps captured by {@link BitmapResultSet}s
+ * meaningful, each assignment is stamped with an increasing epoch: a result set created at epoch
+ * {@code E} ignores the ordinals assigned after {@code E}, since they may belong to other records than
+ * the ones its bitmap was built from. The epoch is never reset, not even by {@link #clear()}.
+ * <p>
+ * Ordinals are assigned and released under the lock of this object, while {@link #getEntry(int, long)}
+ * and {@link #getOrdinal(Data)} are lock-free.
+ */
+public final class RecordOrdinals {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ConcurrentMap<Data, Integer> ordinals = new ConcurrentHashMap<Data, Integer>();
+
+    private volatile AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<Slot>(INITIAL_CAPACITY);
+    private volatile long epoch;
+
+    // guarded by this
+    private int[] freeOrdinals = new int[INITIAL_CAPACITY];
+    private int freeOrdinalCount;
+    private int nextOrdinal;
+
+    /**
+     * Returns the ordinal of the given record, assigning a new one if the record has none yet.
+     * The record replaces the one previously held by the ordinal, so the latest version of the record
+     * is served.
+     */
+    public synchronized int assign(QueryableEntry record) {
+        Data key = record.getKeyData();
+        Integer existing = ordinals.get(key);
+        if (existing != null) {
+            int ordinal = existing;
+            slots.set(ordinal, new Slot(record, slots.get(ordinal).epoch));
+            return ordinal;
+        }
+        int ordinal = freeOrdinalCount > 0 ? freeOrdinals[--freeOrdinalCount] : nextOrdinal++;
+        ensureCapacity(ordinal);
+        long newEpoch = epoch + 1;
+        slots.set(ordinal, new Slot(record, newEpoch));
+        ordinals.put(key, ordinal);
+        epoch = newEpoch;
+        return ordinal;
+    }
+
+    /**
+     * Releases the ordinal of the record with the given key, if any, making it available for reuse.
+     */
+    public void release(Data key) {
+        // only the partition thread owning the key assigns or releases its ordinal, so the check is safe
+        if (!ordinals.containsKey(key)) {
+            return;
+        }
+        synchronized (this) {
+            Integer ordinal = ordinals.remove(key);
+            if (ordinal == null) {
+                return;
+            }
+            slots.set(ordinal, null);
+            if (freeOrdinalCount == freeOrdinals.length) {
+                freeOrdinals = Arrays.copyOf(freeOrdinals, freeOrdinals.length * 2);
+            }
+            freeOrdinals[freeOrdinalCount++] = ordinal;
+        }
+    }
+
+    /**
+     * Releases all the ordinals.
+     */
+    public synchronized void clear() {
+        ordinals.clear();
+        slots = new AtomicReferenceArray<Slot>(INITIAL_CAPACITY);
+        freeOrdinals = new int[INITIAL_CAPACITY];
+        freeOrdinalCount = 0;
+        nextOrdinal = 0;
+    }
+
+    /**
+     * @return the ordinal of the record with the given key, or {@code -1} if it has none
+     */
+    public int getOrdinal(Data key) {
+        Integer ordinal = ordinals.get(key);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * @return the current epoch; the ordinals assigned so far have an epoch lower than or equal to it
+     */
+    public long currentEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @param ordinal the ordinal of the record
+     * @param epoch   the epoch at which the ordinal was captured
+     * @return the record holding the given ordinal, or {@code null} if the ordinal is free or was
+     * assigned after the given epoch
+     */
+    public QueryableEntry getEntry(int ordinal, long epoch) {
+        AtomicReferenceArray<Slot> slots = this.slots;
+        if (ordinal >= slots.length()) {
+            return null;
+        }
+        Slot slot = slots.get(ordinal);
+        return slot == null || slot.epoch > epoch ? null : slot.record;
+    }
+
+    /**
+     * @return the number of records holding an ordinal
+     */
+    public int size() {
+        return ordinals.size();
+    }
+
+    private void ensureCapacity(int ordinal) {
+        AtomicReferenceArray<Slot> current = slots;
+        if (ordinal < current.length()) {
+            return;
+        }
+        AtomicReferenceArray<Slot> grown = new AtomicReferenceArray<Slot>(current.length() * 2);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        slots = grown;
+    }
+
+    private static final class Slot {
+
+        final QueryableEntry record;
+        final long epoch;
+
+        Slot(QueryableEntry record, long epoch) {
+            this.record = record;
+            this.epoch = epoch;
+        }
+    }
+}
@@ -107,6 +107,30 @@ public class UnsortedIndexStore extends BaseIndexStore {
         }
     }
 
+    @Override
+    public Set<QueryableEntry> getSubRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        takeReadLock();
+        try {
+            MultiResultSet results = createMultiResultSet();
+            for (Map.Entry<Comparable, Map<Data, QueryableEntry>> recordMapEntry : recordMap.entrySet()) {
+                Comparable value = recordMapEntry.getKey();
+                int fromResult = value.compareTo(from);
+                int toResult = value.compareTo(to);
+                boolean valid = (fromInclusive ? fromResult >= 0 : fromResult > 0)
+                        && (toInclusive ? toResult <= 0 : toResult < 0);
+                if (valid) {
+                    Map<Data, QueryableEntry> records = recordMapEntry.getValue();
+                    if (records != null) {
+                        copyToMultiResultSet(results, records);
+                    }
+                }
+            }
+            return results;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
     @Override
     public Set<QueryableEntry> getSubRecords(ComparisonType comparisonType, Comparable searchedValue) {
         takeReadLock();
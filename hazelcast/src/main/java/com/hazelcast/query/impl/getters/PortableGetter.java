@@ -19,6 +19,7 @@ package com.hazelcast.query.impl.getters;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.PortableContext;
 import com.hazelcast.internal.serialization.impl.DefaultPortableReader;
+import com.hazelcast.internal.serialization.impl.PortableFieldAccessor;
 import com.hazelcast.nio.serialization.ClassDefinition;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.FieldDefinition;
@@ -37,6 +38,14 @@ final class PortableGetter extends Getter {
     Object getValue(Object target, String fieldPath) throws Exception {
         Data data = (Data) target;
         PortableContext context = serializationService.getPortableContext();
+        PortableFieldAccessor accessor = context.getFieldAccessor(data, fieldPath);
+        if (accessor != null) {
+            Object value = accessor.read(data);
+            if (value != PortableFieldAccessor.NOT_READ) {
+                return value;
+            }
+        }
+
         PortableReader reader = serializationService.createPortableReader(data);
         ClassDefinition classDefinition = context.lookupClassDefinition(data);
         FieldDefinition fieldDefinition = context.getFieldDefinition(classDefinition, fieldPath);
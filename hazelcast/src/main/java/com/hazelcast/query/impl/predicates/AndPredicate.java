@@ -24,6 +24,7 @@ import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.VisitablePredicate;
 import com.hazelcast.query.impl.AndResultSet;
+import com.hazelcast.query.impl.BitmapResultSet;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.OrResultSet;
 import com.hazelcast.query.impl.QueryContext;
@@ -31,6 +32,7 @@ import com.hazelcast.query.impl.QueryableEntry;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -67,28 +69,34 @@ public final class AndPredicate
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
-        Set<QueryableEntry> smallestResultSet = null;
-        List<Set<QueryableEntry>> otherResultSets = null;
+        List<Set<QueryableEntry>> indexedResultSets = new ArrayList<Set<QueryableEntry>>(predicates.length);
         List<Predicate> unindexedPredicates = null;
 
         for (Predicate predicate : predicates) {
             if (isIndexedPredicate(predicate, queryContext)) {
-                Set<QueryableEntry> currentResultSet = ((IndexAwarePredicate) predicate).filter(queryContext);
-                if (smallestResultSet == null) {
-                    smallestResultSet = currentResultSet;
-                } else if (sizeOf(currentResultSet) < sizeOf(smallestResultSet)) {
-                    otherResultSets = initOrGetListOf(otherResultSets);
-                    otherResultSets.add(smallestResultSet);
-                    smallestResultSet = currentResultSet;
-                } else {
-                    otherResultSets = initOrGetListOf(otherResultSets);
-                    otherResultSets.add(currentResultSet);
-                }
+                indexedResultSets.add(((IndexAwarePredicate) predicate).filter(queryContext));
             } else {
                 unindexedPredicates = initOrGetListOf(unindexedPredicates);
                 unindexedPredicates.add(predicate);
             }
         }
+        // the results of bitmap indexes are intersected bitmap-wise, before any entry is resolved
+        BitmapResultSet.intersect(indexedResultSets);
+
+        Set<QueryableEntry> smallestResultSet = null;
+        List<Set<QueryableEntry>> otherResultSets = null;
+        for (Set<QueryableEntry> currentResultSet : indexedResultSets) {
+            if (smallestResultSet == null) {
+                smallestResultSet = currentResultSet;
+            } else if (sizeOf(currentResultSet) < sizeOf(smallestResultSet)) {
+                otherResultSets = initOrGetListOf(otherResultSets);
+                otherResultSets.add(smallestResultSet);
+                smallestResultSet = currentResultSet;
+            } else {
+                otherResultSets = initOrGetListOf(otherResultSets);
+                otherResultSets.add(currentResultSet);
+            }
+        }
 
         if (smallestResultSet == null) {
             return null;
@@ -113,6 +121,8 @@ public final class AndPredicate
             return ((AndResultSet) result).estimatedSize();
         } else if (result instanceof OrResultSet) {
             return ((OrResultSet) result).estimatedSize();
+        } else if (result instanceof BitmapResultSet) {
+            return ((BitmapResultSet) result).estimatedSize();
         }
         return result.size();
     }
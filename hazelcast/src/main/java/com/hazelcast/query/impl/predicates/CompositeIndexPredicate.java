@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeIndexImpl;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replacement of a conjunction of predicates which is served by a single lookup in a composite index.
+ * It's created by {@link CompositeIndexVisitor} while optimizing a query and it's never sent over the wire.
+ * <p>
+ * The lookup is either a point lookup, when all the attributes of the index are matched by equality,
+ * or a range lookup otherwise. When the predicate is evaluated without the index, all the
+ * replaced predicates have to match.
+ */
+final class CompositeIndexPredicate implements IndexAwarePredicate {
+
+    private final String indexName;
+    private final CompositeValue from;
+    private final boolean fromInclusive;
+    private final CompositeValue to;
+    private final boolean toInclusive;
+    private final Predicate[] predicates;
+
+    /**
+     * @param indexName     the name of the composite index
+     * @param from          the lower bound of the lookup
+     * @param fromInclusive {@code true} if the lower bound is inclusive
+     * @param to            the upper bound of the lookup, equal to {@code from} for point lookups
+     * @param toInclusive   {@code true} if the upper bound is inclusive
+     * @param predicates    the replaced predicates
+     */
+    CompositeIndexPredicate(String indexName, CompositeValue from, boolean fromInclusive, CompositeValue to,
+                            boolean toInclusive, Predicate[] predicates) {
+        this.indexName = indexName;
+        this.from = from;
+        this.fromInclusive = fromInclusive;
+        this.to = to;
+        this.toInclusive = toInclusive;
+        this.predicates = predicates;
+    }
+
+    @Override
+    public Set<QueryableEntry> filter(QueryContext queryContext) {
+        CompositeIndexImpl index = (CompositeIndexImpl) queryContext.getIndex(indexName);
+        if (from == to) {
+            return index.getRecords(from);
+        }
+        return index.getSubRecords(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public boolean isIndexed(QueryContext queryContext) {
+        return queryContext.getIndex(indexName) instanceof CompositeIndexImpl;
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        for (Predicate predicate : predicates) {
+            if (!predicate.apply(mapEntry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getIndexName() {
+        return indexName;
+    }
+
+    CompositeValue getFrom() {
+        return from;
+    }
+
+    boolean isFromInclusive() {
+        return fromInclusive;
+    }
+
+    CompositeValue getTo() {
+        return to;
+    }
+
+    boolean isToInclusive() {
+        return toInclusive;
+    }
+
+    Predicate[] getPredicates() {
+        return predicates;
+    }
+
+    @Override
+    public String toString() {
+        return "CompositeIndexPredicate{index=" + indexName + ", from=" + (fromInclusive ? "[" : "(") + from
+                + ", to=" + to + (toInclusive ? "]" : ")")
+                + ", predicates=" + Arrays.toString(predicates) + '}';
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeIndexImpl;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.IndexImpl;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.util.collection.ArrayUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.hazelcast.query.impl.CompositeValue.NEGATIVE_INFINITY;
+import static com.hazelcast.query.impl.CompositeValue.POSITIVE_INFINITY;
+
+/**
+ * Replaces predicates matched by a composite index with a single lookup into that index.
+ *
+ * Imagine an ordered composite index over (tenant, status, ts) and this predicate:
+ * (tenant = 1 and status = 'open' and ts > 100 and owner = 'bob'). The first three predicates are
+ * rewritten into a range lookup from (1, 'open', 100) to (1, 'open', +INF), so the result is:
+ * (composite-lookup and owner = 'bob').
+ *
+ * The visitor matches the longest prefix of the index attributes by equality predicates, optionally
+ * followed by a range predicate over the next attribute; at least two attributes have to be matched.
+ * Unordered composite indexes are used only when all their attributes are matched by equality.
+ * If several composite indexes match, the one which matches the most attributes is used.
+ */
+public class CompositeIndexVisitor extends AbstractVisitor {
+
+    private static final int MINIMUM_MATCHED_ATTRIBUTES = 2;
+
+    @Override
+    public Predicate visit(AndPredicate andPredicate, Indexes indexes) {
+        CompositeIndexImpl[] compositeIndexes = indexes.getCompositeIndexes();
+        if (compositeIndexes.length == 0) {
+            return andPredicate;
+        }
+        Predicate[] originalPredicates = andPredicate.predicates;
+        Map<String, EqualPredicate> equalities = new HashMap<String, EqualPredicate>();
+        Map<String, Range> ranges = new HashMap<String, Range>();
+        findCandidates(originalPredicates, equalities, ranges);
+        if (equalities.isEmpty()) {
+            return andPredicate;
+        }
+
+        Match bestMatch = null;
+        for (CompositeIndexImpl index : compositeIndexes) {
+            Match match = match(index, equalities, ranges);
+            if (match != null && (bestMatch == null || match.isBetterThan(bestMatch))) {
+                bestMatch = match;
+            }
+        }
+        if (bestMatch == null) {
+            return andPredicate;
+        }
+        return rewrite(andPredicate, bestMatch);
+    }
+
+    private static void findCandidates(Predicate[] predicates, Map<String, EqualPredicate> equalities,
+                                       Map<String, Range> ranges) {
+        for (Predicate predicate : predicates) {
+            if (predicate.getClass() == EqualPredicate.class) {
+                EqualPredicate equalPredicate = (EqualPredicate) predicate;
+                if (!equalities.containsKey(equalPredicate.attributeName)) {
+                    equalities.put(equalPredicate.attributeName, equalPredicate);
+                }
+            } else if (predicate instanceof GreaterLessPredicate) {
+                GreaterLessPredicate greaterLessPredicate = (GreaterLessPredicate) predicate;
+                getOrCreateRange(ranges, greaterLessPredicate.attributeName).add(greaterLessPredicate);
+            } else if (predicate instanceof BetweenPredicate) {
+                BetweenPredicate betweenPredicate = (BetweenPredicate) predicate;
+                getOrCreateRange(ranges, betweenPredicate.attributeName).add(betweenPredicate);
+            }
+        }
+    }
+
+    private static Range getOrCreateRange(Map<String, Range> ranges, String attributeName) {
+        Range range = ranges.get(attributeName);
+        if (range == null) {
+            range = new Range();
+            ranges.put(attributeName, range);
+        }
+        return range;
+    }
+
+    private static Match match(CompositeIndexImpl index, Map<String, EqualPredicate> equalities,
+                               Map<String, Range> ranges) {
+        String[] components = index.getComponents();
+        int prefixLength = 0;
+        while (prefixLength < components.length && equalities.containsKey(components[prefixLength])) {
+            prefixLength++;
+        }
+        if (prefixLength == 0) {
+            return null;
+        }
+        if (prefixLength == components.length) {
+            return new Match(index, equalities, prefixLength, null);
+        }
+        if (!index.isOrdered()) {
+            return null;
+        }
+        Range range = ranges.get(components[prefixLength]);
+        int matched = range == null ? prefixLength : prefixLength + 1;
+        if (matched < MINIMUM_MATCHED_ATTRIBUTES) {
+            return null;
+        }
+        return new Match(index, equalities, prefixLength, range);
+    }
+
+    private static Predicate rewrite(AndPredicate andPredicate, Match match) {
+        Predicate[] originalPredicates = andPredicate.predicates;
+        Predicate[] replaced = match.replacedPredicates();
+        Predicate rewritten = match.createPredicate();
+
+        Predicate[] target = new Predicate[originalPredicates.length];
+        int toBeRemoved = 0;
+        boolean inserted = false;
+        for (int i = 0; i < originalPredicates.length; i++) {
+            Predicate predicate = originalPredicates[i];
+            if (contains(replaced, predicate)) {
+                if (!inserted) {
+                    target[i] = rewritten;
+                    inserted = true;
+                } else {
+                    toBeRemoved++;
+                }
+            } else {
+                target[i] = predicate;
+            }
+        }
+        if (target.length - toBeRemoved == 1) {
+            return rewritten;
+        }
+        Predicate[] newPredicates = new Predicate[target.length - toBeRemoved];
+        ArrayUtils.copyWithoutNulls(target, newPredicates);
+        return new AndPredicate(newPredicates);
+    }
+
+    private static boolean contains(Predicate[] predicates, Predicate predicate) {
+        for (Predicate candidate : predicates) {
+            if (candidate == predicate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bounds of a range predicate over a single attribute: at most one lower and one upper bound,
+     * either given by a pair of {@link GreaterLessPredicate}s or by a single {@link BetweenPredicate}.
+     */
+    private static final class Range {
+        private GreaterLessPredicate lower;
+        private GreaterLessPredicate upper;
+        private BetweenPredicate between;
+
+        void add(GreaterLessPredicate predicate) {
+            if (predicate.less) {
+                if (upper == null) {
+                    upper = predicate;
+                }
+            } else if (lower == null) {
+                lower = predicate;
+            }
+        }
+
+        void add(BetweenPredicate predicate) {
+            if (between == null) {
+                between = predicate;
+            }
+        }
+
+        int predicateCount() {
+            if (between != null) {
+                return 1;
+            }
+            return (lower == null ? 0 : 1) + (upper == null ? 0 : 1);
+        }
+
+        void collectPredicates(Predicate[] predicates, int offset) {
+            int i = offset;
+            if (between != null) {
+                predicates[i] = between;
+                return;
+            }
+            if (lower != null) {
+                predicates[i++] = lower;
+            }
+            if (upper != null) {
+                predicates[i] = upper;
+            }
+        }
+
+        Comparable lowerBound() {
+            if (between != null) {
+                return between.from;
+            }
+            return lower == null ? null : lower.value;
+        }
+
+        Comparable upperBound() {
+            if (between != null) {
+                return between.to;
+            }
+            return upper == null ? null : upper.value;
+        }
+
+        boolean isLowerInclusive() {
+            return between != null || lower.equal;
+        }
+
+        boolean isUpperInclusive() {
+            return between != null || upper.equal;
+        }
+    }
+
+    /**
+     * Composite index matched by a prefix of equality predicates and an optional range.
+     */
+    private static final class Match {
+        private final CompositeIndexImpl index;
+        private final EqualPredicate[] prefix;
+        private final Range range;
+
+        Match(CompositeIndexImpl index, Map<String, EqualPredicate> equalities, int prefixLength, Range range) {
+            this.index = index;
+            this.prefix = new EqualPredicate[prefixLength];
+            String[] components = index.getComponents();
+            for (int i = 0; i < prefixLength; i++) {
+                prefix[i] = equalities.get(components[i]);
+            }
+            this.range = range;
+        }
+
+        int matchedAttributes() {
+            return range == null ? prefix.length : prefix.length + 1;
+        }
+
+        boolean isPointLookup() {
+            return prefix.length == index.getComponents().length;
+        }
+
+        boolean isBetterThan(Match that) {
+            int order = matchedAttributes() - that.matchedAttributes();
+            if (order != 0) {
+                return order > 0;
+            }
+            return isPointLookup() && !that.isPointLookup();
+        }
+
+        Predicate[] replacedPredicates() {
+            int rangePredicates = range == null ? 0 : range.predicateCount();
+            Predicate[] predicates = new Predicate[prefix.length + rangePredicates];
+            System.arraycopy(prefix, 0, predicates, 0, prefix.length);
+            if (range != null) {
+                range.collectPredicates(predicates, prefix.length);
+            }
+            return predicates;
+        }
+
+        /**
+         * Creates the lookup into the index. The components following the range attribute are padded
+         * with infinities, so that an inclusive bound covers all the entries with the bound value and
+         * an exclusive bound skips them.
+         */
+        CompositeIndexPredicate createPredicate() {
+            int width = index.getComponents().length;
+            Comparable[] prefixValues = new Comparable[prefix.length];
+            for (int i = 0; i < prefix.length; i++) {
+                prefixValues[i] = prefix[i].value;
+            }
+            if (isPointLookup()) {
+                CompositeValue value = new CompositeValue(prefixValues);
+                return new CompositeIndexPredicate(index.getAttributeName(), value, true, value, true, replacedPredicates());
+            }
+
+            CompositeValue from;
+            boolean fromInclusive = true;
+            CompositeValue to;
+            boolean toInclusive = true;
+            Comparable[] values = Arrays.copyOf(prefixValues, prefix.length + 1);
+            if (range == null) {
+                from = CompositeValue.padded(width, prefixValues, NEGATIVE_INFINITY);
+                to = CompositeValue.padded(width, prefixValues, POSITIVE_INFINITY);
+            } else {
+                Comparable lowerBound = range.lowerBound();
+                if (lowerBound == null) {
+                    // nulls never match a range predicate, so they are skipped
+                    values[prefix.length] = IndexImpl.NULL;
+                    fromInclusive = false;
+                } else {
+                    values[prefix.length] = lowerBound;
+                    fromInclusive = range.isLowerInclusive();
+                }
+                from = CompositeValue.padded(width, values, fromInclusive ? NEGATIVE_INFINITY : POSITIVE_INFINITY);
+
+                Comparable upperBound = range.upperBound();
+                if (upperBound == null) {
+                    to = CompositeValue.padded(width, prefixValues, POSITIVE_INFINITY);
+                } else {
+                    values[prefix.length] = upperBound;
+                    toInclusive = range.isUpperInclusive();
+                    to = CompositeValue.padded(width, values, toInclusive ? POSITIVE_INFINITY : NEGATIVE_INFINITY);
+                }
+            }
+            return new CompositeIndexPredicate(index.getAttributeName(), from, fromInclusive, to, toInclusive,
+                    replacedPredicates());
+        }
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.query.IndexAwarePredicate;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.IndexStatistics;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.hazelcast.query.impl.IndexStatistics.DEFAULT_RANGE_SELECTIVITY;
+
+/**
+ * Optimizer which applies the rules of {@link RuleBasedQueryOptimizer} and then plans the evaluation
+ * of the query using the {@link IndexStatistics} of the indexes.
+ * <p>
+ * The number of entries matched by each indexed predicate is estimated from the statistics. Then:
+ * <ul>
+ * <li>The inner predicates of an {@link AndPredicate} are ordered by their estimates, the indexed ones
+ * first. {@link AndPredicate#filter} evaluates the index lookups in this order and
+ * {@link AndPredicate#apply} evaluates the most selective predicates first.</li>
+ * <li>An indexed inner predicate of an {@link AndPredicate} which is estimated to match many more entries
+ * than the most selective one isn't looked up in its index. Building its result set would cost more than
+ * evaluating the predicate on the entries matched by the most selective one.</li>
+ * <li>An {@link AndPredicate} which has to evaluate some of its inner predicates entry by entry anyway
+ * is evaluated by a full scan when even its most selective indexed predicate matches more than half of
+ * the entries.</li>
+ * <li>The inner predicates of an {@link OrPredicate} are ordered from the least selective one, so that
+ * {@link OrPredicate#apply} finds a match as early as possible.</li>
+ * </ul>
+ * The plan of a query is described by {@link #explain(Predicate, Indexes)}.
+ */
+public class CostBasedQueryOptimizer implements QueryOptimizer {
+
+    /**
+     * Share of the entries above which a full scan is preferred to an index lookup followed
+     * by a filter.
+     */
+    static final double FULL_SCAN_SELECTIVITY = 0.5;
+
+    /**
+     * Estimated cost of evaluating a predicate on an entry relative to the cost of adding
+     * an entry to an index result set.
+     */
+    static final double FILTER_COST_FACTOR = 8;
+
+    private static final double NOT_INDEXED = -1;
+
+    private final QueryOptimizer rules = new RuleBasedQueryOptimizer();
+
+    @Override
+    public <K, V> Predicate<K, V> optimize(Predicate<K, V> predicate, Indexes indexes) {
+        Predicate optimized = rules.optimize(predicate, indexes);
+        if (!indexes.hasIndex()) {
+            return optimized;
+        }
+        return new Planner(indexes).plan(optimized);
+    }
+
+    /**
+     * Describes how the given predicate is evaluated with the given indexes.
+     *
+     * @return a human readable plan of the query, a line per step
+     */
+    public String explain(Predicate predicate, Indexes indexes) {
+        Predicate optimized = optimize(predicate, indexes);
+        Planner planner = new Planner(indexes);
+        StringBuilder sb = new StringBuilder();
+        if (planner.estimate(optimized) == NOT_INDEXED) {
+            sb.append("FULL SCAN (entries: ").append(Math.round(planner.entryCount)).append(")\n");
+            planner.explain(optimized, sb, 1, true);
+        } else {
+            planner.explain(optimized, sb, 0, false);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isSameOrder(Predicate[] planned, Predicate[] predicates) {
+        for (int i = 0; i < planned.length; i++) {
+            if (planned[i] != predicates[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Predicate unwrap(Predicate predicate) {
+        return predicate instanceof UnindexedPredicate ? ((UnindexedPredicate) predicate).getPredicate() : predicate;
+    }
+
+    /**
+     * Plans a single query: it holds the query context and the number of indexed entries.
+     */
+    private static final class Planner {
+
+        private final Indexes indexes;
+        private final QueryContext queryContext;
+        private final double entryCount;
+
+        Planner(Indexes indexes) {
+            this.indexes = indexes;
+            this.queryContext = new QueryContext(indexes);
+            long count = 0;
+            for (Index index : indexes.getIndexes()) {
+                IndexStatistics statistics = index.getStatistics();
+                if (statistics != null) {
+                    count = Math.max(count, statistics.getEntryCount());
+                }
+            }
+            this.entryCount = count;
+        }
+
+        Predicate plan(Predicate predicate) {
+            if (predicate instanceof AndPredicate) {
+                return planAnd((AndPredicate) predicate);
+            }
+            if (predicate instanceof OrPredicate) {
+                return planOr((OrPredicate) predicate);
+            }
+            return predicate;
+        }
+
+        private Predicate planAnd(AndPredicate andPredicate) {
+            Predicate[] predicates = andPredicate.predicates;
+            List<Estimated> indexed = new ArrayList<Estimated>(predicates.length);
+            List<Predicate> unindexed = new ArrayList<Predicate>(predicates.length);
+            for (Predicate predicate : predicates) {
+                Predicate planned = plan(predicate);
+                double estimate = estimate(planned);
+                if (estimate == NOT_INDEXED) {
+                    unindexed.add(planned);
+                } else {
+                    indexed.add(new Estimated(planned, estimate));
+                }
+            }
+            if (indexed.isEmpty()) {
+                return andPredicate;
+            }
+            Collections.sort(indexed, Estimated.ASCENDING);
+
+            double best = indexed.get(0).estimate;
+            Predicate[] planned = new Predicate[predicates.length];
+            int i = 0;
+            if (!unindexed.isEmpty() && best > entryCount * FULL_SCAN_SELECTIVITY) {
+                for (Estimated estimated : indexed) {
+                    planned[i++] = estimated.predicate;
+                }
+                for (Predicate predicate : unindexed) {
+                    planned[i++] = predicate;
+                }
+                return new UnindexedPredicate(new AndPredicate(planned));
+            }
+            for (Estimated estimated : indexed) {
+                boolean lookup = i == 0 || estimated.estimate <= best * FILTER_COST_FACTOR;
+                planned[i++] = lookup ? estimated.predicate : new UnindexedPredicate(estimated.predicate);
+            }
+            for (Predicate predicate : unindexed) {
+                planned[i++] = predicate;
+            }
+            return isSameOrder(planned, predicates) ? andPredicate : new AndPredicate(planned);
+        }
+
+        private Predicate planOr(OrPredicate orPredicate) {
+            Predicate[] predicates = orPredicate.predicates;
+            List<Estimated> estimates = new ArrayList<Estimated>(predicates.length);
+            for (Predicate predicate : predicates) {
+                double estimate = estimate(predicate);
+                // inner predicates which are not indexed can match any entry
+                estimates.add(new Estimated(predicate, estimate == NOT_INDEXED ? entryCount : estimate));
+            }
+            Collections.sort(estimates, Collections.reverseOrder(Estimated.ASCENDING));
+            Predicate[] planned = new Predicate[predicates.length];
+            for (int i = 0; i < planned.length; i++) {
+                planned[i] = estimates.get(i).predicate;
+            }
+            return isSameOrder(planned, predicates) ? orPredicate : new OrPredicate(planned);
+        }
+
+        /**
+         * @return the estimated number of entries matched by the given predicate when it's evaluated by its
+         * index, or {@link #NOT_INDEXED} if it's not evaluated by an index
+         */
+        double estimate(Predicate predicate) {
+            if (!(predicate instanceof IndexAwarePredicate) || !((IndexAwarePredicate) predicate).isIndexed(queryContext)) {
+                return NOT_INDEXED;
+            }
+            if (predicate instanceof AndPredicate) {
+                double min = NOT_INDEXED;
+                for (Predicate inner : ((AndPredicate) predicate).predicates) {
+                    double estimate = estimate(inner);
+                    if (estimate != NOT_INDEXED && (min == NOT_INDEXED || estimate < min)) {
+                        min = estimate;
+                    }
+                }
+                return min;
+            }
+            if (predicate instanceof OrPredicate) {
+                double sum = 0;
+                for (Predicate inner : ((OrPredicate) predicate).predicates) {
+                    sum += estimate(inner);
+                }
+                return Math.min(sum, entryCount);
+            }
+            return estimateLookup(predicate);
+        }
+
+        private double estimateLookup(Predicate predicate) {
+            if (predicate instanceof CompositeIndexPredicate) {
+                return estimateComposite((CompositeIndexPredicate) predicate);
+            }
+            if (!(predicate instanceof AbstractPredicate)) {
+                return unknown();
+            }
+            String attributeName = ((AbstractPredicate) predicate).attributeName;
+            IndexStatistics statistics = statisticsOf(attributeName);
+            if (statistics == null) {
+                return unknown();
+            }
+            return estimateAttribute(predicate, indexes.getIndex(attributeName).getConverter(), statistics);
+        }
+
+        private double estimateComposite(CompositeIndexPredicate predicate) {
+            IndexStatistics statistics = statisticsOf(predicate.getIndexName());
+            if (statistics == null) {
+                return unknown();
+            }
+            return predicate.getFrom() == predicate.getTo() ? statistics.estimateEqualCount()
+                    : statistics.estimateRangeCount(predicate.getFrom(), predicate.getTo());
+        }
+
+        private double estimateAttribute(Predicate predicate, TypeConverter converter, IndexStatistics statistics) {
+            if (predicate instanceof NotEqualPredicate) {
+                return statistics.getEntryCount() - statistics.estimateEqualCount();
+            }
+            if (predicate instanceof EqualPredicate) {
+                return statistics.estimateEqualCount();
+            }
+            if (predicate instanceof InPredicate) {
+                Comparable[] values = ((InPredicate) predicate).values;
+                return Math.min(statistics.getEntryCount(), values.length * statistics.estimateEqualCount());
+            }
+            if (predicate instanceof GreaterLessPredicate) {
+                GreaterLessPredicate greaterLess = (GreaterLessPredicate) predicate;
+                Comparable value = convert(converter, greaterLess.value);
+                return greaterLess.less ? statistics.estimateRangeCount(null, value)
+                        : statistics.estimateRangeCount(value, null);
+            }
+            if (predicate instanceof BetweenPredicate) {
+                BetweenPredicate between = (BetweenPredicate) predicate;
+                return statistics.estimateRangeCount(convert(converter, between.from), convert(converter, between.to));
+            }
+            return unknown();
+        }
+
+        private IndexStatistics statisticsOf(String indexName) {
+            Index index = indexes.getIndex(indexName);
+            return index == null ? null : index.getStatistics();
+        }
+
+        private double unknown() {
+            return entryCount * DEFAULT_RANGE_SELECTIVITY;
+        }
+
+        private static Comparable convert(TypeConverter converter, Comparable value) {
+            return converter == null ? value : converter.convert(value);
+        }
+
+        /**
+         * Appends the plan of the given predicate. In the scan mode all the predicates are evaluated
+         * entry by entry.
+         */
+        void explain(Predicate predicate, StringBuilder sb, int depth, boolean scan) {
+            for (int i = 0; i < depth; i++) {
+                sb.append("  ");
+            }
+            boolean filter = scan || predicate instanceof UnindexedPredicate;
+            double estimate = filter ? NOT_INDEXED : estimate(predicate);
+            Predicate unwrapped = unwrap(predicate);
+            if (unwrapped instanceof AndPredicate || unwrapped instanceof OrPredicate) {
+                boolean and = unwrapped instanceof AndPredicate;
+                sb.append(and ? "AND" : "OR");
+                appendEstimate(sb, estimate).append('\n');
+                for (Predicate inner : and ? ((AndPredicate) unwrapped).predicates : ((OrPredicate) unwrapped).predicates) {
+                    explain(inner, sb, depth + 1, filter);
+                }
+            } else if (estimate == NOT_INDEXED) {
+                sb.append("FILTER ").append(unwrapped).append('\n');
+            } else {
+                sb.append("INDEX ").append(unwrapped);
+                appendEstimate(sb, estimate).append('\n');
+            }
+        }
+
+        private static StringBuilder appendEstimate(StringBuilder sb, double estimate) {
+            if (estimate != NOT_INDEXED) {
+                sb.append(" (estimated entries: ").append(Math.round(estimate)).append(')');
+            }
+            return sb;
+        }
+    }
+
+    /**
+     * Predicate with the estimated number of entries it matches.
+     */
+    private static final class Estimated {
+
+        static final Comparator<Estimated> ASCENDING = new Comparator<Estimated>() {
+            @Override
+            public int compare(Estimated o1, Estimated o2) {
+                return Double.compare(o1.estimate, o2.estimate);
+            }
+        };
+
+        final Predicate predicate;
+        final double estimate;
+
+        Estimated(Predicate predicate, double estimate) {
+            this.predicate = predicate;
+            this.estimate = estimate;
+        }
+    }
+}
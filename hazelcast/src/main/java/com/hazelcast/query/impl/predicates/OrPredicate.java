@@ -23,6 +23,7 @@ import com.hazelcast.nio.serialization.BinaryInterface;
 import com.hazelcast.query.IndexAwarePredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.VisitablePredicate;
+import com.hazelcast.query.impl.BitmapResultSet;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.OrResultSet;
 import com.hazelcast.query.impl.QueryContext;
@@ -30,7 +31,7 @@ import com.hazelcast.query.impl.QueryableEntry;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -55,7 +56,7 @@ public final class OrPredicate
 
     @Override
     public Set<QueryableEntry> filter(QueryContext queryContext) {
-        List<Set<QueryableEntry>> indexedResults = new LinkedList<Set<QueryableEntry>>();
+        List<Set<QueryableEntry>> indexedResults = new ArrayList<Set<QueryableEntry>>(predicates.length);
         for (Predicate predicate : predicates) {
             if (predicate instanceof IndexAwarePredicate) {
                 IndexAwarePredicate iap = (IndexAwarePredicate) predicate;
@@ -69,7 +70,15 @@ public final class OrPredicate
                 }
             }
         }
-        return indexedResults.isEmpty() ? null : new OrResultSet(indexedResults);
+        if (indexedResults.isEmpty()) {
+            return null;
+        }
+        // the results of bitmap indexes are united bitmap-wise, which spares materializing them when they're alone
+        BitmapResultSet.union(indexedResults);
+        if (indexedResults.size() == 1 && indexedResults.get(0) instanceof BitmapResultSet) {
+            return indexedResults.get(0);
+        }
+        return new OrResultSet(indexedResults);
     }
 
     @Override
@@ -29,7 +29,8 @@ public final class QueryOptimizerFactory {
 
     public enum Type {
         NONE,
-        RULES
+        RULES,
+        COST_BASED
     }
 
     private QueryOptimizerFactory() {
@@ -50,6 +51,8 @@ public final class QueryOptimizerFactory {
         switch (type) {
             case RULES:
                 return new RuleBasedQueryOptimizer();
+            case COST_BASED:
+                return new CostBasedQueryOptimizer();
             default:
                 return new EmptyOptimizer();
         }
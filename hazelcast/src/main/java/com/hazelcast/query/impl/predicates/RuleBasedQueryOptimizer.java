@@ -28,6 +28,7 @@ public final class RuleBasedQueryOptimizer implements QueryOptimizer {
     private final Visitor betweenVisitor = new BetweenVisitor();
     private final Visitor flatteningVisitor = new FlatteningVisitor();
     private final Visitor orToInVisitor = new OrToInVisitor();
+    private final Visitor compositeIndexVisitor = new CompositeIndexVisitor();
 
     public <K, V> Predicate<K, V> optimize(Predicate<K, V> predicate, Indexes indexes) {
         Predicate optimized = predicate;
@@ -37,6 +38,9 @@ public final class RuleBasedQueryOptimizer implements QueryOptimizer {
         if (optimized instanceof VisitablePredicate) {
             optimized = ((VisitablePredicate) optimized).accept(betweenVisitor, indexes);
         }
+        if (optimized instanceof VisitablePredicate) {
+            optimized = ((VisitablePredicate) optimized).accept(compositeIndexVisitor, indexes);
+        }
         if (optimized instanceof VisitablePredicate) {
             optimized = ((VisitablePredicate) optimized).accept(orToInVisitor, indexes);
         }
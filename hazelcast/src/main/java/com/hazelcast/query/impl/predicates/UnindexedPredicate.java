@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+
+import java.util.Map;
+
+/**
+ * Wrapper which hides the indexes from the wrapped predicate: the predicate is evaluated entry by entry,
+ * either as a filter over the result of another indexed predicate or by a full scan.
+ * It's created by {@link CostBasedQueryOptimizer} and it's never sent over the wire.
+ */
+final class UnindexedPredicate implements Predicate {
+
+    private final Predicate predicate;
+
+    UnindexedPredicate(Predicate predicate) {
+        this.predicate = predicate;
+    }
+
+    Predicate getPredicate() {
+        return predicate;
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        return predicate.apply(mapEntry);
+    }
+
+    @Override
+    public String toString() {
+        return predicate.toString();
+    }
+}
@@ -146,6 +146,7 @@ public class NodeEngineImpl implements NodeEngine {
                     operationService.getOperationExecutor(),
                     operationService.getInboundResponseHandlerSupplier().get(),
                     operationService.getInvocationMonitor(),
+                    operationService.getInboundBackupBatchHandler(),
                     eventService,
                     new ConnectionManagerPacketHandler(),
                     new JetPacketHandler());
@@ -20,6 +20,7 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Packet;
 
 import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.inspectOutOfMemoryError;
+import static com.hazelcast.nio.Packet.FLAG_OP_BACKUP_BATCH;
 import static com.hazelcast.nio.Packet.FLAG_OP_CONTROL;
 import static com.hazelcast.nio.Packet.FLAG_OP_RESPONSE;
 
@@ -36,11 +37,13 @@ public final class PacketDispatcher implements PacketHandler {
     private final PacketHandler connectionManager;
     private final PacketHandler responseHandler;
     private final PacketHandler invocationMonitor;
+    private final PacketHandler backupBatchHandler;
 
     public PacketDispatcher(ILogger logger,
                             PacketHandler operationExecutor,
                             PacketHandler responseHandler,
                             PacketHandler invocationMonitor,
+                            PacketHandler backupBatchHandler,
                             PacketHandler eventService,
                             PacketHandler connectionManager,
                             PacketHandler jetService) {
@@ -48,6 +51,7 @@ public final class PacketDispatcher implements PacketHandler {
         this.responseHandler = responseHandler;
         this.eventService = eventService;
         this.invocationMonitor = invocationMonitor;
+        this.backupBatchHandler = backupBatchHandler;
         this.connectionManager = connectionManager;
         this.operationExecutor = operationExecutor;
         this.jetService = jetService;
@@ -62,6 +66,8 @@ public final class PacketDispatcher implements PacketHandler {
                         responseHandler.handle(packet);
                     } else if (packet.isFlagRaised(FLAG_OP_CONTROL)) {
                         invocationMonitor.handle(packet);
+                    } else if (packet.isFlagRaised(FLAG_OP_BACKUP_BATCH)) {
+                        backupBatchHandler.handle(packet);
                     } else {
                         operationExecutor.handle(packet);
                     }
@@ -29,6 +29,7 @@ import com.hazelcast.spi.impl.eventservice.impl.operations.OnJoinRegistrationOpe
 import com.hazelcast.spi.impl.eventservice.impl.operations.RegistrationOperation;
 import com.hazelcast.spi.impl.eventservice.impl.operations.SendEventOperation;
 import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingBackup;
 import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation;
 import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation.PartitionResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckResponse;
@@ -67,6 +68,9 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
     public static final int UNMODIFIABLE_LAZY_LIST = 18;
     public static final int OPERATION_CONTROL = 19;
     public static final int DISTRIBUTED_OBJECT_NS = 20;
+    public static final int PARTITION_ITERATING_BACKUP = 21;
+    // the type of a packet holding several responses; it is encoded and decoded by the response handlers only
+    public static final int MULTI_RESPONSE = 22;
 
     private static final DataSerializableFactory FACTORY = createFactoryInternal();
 
@@ -122,6 +126,8 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
                         return new OperationControl();
                     case DISTRIBUTED_OBJECT_NS:
                         return new DistributedObjectNamespace();
+                    case PARTITION_ITERATING_BACKUP:
+                        return new PartitionIteratingBackup();
                     default:
                         return null;
                 }
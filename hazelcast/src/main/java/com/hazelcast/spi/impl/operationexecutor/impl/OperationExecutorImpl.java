@@ -76,6 +76,10 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  */
 @SuppressWarnings("checkstyle:methodcount")
 public final class OperationExecutorImpl implements OperationExecutor, MetricsProvider {
+    /**
+     * The idle strategy of the partition threads, see
+     * {@link com.hazelcast.spi.impl.operationservice.impl.InboundResponseHandlerSupplier#getIdleStrategy}.
+     */
     public static final HazelcastProperty IDLE_STRATEGY
             = new HazelcastProperty("hazelcast.operation.partitionthread.idlestrategy", "block");
 
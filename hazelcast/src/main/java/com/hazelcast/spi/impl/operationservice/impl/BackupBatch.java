@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingBackup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.nio.Packet.FLAG_OP_BACKUP_BATCH;
+
+/**
+ * Collects the backups of the partition operations of a {@link PartitionIteratingOperation}, so the backups for
+ * all its partitions are sent to a member as a single {@link PartitionIteratingBackup}.
+ * <p>
+ * The backups are sent when all partition operations have completed, or earlier when another backup of one of
+ * the collected partitions is about to be sent; see {@link OperationBackupHandler}. The batch is split up by the
+ * receiving member as soon as it arrives, so the backups of a partition are applied in the order they are sent.
+ */
+public final class BackupBatch {
+
+    private final OutboundOperationHandler outboundOperationHandler;
+    private final AtomicReferenceArray<BackupBatch> pendingBatches;
+    private final Map<Address, List<Backup>> backups = new HashMap<Address, List<Backup>>();
+
+    BackupBatch(OutboundOperationHandler outboundOperationHandler, AtomicReferenceArray<BackupBatch> pendingBatches) {
+        this.outboundOperationHandler = outboundOperationHandler;
+        this.pendingBatches = pendingBatches;
+    }
+
+    /**
+     * Adds the backup and registers this batch as the pending batch of the partition of the backup.
+     */
+    synchronized void add(Backup backup, Address target) {
+        List<Backup> targetBackups = backups.get(target);
+        if (targetBackups == null) {
+            targetBackups = new ArrayList<Backup>();
+            backups.put(target, targetBackups);
+        }
+        targetBackups.add(backup);
+        pendingBatches.set(backup.getPartitionId(), this);
+    }
+
+    /**
+     * Sends the collected backups and unregisters this batch as the pending batch of their partitions.
+     * <p>
+     * The backups are sent while holding the lock, so a flush that finds nothing to send doesn't return before
+     * the backups taken by a concurrent flush have been sent.
+     */
+    public synchronized void flush() {
+        if (backups.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<Address, List<Backup>> entry : backups.entrySet()) {
+            List<Backup> targetBackups = entry.getValue();
+            for (Backup backup : targetBackups) {
+                // a later batch of the partition may have replaced this one already
+                pendingBatches.compareAndSet(backup.getPartitionId(), this, null);
+            }
+            if (targetBackups.size() == 1) {
+                outboundOperationHandler.send(targetBackups.get(0), entry.getKey());
+            } else {
+                Operation op = new PartitionIteratingBackup(targetBackups.toArray(new Backup[0]));
+                outboundOperationHandler.send(op, entry.getKey(), FLAG_OP_BACKUP_BATCH);
+            }
+        }
+        backups.clear();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.PacketHandler;
+import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingBackup;
+
+import static com.hazelcast.spi.OperationAccessor.setCallerAddress;
+import static com.hazelcast.spi.OperationAccessor.setConnection;
+import static com.hazelcast.spi.impl.OperationResponseHandlerFactory.createEmptyResponseHandler;
+
+/**
+ * Splits up the {@link PartitionIteratingBackup}s arriving at this member, i.e. the packets flagged with
+ * {@link Packet#FLAG_OP_BACKUP_BATCH}.
+ * <p>
+ * The batch is split up on the IO thread that received it, so its backups are queued on the threads of their
+ * partitions before anything received later on the same connection, e.g. a backup of one of these partitions sent
+ * on its own after the batch. Splitting it up on a generic thread would let such a backup overtake the batch.
+ *
+ * @see BackupBatch
+ */
+final class InboundBackupBatchHandler implements PacketHandler {
+
+    private final NodeEngineImpl nodeEngine;
+    private final OperationExecutor operationExecutor;
+    private final ILogger logger;
+
+    InboundBackupBatchHandler(NodeEngineImpl nodeEngine, OperationExecutor operationExecutor, ILogger logger) {
+        this.nodeEngine = nodeEngine;
+        this.operationExecutor = operationExecutor;
+        this.logger = logger;
+    }
+
+    @Override
+    public void handle(Packet packet) {
+        Connection connection = packet.getConn();
+        Address caller = connection.getEndPoint();
+        Member member = nodeEngine.getClusterService().getMember(caller);
+        if (member == null) {
+            // just like an operation of a caller which isn't a member, see OperationRunnerImpl
+            if (logger.isFineEnabled()) {
+                logger.fine("Ignoring the backups sent by " + caller + " which isn't a member");
+            }
+            return;
+        }
+
+        PartitionIteratingBackup batch = nodeEngine.toObject(packet);
+        for (Backup backup : batch.getBackups()) {
+            backup.setNodeEngine(nodeEngine)
+                    .setCallerUuid(member.getUuid())
+                    .setOperationResponseHandler(createEmptyResponseHandler());
+            setCallerAddress(backup, caller);
+            setConnection(backup, connection);
+            operationExecutor.execute(backup);
+        }
+    }
+}
@@ -29,17 +29,21 @@ import com.hazelcast.spi.impl.PacketHandler;
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
 
 import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
 import static com.hazelcast.nio.Packet.FLAG_OP_RESPONSE;
 import static com.hazelcast.nio.Packet.Type.OPERATION;
 import static com.hazelcast.spi.impl.SpiDataSerializerHook.BACKUP_ACK_RESPONSE;
 import static com.hazelcast.spi.impl.SpiDataSerializerHook.CALL_TIMEOUT_RESPONSE;
 import static com.hazelcast.spi.impl.SpiDataSerializerHook.ERROR_RESPONSE;
+import static com.hazelcast.spi.impl.SpiDataSerializerHook.MULTI_RESPONSE;
 import static com.hazelcast.spi.impl.SpiDataSerializerHook.NORMAL_RESPONSE;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.NormalResponse.OFFSET_BACKUP_ACKS;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_CALL_ID;
+import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_RESPONSE_COUNT;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_TYPE_ID;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static com.hazelcast.util.Preconditions.checkTrue;
@@ -80,10 +84,13 @@ public final class InboundResponseHandler implements PacketHandler {
         checkTrue(packet.getPacketType() == OPERATION, "Packet type is not OPERATION");
         checkTrue(packet.isFlagRaised(FLAG_OP_RESPONSE), "FLAG_OP_RESPONSE is not set");
 
+        handle(packet, packet.getConn().getEndPoint());
+    }
+
+    private void handle(Packet packet, Address sender) {
         byte[] bytes = packet.toByteArray();
         int typeId = Bits.readInt(bytes, OFFSET_TYPE_ID, useBigEndian);
         long callId = Bits.readLong(bytes, OFFSET_CALL_ID, useBigEndian);
-        Address sender = packet.getConn().getEndPoint();
         try {
             switch (typeId) {
                 case NORMAL_RESPONSE:
@@ -100,6 +107,9 @@ public final class InboundResponseHandler implements PacketHandler {
                     ErrorResponse errorResponse = serializationService.toObject(packet);
                     notifyErrorResponse(callId, errorResponse.getCause(), sender);
                     break;
+                case MULTI_RESPONSE:
+                    handleMultiResponse(bytes, sender);
+                    break;
                 default:
                     logger.severe("Unrecognized type: " + typeId + " packet:" + packet);
             }
@@ -108,6 +118,24 @@ public final class InboundResponseHandler implements PacketHandler {
         }
     }
 
+    /**
+     * Handles the responses combined by the {@link OutboundResponseHandler}. Every response is handled as a packet
+     * of its own, since the invocations deserialize the value of a normal response lazily from the packet.
+     */
+    private void handleMultiResponse(byte[] bytes, Address sender) {
+        int count = Bits.readInt(bytes, OFFSET_RESPONSE_COUNT, useBigEndian);
+        int offset = OFFSET_RESPONSE_COUNT + INT_SIZE_IN_BYTES;
+        for (int i = 0; i < count; i++) {
+            int length = Bits.readInt(bytes, offset, useBigEndian);
+            offset += INT_SIZE_IN_BYTES;
+            Packet response = new Packet(Arrays.copyOfRange(bytes, offset, offset + length), -1)
+                    .setPacketType(OPERATION)
+                    .raiseFlags(FLAG_OP_RESPONSE);
+            offset += length;
+            handle(response, sender);
+        }
+    }
+
     public void notifyBackupComplete(long callId) {
         responsesBackup.inc();
 
@@ -30,6 +30,7 @@ import com.hazelcast.spi.properties.HazelcastProperty;
 import com.hazelcast.util.MutableInteger;
 import com.hazelcast.util.concurrent.BackoffIdleStrategy;
 import com.hazelcast.util.concurrent.BusySpinIdleStrategy;
+import com.hazelcast.util.concurrent.HybridIdleStrategy;
 import com.hazelcast.util.concurrent.IdleStrategy;
 import com.hazelcast.util.function.Supplier;
 
@@ -42,6 +43,7 @@ import static com.hazelcast.util.EmptyStatement.ignore;
 import static com.hazelcast.util.HashUtil.hashToIndex;
 import static com.hazelcast.util.ThreadUtil.createThreadName;
 import static com.hazelcast.util.concurrent.BackoffIdleStrategy.createBackoffIdleStrategy;
+import static com.hazelcast.util.concurrent.HybridIdleStrategy.createHybridIdleStrategy;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -72,6 +74,9 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
  */
 public class InboundResponseHandlerSupplier implements MetricsProvider, Supplier<PacketHandler> {
 
+    /**
+     * The idle strategy of the response threads, see {@link #getIdleStrategy(HazelcastProperties, HazelcastProperty)}.
+     */
     public static final HazelcastProperty IDLE_STRATEGY
             = new HazelcastProperty("hazelcast.operation.responsequeue.idlestrategy", "block");
 
@@ -211,6 +216,20 @@ public class InboundResponseHandlerSupplier implements MetricsProvider, Supplier
         }
     }
 
+    /**
+     * Creates the idle strategy configured by the given property, which is one of:
+     * <ul>
+     * <li>{@code block}: no idle strategy, the thread blocks as soon as it has no work</li>
+     * <li>{@code busyspin}: the thread spins, so it picks up work with the lowest latency but burns a core</li>
+     * <li>{@code backoff} or {@code backoff,<maxSpins>,<maxYields>,<minParkNanos>,<maxParkNanos>}: the thread spins,
+     * yields and then parks with an exponentially growing timeout</li>
+     * <li>{@code hybrid} or {@code hybrid,<maxSpins>,<maxYields>}: the thread spins, yields and then blocks until it
+     * is notified of new work</li>
+     * </ul>
+     *
+     * @return the idle strategy, or {@code null} for {@code block}
+     * @throws IllegalStateException if the property has an unrecognized value
+     */
     public static IdleStrategy getIdleStrategy(HazelcastProperties properties, HazelcastProperty property) {
         String idleStrategyString = properties.getString(property);
         if ("block".equals(idleStrategyString)) {
@@ -221,6 +240,10 @@ public class InboundResponseHandlerSupplier implements MetricsProvider, Supplier
             return new BackoffIdleStrategy(IDLE_MAX_SPINS, IDLE_MAX_YIELDS, IDLE_MIN_PARK_NS, IDLE_MAX_PARK_NS);
         } else if (idleStrategyString.startsWith("backoff,")) {
             return createBackoffIdleStrategy(idleStrategyString);
+        } else if ("hybrid".equals(idleStrategyString)) {
+            return new HybridIdleStrategy(IDLE_MAX_SPINS, IDLE_MAX_YIELDS);
+        } else if (idleStrategyString.startsWith("hybrid,")) {
+            return createHybridIdleStrategy(idleStrategyString);
         } else {
             throw new IllegalStateException("Unrecognized " + property.getName() + " value=" + idleStrategyString);
         }
@@ -27,10 +27,6 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.sequence.CallIdSequence;
 
 import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.spi.OperationAccessor.deactivate;
@@ -45,12 +41,13 @@ import static com.hazelcast.spi.OperationAccessor.setCallId;
  * {@link com.hazelcast.spi.impl.operationservice.impl.responses.Response} comes in, the
  * appropriate invocation can be looked up.
  * <p>
+ * The invocations are stored in an {@link InvocationTable}, which is sized by the maximum number of concurrent
+ * invocations of the call ID sequence. So registering, looking up and deregistering an invocation neither boxes
+ * the call ID nor allocates.
+ * <p>
  * Some ideas:
  * <ul>
- * <li>Use a ringbuffer to store all invocations instead of a CHM. The call ID can be used as sequence ID for this
- * ringbuffer. It can be that you run in slots that have not been released; if that happens, just keep increasing
- * the sequence (although you now get sequence-gaps).</li>
- * <li>Pre-allocate all invocations. Because the ringbuffer has a fixed capacity, pre-allocation should be easy. Also
+ * <li>Pre-allocate all invocations. Because the table has a fixed capacity, pre-allocation should be easy. Also
  * the PartitionInvocation and TargetInvocation can be folded into Invocation.</li>
  * </ul>
  */
@@ -60,12 +57,12 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
     private static final int CORE_SIZE_FACTOR = 4;
     private static final int CONCURRENCY_LEVEL = 16;
 
-    private static final int INITIAL_CAPACITY = 1000;
-    private static final float LOAD_FACTOR = 0.75f;
+    // used when the number of concurrent invocations is not bounded
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int CAPACITY_FACTOR = 2;
     private static final double HUNDRED_PERCENT = 100d;
 
-    @Probe(name = "invocations.pending", level = MANDATORY)
-    private final ConcurrentMap<Long, Invocation> invocations;
+    private final InvocationTable invocations;
     private final ILogger logger;
     private final CallIdSequence callIdSequence;
 
@@ -79,7 +76,11 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         boolean reallyMultiCore = coreSize >= CORE_SIZE_CHECK;
         int concurrencyLevel = reallyMultiCore ? coreSize * CORE_SIZE_FACTOR : CONCURRENCY_LEVEL;
 
-        this.invocations = new ConcurrentHashMap<Long, Invocation>(INITIAL_CAPACITY, LOAD_FACTOR, concurrencyLevel);
+        int maxConcurrentInvocations = callIdSequence.getMaxConcurrentInvocations();
+        int capacity = maxConcurrentInvocations == Integer.MAX_VALUE
+                ? DEFAULT_CAPACITY
+                : (int) Math.min((long) maxConcurrentInvocations * CAPACITY_FACTOR, InvocationTable.MAX_CAPACITY);
+        this.invocations = new InvocationTable(capacity, concurrencyLevel);
     }
 
     @Override
@@ -87,6 +88,11 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         registry.scanAndRegister(this, "operation");
     }
 
+    @Probe(name = "invocations.pending", level = MANDATORY)
+    private int invocationsPending() {
+        return invocations.size();
+    }
+
     @Probe(name = "invocations.usedPercentage")
     private double invocationsUsedPercentage() {
         int maxConcurrentInvocations = callIdSequence.getMaxConcurrentInvocations();
@@ -123,7 +129,7 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
             callIdSequence.complete();
             throw e;
         }
-        invocations.put(callId, invocation);
+        invocations.put(invocation);
         if (!alive) {
             invocation.notifyError(new HazelcastInstanceNotActiveException());
             return false;
@@ -142,13 +148,13 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         if (!deactivate(invocation.op)) {
             return false;
         }
-        invocations.remove(invocation.op.getCallId());
+        invocations.remove(invocation.op.getCallId(), invocation);
         callIdSequence.complete();
         return true;
     }
 
     /**
-     * Returns the number of pending invocations.
+     * Returns the number of pending invocations. It scans all invocations, so it should not be called on the hot path.
      *
      * @return the number of pending invocations
      */
@@ -156,18 +162,12 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         return invocations.size();
     }
 
-    @Override
-    public Iterator<Invocation> iterator() {
-        return invocations.values().iterator();
-    }
-
     /**
-     * Intention to expose the entry set is to mutate it.
-     *
-     * @return set of invocations in this registry
+     * Returns a weakly consistent iterator over the pending invocations.
      */
-    public Set<Map.Entry<Long, Invocation>> entrySet() {
-        return invocations.entrySet();
+    @Override
+    public Iterator<Invocation> iterator() {
+        return invocations.iterator();
     }
 
     /**
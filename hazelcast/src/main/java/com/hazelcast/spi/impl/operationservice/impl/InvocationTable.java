@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.util.QuickMath.log2;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * A lock-free table of the pending invocations, keyed by call ID, which doesn't box the call IDs and doesn't allocate
+ * a node per invocation.
+ * <p>
+ * The call ID of an invocation is not stored in the table; it is the call ID of the invocation's operation. Since the
+ * call IDs come from a sequence, the table is striped by the lowest bits of the call ID, so that invocations
+ * registered one after the other by different threads are stored in different stripes, and the slot within a stripe
+ * is chosen by the remaining bits. An invocation is stored in the first free slot of a small probe window starting
+ * at that slot. So as long as the table is larger than the number of pending invocations, an invocation is nearly
+ * always found in its first slot, since the invocation stored there before has completed long ago.
+ * <p>
+ * If all slots of the probe window are taken, e.g. because many invocations are pending when backpressure is
+ * disabled, the invocation is stored in an overflow map.
+ * <p>
+ * The {@link #size()} and the {@link #iterator()} scan the whole table. They are not meant for the hot path.
+ */
+final class InvocationTable implements Iterable<Invocation> {
+
+    static final int MAX_CAPACITY = 1 << 20;
+    static final int PROBE_WINDOW = 16;
+
+    private final AtomicReferenceArray<Invocation> slots;
+    private final int stripeMask;
+    private final int stripeShift;
+    private final int stripeLengthMask;
+    private final ConcurrentMap<Long, Invocation> overflow = new ConcurrentHashMap<Long, Invocation>();
+
+    /**
+     * @param capacity    the number of slots; rounded up to the next power of two
+     * @param stripeCount the number of stripes; rounded up to the next power of two
+     */
+    InvocationTable(int capacity, int stripeCount) {
+        int stripes = nextPowerOfTwo(stripeCount);
+        int length = Math.max(nextPowerOfTwo(Math.min(capacity, MAX_CAPACITY)), stripes * PROBE_WINDOW);
+        this.slots = new AtomicReferenceArray<Invocation>(length);
+        this.stripeMask = stripes - 1;
+        this.stripeShift = log2(stripes);
+        this.stripeLengthMask = length / stripes - 1;
+    }
+
+    /**
+     * Stores the invocation with the call ID of its operation.
+     */
+    void put(Invocation invocation) {
+        long callId = invocation.op.getCallId();
+        int stripeStart = stripeStart(callId);
+        int index = indexInStripe(callId);
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int slot = stripeStart + ((index + i) & stripeLengthMask);
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, invocation)) {
+                return;
+            }
+        }
+        overflow.put(callId, invocation);
+    }
+
+    /**
+     * Returns the invocation with the given call ID, or {@code null} if there is none.
+     */
+    Invocation get(long callId) {
+        int stripeStart = stripeStart(callId);
+        int index = indexInStripe(callId);
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            Invocation invocation = slots.get(stripeStart + ((index + i) & stripeLengthMask));
+            if (invocation != null && invocation.op.getCallId() == callId) {
+                return invocation;
+            }
+        }
+        return overflow.isEmpty() ? null : overflow.get(callId);
+    }
+
+    /**
+     * Removes the invocation, which must have been stored with the given call ID.
+     */
+    void remove(long callId, Invocation invocation) {
+        int stripeStart = stripeStart(callId);
+        int index = indexInStripe(callId);
+        for (int i = 0; i < PROBE_WINDOW; i++) {
+            int slot = stripeStart + ((index + i) & stripeLengthMask);
+            if (slots.get(slot) == invocation && slots.compareAndSet(slot, invocation, null)) {
+                return;
+            }
+        }
+        overflow.remove(callId, invocation);
+    }
+
+    int size() {
+        int size = overflow.size();
+        for (int slot = 0; slot < slots.length(); slot++) {
+            if (slots.get(slot) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    private int stripeStart(long callId) {
+        return ((int) callId & stripeMask) * (stripeLengthMask + 1);
+    }
+
+    private int indexInStripe(long callId) {
+        return (int) (callId >>> stripeShift) & stripeLengthMask;
+    }
+
+    /**
+     * Returns a weakly consistent iterator: it doesn't fail on concurrent modifications and may or may not return
+     * the invocations stored or removed while iterating.
+     */
+    @Override
+    public Iterator<Invocation> iterator() {
+        return new InvocationIterator();
+    }
+
+    private final class InvocationIterator implements Iterator<Invocation> {
+
+        private final Iterator<Invocation> overflowIterator = overflow.values().iterator();
+        private int slot;
+        private Invocation next;
+
+        InvocationIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (slot < slots.length()) {
+                next = slots.get(slot++);
+                if (next != null) {
+                    return;
+                }
+            }
+            next = overflowIterator.hasNext() ? overflowIterator.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Invocation next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Invocation result = next;
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -30,10 +30,18 @@ import com.hazelcast.spi.ServiceNamespaceAware;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.operationservice.TargetAware;
 import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation;
+import com.hazelcast.spi.properties.HazelcastProperties;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static com.hazelcast.internal.partition.InternalPartition.MAX_BACKUP_COUNT;
 import static com.hazelcast.spi.OperationAccessor.hasActiveInvocation;
 import static com.hazelcast.spi.OperationAccessor.setCallId;
+import static com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation.getBackupBatch;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BACKUP_BATCH_ENABLED;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_COUNT;
+import static com.hazelcast.spi.properties.GroupProperty.SOCKET_CONNECTIONS_PER_MEMBER;
 import static java.lang.Math.min;
 
 /**
@@ -47,12 +55,42 @@ final class OperationBackupHandler {
     private final NodeEngineImpl nodeEngine;
     private final BackpressureRegulator backpressureRegulator;
     private final OutboundOperationHandler outboundOperationHandler;
+    // the batch holding unsent backups of a partition, by partition ID; null if backups aren't batched.
+    // An element is set by the thread of its partition and cleared by it or by the flush of the batch.
+    private final AtomicReferenceArray<BackupBatch> pendingBatches;
 
     OperationBackupHandler(OperationServiceImpl operationService, OutboundOperationHandler outboundOperationHandler) {
         this.outboundOperationHandler = outboundOperationHandler;
         this.node = operationService.node;
         this.nodeEngine = operationService.nodeEngine;
         this.backpressureRegulator = operationService.backpressureRegulator;
+        HazelcastProperties properties = node.getProperties();
+        this.pendingBatches = isBackupBatchingEnabled(properties)
+                ? new AtomicReferenceArray<BackupBatch>(properties.getInteger(PARTITION_COUNT))
+                : null;
+    }
+
+    private boolean isBackupBatchingEnabled(HazelcastProperties properties) {
+        if (!properties.getBoolean(OPERATION_BACKUP_BATCH_ENABLED)) {
+            return false;
+        }
+        if (properties.getInteger(SOCKET_CONNECTIONS_PER_MEMBER) > 1) {
+            // a batch travels over the primary connection, while the other backups of its partitions may take
+            // another connection of the member pair and overtake it
+            nodeEngine.getLogger(OperationBackupHandler.class).warning(OPERATION_BACKUP_BATCH_ENABLED.getName()
+                    + " is ignored since " + SOCKET_CONNECTIONS_PER_MEMBER.getName() + " is greater than 1");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates a batch for the backups of the partition operations of a {@link PartitionIteratingOperation}.
+     *
+     * @return the batch, or null if backups aren't batched
+     */
+    BackupBatch newBackupBatch() {
+        return pendingBatches == null ? null : new BackupBatch(outboundOperationHandler, pendingBatches);
     }
 
     /**
@@ -220,7 +258,7 @@ final class OperationBackupHandler {
                 boolean isSyncBackup = replicaIndex <= syncBackups;
 
                 Backup backup = newBackup(backupAwareOp, backupOpData, replicaVersions, replicaIndex, isSyncBackup);
-                outboundOperationHandler.send(backup, target);
+                send(backupAwareOp, backup, target);
 
                 if (isSyncBackup) {
                     sendSyncBackups++;
@@ -258,7 +296,7 @@ final class OperationBackupHandler {
             boolean isSyncBackup = syncBackups == 1;
 
             Backup backup = newBackup(backupAwareOp, backupOp, replicaVersions, 1, isSyncBackup);
-            outboundOperationHandler.send(backup, target);
+            send(backupAwareOp, backup, target);
 
             if (isSyncBackup) {
                 return 1;
@@ -267,6 +305,30 @@ final class OperationBackupHandler {
         return 0;
     }
 
+    /**
+     * Sends the backup, or adds it to the backup batch of the operation. Before a backup is sent on its own, the
+     * batch holding an earlier backup of the same partition is sent, so the backups of a partition are sent in order.
+     */
+    private void send(BackupAwareOperation backupAwareOp, Backup backup, Address target) {
+        if (pendingBatches == null) {
+            outboundOperationHandler.send(backup, target);
+            return;
+        }
+
+        int partitionId = backup.getPartitionId();
+        BackupBatch batch = getBackupBatch((Operation) backupAwareOp);
+        if (batch != null) {
+            batch.add(backup, target);
+            return;
+        }
+
+        BackupBatch pendingBatch = pendingBatches.getAndSet(partitionId, null);
+        if (pendingBatch != null) {
+            pendingBatch.flush();
+        }
+        outboundOperationHandler.send(backup, target);
+    }
+
     private Operation getBackupOperation(BackupAwareOperation backupAwareOp) {
         Operation backupOp = backupAwareOp.getBackupOperation();
         if (backupOp == null) {
@@ -42,6 +42,7 @@ import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationFactory;
 import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.PacketHandler;
 import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
 import com.hazelcast.spi.impl.operationexecutor.impl.OperationExecutorImpl;
@@ -66,6 +67,7 @@ import static com.hazelcast.spi.InvocationBuilder.DEFAULT_REPLICA_INDEX;
 import static com.hazelcast.spi.impl.operationutil.Operations.isJoinOperation;
 import static com.hazelcast.spi.properties.GroupProperty.FAIL_ON_INDETERMINATE_OPERATION_STATE;
 import static com.hazelcast.spi.properties.GroupProperty.OPERATION_CALL_TIMEOUT_MILLIS;
+import static com.hazelcast.spi.properties.GroupProperty.RESPONSE_BATCH_ENABLED;
 import static com.hazelcast.util.CollectionUtil.toIntegerList;
 import static com.hazelcast.util.MapUtil.createHashMap;
 import static com.hazelcast.util.Preconditions.checkNotNegative;
@@ -124,6 +126,7 @@ public final class OperationServiceImpl implements InternalOperationService, Met
     private final InvocationMonitor invocationMonitor;
     private final SlowOperationDetector slowOperationDetector;
     private final InboundResponseHandlerSupplier inboundResponseHandlerSupplier;
+    private final InboundBackupBatchHandler inboundBackupBatchHandler;
     private final InternalSerializationService serializationService;
     private final int invocationMaxRetryCount;
     private final long invocationRetryPauseMillis;
@@ -150,7 +153,7 @@ public final class OperationServiceImpl implements InternalOperationService, Met
                 node.getProperties(), node.getLogger(BackpressureRegulator.class));
 
         this.outboundResponseHandler = new OutboundResponseHandler(thisAddress, serializationService, node,
-                node.getLogger(OutboundResponseHandler.class));
+                node.getLogger(OutboundResponseHandler.class), node.getProperties().getBoolean(RESPONSE_BATCH_ENABLED));
 
         this.invocationRegistry = new InvocationRegistry(
                 node.getLogger(OperationServiceImpl.class), backpressureRegulator.newCallIdSequence());
@@ -172,6 +175,9 @@ public final class OperationServiceImpl implements InternalOperationService, Met
                 node.getProperties(), node.loggingService, thisAddress, new OperationRunnerFactoryImpl(this),
                 node.getNodeExtension(), hzName, configClassLoader);
 
+        this.inboundBackupBatchHandler = new InboundBackupBatchHandler(
+                nodeEngine, operationExecutor, node.getLogger(InboundBackupBatchHandler.class));
+
         this.slowOperationDetector = new SlowOperationDetector(node.loggingService,
                 operationExecutor.getGenericOperationRunners(), operationExecutor.getPartitionOperationRunners(),
                 node.getProperties(), hzName);
@@ -185,6 +191,10 @@ public final class OperationServiceImpl implements InternalOperationService, Met
         return inboundResponseHandlerSupplier;
     }
 
+    public PacketHandler getInboundBackupBatchHandler() {
+        return inboundBackupBatchHandler;
+    }
+
     public InvocationMonitor getInvocationMonitor() {
         return invocationMonitor;
     }
@@ -202,6 +212,17 @@ public final class OperationServiceImpl implements InternalOperationService, Met
         return inboundResponseHandlerSupplier.backupHandler();
     }
 
+    /**
+     * Creates a batch for the backups of the partition operations of a
+     * {@link com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation}.
+     *
+     * @return the batch, or null if backups aren't batched
+     * @see com.hazelcast.spi.properties.GroupProperty#OPERATION_BACKUP_BATCH_ENABLED
+     */
+    public BackupBatch newBackupBatch() {
+        return backupHandler.newBackupBatch();
+    }
+
     @Override
     public int getPartitionThreadCount() {
         return operationExecutor.getPartitionThreadCount();
@@ -409,6 +430,7 @@ public final class OperationServiceImpl implements InternalOperationService, Met
 
     public void onMemberLeft(MemberImpl member) {
         invocationMonitor.onMemberLeft(member);
+        outboundResponseHandler.onMemberLeft(member.getAddress());
     }
 
     public void reset() {
@@ -41,6 +41,13 @@ public class OutboundOperationHandler {
     }
 
     public boolean send(Operation op, Address target) {
+        return send(op, target, 0);
+    }
+
+    /**
+     * Sends the operation in a packet with the given additional header flags.
+     */
+    boolean send(Operation op, Address target, int packetFlags) {
         checkNotNull(target, "Target is required!");
 
         if (thisAddress.equals(target)) {
@@ -48,13 +55,17 @@ public class OutboundOperationHandler {
         }
 
         Connection connection = node.getConnectionManager().getOrConnect(target);
-        return send(op, connection);
+        return send(op, connection, packetFlags);
     }
 
     public boolean send(Operation op, Connection connection) {
+        return send(op, connection, 0);
+    }
+
+    private boolean send(Operation op, Connection connection, int packetFlags) {
         byte[] bytes = serializationService.toBytes(op);
         int partitionId = op.getPartitionId();
-        Packet packet = new Packet(bytes, partitionId).setPacketType(Packet.Type.OPERATION);
+        Packet packet = new Packet(bytes, partitionId).setPacketType(Packet.Type.OPERATION).raiseFlags(packetFlags);
 
         if (op.isUrgent()) {
             packet.raiseFlags(FLAG_URGENT);
@@ -30,6 +30,14 @@ import com.hazelcast.spi.impl.operationservice.impl.responses.CallTimeoutRespons
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.NormalResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.Response;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_DATA_SERIALIZABLE;
 import static com.hazelcast.internal.serialization.impl.SerializationConstants.CONSTANT_TYPE_NULL;
@@ -40,7 +48,9 @@ import static com.hazelcast.nio.Bits.writeLong;
 import static com.hazelcast.nio.Packet.FLAG_OP_RESPONSE;
 import static com.hazelcast.nio.Packet.FLAG_URGENT;
 import static com.hazelcast.nio.Packet.Type.OPERATION;
+import static com.hazelcast.spi.ExecutionService.ASYNC_EXECUTOR;
 import static com.hazelcast.spi.impl.SpiDataSerializerHook.BACKUP_ACK_RESPONSE;
+import static com.hazelcast.spi.impl.SpiDataSerializerHook.MULTI_RESPONSE;
 import static com.hazelcast.spi.impl.SpiDataSerializerHook.NORMAL_RESPONSE;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckResponse.BACKUP_RESPONSE_SIZE_IN_BYTES;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.NormalResponse.OFFSET_BACKUP_ACKS;
@@ -50,10 +60,12 @@ import static com.hazelcast.spi.impl.operationservice.impl.responses.NormalRespo
 import static com.hazelcast.spi.impl.operationservice.impl.responses.NormalResponse.OFFSET_NOT_DATA;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_CALL_ID;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_IDENTIFIED;
+import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_RESPONSE_COUNT;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_SERIALIZER_TYPE_ID;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_TYPE_FACTORY_ID;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_TYPE_ID;
 import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_URGENT;
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
 import static com.hazelcast.util.Preconditions.checkNotNull;
 import static java.nio.ByteOrder.BIG_ENDIAN;
 
@@ -61,9 +73,21 @@ import static java.nio.ByteOrder.BIG_ENDIAN;
  * An {@link OperationResponseHandler} that is used for a remotely executed Operation. So when a calling member
  * sends an Operation to the receiving member, the receiving member attaches this OutboundResponseHandler
  * to that operation so that the response is returned to the right machine.
+ * <p>
+ * If response batching is enabled, small normal responses and backup acks sent concurrently to the same member are
+ * combined into a single {@link SpiDataSerializerHook#MULTI_RESPONSE} packet, which is taken apart again by the
+ * {@link InboundResponseHandler}. A response is never delayed to wait for others: the thread which sends a response
+ * also sends the responses queued for the same member by other threads in the meantime. So responses only get
+ * combined under load, where it saves packets, frames and wakeups of the IO and response threads. To not hold up
+ * an operation thread indefinitely while responses keep coming in, a thread sends at most
+ * {@link #MAX_BATCHES_PER_SEND} packets and leaves the rest to the async executor.
  */
 public final class OutboundResponseHandler implements OperationResponseHandler {
 
+    static final int MAX_BATCH_SIZE = 64;
+    static final int MAX_BATCHED_RESPONSE_SIZE = 1024;
+    static final int MAX_BATCHES_PER_SEND = 8;
+
     private final Address thisAddress;
     private final InternalSerializationService serializationService;
     private final boolean useBigEndian;
@@ -71,16 +95,34 @@ public final class OutboundResponseHandler implements OperationResponseHandler {
     // it sucks we need to pass in Node as argument; but this is due to the ConnectionManager which is created after
     // the OperationService is created.
     private final Node node;
+    // null if response batching is disabled
+    private final ConcurrentMap<Address, ResponseBatcher> batchers;
+    private final ConstructorFunction<Address, ResponseBatcher> batcherConstructor
+            = new ConstructorFunction<Address, ResponseBatcher>() {
+        @Override
+        public ResponseBatcher createNew(Address target) {
+            return new ResponseBatcher(target);
+        }
+    };
 
     OutboundResponseHandler(Address thisAddress,
                             InternalSerializationService serializationService,
                             Node node,
                             ILogger logger) {
+        this(thisAddress, serializationService, node, logger, false);
+    }
+
+    OutboundResponseHandler(Address thisAddress,
+                            InternalSerializationService serializationService,
+                            Node node,
+                            ILogger logger,
+                            boolean batchResponses) {
         this.thisAddress = thisAddress;
         this.serializationService = serializationService;
         this.useBigEndian = serializationService.getByteOrder() == BIG_ENDIAN;
         this.node = node;
         this.logger = logger;
+        this.batchers = batchResponses ? new ConcurrentHashMap<Address, ResponseBatcher>() : null;
     }
 
     @Override
@@ -127,7 +169,7 @@ public final class OutboundResponseHandler implements OperationResponseHandler {
 
         Packet packet = toNormalResponsePacket(callId, (byte) backupAcks, urgent, value);
 
-        return transmit(target, packet);
+        return transmitBatched(target, packet);
     }
 
     Packet toNormalResponsePacket(long callId, int backupAcks, boolean urgent, Object value) {
@@ -172,7 +214,7 @@ public final class OutboundResponseHandler implements OperationResponseHandler {
 
         Packet packet = toBackupAckPacket(callId, urgent);
 
-        transmit(target, packet);
+        transmitBatched(target, packet);
     }
 
     Packet toBackupAckPacket(long callId, boolean urgent) {
@@ -183,6 +225,31 @@ public final class OutboundResponseHandler implements OperationResponseHandler {
         return newResponsePacket(bytes, urgent);
     }
 
+    /**
+     * Combines the given response packets into a single packet. The packets in the array are cleared.
+     */
+    Packet toMultiResponsePacket(Packet[] packets, int count) {
+        int length = OFFSET_RESPONSE_COUNT + INT_SIZE_IN_BYTES;
+        for (int i = 0; i < count; i++) {
+            length += INT_SIZE_IN_BYTES + packets[i].totalSize();
+        }
+
+        byte[] bytes = new byte[length];
+        writeResponsePrologueBytes(bytes, MULTI_RESPONSE, 0, false);
+        writeInt(bytes, OFFSET_RESPONSE_COUNT, count, useBigEndian);
+        int offset = OFFSET_RESPONSE_COUNT + INT_SIZE_IN_BYTES;
+        for (int i = 0; i < count; i++) {
+            Packet packet = packets[i];
+            int packetLength = packet.totalSize();
+            writeInt(bytes, offset, packetLength, useBigEndian);
+            offset += INT_SIZE_IN_BYTES;
+            packet.copyTo(bytes, offset);
+            offset += packetLength;
+            packets[i] = null;
+        }
+        return newResponsePacket(bytes, false);
+    }
+
     private void writeResponsePrologueBytes(byte[] bytes, int typeId, long callId, boolean urgent) {
         // partition hash (which is always 0 in case of response)
         writeIntB(bytes, 0, 0);
@@ -216,6 +283,22 @@ public final class OutboundResponseHandler implements OperationResponseHandler {
         return connectionManager.transmit(packet, target);
     }
 
+    private boolean transmitBatched(Address target, Packet packet) {
+        if (batchers == null || packet.isUrgent() || packet.totalSize() > MAX_BATCHED_RESPONSE_SIZE) {
+            return transmit(target, packet);
+        }
+        return getOrPutIfAbsent(batchers, target, batcherConstructor).send(packet);
+    }
+
+    /**
+     * Drops the response batcher of a member which left the cluster.
+     */
+    void onMemberLeft(Address address) {
+        if (batchers != null) {
+            batchers.remove(address);
+        }
+    }
+
     private void checkTarget(Address target) {
         checkNotNull(target, "Target is required!");
 
@@ -223,4 +306,89 @@ public final class OutboundResponseHandler implements OperationResponseHandler {
             throw new IllegalArgumentException("Target is this node! -> " + target);
         }
     }
+
+    /**
+     * Combines the responses queued for a single member. There is no dedicated thread: whichever sending thread
+     * manages to set the {@code sending} flag transmits everything in the queue, including the responses offered
+     * by other threads while it was busy, up to {@link #MAX_BATCHES_PER_SEND} packets.
+     */
+    private final class ResponseBatcher implements Runnable {
+
+        private final Address target;
+        private final Queue<Packet> queue = new ConcurrentLinkedQueue<Packet>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // only accessed by the thread owning the sending flag
+        private final Packet[] batch = new Packet[MAX_BATCH_SIZE];
+
+        ResponseBatcher(Address target) {
+            this.target = target;
+        }
+
+        boolean send(Packet packet) {
+            queue.offer(packet);
+            return drain();
+        }
+
+        @Override
+        public void run() {
+            drain();
+        }
+
+        private boolean drain() {
+            boolean sent = true;
+            int batches = 0;
+            // a packet offered after our last poll but before the flag is released, is sent by the next round
+            while (!queue.isEmpty() && sending.compareAndSet(false, true)) {
+                try {
+                    while (batches < MAX_BATCHES_PER_SEND) {
+                        Packet next = nextPacket();
+                        if (next == null) {
+                            break;
+                        }
+                        sent &= transmit(target, next);
+                        batches++;
+                    }
+                } finally {
+                    sending.set(false);
+                }
+                if (batches == MAX_BATCHES_PER_SEND) {
+                    scheduleDrain();
+                    break;
+                }
+            }
+            return sent;
+        }
+
+        private void scheduleDrain() {
+            try {
+                node.getNodeEngine().getExecutionService().execute(ASYNC_EXECUTOR, this);
+            } catch (RejectedExecutionException e) {
+                // the node is shutting down, the remaining responses are not needed anymore
+                logger.finest("Dropping the responses queued for " + target, e);
+            }
+        }
+
+        private Packet nextPacket() {
+            Packet first = queue.poll();
+            if (first == null) {
+                return null;
+            }
+            Packet second = queue.poll();
+            if (second == null) {
+                return first;
+            }
+
+            batch[0] = first;
+            batch[1] = second;
+            int count = 2;
+            while (count < MAX_BATCH_SIZE) {
+                Packet packet = queue.poll();
+                if (packet == null) {
+                    break;
+                }
+                batch[count++] = packet;
+            }
+            return toMultiResponsePacket(batch, count);
+        }
+    }
 }
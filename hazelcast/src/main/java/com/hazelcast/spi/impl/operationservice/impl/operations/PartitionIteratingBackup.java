@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl.operations;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.AllowedDuringPassiveState;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+
+/**
+ * Carries the {@link Backup}s of the partition operations of a {@link PartitionIteratingOperation} for many
+ * partitions to a member at once. The batch is split up again as soon as it arrives, before the packets received
+ * after it are handled: every backup is executed on the thread of its partition, just like a backup sent on its own.
+ * So the batch itself is never run.
+ *
+ * @see com.hazelcast.spi.impl.operationservice.impl.BackupBatch
+ * @see com.hazelcast.nio.Packet#FLAG_OP_BACKUP_BATCH
+ */
+public final class PartitionIteratingBackup extends Operation implements AllowedDuringPassiveState,
+        IdentifiedDataSerializable {
+
+    private Backup[] backups;
+
+    public PartitionIteratingBackup() {
+    }
+
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public PartitionIteratingBackup(Backup[] backups) {
+        this.backups = backups;
+    }
+
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public Backup[] getBackups() {
+        return backups;
+    }
+
+    @Override
+    public void run() throws Exception {
+        throw new UnsupportedOperationException("A batch of backups is split up on arrival");
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public boolean validatesTarget() {
+        return false;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SpiDataSerializerHook.PARTITION_ITERATING_BACKUP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+
+        out.writeInt(backups.length);
+        for (Backup backup : backups) {
+            out.writeObject(backup);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+
+        backups = new Backup[in.readInt()];
+        for (int k = 0; k < backups.length; k++) {
+            backups[k] = in.readObject();
+        }
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+
+        sb.append(", backups=").append(backups.length);
+    }
+}
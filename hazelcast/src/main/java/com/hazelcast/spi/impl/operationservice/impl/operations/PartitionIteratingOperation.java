@@ -27,6 +27,7 @@ import com.hazelcast.spi.OperationFactory;
 import com.hazelcast.spi.OperationResponseHandler;
 import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import com.hazelcast.spi.impl.operationservice.impl.BackupBatch;
 import com.hazelcast.spi.impl.operationservice.impl.OperationServiceImpl;
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.NormalResponse;
@@ -46,6 +47,9 @@ import static com.hazelcast.spi.impl.operationservice.impl.operations.PartitionA
  * the child requests are done. In 3.8 this is made asynchronous so that the thread isn't consumed and available for
  * other tasks. On each partition operation an {@link OperationResponseHandler} is set, that sends the result to the
  * caller when all responses have completed.
+ * <p>
+ * If enabled, the backups of the partition operations are collected in a {@link BackupBatch} which is sent when all
+ * responses have completed, see {@link com.hazelcast.spi.properties.GroupProperty#OPERATION_BACKUP_BATCH_ENABLED}.
  */
 public final class PartitionIteratingOperation extends Operation implements IdentifiedDataSerializable {
 
@@ -61,6 +65,8 @@ public final class PartitionIteratingOperation extends Operation implements Iden
     private OperationFactory operationFactory;
     private int[] partitions;
 
+    private transient OperationResponseHandlerImpl responseHandler;
+
     public PartitionIteratingOperation() {
     }
 
@@ -78,6 +84,21 @@ public final class PartitionIteratingOperation extends Operation implements Iden
         return operationFactory;
     }
 
+    /**
+     * Returns the batch the backups of the given operation are added to.
+     *
+     * @param op the operation
+     * @return the batch, or null if the operation isn't a partition operation of a PartitionIteratingOperation or if
+     * backups aren't batched
+     */
+    public static BackupBatch getBackupBatch(Operation op) {
+        OperationResponseHandler responseHandler = op.getOperationResponseHandler();
+        if (responseHandler instanceof PartitionIteratingOperation.OperationResponseHandlerImpl) {
+            return ((PartitionIteratingOperation.OperationResponseHandlerImpl) responseHandler).backupBatch;
+        }
+        return null;
+    }
+
     @Override
     public boolean returnsResponse() {
         // since this call is non blocking, we don't have a response. The response is send when the actual operations complete.
@@ -104,6 +125,10 @@ public final class PartitionIteratingOperation extends Operation implements Iden
 
     @Override
     public void onExecutionFailure(Throwable cause) {
+        if (responseHandler != null) {
+            // send the backups of the partition operations that have been executed
+            responseHandler.flushBackups();
+        }
         try {
             // we also send a response so that the caller doesn't wait indefinitely.
             sendResponse(new ErrorResponse(cause, getCallId(), isUrgent()));
@@ -116,7 +141,7 @@ public final class PartitionIteratingOperation extends Operation implements Iden
 
     private void executeOperations() {
         NodeEngine nodeEngine = getNodeEngine();
-        OperationResponseHandler responseHandler = new OperationResponseHandlerImpl(partitions);
+        responseHandler = new OperationResponseHandlerImpl(partitions);
         OperationService operationService = nodeEngine.getOperationService();
         Object service = getServiceName() == null ? null : getService();
 
@@ -139,7 +164,7 @@ public final class PartitionIteratingOperation extends Operation implements Iden
         NodeEngine nodeEngine = getNodeEngine();
         PartitionAwareOperationFactory factory = givenFactory.createFactoryOnRunner(nodeEngine, partitions);
 
-        OperationResponseHandler responseHandler = new OperationResponseHandlerImpl(partitions);
+        responseHandler = new OperationResponseHandlerImpl(partitions);
         OperationService operationService = nodeEngine.getOperationService();
         Object service = getServiceName() == null ? null : getService();
 
@@ -215,12 +240,20 @@ public final class PartitionIteratingOperation extends Operation implements Iden
         // contains the number of pending operations. If it hits zero, all responses have been received.
         private final AtomicInteger pendingOperations;
         private final int[] partitions;
+        // collects the backups of the partition operations; null if backups aren't batched
+        private final BackupBatch backupBatch = getOperationServiceImpl().newBackupBatch();
 
         OperationResponseHandlerImpl(int[] partitions) {
             this.partitions = partitions;
             this.pendingOperations = new AtomicInteger(partitions.length);
         }
 
+        void flushBackups() {
+            if (backupBatch != null) {
+                backupBatch.flush();
+            }
+        }
+
         @Override
         public void sendResponse(Operation op, Object response) {
             if (response instanceof NormalResponse) {
@@ -241,6 +274,7 @@ public final class PartitionIteratingOperation extends Operation implements Iden
             // if it is the last response we are waiting for, we can send the final response to the caller.
             if (pendingOperations.decrementAndGet() == 0) {
                 try {
+                    flushBackups();
                     sendResponse();
                 } finally {
                     getOperationServiceImpl().onCompletionAsyncOperation(PartitionIteratingOperation.this);
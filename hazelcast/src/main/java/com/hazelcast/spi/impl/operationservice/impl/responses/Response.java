@@ -44,6 +44,13 @@ public abstract class Response implements IdentifiedDataSerializable {
     public static final int OFFSET_CALL_ID = OFFSET_TYPE_ID + INT_SIZE_IN_BYTES;
     public static final int OFFSET_URGENT = OFFSET_CALL_ID + LONG_SIZE_IN_BYTES;
     public static final int RESPONSE_SIZE_IN_BYTES = OFFSET_URGENT + 1;
+    /**
+     * The offset of the number of responses in a packet holding several responses. The count is followed by the
+     * length and the bytes of every response.
+     *
+     * @see com.hazelcast.spi.impl.SpiDataSerializerHook#MULTI_RESPONSE
+     */
+    public static final int OFFSET_RESPONSE_COUNT = RESPONSE_SIZE_IN_BYTES;
 
     protected long callId;
     protected boolean urgent;
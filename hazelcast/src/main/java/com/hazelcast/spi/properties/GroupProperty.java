@@ -23,6 +23,7 @@ import com.hazelcast.instance.BuildInfo;
 import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.internal.cluster.fd.ClusterFailureDetectorType;
 import com.hazelcast.internal.diagnostics.HealthMonitorLevel;
+import com.hazelcast.internal.networking.nio.IOTransport;
 import com.hazelcast.map.QueryResultSizeExceededException;
 import com.hazelcast.map.impl.query.QueryResultSizeLimiter;
 import com.hazelcast.query.TruePredicate;
@@ -108,6 +109,17 @@ public final class GroupProperty {
     public static final HazelcastProperty RESPONSE_THREAD_COUNT
             = new HazelcastProperty("hazelcast.operation.response.thread.count", 2);
 
+    /**
+     * If small responses and backup acks sent concurrently to the same member should be combined into a single
+     * packet. There is no waiting for more responses: the thread that sends a response also sends the responses
+     * queued up by other threads in the meantime. So the responses are only combined under load, e.g. when many
+     * partition threads acknowledge sync backups at the same time.
+     * <p>
+     * All members need to support it, so it is disabled by default.
+     */
+    public static final HazelcastProperty RESPONSE_BATCH_ENABLED
+            = new HazelcastProperty("hazelcast.operation.response.batch.enabled", false);
+
     /**
      * The number of threads that the client engine has available for processing requests that are not partition specific.
      * Most of the requests, such as {@code map.put} and {@code map.get}, are partition specific and will use a
@@ -203,6 +215,37 @@ public final class GroupProperty {
     public static final HazelcastProperty IO_OUTPUT_THREAD_COUNT
             = new HazelcastProperty("hazelcast.io.output.thread.count", IO_THREAD_COUNT);
 
+    /**
+     * The idle strategy of the I/O threads. With {@code block} the I/O threads block on the selector as configured by
+     * the {@code hazelcast.io.selectorMode} system property. Otherwise they poll the selector without blocking and idle
+     * with the configured strategy:
+     * <ul>
+     * <li>{@code busyspin}: spin, for the lowest latency on dedicated cores</li>
+     * <li>{@code backoff} or {@code backoff,<maxSpins>,<maxYields>,<minParkNanos>,<maxParkNanos>}: spin, yield and then
+     * park with an exponentially growing timeout</li>
+     * <li>{@code hybrid} or {@code hybrid,<maxSpins>,<maxYields>}: spin, yield and then block on the selector</li>
+     * </ul>
+     * The same values are accepted by the {@code hazelcast.operation.partitionthread.idlestrategy} and
+     * {@code hazelcast.operation.responsequeue.idlestrategy} properties of the partition and response threads.
+     * <p/>
+     * The default is {@code block}.
+     */
+    public static final HazelcastProperty IO_IDLE_STRATEGY
+            = new HazelcastProperty("hazelcast.io.idlestrategy", "block");
+
+    /**
+     * If a thread that isn't an I/O thread, e.g. a partition thread sending a response, should write a packet to the
+     * socket itself when the connection has nothing else pending, instead of handing it off to an output thread. The
+     * output thread only takes over when the socket is full. This saves a thread hand-off per packet at the price of
+     * the writing thread doing the socket write.
+     * <p/>
+     * Combined with {@link #RESPONSE_THREAD_COUNT} set to 0, which makes the input threads handle the responses,
+     * neither the request nor the response of a remote partition operation is handed off to another thread except
+     * for the partition thread executing it.
+     */
+    public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
+            = new HazelcastProperty("hazelcast.io.write.through.enabled", false);
+
     /**
      * The interval in seconds between {@link com.hazelcast.internal.networking.nio.iobalancer.IOBalancer IOBalancer}
      * executions. The shorter intervals will catch I/O Imbalance faster, but they will cause higher overhead.
@@ -215,6 +258,29 @@ public final class GroupProperty {
     public static final HazelcastProperty IO_BALANCER_INTERVAL_SECONDS
             = new HazelcastProperty("hazelcast.io.balancer.interval.seconds", 20, SECONDS);
 
+    /**
+     * Enables the adaptive {@link com.hazelcast.internal.networking.nio.iobalancer.IOBalancer IOBalancer} strategy,
+     * which balances the I/O threads by the bytes, the pending frames and the time-in-queue of their pipelines,
+     * smoothed over several balancer executions and damped by hysteresis, instead of by the load configured with
+     * the {@code hazelcast.io.load} system property.
+     * <p/>
+     * The default is {@code false}.
+     */
+    public static final HazelcastProperty IO_BALANCER_ADAPTIVE
+            = new HazelcastProperty("hazelcast.io.balancer.adaptive", false);
+
+    /**
+     * The transport used by the socket input and output threads: {@code nio} or {@code epoll}.
+     * <p/>
+     * With {@code epoll} every socket is drained on each selection event, the way an edge-triggered epoll event
+     * loop does, and the socket buffers are direct bytebuffers. It requires the platform selector to be epoll
+     * based, i.e. Linux; on other platforms {@code nio} is used.
+     * <p/>
+     * The default is {@code nio}.
+     */
+    public static final HazelcastProperty IO_TRANSPORT
+            = new HazelcastProperty("hazelcast.io.transport", IOTransport.NIO_STRING);
+
     @SuppressWarnings("checkstyle:constantname")
     public static final HazelcastProperty PREFER_IPv4_STACK
             = new HazelcastProperty("hazelcast.prefer.ipv4.stack", true);
@@ -275,6 +341,21 @@ public final class GroupProperty {
     public static final HazelcastProperty FAIL_ON_INDETERMINATE_OPERATION_STATE
             = new HazelcastProperty("hazelcast.operation.fail.on.indeterminate.state", false);
 
+    /**
+     * If the backups of the partition operations executed for an operation on many partitions, e.g. an
+     * {@code IMap.putAll()}, should be batched. When enabled, the backups for all partitions of such an operation are
+     * sent to a member as a single operation instead of one operation per partition.
+     * <p/>
+     * Batched backups are sent once all partition operations have completed. When another backup of one of these
+     * partitions is sent earlier, e.g. by a concurrent {@code IMap.put()}, the batch is sent first. The receiving member
+     * splits up the batch as soon as it arrives, so the backups of a partition are applied in the order they were sent.
+     * It is ignored if {@link #SOCKET_CONNECTIONS_PER_MEMBER} is greater than 1, since the batch and the other backups
+     * of its partitions could take different connections then. All members need to support it, so it is disabled by
+     * default.
+     */
+    public static final HazelcastProperty OPERATION_BACKUP_BATCH_ENABLED
+            = new HazelcastProperty("hazelcast.operation.backup.batch.enabled", false);
+
     /**
      * Maximum number of retries for an invocation. After threshold is reached, invocation is assumed as failed.
      */
@@ -311,6 +392,54 @@ public final class GroupProperty {
     public static final HazelcastProperty SOCKET_BUFFER_DIRECT
             = new HazelcastProperty("hazelcast.socket.buffer.direct", false);
 
+    /**
+     * If large packet payloads should be written to the socket by reference with gathering writes (true), instead of
+     * being copied into the socket bytebuffer first (false).
+     */
+    public static final HazelcastProperty SOCKET_GATHERING_WRITE_ENABLED
+            = new HazelcastProperty("hazelcast.socket.gathering.write.enabled", false);
+
+    /**
+     * The maximum number of bytebuffers written by a single gathering write. Every referenced payload takes a bytebuffer
+     * and so does the data copied in between. Keep it below the JDK's per-thread cache of temporary direct bytebuffers
+     * (16 by default), or heap payloads make the JDK allocate direct bytebuffers.
+     */
+    public static final HazelcastProperty SOCKET_GATHERING_WRITE_MAX_BUFFERS
+            = new HazelcastProperty("hazelcast.socket.gathering.write.max.buffers", 16);
+
+    /**
+     * The maximum number of bytes gathered for a single gathering write.
+     */
+    public static final HazelcastProperty SOCKET_GATHERING_WRITE_MAX_BYTES
+            = new HazelcastProperty("hazelcast.socket.gathering.write.max.bytes", 1024 * 1024);
+
+    /**
+     * If the payloads of large packets sent to other members should be compressed (true) or not (false). A connection
+     * only carries compressed packets if the members on both sides enabled compression; payloads which don't get
+     * smaller are sent as they are.
+     */
+    public static final HazelcastProperty SOCKET_COMPRESSION_ENABLED
+            = new HazelcastProperty("hazelcast.socket.compression.enabled", false);
+
+    /**
+     * The minimum size in bytes of a packet payload to be compressed. Smaller payloads, e.g. those of most
+     * operation responses, aren't worth compressing.
+     */
+    public static final HazelcastProperty SOCKET_COMPRESSION_THRESHOLD
+            = new HazelcastProperty("hazelcast.socket.compression.threshold", 1024);
+
+    /**
+     * The number of connections between each pair of members. If more than one, the member with the lower address
+     * opens the additional connections once the first connection is bound, and the partition specific packets
+     * between the members are spread over the connections by partition id, so the traffic isn't limited by a single
+     * socket and pair of io threads. The packets of a partition always use the same connection, so their order
+     * is preserved.
+     * <p>
+     * All members of a cluster should use the same value.
+     */
+    public static final HazelcastProperty SOCKET_CONNECTIONS_PER_MEMBER
+            = new HazelcastProperty("hazelcast.socket.connections.per.member", 1);
+
 
     /**
      * Overrides receive buffer size for connections opened by clients.
@@ -691,6 +820,18 @@ public final class GroupProperty {
     public static final HazelcastProperty CACHE_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS
             = new HazelcastProperty("hazelcast.cache.invalidation.batchfrequency.seconds", 10, SECONDS);
 
+    /**
+     * Defines whether cache invalidation events are batched adaptively.
+     * <p/>
+     * In adaptive mode, a key which is written again while its invalidation is still waiting to be sent is not
+     * invalidated a second time, the batch size grows up to 16 times {@link #CACHE_INVALIDATION_MESSAGE_BATCH_SIZE}
+     * while batches fill up faster than every 100 milliseconds, and the batches sent to members are written in a
+     * compact form.
+     * All members of the cluster must support adaptive mode before it is enabled.
+     */
+    public static final HazelcastProperty CACHE_INVALIDATION_MESSAGE_BATCH_ADAPTIVE_ENABLED
+            = new HazelcastProperty("hazelcast.cache.invalidation.batch.adaptive.enabled", false);
+
     /**
      * Defines Near Cache invalidation event batch sending is enabled or not.
      */
@@ -712,6 +853,18 @@ public final class GroupProperty {
     public static final HazelcastProperty MAP_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS
             = new HazelcastProperty("hazelcast.map.invalidation.batchfrequency.seconds", 10, SECONDS);
 
+    /**
+     * Defines whether Near Cache invalidation events are batched adaptively.
+     * <p/>
+     * In adaptive mode, a key which is written again while its invalidation is still waiting to be sent is not
+     * invalidated a second time, the batch size grows up to 16 times {@link #MAP_INVALIDATION_MESSAGE_BATCH_SIZE}
+     * while batches fill up faster than every 100 milliseconds, and the batches sent to members are written in a
+     * compact form.
+     * All members of the cluster must support adaptive mode before it is enabled.
+     */
+    public static final HazelcastProperty MAP_INVALIDATION_MESSAGE_BATCH_ADAPTIVE_ENABLED
+            = new HazelcastProperty("hazelcast.map.invalidation.batch.adaptive.enabled", false);
+
     /**
      * Using back pressure, you can prevent an overload of pending asynchronous backups. With a map with a
      * single asynchronous backup, producing asynchronous backups could happen at a higher rate than
@@ -841,6 +994,7 @@ public final class GroupProperty {
      * Valid Values:
      * <ul>
      * <li>RULES - for optimizations based on static rules</li>
+     * <li>COST_BASED - for optimizations based on static rules followed by planning based on index statistics</li>
      * <li>NONE - optimization are disabled</li>
      * </ul>
      * <p/>
@@ -903,6 +1057,21 @@ public final class GroupProperty {
     public static final HazelcastProperty INDEX_COPY_BEHAVIOR
             = new HazelcastProperty("hazelcast.index.copy.behavior", IndexCopyBehavior.COPY_ON_READ.toString());
 
+    /**
+     * Maintains the indexes of on-heap maps per partition instead of per member.
+     * <p/>
+     * By default, a single global index per map indexes the entries of all the partitions owned by a member, so it's
+     * updated concurrently by all the partition threads. With partitioned indexes, each partition has its own indexes,
+     * updated and queried only by the thread owning the partition: writes don't contend on shared index structures,
+     * while indexed queries are executed by the partition threads, in parallel. Partitioned indexes follow the
+     * {@link #INDEX_COPY_BEHAVIOR} like global ones. The indexes of a partition are dropped as a whole when the
+     * partition migrates away and rebuilt on the destination while the replicated records are applied.
+     * <p/>
+     * The indexes of NATIVE maps are always partitioned.
+     */
+    public static final HazelcastProperty INDEX_PARTITIONED
+            = new HazelcastProperty("hazelcast.index.partitioned", false);
+
     /**
      * Forces the JCache provider, which can have values client or server, to force the provider type.
      * If not provided, the provider will be client or server, whichever is found on the classpath first respectively.
@@ -0,0 +1,533 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+
+/**
+ * Ordered map specialised for {@code long} keys, laid out as a B+tree: inner nodes of separator keys over
+ * fixed-capacity leaves which hold the keys and values in sorted primitive arrays and are linked in key order.
+ * Ordered traversal is served by a {@link Cursor}, so neither lookups nor range scans box the keys.
+ * <p>
+ * Both the leaves and the inner nodes have a bounded capacity, so an update copies at most one node per level of
+ * the tree when a node is split or merged, and a lookup takes a binary search per level.
+ * <p>
+ * NOTE: This map is not thread-safe and doesn't support {@code null} values.
+ *
+ * @param <V> values stored in the map
+ */
+public final class Long2ObjectSortedMap<V> {
+
+    /** Maximum number of keys in a leaf */
+    static final int LEAF_CAPACITY = 64;
+    /** Maximum number of children of an inner node */
+    static final int INNER_CAPACITY = 64;
+
+    private static final int LEAF_MERGE_THRESHOLD = LEAF_CAPACITY / 4;
+    private static final int INNER_MERGE_THRESHOLD = INNER_CAPACITY / 4;
+
+    private Node root;
+    private int size;
+
+    // set by the insertion into a node which had to be split: the new right sibling and its lowest key
+    private Node splitNode;
+    private long splitKey;
+
+    public Long2ObjectSortedMap() {
+        clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the value mapped to the given key, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Leaf leaf = leaf(key);
+        int index = leaf.indexOf(key);
+        return index >= 0 ? (V) leaf.values[index] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return leaf(key).indexOf(key) >= 0;
+    }
+
+    /**
+     * Maps the given key to the given value.
+     *
+     * @return the previous value mapped to the key, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        checkNotNull(value, "Null values are not supported");
+        V previous = (V) put(root, key, value);
+        if (splitNode != null) {
+            Inner newRoot = new Inner();
+            newRoot.children[0] = root;
+            newRoot.children[1] = splitNode;
+            newRoot.keys[0] = splitKey;
+            newRoot.count = 2;
+            root = newRoot;
+            splitNode = null;
+        }
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the mapping of the given key.
+     *
+     * @return the removed value, or {@code null} if the key was not mapped
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        V removed = (V) remove(root, key);
+        if (removed == null) {
+            return null;
+        }
+        size--;
+        if (root instanceof Inner && root.count == 1) {
+            root = ((Inner) root).children[0];
+        }
+        return removed;
+    }
+
+    public void clear() {
+        root = new Leaf();
+        size = 0;
+    }
+
+    /**
+     * @return a cursor over all the mappings in ascending key order
+     */
+    public Cursor<V> cursor() {
+        Node node = root;
+        while (node instanceof Inner) {
+            node = ((Inner) node).children[0];
+        }
+        return new Cursor<V>((Leaf) node, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a cursor over the mappings whose keys are within the given bounds, in ascending key order.
+     *
+     * @param from          the lower bound
+     * @param fromInclusive whether the lower bound itself is included
+     * @param to            the upper bound
+     * @param toInclusive   whether the upper bound itself is included
+     */
+    public Cursor<V> cursor(long from, boolean fromInclusive, long to, boolean toInclusive) {
+        Leaf leaf = leaf(from);
+        int index = leaf.indexOf(from);
+        if (index < 0) {
+            index = -index - 1;
+        } else if (!fromInclusive) {
+            index++;
+        }
+        if (!toInclusive) {
+            if (to == Long.MIN_VALUE) {
+                return new Cursor<V>(null, 0, to);
+            }
+            to--;
+        }
+        return new Cursor<V>(leaf, index, to);
+    }
+
+    private Leaf leaf(long key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[inner.childIndex(key)];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * Inserts the mapping into the subtree of the given node; if the node has to be split, the new right sibling
+     * is left in {@link #splitNode}.
+     *
+     * @return the previous value mapped to the key, or {@code null} if there was none
+     */
+    private Object put(Node node, long key, Object value) {
+        if (node instanceof Leaf) {
+            return put((Leaf) node, key, value);
+        }
+
+        Inner inner = (Inner) node;
+        int childIndex = inner.childIndex(key);
+        Object previous = put(inner.children[childIndex], key, value);
+        if (splitNode == null) {
+            return previous;
+        }
+
+        Node child = splitNode;
+        long childKey = splitKey;
+        splitNode = null;
+        int insertionPoint = childIndex + 1;
+        if (inner.count == INNER_CAPACITY) {
+            Inner right = inner.split();
+            long promotedKey = inner.keys[inner.count - 1];
+            if (insertionPoint > inner.count) {
+                right.insert(insertionPoint - inner.count, childKey, child);
+            } else {
+                inner.insert(insertionPoint, childKey, child);
+            }
+            splitNode = right;
+            splitKey = promotedKey;
+        } else {
+            inner.insert(insertionPoint, childKey, child);
+        }
+        return previous;
+    }
+
+    private Object put(Leaf leaf, long key, Object value) {
+        int index = leaf.indexOf(key);
+        if (index >= 0) {
+            Object previous = leaf.values[index];
+            leaf.values[index] = value;
+            return previous;
+        }
+
+        int insertionPoint = -index - 1;
+        if (leaf.count == LEAF_CAPACITY) {
+            Leaf right = leaf.split();
+            if (insertionPoint > leaf.count) {
+                right.insert(insertionPoint - leaf.count, key, value);
+            } else {
+                leaf.insert(insertionPoint, key, value);
+            }
+            splitNode = right;
+            splitKey = right.keys[0];
+        } else {
+            leaf.insert(insertionPoint, key, value);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping from the subtree of the given node; a child left with too few entries is merged with
+     * or refilled from a sibling.
+     *
+     * @return the removed value, or {@code null} if the key was not mapped
+     */
+    private Object remove(Node node, long key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = leaf.indexOf(key);
+            if (index < 0) {
+                return null;
+            }
+            Object removed = leaf.values[index];
+            leaf.delete(index);
+            return removed;
+        }
+
+        Inner inner = (Inner) node;
+        int childIndex = inner.childIndex(key);
+        Object removed = remove(inner.children[childIndex], key);
+        if (removed != null && isUnderflowing(inner.children[childIndex])) {
+            rebalance(inner, childIndex);
+        }
+        return removed;
+    }
+
+    private static boolean isUnderflowing(Node node) {
+        return node.count < (node instanceof Leaf ? LEAF_MERGE_THRESHOLD : INNER_MERGE_THRESHOLD);
+    }
+
+    /**
+     * Merges the underflowing child with a sibling if both fit into one node, otherwise moves one entry of the
+     * sibling over.
+     */
+    private static void rebalance(Inner parent, int childIndex) {
+        int leftIndex = childIndex + 1 < parent.count ? childIndex : childIndex - 1;
+        Node left = parent.children[leftIndex];
+        Node right = parent.children[leftIndex + 1];
+        int capacity = left instanceof Leaf ? LEAF_CAPACITY : INNER_CAPACITY;
+        if (left.count + right.count <= capacity) {
+            if (left instanceof Leaf) {
+                ((Leaf) left).append((Leaf) right);
+            } else {
+                ((Inner) left).append(parent.keys[leftIndex], (Inner) right);
+            }
+            parent.delete(leftIndex + 1);
+        } else if (left instanceof Leaf) {
+            parent.keys[leftIndex] = ((Leaf) left).moveOne((Leaf) right, leftIndex == childIndex);
+        } else {
+            parent.keys[leftIndex] = ((Inner) left).moveOne(parent.keys[leftIndex], (Inner) right,
+                    leftIndex == childIndex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        Cursor<V> cursor = cursor();
+        while (cursor.advance()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(cursor.key()).append('=').append(cursor.value());
+        }
+        return sb.append('}').toString();
+    }
+
+    private abstract static class Node {
+
+        // the number of keys of a leaf, the number of children of an inner node
+        int count;
+    }
+
+    private static final class Inner extends Node {
+
+        // keys[i] is greater than all keys of children[i] and less than or equal to all keys of children[i + 1]
+        final long[] keys = new long[INNER_CAPACITY - 1];
+        final Node[] children = new Node[INNER_CAPACITY];
+
+        int childIndex(long key) {
+            int low = 0;
+            int high = count - 2;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Inserts the child at the given index, {@code key} being its lowest key.
+         */
+        void insert(int index, long key, Node child) {
+            System.arraycopy(keys, index - 1, keys, index, count - index);
+            System.arraycopy(children, index, children, index + 1, count - index);
+            keys[index - 1] = key;
+            children[index] = child;
+            count++;
+        }
+
+        /**
+         * Deletes the child at the given index, which is greater than 0, together with its separator key.
+         */
+        void delete(int index) {
+            System.arraycopy(keys, index, keys, index - 1, count - index - 1);
+            System.arraycopy(children, index + 1, children, index, count - index - 1);
+            count--;
+            children[count] = null;
+        }
+
+        /**
+         * Moves the upper half of this node's children into a new node. The separator key between the halves
+         * is left behind as the last key of this node.
+         */
+        Inner split() {
+            Inner right = new Inner();
+            int half = count >>> 1;
+            right.count = count - half;
+            System.arraycopy(children, half, right.children, 0, right.count);
+            System.arraycopy(keys, half, right.keys, 0, right.count - 1);
+            Arrays.fill(children, half, count, null);
+            count = half;
+            return right;
+        }
+
+        void append(long separator, Inner other) {
+            keys[count - 1] = separator;
+            System.arraycopy(other.keys, 0, keys, count, other.count - 1);
+            System.arraycopy(other.children, 0, children, count, other.count);
+            count += other.count;
+        }
+
+        /**
+         * Moves one child between this node and its right sibling and rotates the separator key through.
+         *
+         * @param toLeft whether the child moves from the right sibling to this node
+         * @return the new separator key between this node and its right sibling
+         */
+        long moveOne(long separator, Inner right, boolean toLeft) {
+            if (toLeft) {
+                keys[count - 1] = separator;
+                children[count] = right.children[0];
+                count++;
+                long newSeparator = right.keys[0];
+                System.arraycopy(right.keys, 1, right.keys, 0, right.count - 2);
+                System.arraycopy(right.children, 1, right.children, 0, right.count - 1);
+                right.count--;
+                right.children[right.count] = null;
+                return newSeparator;
+            }
+            System.arraycopy(right.keys, 0, right.keys, 1, right.count - 1);
+            System.arraycopy(right.children, 0, right.children, 1, right.count);
+            right.keys[0] = separator;
+            right.children[0] = children[count - 1];
+            right.count++;
+            count--;
+            children[count] = null;
+            return keys[count - 1];
+        }
+    }
+
+    private static final class Leaf extends Node {
+
+        final long[] keys = new long[LEAF_CAPACITY];
+        final Object[] values = new Object[LEAF_CAPACITY];
+        Leaf next;
+
+        int indexOf(long key) {
+            return Arrays.binarySearch(keys, 0, count, key);
+        }
+
+        void insert(int index, long key, Object value) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            System.arraycopy(values, index, values, index + 1, count - index);
+            keys[index] = key;
+            values[index] = value;
+            count++;
+        }
+
+        void delete(int index) {
+            System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+            System.arraycopy(values, index + 1, values, index, count - index - 1);
+            count--;
+            values[count] = null;
+        }
+
+        /**
+         * Moves the upper half of this leaf's mappings into a new leaf following this one.
+         */
+        Leaf split() {
+            Leaf right = new Leaf();
+            int half = count >>> 1;
+            right.count = count - half;
+            System.arraycopy(keys, half, right.keys, 0, right.count);
+            System.arraycopy(values, half, right.values, 0, right.count);
+            Arrays.fill(values, half, count, null);
+            count = half;
+            right.next = next;
+            next = right;
+            return right;
+        }
+
+        void append(Leaf other) {
+            System.arraycopy(other.keys, 0, keys, count, other.count);
+            System.arraycopy(other.values, 0, values, count, other.count);
+            count += other.count;
+            next = other.next;
+        }
+
+        /**
+         * Moves one mapping between this leaf and the following one.
+         *
+         * @param toLeft whether the mapping moves from the following leaf to this one
+         * @return the new lowest key of the following leaf
+         */
+        long moveOne(Leaf right, boolean toLeft) {
+            if (toLeft) {
+                insert(count, right.keys[0], right.values[0]);
+                right.delete(0);
+            } else {
+                right.insert(0, keys[count - 1], values[count - 1]);
+                delete(count - 1);
+            }
+            return right.keys[0];
+        }
+    }
+
+    /**
+     * Cursor over the mappings of a {@link Long2ObjectSortedMap} in ascending key order. Initially the
+     * cursor's location is before the first mapping and the cursor is invalid. The map must not be
+     * modified while a cursor over it is in use.
+     *
+     * @param <V> values stored in the map
+     */
+    public static final class Cursor<V> {
+
+        private final long to;
+        private Leaf next;
+        private int index;
+        private Leaf leaf;
+
+        Cursor(Leaf first, int firstIndex, long to) {
+            this.next = first;
+            this.index = firstIndex - 1;
+            this.to = to;
+        }
+
+        /**
+         * Advances to the next mapping.
+         *
+         * @return {@code true} if the cursor advanced, {@code false} if there are no more mappings within its bounds
+         */
+        public boolean advance() {
+            index++;
+            while (next != null) {
+                if (index < next.count) {
+                    if (next.keys[index] > to) {
+                        break;
+                    }
+                    leaf = next;
+                    return true;
+                }
+                next = next.next;
+                index = 0;
+            }
+            next = null;
+            leaf = null;
+            return false;
+        }
+
+        /**
+         * @return the key of the current mapping
+         * @throws NoSuchElementException if the cursor is invalid
+         */
+        public long key() {
+            checkValid();
+            return leaf.keys[index];
+        }
+
+        /**
+         * @return the value of the current mapping
+         * @throws NoSuchElementException if the cursor is invalid
+         */
+        @SuppressWarnings("unchecked")
+        public V value() {
+            checkValid();
+            return (V) leaf.values[index];
+        }
+
+        private void checkValid() {
+            if (leaf == null) {
+                throw new NoSuchElementException("Cursor is invalid");
+            }
+        }
+    }
+}
@@ -0,0 +1,559 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.util.Preconditions.checkNotNegative;
+
+/**
+ * Compressed set of non-negative {@code int}s, laid out the way roaring bitmaps are: the values are
+ * partitioned by their high 16 bits into chunks, each chunk is stored either as a sorted array of the
+ * low 16 bits, while it holds at most {@value #ARRAY_CONTAINER_MAX_SIZE} values, or as a plain bitmap
+ * of 1024 words otherwise. Dense sets cost about a bit per value and sparse sets two bytes per value.
+ * <p>
+ * The set operations {@link #and}, {@link #or} and {@link #andNot} produce new bitmaps, combining the
+ * chunks word by word where they are stored as bitmaps. Iteration is served by a {@link Cursor}.
+ * <p>
+ * NOTE: This bitmap is not thread-safe.
+ */
+public final class SparseBitmap {
+
+    /** Maximum number of values in a chunk stored as an array */
+    static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int LOW_MASK = 0xFFFF;
+    private static final int WORD_COUNT = (1 << CHUNK_BITS) / Long.SIZE;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = Long.SIZE - 1;
+    private static final int INITIAL_CAPACITY = 4;
+
+    // keys[i] holds the high 16 bits of the values in containers[i], sorted
+    private char[] keys;
+    private Container[] containers;
+    private int containerCount;
+
+    public SparseBitmap() {
+        keys = new char[INITIAL_CAPACITY];
+        containers = new Container[INITIAL_CAPACITY];
+    }
+
+    private SparseBitmap(int capacity) {
+        keys = new char[Math.max(capacity, 1)];
+        containers = new Container[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds the given value.
+     *
+     * @return {@code true} if the value was not present
+     */
+    public boolean add(int value) {
+        checkNotNegative(value, "value must not be negative");
+        char key = (char) (value >>> CHUNK_BITS);
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+        Container container = containers[index];
+        int cardinality = container.cardinality;
+        containers[index] = container.add((char) (value & LOW_MASK));
+        return containers[index].cardinality != cardinality;
+    }
+
+    /**
+     * Removes the given value.
+     *
+     * @return {@code true} if the value was present
+     */
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> CHUNK_BITS));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int cardinality = container.cardinality;
+        Container updated = container.remove((char) (value & LOW_MASK));
+        if (updated.cardinality == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = updated;
+        }
+        return updated.cardinality != cardinality;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> CHUNK_BITS));
+        return index >= 0 && containers[index].contains((char) (value & LOW_MASK));
+    }
+
+    /**
+     * @return the number of values in this bitmap
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < containerCount; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return containerCount == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(containers, 0, containerCount, null);
+        containerCount = 0;
+    }
+
+    /**
+     * @return a copy of this bitmap, independent of further changes to this bitmap
+     */
+    public SparseBitmap copy() {
+        SparseBitmap copy = new SparseBitmap(containerCount);
+        for (int i = 0; i < containerCount; i++) {
+            copy.keys[i] = keys[i];
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.containerCount = containerCount;
+        return copy;
+    }
+
+    /**
+     * @return a new bitmap holding the values present in both the given bitmaps
+     */
+    public static SparseBitmap and(SparseBitmap left, SparseBitmap right) {
+        SparseBitmap result = new SparseBitmap(Math.min(left.containerCount, right.containerCount));
+        int i = 0;
+        int j = 0;
+        while (i < left.containerCount && j < right.containerCount) {
+            int order = left.keys[i] - right.keys[j];
+            if (order < 0) {
+                i++;
+            } else if (order > 0) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(left.keys[i], left.containers[i].and(right.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new bitmap holding the values present in any of the given bitmaps
+     */
+    public static SparseBitmap or(SparseBitmap left, SparseBitmap right) {
+        SparseBitmap result = new SparseBitmap(left.containerCount + right.containerCount);
+        int i = 0;
+        int j = 0;
+        while (i < left.containerCount || j < right.containerCount) {
+            int order = i == left.containerCount ? 1 : j == right.containerCount ? -1 : left.keys[i] - right.keys[j];
+            if (order < 0) {
+                result.appendIfNotEmpty(left.keys[i], left.containers[i].copy());
+                i++;
+            } else if (order > 0) {
+                result.appendIfNotEmpty(right.keys[j], right.containers[j].copy());
+                j++;
+            } else {
+                result.appendIfNotEmpty(left.keys[i], left.containers[i].or(right.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a new bitmap holding the values present in the left bitmap and absent from the right one
+     */
+    public static SparseBitmap andNot(SparseBitmap left, SparseBitmap right) {
+        SparseBitmap result = new SparseBitmap(left.containerCount);
+        int j = 0;
+        for (int i = 0; i < left.containerCount; i++) {
+            while (j < right.containerCount && right.keys[j] < left.keys[i]) {
+                j++;
+            }
+            if (j < right.containerCount && right.keys[j] == left.keys[i]) {
+                result.appendIfNotEmpty(left.keys[i], left.containers[i].andNot(right.containers[j]));
+            } else {
+                result.appendIfNotEmpty(left.keys[i], left.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a cursor over the values of this bitmap in ascending order; the bitmap must not be
+     * modified while the cursor is in use
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SparseBitmap{");
+        Cursor cursor = cursor();
+        for (boolean first = true; cursor.advance(); first = false) {
+            sb.append(first ? "" : ", ").append(cursor.value());
+        }
+        return sb.append('}').toString();
+    }
+
+    private int indexOf(char key) {
+        int low = 0;
+        int high = containerCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char middleKey = keys[middle];
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (containerCount == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            containers = Arrays.copyOf(containers, containers.length * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+        keys[index] = key;
+        containers[index] = container;
+        containerCount++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+        containers[--containerCount] = null;
+    }
+
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.cardinality > 0) {
+            insertContainer(containerCount, key, container);
+        }
+    }
+
+    /**
+     * Cursor over the values of a {@link SparseBitmap}. It starts before the first value:
+     * call {@link #advance()} to move to the next one.
+     */
+    public final class Cursor {
+
+        private int containerIndex;
+        // position within the current container: an array index or a bit index
+        private int position = -1;
+        private int value = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next value.
+         *
+         * @return {@code true} if there is a next value, {@code false} if the cursor is exhausted
+         */
+        public boolean advance() {
+            while (containerIndex < containerCount) {
+                Container container = containers[containerIndex];
+                position = container.next(position);
+                if (position >= 0) {
+                    value = keys[containerIndex] << CHUNK_BITS | container.lowAt(position);
+                    return true;
+                }
+                containerIndex++;
+                position = -1;
+            }
+            value = -1;
+            return false;
+        }
+
+        /**
+         * @return the current value
+         * @throws NoSuchElementException if the cursor is not positioned at a value
+         */
+        public int value() {
+            if (value < 0) {
+                throw new NoSuchElementException();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Values of a chunk, represented by their low 16 bits.
+     */
+    private abstract static class Container {
+
+        int cardinality;
+
+        /** @return the container holding the value: this one or a converted one */
+        abstract Container add(char low);
+
+        /** @return the container without the value: this one or a converted one */
+        abstract Container remove(char low);
+
+        abstract boolean contains(char low);
+
+        abstract Container copy();
+
+        /** @return the position of the value following the given position, or {@code -1} if there is none */
+        abstract int next(int position);
+
+        abstract int lowAt(int position);
+
+        abstract long[] toWords();
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer) {
+                return ((ArrayContainer) this).filter(other, true);
+            }
+            if (other instanceof ArrayContainer) {
+                return ((ArrayContainer) other).filter(this, true);
+            }
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for (int i = 0; i < WORD_COUNT; i++) {
+                words[i] &= otherWords[i];
+            }
+            return BitmapContainer.of(words);
+        }
+
+        Container or(Container other) {
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for (int i = 0; i < WORD_COUNT; i++) {
+                words[i] |= otherWords[i];
+            }
+            return BitmapContainer.of(words);
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer) {
+                return ((ArrayContainer) this).filter(other, false);
+            }
+            long[] words = toWords();
+            long[] otherWords = other.toWords();
+            for (int i = 0; i < WORD_COUNT; i++) {
+                words[i] &= ~otherWords[i];
+            }
+            return BitmapContainer.of(words);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+
+        ArrayContainer() {
+            values = new char[INITIAL_CAPACITY];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_CONTAINER_MAX_SIZE) {
+                return new BitmapContainer(toWords(), cardinality).add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(values.length * 2, ARRAY_CONTAINER_MAX_SIZE));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        int next(int position) {
+            int next = position + 1;
+            return next < cardinality ? next : -1;
+        }
+
+        @Override
+        int lowAt(int position) {
+            return values[position];
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORD_COUNT];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> WORD_SHIFT] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        /**
+         * @return the values of this container which are present in the other one if {@code retain}
+         * is {@code true}, or absent from it otherwise
+         */
+        Container filter(Container other, boolean retain) {
+            char[] result = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == retain) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * @return a container holding the values of the given words, as an array if they are few
+         */
+        static Container of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > ARRAY_CONTAINER_MAX_SIZE) {
+                return new BitmapContainer(words, cardinality);
+            }
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < WORD_COUNT; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) (i << WORD_SHIFT | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+
+        @Override
+        Container add(char low) {
+            long bit = 1L << low;
+            int index = low >>> WORD_SHIFT;
+            if ((words[index] & bit) == 0) {
+                words[index] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long bit = 1L << low;
+            int index = low >>> WORD_SHIFT;
+            if ((words[index] & bit) != 0) {
+                words[index] &= ~bit;
+                cardinality--;
+                if (cardinality == ARRAY_CONTAINER_MAX_SIZE) {
+                    return of(words);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> WORD_SHIFT] & 1L << low) != 0;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        int next(int position) {
+            int from = position + 1;
+            int index = from >>> WORD_SHIFT;
+            if (index >= WORD_COUNT) {
+                return -1;
+            }
+            long word = words[index] & (-1L << (from & WORD_MASK));
+            while (word == 0) {
+                if (++index == WORD_COUNT) {
+                    return -1;
+                }
+                word = words[index];
+            }
+            return index << WORD_SHIFT | Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        int lowAt(int position) {
+            return position;
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+    }
+}
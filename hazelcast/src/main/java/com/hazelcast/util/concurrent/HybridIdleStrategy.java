@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.util.Preconditions.checkNotNegative;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+
+/**
+ * Idling strategy for threads which can block until they are notified of new work, e.g. the consumer of an
+ * {@link com.hazelcast.internal.util.concurrent.MPSCQueue} or an IO thread.
+ * <p/>
+ * Spin for maxSpins, then
+ * {@link Thread#yield()} for maxYields, then
+ * return {@code true} from {@link #idle(long)}, signalling the caller to block until it is notified.
+ * <p/>
+ * Unlike the {@link BackoffIdleStrategy}, which keeps polling with {@link LockSupport#parkNanos(long)}, a blocked thread
+ * doesn't consume any CPU; but the thread notifying it pays for the wake-up. So work arriving shortly after the previous
+ * work is picked up by a spinning or yielding thread without any wake-up, and an idle thread doesn't burn a core.
+ */
+public class HybridIdleStrategy implements IdleStrategy {
+
+    private static final int ARG_COUNT = 3;
+    private static final int ARG_MAX_SPINS = 1;
+    private static final int ARG_MAX_YIELDS = 2;
+
+    final long yieldThreshold;
+    final long blockThreshold;
+
+    /**
+     * Create a set of state tracking idle behavior
+     *
+     * @param maxSpins  to perform before moving to {@link Thread#yield()}
+     * @param maxYields to perform before blocking
+     */
+    public HybridIdleStrategy(long maxSpins, long maxYields) {
+        checkNotNegative(maxSpins, "maxSpins must be positive or zero");
+        checkNotNegative(maxYields, "maxYields must be positive or zero");
+        this.yieldThreshold = maxSpins;
+        this.blockThreshold = maxSpins + maxYields;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Once spinning and yielding are exhausted, this method returns {@code true} without pausing; the caller is
+     * expected to block then.
+     */
+    @Override
+    public boolean idle(long n) {
+        if (n < yieldThreshold) {
+            return false;
+        }
+        if (n < blockThreshold) {
+            Thread.yield();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates a new HybridIdleStrategy from a configuration like {@code "hybrid,<maxSpins>,<maxYields>"}.
+     */
+    public static HybridIdleStrategy createHybridIdleStrategy(String config) {
+        String[] args = config.split(",");
+        if (args.length != ARG_COUNT) {
+            throw new IllegalArgumentException(
+                    format("Invalid hybrid configuration '%s', 2 arguments expected", config));
+        }
+        long maxSpins = parseLong(args[ARG_MAX_SPINS]);
+        long maxYields = parseLong(args[ARG_MAX_YIELDS]);
+        return new HybridIdleStrategy(maxSpins, maxYields);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.aggregation;
+
+import com.hazelcast.aggregation.impl.ColumnarAccumulator;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.hazelcast.aggregation.TestSamples.createEntryWithValue;
+import static com.hazelcast.aggregation.TestSamples.createExtractableEntryWithValue;
+import static com.hazelcast.aggregation.impl.ColumnarAccumulator.accumulateAll;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ColumnarAccumulatorTest {
+
+    private static final int VALUE_COUNT = ColumnarAccumulator.COLUMN_SIZE * 3 + 7;
+
+    private final Random random = new Random();
+
+    @Test(timeout = TimeoutInMillis.MINUTE)
+    public void testLongSum() {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<Map.Entry<Long, Long>>();
+        long expectation = 0;
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            long value = random.nextInt();
+            expectation += value;
+            entries.add(createEntryWithValue(value));
+        }
+
+        Aggregator<Map.Entry<Long, Long>, Long> aggregator = Aggregators.longSum();
+        accumulateAll(aggregator, entries);
+
+        assertEquals(expectation, (long) aggregator.aggregate());
+    }
+
+    @Test(timeout = TimeoutInMillis.MINUTE)
+    public void testDoubleAverage_withAttributePath() {
+        List<Map.Entry<ValueContainer, ValueContainer>> entries = new ArrayList<Map.Entry<ValueContainer, ValueContainer>>();
+        Aggregator<Map.Entry<ValueContainer, ValueContainer>, Double> expectation = Aggregators.doubleAvg("doubleValue");
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            Map.Entry<ValueContainer, ValueContainer> entry = createExtractableEntryWithValue(
+                    new ValueContainer(random.nextDouble()));
+            expectation.accumulate(entry);
+            entries.add(entry);
+        }
+
+        Aggregator<Map.Entry<ValueContainer, ValueContainer>, Double> aggregator = Aggregators.doubleAvg("doubleValue");
+        accumulateAll(aggregator, entries);
+
+        assertEquals(expectation.aggregate(), aggregator.aggregate());
+    }
+
+    @Test(timeout = TimeoutInMillis.MINUTE)
+    public void testMinAndMax_keepTheTypeOfTheValues() {
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<Map.Entry<Integer, Integer>>();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            entries.add(createEntryWithValue(i - VALUE_COUNT / 2));
+        }
+
+        Aggregator<Map.Entry<Integer, Integer>, Integer> min = Aggregators.integerMin();
+        Aggregator<Map.Entry<Integer, Integer>, Integer> max = Aggregators.integerMax();
+        accumulateAll(min, entries);
+        accumulateAll(max, entries);
+
+        assertEquals(Integer.valueOf(-VALUE_COUNT / 2), min.aggregate());
+        assertEquals(Integer.valueOf(VALUE_COUNT - 1 - VALUE_COUNT / 2), max.aggregate());
+    }
+
+    @Test(timeout = TimeoutInMillis.MINUTE)
+    public void testMinAndMax_ofFloats() {
+        List<Map.Entry<Float, Float>> entries = new ArrayList<Map.Entry<Float, Float>>();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            entries.add(createEntryWithValue(i + 0.5f));
+        }
+
+        Aggregator<Map.Entry<Float, Float>, Float> min = Aggregators.comparableMin();
+        Aggregator<Map.Entry<Float, Float>, Float> max = Aggregators.comparableMax();
+        accumulateAll(min, entries);
+        accumulateAll(max, entries);
+
+        assertEquals(Float.valueOf(0.5f), min.aggregate());
+        assertEquals(Float.valueOf(VALUE_COUNT - 0.5f), max.aggregate());
+    }
+
+    @Test(timeout = TimeoutInMillis.MINUTE)
+    public void testMin_skipsNullValues() {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<Map.Entry<Long, Long>>();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            entries.add(createEntryWithValue(i % 10 == 0 ? null : (long) i));
+        }
+
+        Aggregator<Map.Entry<Long, Long>, Long> min = Aggregators.longMin();
+        accumulateAll(min, entries);
+
+        assertEquals(Long.valueOf(1), min.aggregate());
+    }
+
+    @Test(timeout = TimeoutInMillis.MINUTE)
+    public void testMin_ofNullValuesOnly() {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<Map.Entry<Long, Long>>();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            entries.add(TestSamples.<Long>createEntryWithValue(null));
+        }
+
+        Aggregator<Map.Entry<Long, Long>, Long> min = Aggregators.longMin();
+        accumulateAll(min, entries);
+
+        assertNull(min.aggregate());
+    }
+
+    @Test(timeout = TimeoutInMillis.MINUTE, expected = ClassCastException.class)
+    public void testLongSum_ofIntegers_fails() {
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<Map.Entry<Integer, Integer>>();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            entries.add(createEntryWithValue(i));
+        }
+
+        Aggregator aggregator = Aggregators.longSum();
+        accumulateAll(aggregator, entries);
+    }
+
+    @Test(timeout = TimeoutInMillis.MINUTE)
+    public void testNonColumnarAggregator() {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<Map.Entry<Long, Long>>();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            entries.add(createEntryWithValue((long) i));
+        }
+
+        Aggregator<Map.Entry<Long, Long>, Long> count = Aggregators.count();
+        accumulateAll(count, entries);
+
+        assertEquals(Long.valueOf(VALUE_COUNT), count.aggregate());
+    }
+}
@@ -28,6 +28,8 @@ import org.junit.runner.RunWith;
 import static com.hazelcast.config.MapIndexConfig.validateIndexAttribute;
 import static com.hazelcast.test.HazelcastTestSupport.assumeDifferentHashCodes;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelTest.class})
@@ -48,6 +50,44 @@ public class MapIndexConfigTest {
         assertEquals("__key#value", validateIndexAttribute("__key#value"));
     }
 
+    @Test
+    public void testValidation_withCompositeAttribute() {
+        assertEquals("tenant, status,ts", validateIndexAttribute("tenant, status,ts"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidation_withCompositeAttribute_emptyComponent() {
+        validateIndexAttribute("tenant,,ts");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidation_withCompositeAttribute_trailingSeparator() {
+        validateIndexAttribute("tenant,");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidation_withCompositeAttribute_duplicateComponent() {
+        validateIndexAttribute("tenant,status, tenant");
+    }
+
+    @Test
+    public void testValidation_withBitmapAttribute() {
+        assertEquals("bitmap(status)", validateIndexAttribute("bitmap(status)"));
+        assertTrue(new MapIndexConfig("bitmap( status )", false).isBitmap());
+        assertFalse(new MapIndexConfig("status", false).isBitmap());
+        assertEquals("status", MapIndexConfig.getBitmapIndexedAttribute("bitmap( status )"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidation_withBitmapAttribute_empty() {
+        validateIndexAttribute("bitmap( )");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValidation_withBitmapAttribute_composite() {
+        validateIndexAttribute("bitmap(tenant,status)");
+    }
+
     @Test
     public void testEqualsAndHashCode() {
         assumeDifferentHashCodes();
@@ -27,6 +27,7 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -85,6 +86,13 @@ public class NearCachePreloaderConfigTest {
         config.setStoreIntervalSeconds(-1);
     }
 
+    @Test
+    public void setStoreValues() {
+        config.setStoreValues(true);
+
+        assertTrue(config.isStoreValues());
+    }
+
     @Test
     public void testSerialization() {
         config.setEnabled(true);
@@ -102,4 +110,19 @@ public class NearCachePreloaderConfigTest {
         assertEquals(config.getStoreIntervalSeconds(), deserialized.getStoreIntervalSeconds());
         assertEquals(config.toString(), deserialized.toString());
     }
+
+    @Test
+    public void testSerialization_withStoreValues_keepsSerializedFormUnchanged() {
+        config.setEnabled(true);
+        config.setDirectory("myParentDirectory");
+
+        SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        Data serializedWithoutValues = serializationService.toData(config);
+        config.setStoreValues(true);
+        Data serialized = serializationService.toData(config);
+        NearCachePreloaderConfig deserialized = serializationService.toObject(serialized);
+
+        assertEquals(serializedWithoutValues, serialized);
+        assertFalse(deserialized.isStoreValues());
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.impl.AbstractCompletableFuture;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PipeliningTest extends HazelcastTestSupport {
+
+    private HazelcastInstance hz;
+
+    @Before
+    public void setup() {
+        hz = createHazelcastInstance();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_whenZeroDepth() {
+        new Pipelining<String>(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void add_whenNull() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(1);
+        pipelining.add(null);
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        IMap<Integer, String> map = hz.getMap(randomName());
+        for (int k = 0; k < 100; k++) {
+            map.put(k, "value-" + k);
+        }
+
+        Pipelining<String> pipelining = new Pipelining<String>(10);
+        for (int k = 0; k < 100; k++) {
+            pipelining.add(map.getAsync(k));
+        }
+
+        List<String> results = pipelining.results();
+        assertEquals(100, results.size());
+        for (int k = 0; k < 100; k++) {
+            assertEquals("value-" + k, results.get(k));
+        }
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void results_whenRequestFailed() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(1);
+        TestFuture future = new TestFuture();
+        pipelining.add(future);
+        future.complete(new ExecutionException(new RuntimeException("expected")));
+
+        pipelining.results();
+    }
+
+    @Test
+    public void add_whenDepthReached_thenWaitsTillRequestCompletes() throws Exception {
+        final Pipelining<String> pipelining = new Pipelining<String>(1);
+        TestFuture first = new TestFuture();
+        pipelining.add(first);
+
+        final TestFuture second = new TestFuture();
+        final CountDownLatch added = new CountDownLatch(1);
+        spawn(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pipelining.add(second);
+                    added.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        assertFalse(added.await(500, MILLISECONDS));
+
+        first.complete("first");
+        assertOpenEventually(added);
+
+        second.complete("second");
+        assertEquals(asList("first", "second"), pipelining.results());
+    }
+
+    @Test
+    public void add_whenFailedRequest_thenReleasesDepth() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(1);
+        TestFuture failed = new TestFuture();
+        failed.complete(new ExecutionException(new RuntimeException("expected")));
+        pipelining.add(failed);
+
+        TestFuture completed = new TestFuture();
+        completed.complete("value");
+        // doesn't block, since the failed request isn't outstanding anymore
+        pipelining.add(completed);
+    }
+
+    private static class TestFuture extends AbstractCompletableFuture<String> {
+
+        TestFuture() {
+            super(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            }, Logger.getLogger(TestFuture.class));
+        }
+
+        void complete(Object result) {
+            setResult(result);
+        }
+    }
+}
@@ -40,6 +40,11 @@ public class ConfigValidatorEvictionConfigTest extends HazelcastTestSupport {
         checkEvictionConfig(getEvictionConfig(false, false), false);
     }
 
+    @Test
+    public void checkEvictionConfig_forMapAndCache_withTinyLfu() {
+        checkEvictionConfig(getEvictionConfig(false, false, EvictionPolicy.TINY_LFU), false);
+    }
+
     @Test
     public void checkEvictionConfig_forNearCache() {
         checkEvictionConfig(getEvictionConfig(false, false, EvictionPolicy.RANDOM), true);
@@ -17,6 +17,7 @@
 package com.hazelcast.internal.config;
 
 import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.NativeMemoryConfig;
 import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -57,6 +58,14 @@ public class ConfigValidatorNearCacheConfigTest extends HazelcastTestSupport {
         checkNearCacheConfig(MAP_NAME, getNearCacheConfig(NATIVE), null, false);
     }
 
+    @Test
+    public void checkNearCacheConfig_NATIVE_withNativeMemoryEnabled() {
+        NativeMemoryConfig nativeMemoryConfig = new NativeMemoryConfig()
+                .setEnabled(true);
+
+        checkNearCacheConfig(MAP_NAME, getNearCacheConfig(NATIVE), nativeMemoryConfig, false);
+    }
+
     /**
      * Not supported client configuration, so test is expected to throw exception.
      */
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.eviction.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.internal.eviction.impl.FrequencySketch.MAX_FREQUENCY;
+import static com.hazelcast.internal.eviction.impl.FrequencySketch.hash;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class FrequencySketchTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_whenExpectedEntryCountNotPositive() {
+        new FrequencySketch(0);
+    }
+
+    @Test
+    public void frequency_whenNotIncremented() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        assertEquals(0, sketch.frequency(hash("key")));
+    }
+
+    @Test
+    public void frequency_countsIncrements() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(hash("key"));
+        }
+        sketch.increment(hash("otherKey"));
+
+        assertEquals(5, sketch.frequency(hash("key")));
+        assertEquals(1, sketch.frequency(hash("otherKey")));
+    }
+
+    @Test
+    public void frequency_isBoundedByMaxFrequency() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 2 * MAX_FREQUENCY; i++) {
+            sketch.increment(hash("key"));
+        }
+
+        assertEquals(MAX_FREQUENCY, sketch.frequency(hash("key")));
+    }
+
+    @Test
+    public void frequency_decaysAfterManyIncrements() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < MAX_FREQUENCY; i++) {
+            sketch.increment(hash("key"));
+        }
+        // the counters are halved after 10 increments per expected entry
+        for (int i = 0; i < 320; i++) {
+            sketch.increment(hash(i));
+        }
+
+        assertTrue(sketch.frequency(hash("key")) < MAX_FREQUENCY);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PooledMemoryManagerTest extends HazelcastTestSupport {
+
+    @ClassRule
+    public static final TestIgnoreRuleAccordingToUnsafeAvailability UNSAFE_AVAILABILITY_RULE
+            = new TestIgnoreRuleAccordingToUnsafeAvailability();
+
+    private static final int MIN_BLOCK_SIZE = 16;
+    private static final int PAGE_SIZE = 1 << 12;
+    private static final int PAGE_COUNT = 16;
+
+    private PooledMemoryManager memoryManager;
+    private MemoryAllocator malloc;
+    private MemoryAccessor mem;
+
+    @Before
+    public void setUp() {
+        memoryManager = new PooledMemoryManager(PAGE_COUNT * PAGE_SIZE, MIN_BLOCK_SIZE, PAGE_SIZE, 2);
+        malloc = memoryManager.getAllocator();
+        mem = memoryManager.getAccessor();
+    }
+
+    @After
+    public void tearDown() {
+        memoryManager.dispose();
+    }
+
+    @Test
+    public void testAllocate_roundsUpToSizeClass() {
+        long address = malloc.allocate(17);
+
+        assertEquals(32, memoryManager.getUsedMemory());
+        assertEquals(PAGE_SIZE, memoryManager.getCommittedMemory());
+        assertEquals(1, memoryManager.getAllocationCount());
+
+        malloc.free(address, 17);
+        assertEquals(0, memoryManager.getUsedMemory());
+        assertEquals(1, memoryManager.getFreeCount());
+    }
+
+    @Test
+    public void testAllocate_whenSmallerThanMinBlockSize() {
+        long address = malloc.allocate(1);
+
+        assertEquals(MIN_BLOCK_SIZE, memoryManager.getUsedMemory());
+        malloc.free(address, 1);
+    }
+
+    @Test
+    public void testAllocate_zeroesRecycledBlock() {
+        long address = malloc.allocate(64);
+        for (int i = 0; i < 64; i += 8) {
+            mem.putLong(address + i, -1L);
+        }
+        malloc.free(address, 64);
+
+        long newAddress = malloc.allocate(64);
+
+        assertEquals(address, newAddress);
+        for (int i = 0; i < 64; i += 8) {
+            assertEquals(0L, mem.getLong(newAddress + i));
+        }
+        malloc.free(newAddress, 64);
+    }
+
+    @Test
+    public void testAllocate_blocksDoNotOverlap() {
+        int blockSize = 64;
+        int count = 2 * PAGE_SIZE / blockSize;
+        long[] addresses = new long[count];
+        Set<Long> distinct = new HashSet<Long>();
+        for (int i = 0; i < count; i++) {
+            addresses[i] = malloc.allocate(blockSize);
+            mem.putLong(addresses[i], i);
+            distinct.add(addresses[i]);
+        }
+
+        assertEquals(count, distinct.size());
+        assertEquals(2 * PAGE_SIZE, memoryManager.getCommittedMemory());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, mem.getLong(addresses[i]));
+            malloc.free(addresses[i], blockSize);
+        }
+    }
+
+    @Test
+    public void testAllocate_largerThanPage() {
+        long size = PAGE_SIZE + 1;
+        long address = malloc.allocate(size);
+
+        assertEquals(size, memoryManager.getExternalMemory());
+        assertEquals(size, memoryManager.getUsedMemory());
+        assertEquals(size, memoryManager.getCommittedMemory());
+
+        malloc.free(address, size);
+        assertEquals(0, memoryManager.getExternalMemory());
+        assertEquals(0, memoryManager.getCommittedMemory());
+    }
+
+    @Test(expected = NativeOutOfMemoryError.class)
+    public void testAllocate_whenAllPagesAreAssigned() {
+        for (int i = 0; i <= PAGE_COUNT; i++) {
+            malloc.allocate(PAGE_SIZE);
+        }
+    }
+
+    @Test
+    public void testAllocate_allocatesPagesLazilyInChunks() {
+        int pageSize = 1 << 23;
+        PooledMemoryManager manager = new PooledMemoryManager(3L * pageSize, MIN_BLOCK_SIZE, pageSize, 1);
+        MemoryAllocator allocator = manager.getAllocator();
+        try {
+            assertEquals(0, manager.getChunkMemory());
+
+            // a chunk holds at least 16 MB of pages, the last chunk only the pages which are left
+            long address1 = allocator.allocate(pageSize);
+            assertEquals(2L * pageSize, manager.getChunkMemory());
+            long address2 = allocator.allocate(pageSize);
+            assertEquals(2L * pageSize, manager.getChunkMemory());
+            long address3 = allocator.allocate(pageSize);
+            assertEquals(3L * pageSize, manager.getChunkMemory());
+            assertEquals(3, manager.getAssignedPageCount());
+
+            allocator.free(address1, pageSize);
+            allocator.free(address2, pageSize);
+            allocator.free(address3, pageSize);
+            assertEquals(0, manager.getUsedMemory());
+        } finally {
+            manager.dispose();
+        }
+        assertEquals(0, manager.getChunkMemory());
+    }
+
+    @Test
+    public void testDispose_freesBlocksLargerThanPage() {
+        malloc.allocate(PAGE_SIZE + 1);
+        malloc.allocate(2 * PAGE_SIZE);
+
+        memoryManager.dispose();
+
+        assertEquals(0, memoryManager.getExternalMemory());
+        assertEquals(0, memoryManager.getCommittedMemory());
+        assertEquals(0, memoryManager.getChunkMemory());
+    }
+
+    @Test
+    public void testReallocate_withinSizeClass() {
+        long address = malloc.allocate(20);
+        mem.putLong(address, 42L);
+        mem.putLong(address + 24, -1L);
+
+        long newAddress = malloc.reallocate(address, 20, 32);
+
+        assertEquals(address, newAddress);
+        assertEquals(42L, mem.getLong(newAddress));
+        assertEquals(0L, mem.getLong(newAddress + 24));
+        malloc.free(newAddress, 32);
+    }
+
+    @Test
+    public void testReallocate_toLargerSizeClass() {
+        long address = malloc.allocate(16);
+        mem.putLong(address, 42L);
+
+        long newAddress = malloc.reallocate(address, 16, 128);
+
+        assertEquals(42L, mem.getLong(newAddress));
+        assertEquals(0L, mem.getLong(newAddress + 120));
+        assertEquals(128, memoryManager.getUsedMemory());
+        malloc.free(newAddress, 128);
+    }
+
+    @Test
+    public void testFragmentation() {
+        long address = malloc.allocate(PAGE_SIZE / 4);
+
+        assertEquals(75d, memoryManager.getFragmentation(), 0.01);
+
+        malloc.free(address, PAGE_SIZE / 4);
+        assertEquals(100d, memoryManager.getFragmentation(), 0.01);
+    }
+
+    @Test
+    public void testConcurrentAllocateAndFree() throws Exception {
+        int threadCount = 4;
+        final int iterations = 10000;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        for (int t = 0; t < threadCount; t++) {
+            final long marker = t;
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < iterations; i++) {
+                            int size = 8 << (i % 6);
+                            long address = malloc.allocate(size);
+                            mem.putLong(address, marker);
+                            assertEquals(marker, mem.getLong(address));
+                            malloc.free(address, size);
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        assertOpenEventually(latch);
+        assertNull(failure.get());
+        assertEquals(0, memoryManager.getUsedMemory());
+        assertTrue(memoryManager.getCommittedMemory() <= PAGE_COUNT * PAGE_SIZE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenPageSizeNotPowerOfTwo() {
+        new PooledMemoryManager(PAGE_COUNT * PAGE_SIZE, MIN_BLOCK_SIZE, PAGE_SIZE + 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenMaxMemorySmallerThanPage() {
+        new PooledMemoryManager(PAGE_SIZE - 1, MIN_BLOCK_SIZE, PAGE_SIZE, 1);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.memory.impl;
+
+import com.hazelcast.internal.memory.MemoryAccessor;
+import com.hazelcast.internal.memory.MemoryAllocator;
+import com.hazelcast.memory.NativeOutOfMemoryError;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class StandardMemoryManagerTest {
+
+    @ClassRule
+    public static final TestIgnoreRuleAccordingToUnsafeAvailability UNSAFE_AVAILABILITY_RULE
+            = new TestIgnoreRuleAccordingToUnsafeAvailability();
+
+    private static final int MAX_MEMORY = 1024;
+
+    private StandardMemoryManager memoryManager;
+    private MemoryAllocator malloc;
+    private MemoryAccessor mem;
+
+    @Before
+    public void setUp() {
+        memoryManager = new StandardMemoryManager(MAX_MEMORY);
+        malloc = memoryManager.getAllocator();
+        mem = memoryManager.getAccessor();
+    }
+
+    @After
+    public void tearDown() {
+        memoryManager.dispose();
+    }
+
+    @Test
+    public void testAllocate_zeroesMemory() {
+        long address = malloc.allocate(64);
+
+        for (int i = 0; i < 64; i += 8) {
+            assertEquals(0L, mem.getLong(address + i));
+        }
+        malloc.free(address, 64);
+    }
+
+    @Test
+    public void testUsedMemory() {
+        long address1 = malloc.allocate(100);
+        long address2 = malloc.allocate(200);
+        assertEquals(300, memoryManager.getUsedMemory());
+
+        malloc.free(address1, 100);
+        assertEquals(200, memoryManager.getUsedMemory());
+
+        malloc.free(address2, 200);
+        assertEquals(0, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testReallocate_keepsContentsAndZeroesTail() {
+        long address = malloc.allocate(8);
+        mem.putLong(address, 42L);
+
+        long newAddress = malloc.reallocate(address, 8, 16);
+
+        assertEquals(42L, mem.getLong(newAddress));
+        assertEquals(0L, mem.getLong(newAddress + 8));
+        assertEquals(16, memoryManager.getUsedMemory());
+        malloc.free(newAddress, 16);
+    }
+
+    @Test
+    public void testReallocate_shrink() {
+        long address = malloc.allocate(64);
+
+        long newAddress = malloc.reallocate(address, 64, 16);
+
+        assertEquals(16, memoryManager.getUsedMemory());
+        malloc.free(newAddress, 16);
+    }
+
+    @Test(expected = NativeOutOfMemoryError.class)
+    public void testAllocate_whenLimitExceeded() {
+        malloc.allocate(MAX_MEMORY + 1);
+    }
+
+    @Test
+    public void testAllocate_whenLimitExceeded_thenUsedMemoryUnchanged() {
+        long address = malloc.allocate(MAX_MEMORY);
+        try {
+            malloc.allocate(1);
+        } catch (NativeOutOfMemoryError expected) {
+            assertEquals(MAX_MEMORY, memoryManager.getUsedMemory());
+        } finally {
+            malloc.free(address, MAX_MEMORY);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_withNonPositiveMaxMemory() {
+        new StandardMemoryManager(0);
+    }
+}
@@ -165,6 +165,34 @@ public abstract class AbstractNearCachePreloaderTest<NK, NV> extends HazelcastTe
         storeAndLoad(4223, STRING);
     }
 
+    @Test(timeout = TEST_TIMEOUT)
+    @Category(SlowTest.class)
+    public void testStoreAndLoad_withValues() {
+        int keyCount = 2342;
+        nearCacheConfig.getPreloaderConfig()
+                .setStoreInitialDelaySeconds(3)
+                .setStoreIntervalSeconds(1)
+                .setStoreValues(true);
+
+        NearCacheTestContext<Object, String, NK, NV> context = createContext(true, keyCount, INTEGER);
+
+        populateNearCache(context, keyCount, INTEGER);
+        waitForNearCachePersistence(context, 1);
+        assertLastNearCachePersistence(context, getStoreFile(), keyCount);
+
+        // shutdown the first client
+        context.nearCacheInstance.shutdown();
+
+        // start a new client which will put the stored values into its Near Cache
+        NearCacheTestContext<Object, String, NK, NV> clientContext = createNearCacheContext();
+
+        assertNearCachePreloadDoneEventually(clientContext);
+        assertNearCacheSizeEventually(clientContext, keyCount);
+        // no value has been fetched from the cluster
+        assertEquals(0, clientContext.nearCache.getNearCacheStats().getMisses());
+        assertNearCacheContent(clientContext, keyCount, INTEGER);
+    }
+
     private void storeAndLoad(int keyCount, KeyType keyType) {
         nearCacheConfig.getPreloaderConfig()
                 .setStoreInitialDelaySeconds(3)
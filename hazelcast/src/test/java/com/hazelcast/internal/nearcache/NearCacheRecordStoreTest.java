@@ -33,6 +33,8 @@ import org.junit.runners.Parameterized;
 import java.util.Arrays;
 import java.util.Collection;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(Parameterized.class)
@@ -141,6 +143,39 @@ public class NearCacheRecordStoreTest extends NearCacheRecordStoreTestSupport {
         doEvictionWithEntryCountMaxSizePolicy(inMemoryFormat, EvictionPolicy.RANDOM);
     }
 
+    @Test
+    public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndTinyLfuEvictionPolicy() {
+        doEvictionWithEntryCountMaxSizePolicy(inMemoryFormat, EvictionPolicy.TINY_LFU);
+    }
+
+    @Test
+    public void tinyLfuEvictionPolicyAdmitsOnlyMoreFrequentlyAccessedKeysWhenFull() {
+        int maxSize = DEFAULT_RECORD_COUNT / 2;
+        NearCacheConfig nearCacheConfig = createNearCacheConfig(DEFAULT_NEAR_CACHE_NAME, inMemoryFormat);
+        nearCacheConfig.setEvictionConfig(new EvictionConfig()
+                .setMaximumSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                .setSize(maxSize)
+                .setEvictionPolicy(EvictionPolicy.TINY_LFU));
+        NearCacheRecordStore<Integer, String> nearCacheRecordStore = createNearCacheRecordStore(nearCacheConfig, inMemoryFormat);
+        for (int i = 0; i < maxSize; i++) {
+            nearCacheRecordStore.put(i, null, "Record-" + i);
+        }
+
+        int frequentKey = maxSize;
+        for (int i = 0; i < 3; i++) {
+            assertNull(nearCacheRecordStore.get(frequentKey));
+        }
+        nearCacheRecordStore.doEvictionIfRequired();
+        nearCacheRecordStore.put(frequentKey, null, "Record-" + frequentKey);
+        int oneTimeKey = maxSize + 1;
+        nearCacheRecordStore.doEvictionIfRequired();
+        nearCacheRecordStore.put(oneTimeKey, null, "Record-" + oneTimeKey);
+
+        assertEquals("Record-" + frequentKey, nearCacheRecordStore.get(frequentKey));
+        assertNull(nearCacheRecordStore.get(oneTimeKey));
+        assertEquals(maxSize, nearCacheRecordStore.size());
+    }
+
     @Test
     public void evictionTriggeredAndHandledSuccessfullyWithEntryCountMaxSizePolicyAndDefaultEvictionPolicy() {
         doEvictionWithEntryCountMaxSizePolicy(inMemoryFormat, null);
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.invalidation;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompactBatchNearCacheInvalidationTest extends HazelcastTestSupport {
+
+    private static final String NAME = "map";
+
+    private InternalSerializationService serializationService;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+    }
+
+    @Test
+    public void testSerialization() {
+        UUID partitionUuid1 = UUID.randomUUID();
+        UUID partitionUuid2 = UUID.randomUUID();
+        List<Invalidation> invalidations = new ArrayList<Invalidation>();
+        invalidations.add(newInvalidation(1, "source-1", partitionUuid1, 5));
+        invalidations.add(newInvalidation(2, "source-2", partitionUuid2, 1));
+        invalidations.add(newInvalidation(3, "source-1", partitionUuid1, 6));
+        invalidations.add(newInvalidation(4, null, partitionUuid1, 3));
+        invalidations.add(newInvalidation(5, "source-2", partitionUuid2, Long.MAX_VALUE));
+
+        List<Invalidation> deserialized = serializeAndDeserialize(invalidations);
+
+        assertEquals(invalidations.size(), deserialized.size());
+        for (int i = 0; i < invalidations.size(); i++) {
+            Invalidation expected = invalidations.get(i);
+            Invalidation actual = deserialized.get(i);
+            assertTrue(actual instanceof SingleNearCacheInvalidation);
+            assertEquals(NAME, actual.getName());
+            assertEquals(expected.getKey(), actual.getKey());
+            assertEquals(expected.getSourceUuid(), actual.getSourceUuid());
+            assertEquals(expected.getPartitionUuid(), actual.getPartitionUuid());
+            assertEquals(expected.getSequence(), actual.getSequence());
+        }
+    }
+
+    @Test
+    public void testSerialization_whenEmpty() {
+        List<Invalidation> deserialized = serializeAndDeserialize(new ArrayList<Invalidation>());
+
+        assertEquals(0, deserialized.size());
+    }
+
+    @Test
+    public void testSerializedSize_isSmallerThanBatchNearCacheInvalidation() {
+        UUID partitionUuid = UUID.randomUUID();
+        List<Invalidation> invalidations = new ArrayList<Invalidation>();
+        for (int i = 1; i <= 100; i++) {
+            invalidations.add(newInvalidation(i, "source", partitionUuid, i));
+        }
+
+        Data batch = serializationService.toData(new BatchNearCacheInvalidation(NAME, invalidations));
+        Data compactBatch = serializationService.toData(new CompactBatchNearCacheInvalidation(NAME, invalidations));
+
+        assertTrue("Expected the compact batch to be less than half the size of " + batch.totalSize()
+                + " bytes, but it is " + compactBatch.totalSize() + " bytes", 2 * compactBatch.totalSize() < batch.totalSize());
+    }
+
+    private List<Invalidation> serializeAndDeserialize(List<Invalidation> invalidations) {
+        Data data = serializationService.toData(new CompactBatchNearCacheInvalidation(NAME, invalidations));
+        BatchNearCacheInvalidation batch = serializationService.toObject(data);
+
+        assertTrue(batch instanceof CompactBatchNearCacheInvalidation);
+        assertEquals(NAME, batch.getName());
+        return batch.getInvalidations();
+    }
+
+    private Invalidation newInvalidation(int key, String sourceUuid, UUID partitionUuid, long sequence) {
+        return new SingleNearCacheInvalidation(serializationService.toData(key), NAME, sourceUuid, partitionUuid, sequence);
+    }
+}
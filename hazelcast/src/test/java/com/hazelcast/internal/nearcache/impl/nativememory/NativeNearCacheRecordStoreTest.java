@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.nearcache.impl.nativememory;
+
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.internal.memory.impl.StandardMemoryManager;
+import com.hazelcast.internal.memory.impl.TestIgnoreRuleAccordingToUnsafeAvailability;
+import com.hazelcast.internal.nearcache.NearCacheRecord;
+import com.hazelcast.internal.nearcache.impl.invalidation.MetaDataContainer;
+import com.hazelcast.internal.nearcache.impl.invalidation.StaleReadDetector;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static com.hazelcast.config.EvictionConfig.MaxSizePolicy.ENTRY_COUNT;
+import static com.hazelcast.config.EvictionConfig.MaxSizePolicy.USED_NATIVE_MEMORY_SIZE;
+import static com.hazelcast.config.InMemoryFormat.NATIVE;
+import static com.hazelcast.internal.nearcache.NearCache.CACHED_AS_NULL;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.NOT_RESERVED;
+import static com.hazelcast.internal.nearcache.NearCacheRecord.READ_PERMITTED;
+import static com.hazelcast.nio.IOUtil.deleteQuietly;
+import static com.hazelcast.test.HazelcastTestSupport.sleepAtLeastMillis;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class NativeNearCacheRecordStoreTest {
+
+    @ClassRule
+    public static final TestIgnoreRuleAccordingToUnsafeAvailability UNSAFE_AVAILABILITY_RULE
+            = new TestIgnoreRuleAccordingToUnsafeAvailability();
+
+    private static final int ENTRY_COUNT_LIMIT = 100;
+
+    private SerializationService serializationService;
+    private StandardMemoryManager memoryManager;
+    private NativeNearCacheRecordStore<Data, String> store;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        memoryManager = new StandardMemoryManager(64 * 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() {
+        if (store != null) {
+            store.destroy();
+        }
+        assertEquals(0, memoryManager.getUsedMemory());
+        memoryManager.dispose();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        store = createStore(newNearCacheConfig());
+        for (int i = 0; i < ENTRY_COUNT_LIMIT; i++) {
+            put(i, "value-" + i);
+        }
+
+        assertEquals(ENTRY_COUNT_LIMIT, store.size());
+        assertEquals(ENTRY_COUNT_LIMIT, store.getNearCacheStats().getOwnedEntryCount());
+        assertTrue(store.getNearCacheStats().getOwnedEntryMemoryCost() > 0);
+        for (int i = 0; i < ENTRY_COUNT_LIMIT; i++) {
+            assertEquals("value-" + i, store.get(toData(i)));
+        }
+        assertNull(store.get(toData(ENTRY_COUNT_LIMIT)));
+        assertEquals(ENTRY_COUNT_LIMIT, store.getNearCacheStats().getHits());
+        assertEquals(1, store.getNearCacheStats().getMisses());
+    }
+
+    @Test
+    public void testPut_replacesExistingValue() {
+        store = createStore(newNearCacheConfig());
+        put(1, "value-1");
+
+        put(1, "a-much-longer-value");
+
+        assertEquals(1, store.size());
+        assertEquals(1, store.getNearCacheStats().getOwnedEntryCount());
+        assertEquals("a-much-longer-value", store.get(toData(1)));
+    }
+
+    @Test
+    public void testPut_nullValue_isCachedAsNull() {
+        store = createStore(newNearCacheConfig());
+        put(1, null);
+
+        assertEquals(CACHED_AS_NULL, store.get(toData(1)));
+    }
+
+    @Test
+    public void testRemove() {
+        store = createStore(newNearCacheConfig());
+        put(1, "value");
+
+        assertTrue(store.remove(toData(1)));
+        assertFalse(store.remove(toData(1)));
+
+        assertNull(store.get(toData(1)));
+        assertEquals(0, store.size());
+        assertEquals(0, store.getNearCacheStats().getOwnedEntryCount());
+        assertEquals(0, store.getNearCacheStats().getOwnedEntryMemoryCost());
+    }
+
+    @Test
+    public void testGetRecord_returnsSnapshot() {
+        store = createStore(newNearCacheConfig());
+        put(1, "value");
+
+        NearCacheRecord record = store.getRecord(toData(1));
+
+        assertEquals(toData("value"), record.getValue());
+        assertEquals(READ_PERMITTED, record.getRecordState());
+        assertNull(store.getRecord(toData(2)));
+    }
+
+    @Test
+    public void testClear() {
+        store = createStore(newNearCacheConfig());
+        for (int i = 0; i < ENTRY_COUNT_LIMIT; i++) {
+            put(i, "value-" + i);
+        }
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertNull(store.get(toData(1)));
+        put(1, "value");
+        assertEquals("value", store.get(toData(1)));
+    }
+
+    @Test
+    public void testClear_afterRemove() {
+        store = createStore(newNearCacheConfig());
+        putAndRemoveEverySecond();
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertEquals(0, store.getNearCacheStats().getOwnedEntryMemoryCost());
+    }
+
+    @Test
+    public void testEviction_afterRemove() {
+        store = createStore(newNearCacheConfig());
+        putAndRemoveEverySecond();
+
+        for (int i = 0; i < ENTRY_COUNT_LIMIT / 2; i++) {
+            store.doEviction();
+        }
+
+        assertEquals(0, store.size());
+        assertEquals(ENTRY_COUNT_LIMIT / 2, store.getNearCacheStats().getEvictions());
+    }
+
+    @Test
+    public void testEviction_withEntryCountPolicy() {
+        NearCacheConfig nearCacheConfig = newNearCacheConfig();
+        nearCacheConfig.getEvictionConfig()
+                .setMaximumSizePolicy(ENTRY_COUNT)
+                .setSize(ENTRY_COUNT_LIMIT);
+        store = createStore(nearCacheConfig);
+
+        for (int i = 0; i < 2 * ENTRY_COUNT_LIMIT; i++) {
+            store.doEvictionIfRequired();
+            put(i, "value-" + i);
+        }
+
+        assertEquals(ENTRY_COUNT_LIMIT, store.size());
+        assertEquals(ENTRY_COUNT_LIMIT, store.getNearCacheStats().getEvictions());
+    }
+
+    @Test
+    public void testEviction_withUsedNativeMemoryPolicy() {
+        NearCacheConfig nearCacheConfig = newNearCacheConfig();
+        nearCacheConfig.getEvictionConfig()
+                .setMaximumSizePolicy(USED_NATIVE_MEMORY_SIZE)
+                .setSize(1);
+        store = createStore(nearCacheConfig);
+
+        String value = new String(new char[1024]);
+        for (int i = 0; i < 2048; i++) {
+            store.doEvictionIfRequired();
+            put(i, value);
+        }
+
+        assertTrue(store.size() < 2048);
+        assertTrue(store.getNearCacheStats().getOwnedEntryMemoryCost() <= 1024 * 1024 + 4096);
+    }
+
+    @Test
+    public void testEvictionDisabled_doesNotCacheNewKeysWhenFull() {
+        NearCacheConfig nearCacheConfig = newNearCacheConfig();
+        nearCacheConfig.getEvictionConfig()
+                .setEvictionPolicy(EvictionPolicy.NONE)
+                .setMaximumSizePolicy(ENTRY_COUNT)
+                .setSize(ENTRY_COUNT_LIMIT);
+        store = createStore(nearCacheConfig);
+
+        for (int i = 0; i < 2 * ENTRY_COUNT_LIMIT; i++) {
+            put(i, "value-" + i);
+        }
+        put(0, "updated");
+
+        assertEquals(ENTRY_COUNT_LIMIT, store.size());
+        assertEquals("updated", store.get(toData(0)));
+        assertNull(store.get(toData(ENTRY_COUNT_LIMIT)));
+    }
+
+    @Test
+    public void testExpiration() {
+        store = createStore(newNearCacheConfig().setMaxIdleSeconds(1));
+        put(1, "value");
+
+        sleepAtLeastMillis(1100);
+        store.doExpiration();
+
+        assertEquals(0, store.size());
+        assertEquals(1, store.getNearCacheStats().getExpirations());
+    }
+
+    @Test
+    public void testExpiration_afterRemove() {
+        store = createStore(newNearCacheConfig().setMaxIdleSeconds(1));
+        putAndRemoveEverySecond();
+
+        sleepAtLeastMillis(1100);
+        store.doExpiration();
+
+        assertEquals(0, store.size());
+        assertEquals(ENTRY_COUNT_LIMIT / 2, store.getNearCacheStats().getExpirations());
+    }
+
+    @Test
+    public void testStoreKeys_afterRemove() {
+        NearCacheConfig nearCacheConfig = newNearCacheConfig();
+        nearCacheConfig.getPreloaderConfig()
+                .setEnabled(true)
+                .setDirectory("");
+        store = createStore(nearCacheConfig);
+        try {
+            putAndRemoveEverySecond();
+
+            store.storeKeys();
+
+            assertEquals(ENTRY_COUNT_LIMIT / 2, store.getNearCacheStats().getLastPersistenceKeyCount());
+        } finally {
+            store.destroy();
+            store = null;
+            deleteQuietly(new File("nearCache-test.store"));
+            deleteQuietly(new File("nearCache-test.store.lock"));
+        }
+    }
+
+    @Test
+    public void testReserveAndPublish() {
+        store = createStore(newNearCacheConfig());
+        Data key = toData(1);
+
+        long reservationId = store.tryReserveForUpdate(key, key);
+        assertNotEquals(NOT_RESERVED, reservationId);
+        assertEquals(NOT_RESERVED, store.tryReserveForUpdate(key, key));
+        assertNull(store.get(key));
+        assertEquals(0, store.getNearCacheStats().getOwnedEntryCount());
+
+        assertEquals("value", store.tryPublishReserved(key, "value", reservationId, true));
+        assertEquals("value", store.get(key));
+        assertEquals(1, store.getNearCacheStats().getOwnedEntryCount());
+    }
+
+    @Test
+    public void testPublish_withStaleReservation_doesNotUpdateValue() {
+        store = createStore(newNearCacheConfig());
+        Data key = toData(1);
+        long reservationId = store.tryReserveForUpdate(key, key);
+        store.tryPublishReserved(key, "value", reservationId, false);
+
+        store.tryPublishReserved(key, "other", reservationId, false);
+
+        assertEquals("value", store.get(key));
+    }
+
+    @Test
+    public void testGet_withStaleRead_removesRecord() {
+        store = createStore(newNearCacheConfig());
+        final MetaDataContainer metaDataContainer = new MetaDataContainer();
+        store.setStaleReadDetector(new StaleReadDetector() {
+            @Override
+            public boolean isStaleRead(Object key, NearCacheRecord record) {
+                return record.getInvalidationSequence() < metaDataContainer.getStaleSequence();
+            }
+
+            @Override
+            public int getPartitionId(Object key) {
+                return 0;
+            }
+
+            @Override
+            public MetaDataContainer getMetaDataContainer(int partitionId) {
+                return metaDataContainer;
+            }
+        });
+        put(1, "value");
+        assertEquals("value", store.get(toData(1)));
+
+        metaDataContainer.casStaleSequence(0, 1);
+
+        assertNull(store.get(toData(1)));
+        assertEquals(0, store.size());
+    }
+
+    private NativeNearCacheRecordStore<Data, String> createStore(NearCacheConfig nearCacheConfig) {
+        NativeNearCacheRecordStore<Data, String> store = new NativeNearCacheRecordStore<Data, String>("test",
+                nearCacheConfig, serializationService, null, memoryManager);
+        store.initialize();
+        return store;
+    }
+
+    private static NearCacheConfig newNearCacheConfig() {
+        return new NearCacheConfig("test")
+                .setInMemoryFormat(NATIVE)
+                .setEvictionConfig(new EvictionConfig());
+    }
+
+    private void putAndRemoveEverySecond() {
+        for (int i = 0; i < ENTRY_COUNT_LIMIT; i++) {
+            put(i, "value-" + i);
+        }
+        for (int i = 0; i < ENTRY_COUNT_LIMIT; i += 2) {
+            assertTrue(store.remove(toData(i)));
+        }
+    }
+
+    private void put(int key, String value) {
+        Data keyData = toData(key);
+        store.put(keyData, keyData, value);
+    }
+
+    private Data toData(Object obj) {
+        return serializationService.toData(obj);
+    }
+}
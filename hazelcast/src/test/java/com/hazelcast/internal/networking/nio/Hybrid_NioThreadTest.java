@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.util.concurrent.HybridIdleStrategy;
+import com.hazelcast.util.concurrent.IdleStrategy;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class Hybrid_NioThreadTest extends NioThreadAbstractTest {
+
+    @Override
+    protected SelectorMode selectorMode() {
+        return SelectorMode.SELECT_NOW;
+    }
+
+    @Override
+    protected IdleStrategy idleStrategy() {
+        return new HybridIdleStrategy(10, 10);
+    }
+
+    @Test
+    public void whenTaskAddedWhileBlocking_thenSelectorWokenUp() {
+        startThread();
+        // the idle strategy is exhausted quickly, so the thread blocks on the selector
+        sleepMillis(500);
+
+        final CountDownLatch executed = new CountDownLatch(1);
+        thread.addTaskAndWakeup(new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        });
+
+        // without a wake-up the task would only be executed once the blocking select times out
+        assertOpenEventually(executed, 2);
+    }
+}
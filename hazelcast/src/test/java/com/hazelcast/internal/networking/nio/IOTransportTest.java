@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.nio.channels.spi.SelectorProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class IOTransportTest {
+
+    @Test
+    public void fromString_whenNio() {
+        assertEquals(IOTransport.NIO, IOTransport.fromString("nio"));
+    }
+
+    @Test
+    public void fromString_whenEpoll() {
+        assertEquals(IOTransport.EPOLL, IOTransport.fromString(" EPoll "));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromString_whenUnknown() {
+        IOTransport.fromString("iouring");
+    }
+
+    @Test
+    public void isAvailable_whenNio() {
+        assertTrue(IOTransport.NIO.isAvailable());
+    }
+
+    @Test
+    public void isAvailable_whenEpoll() {
+        boolean epollSelector = IOTransport.EPOLL_SELECTOR_PROVIDER.equals(SelectorProvider.provider().getClass().getName());
+        assertEquals(epollSelector, IOTransport.EPOLL.isAvailable());
+    }
+}
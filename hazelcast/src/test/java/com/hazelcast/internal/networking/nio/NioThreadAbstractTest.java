@@ -22,6 +22,7 @@ import com.hazelcast.logging.Logger;
 import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.ExpectedRuntimeException;
 import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.util.concurrent.IdleStrategy;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -75,6 +76,13 @@ public abstract class NioThreadAbstractTest extends HazelcastTestSupport {
 
     protected abstract SelectorMode selectorMode();
 
+    /**
+     * Subclasses that need the IO thread to idle with an idle strategy should override this method.
+     */
+    protected IdleStrategy idleStrategy() {
+        return null;
+    }
+
     /**
      * Subclasses that need to do some setup after the IO thread was created but
      * before starting it should override this method.
@@ -83,8 +91,8 @@ public abstract class NioThreadAbstractTest extends HazelcastTestSupport {
 
     }
 
-    private void startThread() {
-        thread = new NioThread("foo", logger, errorHandler, selectorMode(), selector, null);
+    void startThread() {
+        thread = new NioThread("foo", logger, errorHandler, selectorMode(), selector, idleStrategy());
         beforeStartThread();
         thread.start();
     }
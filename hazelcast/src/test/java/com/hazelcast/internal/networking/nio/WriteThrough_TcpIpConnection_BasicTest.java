@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.tcp.TcpIpConnection;
+import com.hazelcast.nio.tcp.TcpIpConnection_AbstractBasicTest;
+import com.hazelcast.spi.impl.PacketHandler;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class WriteThrough_TcpIpConnection_BasicTest extends TcpIpConnection_AbstractBasicTest {
+
+    @Before
+    public void setup() throws Exception {
+        eventLoopGroupFactory = new WriteThrough_NioEventLoopGroupFactory();
+        super.setup();
+    }
+
+    @Test
+    public void write_whenManyPackets_thenWrittenThroughInOrder() {
+        final List<Packet> received = Collections.synchronizedList(new ArrayList<Packet>());
+        ioServiceB.packetHandler = new PacketHandler() {
+            @Override
+            public void handle(Packet packet) {
+                received.add(packet);
+            }
+        };
+        TcpIpConnection c = connect(connManagerA, addressB);
+
+        final List<Packet> written = new ArrayList<Packet>();
+        for (int k = 0; k < 1000; k++) {
+            Packet packet = new Packet(serializationService.toBytes("foo" + k));
+            written.add(packet);
+            assertTrue(c.write(packet));
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(written.size(), received.size());
+            }
+        });
+        assertEquals(written, received);
+
+        NioOutboundPipeline pipeline = ((NioChannel) c.getChannel()).outboundPipeline();
+        assertTrue(pipeline.writeThroughCount() > 0);
+    }
+}
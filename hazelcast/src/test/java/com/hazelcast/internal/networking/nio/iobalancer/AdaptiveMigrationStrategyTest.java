@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio.iobalancer;
+
+import com.hazelcast.internal.networking.nio.MigratablePipeline;
+import com.hazelcast.internal.networking.nio.NioThread;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.util.ItemCounter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.test.TestCollectionUtils.setOf;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class AdaptiveMigrationStrategyTest extends HazelcastTestSupport {
+
+    private Map<NioThread, Set<MigratablePipeline>> ownerToPipelines;
+    private ItemCounter<MigratablePipeline> bytesCounter;
+    private ItemCounter<MigratablePipeline> framesCounter;
+    private ItemCounter<MigratablePipeline> framesPending;
+    private LoadImbalance imbalance;
+
+    private NioThread busyOwner;
+    private NioThread idleOwner;
+    private MigratablePipeline pipeline1;
+    private MigratablePipeline pipeline2;
+    private MigratablePipeline pipeline3;
+    private MigratablePipeline pipeline4;
+
+    private AdaptiveMigrationStrategy strategy;
+
+    @Before
+    public void setUp() {
+        ownerToPipelines = new HashMap<NioThread, Set<MigratablePipeline>>();
+        bytesCounter = new ItemCounter<MigratablePipeline>();
+        framesCounter = new ItemCounter<MigratablePipeline>();
+        framesPending = new ItemCounter<MigratablePipeline>();
+        imbalance = new LoadImbalance(ownerToPipelines, new ItemCounter<MigratablePipeline>(), bytesCounter, framesCounter,
+                framesPending);
+        strategy = new AdaptiveMigrationStrategy();
+
+        busyOwner = mock(NioThread.class);
+        idleOwner = mock(NioThread.class);
+        pipeline1 = mock(MigratablePipeline.class);
+        pipeline2 = mock(MigratablePipeline.class);
+        pipeline3 = mock(MigratablePipeline.class);
+        pipeline4 = mock(MigratablePipeline.class);
+        ownerToPipelines.put(busyOwner, setOf(pipeline1, pipeline2, pipeline3));
+        ownerToPipelines.put(idleOwner, singleton(pipeline4));
+    }
+
+    @Test
+    public void testImbalanceDetected_whenBalanced_thenFalse() {
+        setBytes(500, 200, 100, 700);
+
+        for (int round = 0; round < 5; round++) {
+            assertFalse(strategy.imbalanceDetected(imbalance));
+        }
+    }
+
+    @Test
+    public void testImbalanceDetected_whenImbalancedInSingleInterval_thenFalse() {
+        setBytes(600, 200, 100, 100);
+        assertFalse(strategy.imbalanceDetected(imbalance));
+
+        setBytes(600, 200, 100, 1500);
+        assertFalse(strategy.imbalanceDetected(imbalance));
+    }
+
+    @Test
+    public void testImbalanceDetected_whenImbalancedInConsecutiveIntervals_thenTrue() {
+        setBytes(600, 200, 100, 100);
+
+        assertFalse(strategy.imbalanceDetected(imbalance));
+        assertTrue(strategy.imbalanceDetected(imbalance));
+        assertEquals(busyOwner, imbalance.srcOwner);
+        assertEquals(idleOwner, imbalance.dstOwner);
+    }
+
+    @Test
+    public void testImbalanceDetected_whenBalancing_thenContinuesUntilBalanced() {
+        setBytes(600, 200, 100, 100);
+        strategy.imbalanceDetected(imbalance);
+        assertTrue(strategy.imbalanceDetected(imbalance));
+
+        // a ratio of 0.8 no longer starts balancing, but doesn't stop it either
+        setBytes(500, 300, 200, 800);
+        for (int round = 0; round < 5; round++) {
+            assertTrue(strategy.imbalanceDetected(imbalance));
+        }
+
+        setBytes(500, 300, 200, 900);
+        for (int round = 0; round < 5; round++) {
+            strategy.imbalanceDetected(imbalance);
+        }
+        assertFalse(strategy.imbalanceDetected(imbalance));
+    }
+
+    @Test
+    public void testLoad_isSmoothed() {
+        setBytes(1000, 0, 0, 0);
+        strategy.imbalanceDetected(imbalance);
+        assertEquals(1000, strategy.getLoad(pipeline1), 0);
+
+        setBytes(0, 0, 0, 0);
+        strategy.imbalanceDetected(imbalance);
+        assertEquals(500, strategy.getLoad(pipeline1), 0);
+        assertEquals(500, strategy.getLoad(busyOwner), 0);
+    }
+
+    @Test
+    public void testLoad_whenFramesPending_thenWeightedByTimeInQueue() {
+        setBytes(1000, 1000, 0, 0);
+        // 10 frames of 100 bytes transceived and 5 pending, so they are expected to wait half an interval
+        framesCounter.set(pipeline1, 10);
+        framesPending.set(pipeline1, 5);
+        // 10 frames transceived and 20 pending, so they are expected to wait longer than the interval
+        framesCounter.set(pipeline2, 10);
+        framesPending.set(pipeline2, 20);
+        // nothing transceived, so the pending frames are expected to wait the whole interval
+        framesPending.set(pipeline3, 1);
+
+        strategy.imbalanceDetected(imbalance);
+
+        assertEquals(1000 + 5 * 100 * 1.5, strategy.getLoad(pipeline1), 0.001);
+        assertEquals(1000 + 20 * 100 * 2, strategy.getLoad(pipeline2), 0.001);
+        assertEquals(AdaptiveMigrationStrategy.DEFAULT_FRAME_SIZE * 2, strategy.getLoad(pipeline3), 0.001);
+    }
+
+    @Test
+    public void testFindPipelineToMigrate_selectsBusiestPipelineWithinHalfTheDifference() {
+        setBytes(600, 200, 100, 100);
+        strategy.imbalanceDetected(imbalance);
+        strategy.imbalanceDetected(imbalance);
+
+        // the difference is 800, so pipeline1 would make the idle owner the busiest one
+        assertEquals(pipeline2, strategy.findPipelineToMigrate(imbalance));
+    }
+
+    @Test
+    public void testFindPipelineToMigrate_whenMigratedRecently_thenSkipped() {
+        setBytes(600, 200, 100, 100);
+        strategy.imbalanceDetected(imbalance);
+        strategy.imbalanceDetected(imbalance);
+        assertEquals(pipeline2, strategy.findPipelineToMigrate(imbalance));
+
+        // the migration of pipeline2 didn't happen yet
+        strategy.imbalanceDetected(imbalance);
+        assertEquals(pipeline3, strategy.findPipelineToMigrate(imbalance));
+
+        for (int round = 0; round < AdaptiveMigrationStrategy.COOLDOWN_ROUNDS; round++) {
+            strategy.imbalanceDetected(imbalance);
+        }
+        assertEquals(pipeline2, strategy.findPipelineToMigrate(imbalance));
+    }
+
+    @Test
+    public void testFindPipelineToMigrate_whenNoPipelineWithinHalfTheDifference_thenNull() {
+        ownerToPipelines.put(busyOwner, setOf(pipeline1, pipeline2));
+        ownerToPipelines.put(idleOwner, setOf(pipeline3, pipeline4));
+        setBytes(600, 600, 400, 400);
+        strategy.imbalanceDetected(imbalance);
+        strategy.imbalanceDetected(imbalance);
+
+        assertNull(strategy.findPipelineToMigrate(imbalance));
+    }
+
+    private void setBytes(long bytes1, long bytes2, long bytes3, long bytes4) {
+        bytesCounter.set(pipeline1, bytes1);
+        bytesCounter.set(pipeline2, bytes2);
+        bytesCounter.set(pipeline3, bytes3);
+        bytesCounter.set(pipeline4, bytes4);
+    }
+}
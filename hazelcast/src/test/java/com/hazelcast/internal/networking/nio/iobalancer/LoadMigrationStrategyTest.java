@@ -38,6 +38,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelTest.class})
@@ -113,4 +114,54 @@ public class LoadMigrationStrategyTest extends HazelcastTestSupport {
         MigratablePipeline pipelineToMigrate = strategy.findPipelineToMigrate(imbalance);
         assertEquals(pipeline3, pipelineToMigrate);
     }
+
+    @Test
+    public void testFindPipelineToMigrate_whenGroupAlreadyOnDestination_thenOtherPipelinePreferred() {
+        NioThread srcOwner = mock(NioThread.class);
+        NioThread dstOwner = mock(NioThread.class);
+        imbalance.srcOwner = srcOwner;
+        imbalance.dstOwner = dstOwner;
+        Object group = new Object();
+
+        imbalance.minimumLoad = 100;
+        MigratablePipeline pipeline1 = mock(MigratablePipeline.class);
+        when(pipeline1.group()).thenReturn(group);
+        loadCounter.set(pipeline1, 100L);
+        ownerToPipelines.put(dstOwner, singleton(pipeline1));
+
+        imbalance.maximumLoad = 400;
+        MigratablePipeline pipeline2 = mock(MigratablePipeline.class);
+        when(pipeline2.group()).thenReturn(group);
+        MigratablePipeline pipeline3 = mock(MigratablePipeline.class);
+        loadCounter.set(pipeline2, 200L);
+        loadCounter.set(pipeline3, 100L);
+        ownerToPipelines.put(srcOwner, setOf(pipeline2, pipeline3));
+
+        MigratablePipeline pipelineToMigrate = strategy.findPipelineToMigrate(imbalance);
+        assertEquals(pipeline3, pipelineToMigrate);
+    }
+
+    @Test
+    public void testFindPipelineToMigrate_whenOnlyGroupedCandidates_thenGroupedPipelineMigrated() {
+        NioThread srcOwner = mock(NioThread.class);
+        NioThread dstOwner = mock(NioThread.class);
+        imbalance.srcOwner = srcOwner;
+        imbalance.dstOwner = dstOwner;
+        Object group = new Object();
+
+        imbalance.minimumLoad = 100;
+        MigratablePipeline pipeline1 = mock(MigratablePipeline.class);
+        when(pipeline1.group()).thenReturn(group);
+        loadCounter.set(pipeline1, 100L);
+        ownerToPipelines.put(dstOwner, singleton(pipeline1));
+
+        imbalance.maximumLoad = 400;
+        MigratablePipeline pipeline2 = mock(MigratablePipeline.class);
+        when(pipeline2.group()).thenReturn(group);
+        loadCounter.set(pipeline2, 200L);
+        ownerToPipelines.put(srcOwner, singleton(pipeline2));
+
+        MigratablePipeline pipelineToMigrate = strategy.findPipelineToMigrate(imbalance);
+        assertEquals(pipeline2, pipelineToMigrate);
+    }
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.serialization.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.PortableContext;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.nio.serialization.PortableFactory;
+import com.hazelcast.nio.serialization.PortableReader;
+import com.hazelcast.nio.serialization.PortableWriter;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PortableFieldAccessorTest {
+
+    private static final int FACTORY_ID = 1;
+    private static final int OUTER_CLASS_ID = 1;
+    private static final int INNER_CLASS_ID = 2;
+
+    private static final Outer OUTER = new Outer((byte) -3, true, 'x', (short) -300, 70000, Long.MIN_VALUE + 5, 1.5f,
+            -2.25, new Inner(Long.MAX_VALUE - 7, -0.0));
+
+    @Test
+    public void read_rootFields_bigEndian() {
+        assertRootFields(service(ByteOrder.BIG_ENDIAN));
+    }
+
+    @Test
+    public void read_rootFields_littleEndian() {
+        assertRootFields(service(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    @Test
+    public void read_nestedFields() {
+        InternalSerializationService ss = service(ByteOrder.BIG_ENDIAN);
+        Data data = ss.toData(OUTER);
+
+        assertEquals(OUTER.inner.l, read(ss, data, "inner.l"));
+        assertEquals(OUTER.inner.d, read(ss, data, "inner.d"));
+    }
+
+    @Test
+    public void read_nullNestedPortable() {
+        InternalSerializationService ss = service(ByteOrder.BIG_ENDIAN);
+        // registers the class definition of the inner Portable
+        ss.toData(OUTER);
+        Outer outer = new Outer((byte) 1, false, 'a', (short) 1, 1, 1, 1, 1, null);
+        Data data = ss.toData(outer);
+
+        assertNull(read(ss, data, "inner.l"));
+    }
+
+    @Test
+    public void getFieldAccessor_returnsNull_whenFieldCantBeCompiled() {
+        InternalSerializationService ss = service(ByteOrder.BIG_ENDIAN);
+        Data data = ss.toData(OUTER);
+        PortableContext context = ss.getPortableContext();
+
+        assertNull(context.getFieldAccessor(data, "str"));
+        assertNull(context.getFieldAccessor(data, "ints"));
+        assertNull(context.getFieldAccessor(data, "ints[0]"));
+        assertNull(context.getFieldAccessor(data, "inner"));
+        assertNull(context.getFieldAccessor(data, "unknown"));
+        assertNull(context.getFieldAccessor(data, "i.unknown"));
+        assertNull(context.getFieldAccessor(ss.toData(42), "i"));
+    }
+
+    @Test
+    public void getFieldAccessor_isCached() {
+        InternalSerializationService ss = service(ByteOrder.BIG_ENDIAN);
+        Data data = ss.toData(OUTER);
+        PortableContext context = ss.getPortableContext();
+
+        assertSame(context.getFieldAccessor(data, "inner.l"), context.getFieldAccessor(ss.toData(OUTER), "inner.l"));
+    }
+
+    private static void assertRootFields(InternalSerializationService ss) {
+        Data data = ss.toData(OUTER);
+
+        assertEquals(OUTER.b, read(ss, data, "b"));
+        assertEquals(OUTER.bool, read(ss, data, "bool"));
+        assertEquals(OUTER.c, read(ss, data, "c"));
+        assertEquals(OUTER.s, read(ss, data, "s"));
+        assertEquals(OUTER.i, read(ss, data, "i"));
+        assertEquals(OUTER.l, read(ss, data, "l"));
+        assertEquals(OUTER.f, read(ss, data, "f"));
+        assertEquals(OUTER.d, read(ss, data, "d"));
+    }
+
+    private static Object read(InternalSerializationService ss, Data data, String path) {
+        PortableFieldAccessor accessor = ss.getPortableContext().getFieldAccessor(data, path);
+        return accessor.read(data);
+    }
+
+    private static InternalSerializationService service(ByteOrder byteOrder) {
+        return new DefaultSerializationServiceBuilder()
+                .setByteOrder(byteOrder)
+                .addPortableFactory(FACTORY_ID, new PortableFactory() {
+                    @Override
+                    public Portable create(int classId) {
+                        return classId == OUTER_CLASS_ID ? new Outer() : new Inner();
+                    }
+                })
+                .build();
+    }
+
+    private static class Outer implements Portable {
+
+        byte b;
+        boolean bool;
+        char c;
+        short s;
+        int i;
+        long l;
+        float f;
+        double d;
+        Inner inner;
+
+        Outer() {
+        }
+
+        @SuppressWarnings("checkstyle:parameternumber")
+        Outer(byte b, boolean bool, char c, short s, int i, long l, float f, double d, Inner inner) {
+            this.b = b;
+            this.bool = bool;
+            this.c = c;
+            this.s = s;
+            this.i = i;
+            this.l = l;
+            this.f = f;
+            this.d = d;
+            this.inner = inner;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return OUTER_CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeByte("b", b);
+            writer.writeBoolean("bool", bool);
+            writer.writeChar("c", c);
+            writer.writeShort("s", s);
+            writer.writeInt("i", i);
+            writer.writeLong("l", l);
+            writer.writeFloat("f", f);
+            writer.writeDouble("d", d);
+            writer.writeUTF("str", "str");
+            writer.writeIntArray("ints", new int[]{1, 2});
+            if (inner != null) {
+                writer.writePortable("inner", inner);
+            } else {
+                writer.writeNullPortable("inner", FACTORY_ID, INNER_CLASS_ID);
+            }
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            b = reader.readByte("b");
+            bool = reader.readBoolean("bool");
+            c = reader.readChar("c");
+            s = reader.readShort("s");
+            i = reader.readInt("i");
+            l = reader.readLong("l");
+            f = reader.readFloat("f");
+            d = reader.readDouble("d");
+            inner = reader.readPortable("inner");
+        }
+    }
+
+    private static class Inner implements Portable {
+
+        long l;
+        double d;
+
+        Inner() {
+        }
+
+        Inner(long l, double d) {
+            this.l = l;
+            this.d = d;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return FACTORY_ID;
+        }
+
+        @Override
+        public int getClassId() {
+            return INNER_CLASS_ID;
+        }
+
+        @Override
+        public void writePortable(PortableWriter writer) throws IOException {
+            writer.writeLong("l", l);
+            writer.writeDouble("d", d);
+        }
+
+        @Override
+        public void readPortable(PortableReader reader) throws IOException {
+            l = reader.readLong("l");
+            d = reader.readDouble("d");
+        }
+    }
+}
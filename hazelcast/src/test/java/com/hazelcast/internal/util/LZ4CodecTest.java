@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.util;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class LZ4CodecTest extends HazelcastTestSupport {
+
+    private final LZ4Codec codec = new LZ4Codec();
+    private final Random random = new Random(42);
+
+    @Test
+    public void roundTrip_empty() {
+        assertRoundTrip(new byte[0]);
+    }
+
+    @Test
+    public void roundTrip_short() {
+        for (int length = 1; length < 32; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            assertRoundTrip(data);
+        }
+    }
+
+    @Test
+    public void roundTrip_repeatedByte() {
+        byte[] data = new byte[100000];
+        Arrays.fill(data, (byte) 7);
+
+        int compressedLength = assertRoundTrip(data);
+        assertTrue(compressedLength < data.length / 100);
+    }
+
+    @Test
+    public void roundTrip_text() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"name-").append(i % 10).append("\",\"active\":true}");
+        }
+        byte[] data = sb.toString().getBytes();
+
+        int compressedLength = assertRoundTrip(data);
+        assertTrue(compressedLength < data.length / 2);
+    }
+
+    @Test
+    public void roundTrip_random() {
+        byte[] data = new byte[100000];
+        random.nextBytes(data);
+
+        int compressedLength = assertRoundTrip(data);
+        assertTrue(compressedLength <= LZ4Codec.maxCompressedLength(data.length));
+    }
+
+    @Test
+    public void roundTrip_matchesFurtherThanWindow() {
+        byte[] block = new byte[1000];
+        random.nextBytes(block);
+        byte[] data = new byte[200000];
+        for (int i = 0; i < data.length; i += 70000) {
+            System.arraycopy(block, 0, data, i, Math.min(block.length, data.length - i));
+        }
+        assertRoundTrip(data);
+    }
+
+    @Test
+    public void roundTrip_withOffsets() {
+        byte[] data = new byte[5000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 13);
+        }
+        byte[] compressed = new byte[10 + LZ4Codec.maxCompressedLength(4000)];
+        int compressedLength = codec.compress(data, 500, 4000, compressed, 10);
+
+        byte[] decompressed = new byte[4020];
+        LZ4Codec.decompress(compressed, 10, compressedLength, decompressed, 20, 4000);
+        assertArrayEquals(Arrays.copyOfRange(data, 500, 4500), Arrays.copyOfRange(decompressed, 20, 4020));
+    }
+
+    @Test
+    public void codecIsReusable() {
+        byte[] data1 = new byte[10000];
+        random.nextBytes(data1);
+        byte[] data2 = new byte[3000];
+        Arrays.fill(data2, (byte) 1);
+
+        assertRoundTrip(data1);
+        assertRoundTrip(data2);
+        assertRoundTrip(data1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decompress_whenWrongLength() {
+        byte[] data = new byte[1000];
+        byte[] compressed = new byte[LZ4Codec.maxCompressedLength(data.length)];
+        int compressedLength = codec.compress(data, 0, data.length, compressed, 0);
+
+        LZ4Codec.decompress(compressed, 0, compressedLength, new byte[999], 0, 999);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decompress_whenTruncated() {
+        byte[] data = new byte[1000];
+        random.nextBytes(data);
+        byte[] compressed = new byte[LZ4Codec.maxCompressedLength(data.length)];
+        int compressedLength = codec.compress(data, 0, data.length, compressed, 0);
+
+        LZ4Codec.decompress(compressed, 0, compressedLength - 1, new byte[1000], 0, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decompress_whenInvalidMatchOffset() {
+        // a token with one literal and a match, followed by the literal and a match offset before the start
+        byte[] compressed = {0x10, 1, 5, 0};
+
+        LZ4Codec.decompress(compressed, 0, compressed.length, new byte[10], 0, 10);
+    }
+
+    private int assertRoundTrip(byte[] data) {
+        byte[] compressed = new byte[LZ4Codec.maxCompressedLength(data.length)];
+        int compressedLength = codec.compress(data, 0, data.length, compressed, 0);
+
+        byte[] decompressed = new byte[data.length];
+        LZ4Codec.decompress(compressed, 0, compressedLength, decompressed, 0, data.length);
+        assertArrayEquals(data, decompressed);
+        return compressedLength;
+    }
+}
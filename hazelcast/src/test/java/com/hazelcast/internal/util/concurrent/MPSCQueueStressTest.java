@@ -21,6 +21,7 @@ import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.TestThread;
 import com.hazelcast.test.annotation.NightlyTest;
 import com.hazelcast.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.util.concurrent.HybridIdleStrategy;
 import com.hazelcast.util.concurrent.IdleStrategy;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -72,6 +73,16 @@ public class MPSCQueueStressTest extends HazelcastTestSupport {
         test(10, new BackoffIdleStrategy(100, 1000, 1000, MILLISECONDS.toNanos(1)));
     }
 
+    @Test
+    public void test_singleProducer_hybrid() throws Exception {
+        test(1, new HybridIdleStrategy(100, 1000));
+    }
+
+    @Test
+    public void test_multipleProducers_hybrid() throws Exception {
+        test(10, new HybridIdleStrategy(100, 1000));
+    }
+
     public void test(int producerCount, IdleStrategy idleStrategy) throws Exception {
         MPSCQueue<Item> queue = new MPSCQueue<Item>(idleStrategy);
         ConsumerThread consumers = new ConsumerThread(queue, producerCount);
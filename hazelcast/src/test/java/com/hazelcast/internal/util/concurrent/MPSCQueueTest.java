@@ -21,6 +21,7 @@ import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.annotation.ParallelTest;
 import com.hazelcast.test.annotation.QuickTest;
 import com.hazelcast.util.concurrent.BusySpinIdleStrategy;
+import com.hazelcast.util.concurrent.HybridIdleStrategy;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -126,6 +127,22 @@ public class MPSCQueueTest extends HazelcastTestSupport {
         assertEquals("1", item);
     }
 
+    @Test
+    public void take_whenHybridIdleStrategy_thenBlocksUntilItemAvailable() throws Exception {
+        final MPSCQueue<String> queue = new MPSCQueue<String>(Thread.currentThread(), new HybridIdleStrategy(10, 10));
+
+        spawn(new Runnable() {
+            @Override
+            public void run() {
+                sleepSeconds(3);
+                queue.offer("1");
+            }
+        });
+
+        Object item = queue.take();
+        assertEquals("1", item);
+    }
+
     /**
      * A test that verifies if the array is expanded.
      */
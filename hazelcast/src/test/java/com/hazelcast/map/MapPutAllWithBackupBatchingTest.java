@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MapPutAllWithBackupBatchingTest extends HazelcastTestSupport {
+
+    private static final int INSTANCE_COUNT = 3;
+    private static final int ENTRY_COUNT = 1000;
+
+    private TestHazelcastInstanceFactory factory;
+    private HazelcastInstance[] instances;
+
+    @Before
+    public void setUp() {
+        Config config = getConfig()
+                .setProperty(GroupProperty.OPERATION_BACKUP_BATCH_ENABLED.getName(), "true");
+
+        config.getMapConfig("default")
+                .setBackupCount(1)
+                .setAsyncBackupCount(1)
+                .setStatisticsEnabled(true);
+
+        factory = createHazelcastInstanceFactory(INSTANCE_COUNT);
+        instances = factory.newInstances(config);
+        warmUpPartitions(instances);
+    }
+
+    @After
+    public void tearDown() {
+        factory.terminateAll();
+    }
+
+    @Test
+    public void testPutAll_thenAllBackupsWritten() {
+        final String mapName = randomMapName();
+        instances[0].getMap(mapName).putAll(newInputMap());
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                long backupEntryCount = 0;
+                for (HazelcastInstance instance : instances) {
+                    backupEntryCount += instance.getMap(mapName).getLocalMapStats().getBackupEntryCount();
+                }
+                assertEquals(2 * ENTRY_COUNT, backupEntryCount);
+            }
+        });
+    }
+
+    @Test
+    public void testPutAll_whenMembersTerminated_thenEntriesNotLost() {
+        String mapName = randomMapName();
+        IMap<Integer, Integer> map = instances[0].getMap(mapName);
+        map.putAll(newInputMap());
+        // the single put has to be backed up after the batched backup of its partition
+        map.put(0, -1);
+
+        waitAllForSafeState(instances);
+        instances[1].getLifecycleService().terminate();
+        instances[2].getLifecycleService().terminate();
+
+        assertEquals(ENTRY_COUNT, map.size());
+        assertEquals(-1, (int) map.get(0));
+        for (int i = 1; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
+    private static Map<Integer, Integer> newInputMap() {
+        Map<Integer, Integer> inputMap = new HashMap<Integer, Integer>(ENTRY_COUNT);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            inputMap.put(i, i);
+        }
+        return inputMap;
+    }
+}
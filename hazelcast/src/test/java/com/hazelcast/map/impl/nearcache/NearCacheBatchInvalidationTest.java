@@ -23,6 +23,8 @@ import com.hazelcast.config.NearCacheConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import com.hazelcast.internal.nearcache.NearCache;
+import com.hazelcast.internal.nearcache.impl.invalidation.MetaDataGenerator;
+import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.proxy.NearCachedMapProxyImpl;
 import com.hazelcast.spi.properties.GroupProperty;
 import com.hazelcast.test.AssertTask;
@@ -39,6 +41,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static com.hazelcast.config.InMemoryFormat.OBJECT;
+import static com.hazelcast.spi.properties.GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_ADAPTIVE_ENABLED;
 import static com.hazelcast.spi.properties.GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_ENABLED;
 import static com.hazelcast.spi.properties.GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_FREQUENCY_SECONDS;
 import static com.hazelcast.spi.properties.GroupProperty.MAP_INVALIDATION_MESSAGE_BATCH_SIZE;
@@ -229,6 +232,73 @@ public class NearCacheBatchInvalidationTest extends HazelcastTestSupport {
         });
     }
 
+    @Test
+    public void testAdaptiveBatchInvalidationRemovesEntries() throws Exception {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName);
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "1");
+        config.setProperty(MAP_INVALIDATION_MESSAGE_BATCH_ADAPTIVE_ENABLED.getName(), "true");
+        configureBatching(config, true, 12, 1);
+
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory();
+        HazelcastInstance node1 = factory.newHazelcastInstance(config);
+        HazelcastInstance node2 = factory.newHazelcastInstance(config);
+
+        final IMap<Integer, Integer> map1 = node1.getMap(mapName);
+        final IMap<Integer, Integer> map2 = node2.getMap(mapName);
+
+        int size = 1000;
+
+        // fill map-1
+        for (int i = 0; i < size; i++) {
+            map1.put(i, i);
+        }
+
+        // fill Near Caches on both nodes
+        for (int i = 0; i < size; i++) {
+            map1.get(i);
+            map2.get(i);
+        }
+
+        // generate invalidation data, writing every key several times
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < size; i++) {
+                map1.put(i, i + round);
+            }
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                NearCache nearCache1 = ((NearCachedMapProxyImpl) map1).getNearCache();
+                NearCache nearCache2 = ((NearCachedMapProxyImpl) map2).getNearCache();
+                assertEquals(0, nearCache1.size() + nearCache2.size());
+            }
+        });
+    }
+
+    @Test
+    public void testAdaptiveBatchInvalidation_doesNotGenerateSequences_forPendingKeys() throws Exception {
+        String mapName = randomMapName();
+        Config config = newConfig(mapName);
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "1");
+        config.setProperty(MAP_INVALIDATION_MESSAGE_BATCH_ADAPTIVE_ENABLED.getName(), "true");
+        configureBatching(config, true, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        HazelcastInstance node = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = node.getMap(mapName);
+
+        for (int i = 0; i < 100; i++) {
+            map.put(1, i);
+        }
+        map.put(2, 0);
+
+        MapService mapService = getNodeEngineImpl(node).getService(MapService.SERVICE_NAME);
+        MetaDataGenerator metaDataGenerator = mapService.getMapServiceContext().getMapNearCacheManager()
+                .getInvalidator().getMetaDataGenerator();
+        assertEquals(2, metaDataGenerator.currentSequence(mapName, 0));
+    }
+
     protected Config newConfig(String mapName) {
         NearCacheConfig nearCacheConfig = new NearCacheConfig();
         nearCacheConfig.setInMemoryFormat(getNearCacheInMemoryFormat());
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.memory.impl.StandardMemoryManager;
+import com.hazelcast.internal.memory.impl.TestIgnoreRuleAccordingToUnsafeAvailability;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.NativeRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.serialization.SerializationService;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class NativeStorageImplTest {
+
+    @ClassRule
+    public static final TestIgnoreRuleAccordingToUnsafeAvailability UNSAFE_AVAILABILITY_RULE
+            = new TestIgnoreRuleAccordingToUnsafeAvailability();
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private SerializationService serializationService;
+    private StandardMemoryManager memoryManager;
+    private NativeRecordFactory recordFactory;
+    private NativeStorageImpl storage;
+
+    @Before
+    public void setUp() {
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        memoryManager = new StandardMemoryManager(64 * 1024 * 1024);
+        recordFactory = new NativeRecordFactory(memoryManager, serializationService, null);
+        storage = new NativeStorageImpl(recordFactory, memoryManager, serializationService);
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+        assertEquals(0, memoryManager.getUsedMemory());
+        memoryManager.dispose();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, "value-" + i);
+        }
+
+        assertEquals(ENTRY_COUNT, storage.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Record record = storage.get(toData(i));
+            assertEquals(toData(i), record.getKey());
+            assertEquals("value-" + i, serializationService.toObject(record.getValue()));
+        }
+        assertNull(storage.get(toData(ENTRY_COUNT)));
+    }
+
+    @Test
+    public void testPut_replacesExistingRecord() {
+        put(1, "value-1");
+        long usedBeforeReplace = memoryManager.getUsedMemory();
+
+        put(1, "value-2");
+
+        assertEquals(1, storage.size());
+        assertEquals("value-2", serializationService.toObject(storage.get(toData(1)).getValue()));
+        assertEquals(usedBeforeReplace, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testUpdateRecordValue() {
+        put(1, "value");
+        Record record = storage.get(toData(1));
+
+        storage.updateRecordValue(toData(1), record, "a-much-longer-value");
+
+        assertEquals("a-much-longer-value", serializationService.toObject(storage.get(toData(1)).getValue()));
+    }
+
+    @Test
+    public void testRemoveRecord() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        for (int i = 0; i < ENTRY_COUNT; i += 2) {
+            storage.removeRecord(storage.get(toData(i)));
+        }
+
+        assertEquals(ENTRY_COUNT / 2, storage.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i % 2 == 1, storage.containsKey(toData(i)));
+        }
+    }
+
+    @Test
+    public void testRemoveRecord_freesMemory() {
+        long usedBeforePut = memoryManager.getUsedMemory();
+        put(1, "value");
+
+        storage.removeRecord(storage.get(toData(1)));
+
+        assertTrue(storage.isEmpty());
+        assertEquals(usedBeforePut, memoryManager.getUsedMemory());
+    }
+
+    @Test
+    public void testEntryCostEstimate() {
+        put(1, "value");
+        long estimate = storage.getEntryCostEstimator().getEstimate();
+        assertTrue(estimate > 0);
+
+        storage.removeRecord(storage.get(toData(1)));
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+    }
+
+    @Test
+    public void testValues() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        Set<Object> values = new HashSet<Object>();
+        for (Record record : storage.values()) {
+            values.add(serializationService.toObject(record.getValue()));
+        }
+
+        assertEquals(ENTRY_COUNT, values.size());
+    }
+
+    @Test
+    public void testMutationTolerantIterator_whenRecordsRemovedDuringIteration() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        int count = 0;
+        Iterator<Record> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            int key = (Integer) serializationService.toObject(record.getKey());
+            storage.removeRecord(record);
+            storage.removeRecord(storage.get(toData(ENTRY_COUNT - 1 - key)));
+            count++;
+        }
+
+        assertEquals(ENTRY_COUNT / 2, count);
+        assertTrue(storage.isEmpty());
+    }
+
+    @Test
+    public void testFetchKeys() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        Set<Data> keys = new HashSet<Data>();
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            MapKeysWithCursor batch = storage.fetchKeys(tableIndex, 100);
+            keys.addAll(batch.getBatch());
+            tableIndex = batch.getNextTableIndexToReadFrom();
+        } while (tableIndex >= 0);
+
+        assertEquals(ENTRY_COUNT, keys.size());
+    }
+
+    @Test
+    public void testFetchEntries() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        int count = 0;
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            MapEntriesWithCursor batch = storage.fetchEntries(tableIndex, 100, serializationService);
+            count += batch.getBatch().size();
+            tableIndex = batch.getNextTableIndexToReadFrom();
+        } while (tableIndex >= 0);
+
+        assertEquals(ENTRY_COUNT, count);
+    }
+
+    @Test
+    public void testGetRandomSamples() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        int count = 0;
+        for (LazyEntryViewFromRecord sample : storage.getRandomSamples(15)) {
+            assertTrue(storage.containsKey((Data) sample.getRecord().getKey()));
+            count++;
+        }
+
+        assertEquals(15, count);
+    }
+
+    @Test
+    public void testClear() {
+        long usedBeforePut = memoryManager.getUsedMemory();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+
+        storage.clear(false);
+
+        assertTrue(storage.isEmpty());
+        assertFalse(storage.containsKey(toData(0)));
+        assertEquals(0, storage.getEntryCostEstimator().getEstimate());
+        assertTrue(memoryManager.getUsedMemory() <= usedBeforePut);
+    }
+
+    @Test
+    public void testValues_afterRemove() {
+        putAndRemoveEverySecond();
+
+        Set<Object> values = new HashSet<Object>();
+        for (Record record : storage.values()) {
+            values.add(serializationService.toObject(record.getValue()));
+        }
+
+        assertEquals(ENTRY_COUNT / 2, values.size());
+        for (int i = 1; i < ENTRY_COUNT; i += 2) {
+            assertTrue(values.contains(i));
+        }
+    }
+
+    @Test
+    public void testClear_afterRemove() {
+        long usedBeforePut = memoryManager.getUsedMemory();
+        putAndRemoveEverySecond();
+
+        storage.clear(false);
+
+        assertTrue(storage.isEmpty());
+        assertTrue(storage.values().isEmpty());
+        assertTrue(memoryManager.getUsedMemory() <= usedBeforePut);
+    }
+
+    @Test
+    public void testGetRandomSamples_afterRemove() {
+        putAndRemoveEverySecond();
+
+        int count = 0;
+        for (LazyEntryViewFromRecord sample : storage.getRandomSamples(ENTRY_COUNT)) {
+            Data key = (Data) sample.getRecord().getKey();
+            assertTrue(storage.containsKey(key));
+            assertEquals(1, (Integer) serializationService.toObject(key) % 2);
+            count++;
+        }
+
+        assertEquals(ENTRY_COUNT / 2, count);
+    }
+
+    @Test
+    public void testFetchKeys_afterRemove() {
+        putAndRemoveEverySecond();
+
+        Set<Data> keys = new HashSet<Data>();
+        int tableIndex = Integer.MAX_VALUE;
+        do {
+            MapKeysWithCursor batch = storage.fetchKeys(tableIndex, 100);
+            keys.addAll(batch.getBatch());
+            tableIndex = batch.getNextTableIndexToReadFrom();
+        } while (tableIndex >= 0);
+
+        assertEquals(ENTRY_COUNT / 2, keys.size());
+        for (Data key : keys) {
+            assertTrue(storage.containsKey(key));
+        }
+    }
+
+    @Test
+    public void testMutationTolerantIterator_afterRemove() {
+        putAndRemoveEverySecond();
+
+        int count = 0;
+        Iterator<Record> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Record record = iterator.next();
+            assertEquals(1, (Integer) serializationService.toObject(record.getKey()) % 2);
+            count++;
+        }
+
+        assertEquals(ENTRY_COUNT / 2, count);
+    }
+
+    private void putAndRemoveEverySecond() {
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            put(i, i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i += 2) {
+            storage.removeRecord(storage.get(toData(i)));
+        }
+    }
+
+    private void put(Object key, Object value) {
+        Data keyData = toData(key);
+        storage.put(keyData, recordFactory.newRecord(value));
+    }
+
+    private Data toData(Object object) {
+        return serializationService.toData(object);
+    }
+}
@@ -19,7 +19,10 @@ package com.hazelcast.nio;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.NetworkConfig;
 import com.hazelcast.instance.Node;
+import com.hazelcast.internal.networking.nio.IOTransport;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.annotation.ParallelTest;
@@ -35,6 +38,7 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -42,16 +46,18 @@ import static org.mockito.Mockito.when;
 @Category({QuickTest.class, ParallelTest.class})
 public class NodeIOServiceTest extends HazelcastTestSupport {
 
+    private Config config;
     private NetworkConfig networkConfig;
+    private Node mockNode;
     private NodeIOService ioService;
 
     @Before
     public void setUp() {
-        Node mockNode = mock(Node.class);
+        mockNode = mock(Node.class);
         NodeEngineImpl mockNodeEngine = mock(NodeEngineImpl.class);
         ioService = new NodeIOService(mockNode, mockNodeEngine);
 
-        Config config = new Config();
+        config = new Config();
         networkConfig = config.getNetworkConfig();
         when(mockNode.getConfig()).thenReturn(config);
     }
@@ -125,4 +131,20 @@ public class NodeIOServiceTest extends HazelcastTestSupport {
         assertThat(outboundPorts, hasSize(2));
         assertThat(outboundPorts, containsInAnyOrder(29000, 29001));
     }
+
+    @Test
+    public void testUseDirectSocketBuffer_whenEpollTransport_thenDependsOnEpollAvailability() {
+        config.setProperty(GroupProperty.IO_TRANSPORT.getName(), IOTransport.EPOLL_STRING);
+        when(mockNode.getProperties()).thenReturn(new HazelcastProperties(config));
+
+        assertEquals(IOTransport.EPOLL.isAvailable(), ioService.useDirectSocketBuffer());
+    }
+
+    @Test
+    public void testUseDirectSocketBuffer_whenDirectBufferProperty() {
+        config.setProperty(GroupProperty.SOCKET_BUFFER_DIRECT.getName(), "true");
+        when(mockNode.getProperties()).thenReturn(new HazelcastProperties(config));
+
+        assertTrue(ioService.useDirectSocketBuffer());
+    }
 }
@@ -55,6 +55,8 @@ public class MockIOService implements IOService {
     public final ConcurrentHashMap<Long, DummyPayload> payloads = new ConcurrentHashMap<Long, DummyPayload>();
     private final ChannelFactory channelFactory;
     public volatile PacketHandler packetHandler;
+    public volatile int connectionsPerMember = 1;
+    public volatile int partitionCount = 271;
     private final ILogger logger;
 
     public MockIOService(int port, ChannelFactory channelFactory) throws Exception {
@@ -189,6 +191,26 @@ public class MockIOService implements IOService {
         return false;
     }
 
+    @Override
+    public boolean isSocketCompressionEnabled() {
+        return false;
+    }
+
+    @Override
+    public int getSocketCompressionThreshold() {
+        return 1024;
+    }
+
+    @Override
+    public int getSocketConnectionsPerMember() {
+        return connectionsPerMember;
+    }
+
+    @Override
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
     @Override
     public void configureSocket(Socket socket) {
     }
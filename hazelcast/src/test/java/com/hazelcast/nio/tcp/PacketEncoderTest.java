@@ -16,10 +16,14 @@
 
 package com.hazelcast.nio.tcp;
 
+import com.hazelcast.internal.networking.Channel;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.logging.LoggingService;
+import com.hazelcast.nio.IOService;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.nio.PacketIOHelper;
+import com.hazelcast.spi.impl.PacketHandler;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
 import com.hazelcast.test.annotation.ParallelTest;
@@ -30,9 +34,21 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelTest.class})
@@ -60,4 +76,177 @@ public class PacketEncoderTest extends HazelcastTestSupport {
         Packet resultPacket = new PacketIOHelper().readFrom(bb);
         assertEquals(packet, resultPacket);
     }
+
+    @Test
+    public void onWriteByReference() {
+        Packet packet = new Packet(serializationService.toBytes("foobar"), 5);
+        ByteBuffer bb = ByteBuffer.allocate(1000);
+        ByteBuffer payload = writeHandler.onWriteByReference(packet, bb, 1);
+
+        assertSame(packet.toByteArray(), payload.array());
+        assertEquals(packet.totalSize(), payload.remaining());
+
+        // the header followed by the referenced payload is the same as the packet written by onWrite
+        ByteBuffer copy = ByteBuffer.allocate(1000);
+        assertTrue(writeHandler.onWrite(packet, copy));
+        bb.put(payload);
+        assertArrayEquals(copy.array(), bb.array());
+    }
+
+    @Test
+    public void onWriteByReference_whenPayloadTooSmall() {
+        Packet packet = new Packet(serializationService.toBytes("foobar"));
+        ByteBuffer bb = ByteBuffer.allocate(1000);
+
+        assertNull(writeHandler.onWriteByReference(packet, bb, packet.totalSize() + 1));
+        assertEquals(0, bb.position());
+    }
+
+    @Test
+    public void onWriteByReference_whenHeaderDoesNotFit() {
+        Packet packet = new Packet(serializationService.toBytes("foobar"));
+        ByteBuffer bb = ByteBuffer.allocate(5);
+
+        assertNull(writeHandler.onWriteByReference(packet, bb, 1));
+        assertEquals(0, bb.position());
+    }
+
+    @Test
+    public void compression() throws Exception {
+        TcpIpConnection connection = newConnection(true);
+        PacketEncoder encoder = new PacketEncoder(connection, 100);
+        byte[] payload = new byte[10000];
+        Arrays.fill(payload, (byte) 'a');
+        Packet packet = new Packet(payload, 5);
+        packet.raiseFlags(Packet.FLAG_URGENT);
+
+        ByteBuffer bb = ByteBuffer.allocate(1000);
+        assertTrue(encoder.onWrite(packet, bb));
+        bb.flip();
+        Packet compressed = new PacketIOHelper().readFrom(bb);
+
+        assertTrue(compressed.isFlagRaised(Packet.FLAG_COMPRESSED));
+        assertTrue(compressed.totalSize() < payload.length);
+        assertFalse(packet.isFlagRaised(Packet.FLAG_COMPRESSED));
+        verify(connection.getConnectionManager()).onPacketCompressed(payload.length, compressed.totalSize());
+
+        Packet decompressed = decode(compressed);
+        assertEquals(packet, decompressed);
+        assertEquals(packet.getFlags(), decompressed.getFlags());
+        assertEquals(5, decompressed.getPartitionId());
+    }
+
+    @Test
+    public void compression_whenWrittenInChunks() throws Exception {
+        PacketEncoder encoder = new PacketEncoder(newConnection(true), 100);
+        byte[] payload = new byte[100000];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) (i % 100);
+        }
+        Packet packet = new Packet(payload);
+
+        ByteBuffer bb = ByteBuffer.allocate(10000);
+        ByteBuffer chunk = ByteBuffer.allocate(100);
+        boolean complete;
+        do {
+            chunk.clear();
+            complete = encoder.onWrite(packet, chunk);
+            chunk.flip();
+            bb.put(chunk);
+        } while (!complete);
+        bb.flip();
+
+        assertEquals(packet, decode(new PacketIOHelper().readFrom(bb)));
+    }
+
+    @Test
+    public void compression_whenPayloadBelowThreshold() {
+        PacketEncoder encoder = new PacketEncoder(newConnection(true), 100);
+        Packet packet = new Packet(new byte[99]);
+
+        ByteBuffer bb = ByteBuffer.allocate(1000);
+        assertTrue(encoder.onWrite(packet, bb));
+        bb.flip();
+
+        assertFalse(new PacketIOHelper().readFrom(bb).isFlagRaised(Packet.FLAG_COMPRESSED));
+    }
+
+    @Test
+    public void compression_whenNotEnabledOnConnection() {
+        PacketEncoder encoder = new PacketEncoder(newConnection(false), 100);
+        Packet packet = new Packet(new byte[1000]);
+
+        ByteBuffer bb = ByteBuffer.allocate(2000);
+        assertTrue(encoder.onWrite(packet, bb));
+        bb.flip();
+
+        assertFalse(new PacketIOHelper().readFrom(bb).isFlagRaised(Packet.FLAG_COMPRESSED));
+    }
+
+    @Test
+    public void compression_whenOnWriteByReference() throws Exception {
+        PacketEncoder encoder = new PacketEncoder(newConnection(true), 100);
+        Packet packet = new Packet(new byte[100000]);
+
+        ByteBuffer bb = ByteBuffer.allocate(1000);
+        ByteBuffer payload = encoder.onWriteByReference(packet, bb, 10);
+        bb.put(payload);
+        bb.flip();
+        Packet compressed = new PacketIOHelper().readFrom(bb);
+
+        assertTrue(compressed.isFlagRaised(Packet.FLAG_COMPRESSED));
+        assertEquals(packet, decode(compressed));
+    }
+
+    @Test
+    public void compression_whenOversizedPayload_thenBufferNotRetained() throws Exception {
+        PacketEncoder encoder = new PacketEncoder(newConnection(true), 100);
+        Packet small = new Packet(new byte[10000]);
+        Packet oversized = new Packet(new byte[PacketEncoder.MAX_RETAINED_COMPRESSION_BUFFER_SIZE]);
+
+        ByteBuffer bb = ByteBuffer.allocate(100000);
+        assertTrue(encoder.onWrite(small, bb));
+        byte[] buffer = encoder.getCompressionBuffer();
+        assertTrue(buffer.length < PacketEncoder.MAX_RETAINED_COMPRESSION_BUFFER_SIZE);
+
+        bb.clear();
+        assertTrue(encoder.onWrite(oversized, bb));
+        bb.flip();
+
+        assertSame(buffer, encoder.getCompressionBuffer());
+        assertEquals(oversized, decode(new PacketIOHelper().readFrom(bb)));
+    }
+
+    private static TcpIpConnection newConnection(boolean compressionEnabled) {
+        // TcpIpConnection is final, so a real one is created over mocked collaborators
+        IOService ioService = mock(IOService.class);
+        when(ioService.getLoggingService()).thenReturn(mock(LoggingService.class));
+        TcpIpConnectionManager connectionManager = mock(TcpIpConnectionManager.class);
+        when(connectionManager.getIoService()).thenReturn(ioService);
+        Channel channel = mock(Channel.class);
+        when(channel.attributeMap()).thenReturn(new ConcurrentHashMap());
+
+        TcpIpConnection connection = new TcpIpConnection(connectionManager, 1, channel);
+        connection.setCompressionEnabled(compressionEnabled);
+        return connection;
+    }
+
+    private static Packet decode(Packet packet) throws Exception {
+        ByteBuffer bb = ByteBuffer.allocate(packet.packetSize());
+        new PacketIOHelper().writeTo(packet, bb);
+        bb.flip();
+
+        final List<Packet> packets = new ArrayList<Packet>();
+        PacketDecoder decoder = new PacketDecoder(null, new PacketHandler() {
+            @Override
+            public void handle(Packet packet) {
+                packets.add(packet);
+            }
+        });
+        decoder.setNormalPacketsRead(newSwCounter());
+        decoder.setPriorityPacketsRead(newSwCounter());
+        decoder.onRead(bb);
+        assertEquals(1, packets.size());
+        return packets.get(0);
+    }
 }
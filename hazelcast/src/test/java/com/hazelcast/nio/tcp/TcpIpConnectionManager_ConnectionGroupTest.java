@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.nio.tcp;
+
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.impl.PacketHandler;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class TcpIpConnectionManager_ConnectionGroupTest extends TcpIpConnection_AbstractTest {
+
+    private static final int CONNECTIONS_PER_MEMBER = 3;
+
+    private final List<Packet> packetsB = Collections.synchronizedList(new ArrayList<Packet>());
+
+    @Override
+    @Before
+    public void setup() throws Exception {
+        super.setup();
+        connManagerA.start();
+        connManagerB.start();
+
+        ioServiceB.packetHandler = new PacketHandler() {
+            @Override
+            public void handle(Packet packet) {
+                packetsB.add(packet);
+            }
+        };
+    }
+
+    @Override
+    protected TcpIpConnectionManager newConnectionManager(int port, MetricsRegistry metricsRegistry) throws Exception {
+        MockIOService ioService = new MockIOService(port, eventLoopGroupFactory.createChannelFactory());
+        // the third member doesn't use several connections
+        ioService.connectionsPerMember = port == addressC.getPort() ? 1 : CONNECTIONS_PER_MEMBER;
+
+        return new TcpIpConnectionManager(
+                ioService,
+                ioService.serverSocketChannel,
+                ioService.loggingService,
+                metricsRegistry,
+                eventLoopGroupFactory.create(ioService, metricsRegistry));
+    }
+
+    @Test
+    public void whenConnected_thenGroupsComplete() {
+        TcpIpConnection connection = connect(connManagerA, addressB);
+
+        assertGroupCompleteEventually(connManagerA, addressB);
+        assertGroupCompleteEventually(connManagerB, addressA);
+        assertFalse(connection.isSecondary());
+        assertEquals(CONNECTIONS_PER_MEMBER, connManagerA.getActiveConnectionCount());
+        assertEquals(CONNECTIONS_PER_MEMBER, connManagerB.getActiveConnectionCount());
+        assertEquals(1, connManagerA.getConnectionCount());
+        assertEquals(1, connManagerB.getConnectionCount());
+    }
+
+    @Test
+    public void whenConnectedByMemberWithHigherAddress_thenGroupsComplete() {
+        connect(connManagerB, addressA);
+
+        assertGroupCompleteEventually(connManagerA, addressB);
+        assertGroupCompleteEventually(connManagerB, addressA);
+        assertEquals(CONNECTIONS_PER_MEMBER, connManagerA.getActiveConnectionCount());
+        assertEquals(CONNECTIONS_PER_MEMBER, connManagerB.getActiveConnectionCount());
+    }
+
+    @Test
+    public void whenGroupComplete_thenPacketsRoutedByPartition() {
+        TcpIpConnection primary = connect(connManagerA, addressB);
+        assertGroupCompleteEventually(connManagerA, addressB);
+
+        for (int partitionId = -1; partitionId < CONNECTIONS_PER_MEMBER; partitionId++) {
+            assertTrue(connManagerA.transmit(new Packet(serializationService.toBytes(partitionId), partitionId), primary));
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(CONNECTIONS_PER_MEMBER + 1, packetsB.size());
+            }
+        });
+        Set<Connection> connections = new HashSet<Connection>();
+        for (Packet packet : packetsB) {
+            TcpIpConnection connection = (TcpIpConnection) packet.getConn();
+            if (packet.getPartitionId() < 0) {
+                assertFalse(connection.isSecondary());
+            } else {
+                connections.add(connection);
+            }
+        }
+        assertEquals(CONNECTIONS_PER_MEMBER, connections.size());
+    }
+
+    @Test
+    public void whenGroupComplete_thenPacketsOfPartitionKeepOrder() {
+        connect(connManagerA, addressB);
+        assertGroupCompleteEventually(connManagerA, addressB);
+
+        final int packetCount = 1000;
+        for (int i = 0; i < packetCount; i++) {
+            assertTrue(connManagerA.transmit(new Packet(serializationService.toBytes(i), i % 7), addressB));
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(packetCount, packetsB.size());
+            }
+        });
+        int[] lastSequence = new int[7];
+        for (Packet packet : packetsB) {
+            int sequence = (Integer) serializationService.toObject(packet);
+            assertTrue(sequence >= lastSequence[packet.getPartitionId()]);
+            lastSequence[packet.getPartitionId()] = sequence;
+        }
+    }
+
+    @Test
+    public void whenPacketsWrittenWhileGroupCompletes_thenPacketsOfPartitionKeepOrder() {
+        TcpIpConnection primary = connect(connManagerA, addressB);
+
+        // the partitions below 7 are first written to while the group may still be incomplete,
+        // the ones above only once it's complete
+        int sequence = 0;
+        while (!isGroupComplete(primary)) {
+            for (int partitionId = 0; partitionId < 7; partitionId++) {
+                assertTrue(connManagerA.transmit(new Packet(serializationService.toBytes(sequence++), partitionId), primary));
+            }
+            sleepMillis(1);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int partitionId = i % 14;
+            assertTrue(connManagerA.transmit(new Packet(serializationService.toBytes(sequence++), partitionId), primary));
+        }
+
+        final int packetCount = sequence;
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(packetCount, packetsB.size());
+            }
+        });
+        int[] lastSequence = new int[14];
+        Arrays.fill(lastSequence, -1);
+        Set<Connection> connections = new HashSet<Connection>();
+        for (Packet packet : packetsB) {
+            int partitionId = packet.getPartitionId();
+            int packetSequence = (Integer) serializationService.toObject(packet);
+            assertTrue(packetSequence > lastSequence[partitionId]);
+            lastSequence[partitionId] = packetSequence;
+            if (partitionId >= 7) {
+                connections.add(packet.getConn());
+            }
+        }
+        assertEquals(CONNECTIONS_PER_MEMBER, connections.size());
+    }
+
+    @Test
+    public void whenGroupCompletes_thenPartitionsWrittenBeforeMovedFromPrimaryConnection() {
+        TcpIpConnection primary = connect(connManagerA, addressB);
+        assertGroupCompleteEventually(connManagerA, addressB);
+        final TcpIpConnection secondary = primary.getGroup().select(1);
+        assertNotSame(primary, secondary);
+
+        // a group of two of the connections which completes only after partition 1 has been written to
+        final TcpIpConnectionGroup group = new TcpIpConnectionGroup(primary, 2, ioServiceA.partitionCount);
+        assertSame(primary, group.select(1));
+        assertTrue(group.add(secondary));
+
+        assertTrue(group.isComplete());
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertSame(secondary, group.select(1));
+            }
+        });
+        assertSame(primary, group.select(2));
+    }
+
+    @Test
+    public void whenSecondaryConnectionClosed_thenPrimaryConnectionKept() {
+        TcpIpConnection primary = connect(connManagerA, addressB);
+        assertGroupCompleteEventually(connManagerA, addressB);
+        TcpIpConnectionGroup group = primary.getGroup();
+        TcpIpConnection secondary = group.select(1);
+        assertNotSame(primary, secondary);
+        assertTrue(secondary.isSecondary());
+
+        secondary.close("test", null);
+
+        assertTrue(primary.isAlive());
+        assertFalse(group.isComplete());
+        assertSame(primary, group.select(1));
+        assertNotSame(primary, group.select(2));
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(CONNECTIONS_PER_MEMBER - 1, connManagerA.getActiveConnectionCount());
+                assertEquals(CONNECTIONS_PER_MEMBER - 1, connManagerB.getActiveConnectionCount());
+            }
+        });
+        assertSame(primary, connManagerA.getConnection(addressB));
+
+        assertTrue(connManagerA.transmit(new Packet(serializationService.toBytes(1), 1), primary));
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(1, packetsB.size());
+            }
+        });
+        assertFalse(((TcpIpConnection) packetsB.get(0).getConn()).isSecondary());
+    }
+
+    @Test
+    public void whenOtherMemberUsesSingleConnection_thenPrimaryConnectionKept() {
+        connManagerC.start();
+        final TcpIpConnection primary = connect(connManagerA, addressC);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(1, connManagerA.getActiveConnectionCount());
+            }
+        });
+        assertTrueAllTheTime(new AssertTask() {
+            @Override
+            public void run() {
+                assertTrue(primary.isAlive());
+                assertSame(primary, connManagerA.getConnection(addressC));
+            }
+        }, 3);
+        assertFalse(primary.getGroup().isComplete());
+        assertSame(primary, primary.getGroup().select(1));
+    }
+
+    @Test
+    public void whenPrimaryConnectionClosed_thenSecondaryConnectionsClosed() {
+        TcpIpConnection primary = connect(connManagerA, addressB);
+        assertGroupCompleteEventually(connManagerA, addressB);
+
+        primary.close("test", null);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(0, connManagerA.getActiveConnectionCount());
+                assertEquals(0, connManagerB.getActiveConnectionCount());
+            }
+        });
+    }
+
+    private static boolean isGroupComplete(TcpIpConnection connection) {
+        TcpIpConnectionGroup group = connection.getGroup();
+        return group != null && group.isComplete();
+    }
+
+    private void assertGroupCompleteEventually(final TcpIpConnectionManager connectionManager, final Address address) {
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                TcpIpConnection connection = (TcpIpConnection) connectionManager.getConnection(address);
+                assertNotNull(connection);
+                TcpIpConnectionGroup group = connection.getGroup();
+                assertNotNull(group);
+                assertSame(connection, group.getPrimary());
+                assertTrue(group.isComplete());
+            }
+        });
+    }
+}
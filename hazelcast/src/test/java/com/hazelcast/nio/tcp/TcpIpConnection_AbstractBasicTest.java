@@ -27,6 +27,7 @@ import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static java.lang.System.currentTimeMillis;
 import static org.junit.Assert.assertEquals;
@@ -98,6 +99,34 @@ public abstract class TcpIpConnection_AbstractBasicTest extends TcpIpConnection_
         assertEquals(packet, found);
     }
 
+    @Test
+    public void write_whenLargePayloads() {
+        TcpIpConnection c = connect(connManagerA, addressB);
+
+        // small payloads are copied into the output buffer, payloads of 8 KB or more can be written by reference
+        int[] payloadSizes = {8 * 1024, 100, 8 * 1024 - 1, 64 * 1024, 10, 1024 * 1024, 8 * 1024, 8 * 1024 + 1};
+        final List<Packet> packets = new ArrayList<Packet>();
+        Random random = new Random();
+        for (int payloadSize : payloadSizes) {
+            byte[] payload = new byte[payloadSize];
+            random.nextBytes(payload);
+            Packet packet = new Packet(payload);
+            packets.add(packet);
+            assertTrue(c.write(packet));
+        }
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                assertEquals(packets.size(), packetsB.size());
+            }
+        });
+
+        for (int i = 0; i < packets.size(); i++) {
+            assertEquals(packets.get(i), packetsB.get(i));
+        }
+    }
+
     @Test
     public void lastWriteTimeMillis_whenPacketWritten() {
         TcpIpConnection connAB = connect(connManagerA, addressB);
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.query.DefaultIndexProvider;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class BitmapIndexImplTest {
+
+    private static final String[] STATUSES = {"open", "closed", "pending"};
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    private Indexes indexes;
+
+    @Before
+    public void setUp() {
+        indexes = new Indexes(ss, new DefaultIndexProvider(), Extractors.empty(), true, IndexCopyBehavior.COPY_ON_READ);
+        indexes.addOrGetIndex("bitmap(status)", false);
+        indexes.addOrGetIndex("bitmap( region )", false);
+        // 100 tickets: statuses cycle open, closed, pending; regions cycle 0..3
+        for (int i = 0; i < 100; i++) {
+            save(i, new Ticket(STATUSES[i % 3], i % 4), null);
+        }
+    }
+
+    @Test
+    public void testIndexesCreateBitmapIndex() {
+        Index index = indexes.getIndex("status");
+
+        assertTrue(index instanceof BitmapIndexImpl);
+        assertFalse(index.isOrdered());
+        assertSame(index, indexes.addOrGetIndex("bitmap(status)", true));
+
+        indexes.destroyIndex("bitmap(status)");
+        assertNull(indexes.getIndex("status"));
+    }
+
+    @Test
+    public void testEqual() {
+        Set<QueryableEntry> result = indexes.getIndex("status").getRecords("open");
+
+        assertTrue(result instanceof BitmapResultSet);
+        assertEquals(34, result.size());
+        for (QueryableEntry entry : result) {
+            assertEquals("open", ((Ticket) entry.getValue()).getStatus());
+        }
+        assertTrue(result.contains(entry(0)));
+        assertFalse(result.contains(entry(1)));
+    }
+
+    @Test
+    public void testInAndRanges() {
+        Index index = indexes.getIndex("region");
+
+        assertEquals(50, index.getRecords(new Comparable[]{0, 2}).size());
+        assertEquals(50, index.getSubRecordsBetween(1, 2).size());
+        assertEquals(50, index.getSubRecordsBetween(2, 1).size());
+        assertEquals(75, index.getSubRecords(ComparisonType.GREATER_EQUAL, 1).size());
+        assertEquals(75, index.getSubRecords(ComparisonType.NOT_EQUAL, 3).size());
+    }
+
+    @Test
+    public void testAndCombinesBitmaps() {
+        Predicate predicate = Predicates.and(Predicates.equal("status", "open"), Predicates.equal("region", 0));
+        Set<QueryableEntry> result = indexes.query(predicate);
+
+        // i % 3 == 0 and i % 4 == 0, i.e. i % 12 == 0
+        assertEquals(9, result.size());
+        for (QueryableEntry entry : result) {
+            assertEquals(0, ((Integer) entry.getKey()) % 12);
+        }
+    }
+
+    @Test
+    public void testOrCombinesBitmaps() {
+        Predicate predicate = Predicates.or(Predicates.equal("status", "open"), Predicates.equal("region", 0));
+        Set<QueryableEntry> result = indexes.query(predicate);
+
+        assertTrue(result instanceof BitmapResultSet);
+        // 34 + 25 - 9
+        assertEquals(50, result.size());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        save(0, new Ticket("closed", 0), new Ticket("open", 0));
+        removeEntry(3, new Ticket("open", 3));
+
+        assertEquals(32, indexes.getIndex("status").getRecords("open").size());
+        assertEquals(34, indexes.getIndex("status").getRecords("closed").size());
+        assertEquals(99, indexes.getIndex("region").getSubRecords(ComparisonType.GREATER_EQUAL, 0).size());
+    }
+
+    @Test
+    public void testResultSetIgnoresReusedOrdinals() {
+        Set<QueryableEntry> open = indexes.getIndex("status").getRecords("open");
+
+        // the ordinal of key 0 is released and reused by key 1000, which is not in the result set
+        removeEntry(0, new Ticket("open", 0));
+        save(1000, new Ticket("closed", 1), null);
+
+        assertEquals(33, open.size());
+        for (Iterator<QueryableEntry> it = open.iterator(); it.hasNext(); ) {
+            assertEquals("open", ((Ticket) it.next().getValue()).getStatus());
+        }
+        assertFalse(open.contains(entry(1000)));
+    }
+
+    @Test
+    public void testCopyOnWriteResultSetKeepsMembership() {
+        indexes = new Indexes(ss, new DefaultIndexProvider(), Extractors.empty(), true, IndexCopyBehavior.COPY_ON_WRITE);
+        indexes.addOrGetIndex("bitmap(status)", false);
+        for (int i = 0; i < 10; i++) {
+            save(i, new Ticket("open", i), null);
+        }
+        Set<QueryableEntry> open = indexes.getIndex("status").getRecords("open");
+
+        save(10, new Ticket("open", 10), null);
+
+        assertEquals(10, open.size());
+        assertFalse(open.contains(entry(10)));
+        assertEquals(11, indexes.getIndex("status").getRecords("open").size());
+    }
+
+    @Test
+    public void testClear() {
+        Set<QueryableEntry> open = indexes.getIndex("status").getRecords("open");
+        indexes.clearAll();
+        save(1, new Ticket("closed", 1), null);
+
+        assertEquals(0, indexes.getIndex("status").getRecords("open").size());
+        assertEquals(1, indexes.getIndex("status").getRecords("closed").size());
+        assertEquals(0, open.size());
+    }
+
+    private void save(int key, Ticket ticket, Ticket oldTicket) {
+        indexes.saveEntryIndex(new QueryEntry(ss, ss.toData(key), ticket, Extractors.empty()), oldTicket);
+    }
+
+    private void removeEntry(int key, Ticket ticket) {
+        indexes.removeEntryIndex(ss.toData(key), ticket);
+    }
+
+    private QueryEntry entry(int key) {
+        return new QueryEntry(ss, ss.toData(key), new Ticket("open", 0), Extractors.empty());
+    }
+
+    public static class Ticket implements Serializable {
+
+        private final String status;
+        private final Integer region;
+
+        Ticket(String status, Integer region) {
+            this.status = status;
+            this.region = region;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Integer getRegion() {
+            return region;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.query.DefaultIndexProvider;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+
+import static com.hazelcast.query.impl.CompositeValue.NEGATIVE_INFINITY;
+import static com.hazelcast.query.impl.CompositeValue.POSITIVE_INFINITY;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompositeIndexImplTest {
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void testCanonicalName() {
+        CompositeIndexImpl index = newIndex(" tenant , status,ts ", true);
+
+        assertEquals("tenant,status,ts", index.getAttributeName());
+        assertArrayEquals(new String[]{"tenant", "status", "ts"}, index.getComponents());
+    }
+
+    @Test
+    public void testIndexesCreateCompositeIndex() {
+        Indexes indexes = new Indexes(ss, new DefaultIndexProvider(), Extractors.empty(), true,
+                IndexCopyBehavior.COPY_ON_READ);
+        Index index = indexes.addOrGetIndex("tenant, status", true);
+
+        assertTrue(index instanceof CompositeIndexImpl);
+        assertSame(index, indexes.addOrGetIndex("tenant,status", true));
+        assertSame(index, indexes.getIndex("tenant,status"));
+        assertEquals(1, indexes.getCompositeIndexes().length);
+
+        indexes.addOrGetIndex("tenant", true);
+        assertEquals(1, indexes.getCompositeIndexes().length);
+
+        indexes.destroyIndex("tenant , status");
+        assertNull(indexes.getIndex("tenant,status"));
+        assertEquals(0, indexes.getCompositeIndexes().length);
+    }
+
+    @Test
+    public void testPointLookup() {
+        CompositeIndexImpl index = newIndex("tenant,status,ts", false);
+        populate(index);
+
+        assertEquals(1, index.getRecords(value(1, "open", 5)).size());
+        assertEquals(0, index.getRecords(value(1, "open", 500)).size());
+        // query values are converted to the types of the attributes
+        assertEquals(1, index.getRecords(value("1", "open", 5L)).size());
+    }
+
+    @Test
+    public void testPrefixLookup() {
+        CompositeIndexImpl index = newIndex("tenant,status,ts", true);
+        populate(index);
+
+        assertEquals(11, index.getSubRecords(value(1, "open", NEGATIVE_INFINITY), true,
+                value(1, "open", POSITIVE_INFINITY), true).size());
+        assertEquals(21, index.getSubRecords(value(1, NEGATIVE_INFINITY, NEGATIVE_INFINITY), true,
+                value(1, POSITIVE_INFINITY, POSITIVE_INFINITY), true).size());
+    }
+
+    @Test
+    public void testRangeLookup() {
+        CompositeIndexImpl index = newIndex("tenant,status,ts", true);
+        populate(index);
+
+        // ts > 5
+        assertEquals(4, index.getSubRecords(value(1, "open", 5), false,
+                value(1, "open", POSITIVE_INFINITY), true).size());
+        // ts >= 5 and ts < 8
+        assertEquals(3, index.getSubRecords(value(1, "open", 5), true, value(1, "open", 8), false).size());
+        // ts < 3, nulls excluded
+        assertEquals(3, index.getSubRecords(value(1, "open", IndexImpl.NULL), false,
+                value(1, "open", 3), false).size());
+        // reversed range
+        assertEquals(0, index.getSubRecords(value(1, "open", 8), true, value(1, "open", 5), true).size());
+    }
+
+    @Test
+    public void testNullComponents() {
+        CompositeIndexImpl index = newIndex("tenant,status,ts", true);
+        save(index, 1, new Ticket(1, null, null));
+        save(index, 2, new Ticket(1, "open", 1));
+
+        assertEquals(1, index.getRecords(value(1, IndexImpl.NULL, IndexImpl.NULL)).size());
+        assertEquals(1, index.getRecords(value(1, null, null)).size());
+        assertEquals(1, index.getRecords(value(1, "open", 1)).size());
+    }
+
+    @Test
+    public void testConverterIsResolved_afterNullComponents() {
+        CompositeIndexImpl index = newIndex("tenant,ts", true);
+        save(index, 1, new Ticket(1, "open", null));
+        save(index, 2, new Ticket(1, "open", 7));
+
+        // the converter of ts is known once a non-null value is indexed
+        assertEquals(1, index.getRecords(value(1, "7")).size());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        CompositeIndexImpl index = newIndex("tenant,status", true);
+        Ticket open = new Ticket(1, "open", 1);
+        Ticket closed = new Ticket(1, "closed", 1);
+        save(index, 1, open);
+        index.saveEntryIndex(new QueryEntry(ss, ss.toData(1), closed, Extractors.empty()), open);
+
+        assertEquals(0, index.getRecords(value(1, "open")).size());
+        assertEquals(1, index.getRecords(value(1, "closed")).size());
+
+        index.removeEntryIndex(ss.toData(1), closed);
+        assertEquals(0, index.getRecords(value(1, "closed")).size());
+    }
+
+    @Test
+    public void testMultiValueComponent_indexedPerValue() {
+        CompositeIndexImpl index = newIndex("tenant,tags[any]", true);
+        save(index, 1, new TaggedTicket(1, new Object(), "a", "b"));
+
+        assertEquals(1, index.getRecords(value(1, "a")).size());
+        assertEquals(1, index.getRecords(value(1, "b")).size());
+        assertEquals(1, index.getSubRecords(value(1, NEGATIVE_INFINITY), true, value(1, POSITIVE_INFINITY), true).size());
+
+        TaggedTicket retagged = new TaggedTicket(1, new Object(), "b", "c");
+        index.saveEntryIndex(new QueryEntry(ss, ss.toData(1), retagged, Extractors.empty()),
+                new TaggedTicket(1, new Object(), "a", "b"));
+        assertEquals(0, index.getRecords(value(1, "a")).size());
+        assertEquals(1, index.getRecords(value(1, "c")).size());
+
+        index.removeEntryIndex(ss.toData(1), retagged);
+        assertEquals(0, index.getRecords(value(1, "b")).size());
+        assertEquals(0, index.getRecords(value(1, "c")).size());
+    }
+
+    @Test
+    public void testNonComparableComponent_entryNotIndexed() {
+        CompositeIndexImpl index = newIndex("tenant,owner", true);
+        TaggedTicket ticket = new TaggedTicket(1, new Object());
+
+        save(index, 1, ticket);
+        assertEquals(0, index.getSubRecords(value(1, NEGATIVE_INFINITY), true, value(1, POSITIVE_INFINITY), true).size());
+
+        index.removeEntryIndex(ss.toData(1), ticket);
+    }
+
+    @Test
+    public void testIsComposite() {
+        assertTrue(CompositeIndexImpl.isComposite("a,b"));
+        assertFalse(CompositeIndexImpl.isComposite("a.b"));
+    }
+
+    /**
+     * Tenant 1 has 10 open tickets with ts 0..9 and 10 closed tickets; tenant 2 has 10 open tickets.
+     * One more open ticket of tenant 1 has no ts.
+     */
+    private void populate(CompositeIndexImpl index) {
+        int key = 0;
+        for (int i = 0; i < 10; i++) {
+            save(index, key++, new Ticket(1, "open", i));
+            save(index, key++, new Ticket(1, "closed", i));
+            save(index, key++, new Ticket(2, "open", i));
+        }
+        save(index, key, new Ticket(1, "open", null));
+    }
+
+    private CompositeIndexImpl newIndex(String attribute, boolean ordered) {
+        return new CompositeIndexImpl(attribute, ordered, ss, Extractors.empty(), IndexCopyBehavior.COPY_ON_READ);
+    }
+
+    private void save(IndexImpl index, int key, Object value) {
+        index.saveEntryIndex(new QueryEntry(ss, ss.toData(key), value, Extractors.empty()), null);
+    }
+
+    private static CompositeValue value(Comparable... components) {
+        return new CompositeValue(components);
+    }
+
+    public static class Ticket implements Serializable {
+
+        private final Integer tenant;
+        private final String status;
+        private final Integer ts;
+
+        Ticket(Integer tenant, String status, Integer ts) {
+            this.tenant = tenant;
+            this.status = status;
+            this.ts = ts;
+        }
+
+        public Integer getTenant() {
+            return tenant;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Integer getTs() {
+            return ts;
+        }
+    }
+
+    public static class TaggedTicket {
+
+        private final Integer tenant;
+        private final Object owner;
+        private final String[] tags;
+
+        TaggedTicket(Integer tenant, Object owner, String... tags) {
+            this.tenant = tenant;
+            this.owner = owner;
+            this.tags = tags;
+        }
+
+        public Integer getTenant() {
+            return tenant;
+        }
+
+        public Object getOwner() {
+            return owner;
+        }
+
+        public String[] getTags() {
+            return tags;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.query.impl.CompositeValue.NEGATIVE_INFINITY;
+import static com.hazelcast.query.impl.CompositeValue.POSITIVE_INFINITY;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompositeIndexStatisticsTest {
+
+    private final CompositeIndexStatistics statistics = new CompositeIndexStatistics(2);
+
+    @Before
+    public void setUp() {
+        // 10 tenants with 1000 amounts each
+        for (int i = 0; i < 10000; i++) {
+            statistics.onInsert(value(i % 10, i % 1000));
+        }
+    }
+
+    @Test
+    public void testComponentStatistics() {
+        assertEquals(10000, statistics.getComponentStatistics(0).getEntryCount());
+        assertEquals(10, statistics.getComponentStatistics(0).getDistinctValueCount(), 1);
+        assertEquals(1000, statistics.getComponentStatistics(1).getDistinctValueCount(), 50);
+    }
+
+    @Test
+    public void testRangeEstimate_equalityPrefixAndRange() {
+        assertEquals(100, statistics.estimateRangeCount(value(3, 0), value(3, 99)), 10);
+    }
+
+    @Test
+    public void testRangeEstimate_rangeWithoutLowerBound() {
+        assertEquals(100, statistics.estimateRangeCount(value(3, IndexImpl.NULL), value(3, 99)), 10);
+    }
+
+    @Test
+    public void testRangeEstimate_equalityPrefixOnly() {
+        assertEquals(1000, statistics.estimateRangeCount(value(3, NEGATIVE_INFINITY), value(3, POSITIVE_INFINITY)), 100);
+    }
+
+    @Test
+    public void testRangeEstimate_afterRemoveAndClear() {
+        for (int i = 0; i < 5000; i++) {
+            statistics.onRemove(value(i % 10, i % 1000));
+        }
+        assertEquals(5000, statistics.getComponentStatistics(1).getEntryCount());
+        assertEquals(50, statistics.estimateRangeCount(value(3, 0), value(3, 99)), 10);
+
+        statistics.clear();
+        assertEquals(0, statistics.estimateRangeCount(value(3, 0), value(3, 99)), 0.01);
+    }
+
+    private static CompositeValue value(Comparable tenant, Comparable amount) {
+        return new CompositeValue(new Comparable[]{tenant, amount});
+    }
+}
@@ -39,6 +39,7 @@ import com.hazelcast.query.Predicates;
 import com.hazelcast.spi.properties.GroupProperty;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
 import com.hazelcast.test.annotation.ParallelTest;
 import com.hazelcast.test.annotation.QuickTest;
 import org.junit.Test;
@@ -59,6 +60,7 @@ import java.util.Set;
 import static com.hazelcast.config.MaxSizeConfig.MaxSizePolicy.PER_PARTITION;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 
@@ -164,6 +166,76 @@ public class IndexIntegrationTest extends HazelcastTestSupport {
         assertThat(values, hasSize(1));
     }
 
+    @Test
+    public void query_withPartitionedIndexes() {
+        String name = randomMapName();
+        Config config = new Config();
+        config.setProperty(GroupProperty.INDEX_PARTITIONED.getName(), "true");
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "7");
+        config.getMapConfig(name).addMapIndexConfig(new MapIndexConfig("amount", true));
+
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Trade> map = instance.getMap(name);
+        for (int i = 0; i < 100; i++) {
+            Trade trade = new Trade();
+            trade.setCurrency(i % 2 == 0 ? "EUR" : "USD");
+            trade.setAmount((long) i);
+            map.put(i, trade);
+        }
+        map.remove(10);
+
+        MapContainer mapContainer = getMapServiceContext(instance).getMapContainer(name);
+        assertFalse(mapContainer.isGlobalIndexEnabled());
+        assertEquals(7, getIndexOfAttributeForMap(instance, name, "amount").size());
+        assertThat(map.values(Predicates.lessThan("amount", 20L)), hasSize(19));
+        assertThat(map.values(Predicates.and(Predicates.lessThan("amount", 20L), Predicates.equal("currency", "EUR"))),
+                hasSize(9));
+    }
+
+    @Test
+    public void bitmapIndex_isReplicatedToJoiningMember_withPartitionedIndexes() {
+        testBitmapIndexReplication(true);
+    }
+
+    @Test
+    public void bitmapIndex_isReplicatedToJoiningMember_withGlobalIndexes() {
+        testBitmapIndexReplication(false);
+    }
+
+    private void testBitmapIndexReplication(boolean partitionedIndexes) {
+        String name = randomMapName();
+        Config config = new Config();
+        config.setProperty(GroupProperty.INDEX_PARTITIONED.getName(), String.valueOf(partitionedIndexes));
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "7");
+
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        IMap<Integer, Trade> map = instance1.getMap(name);
+        map.addIndex("bitmap(currency)", false);
+        for (int i = 0; i < 100; i++) {
+            Trade trade = new Trade();
+            trade.setCurrency(i % 2 == 0 ? "EUR" : "USD");
+            trade.setAmount((long) i);
+            map.put(i, trade);
+        }
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2);
+
+        MapServiceContext mapServiceContext = getMapServiceContext(instance2);
+        MapContainer mapContainer = mapServiceContext.getMapContainer(name);
+        if (partitionedIndexes) {
+            for (Index index : getIndexOfAttributeForMap(instance2, name, "currency")) {
+                assertInstanceOf(BitmapIndexImpl.class, index);
+            }
+        } else {
+            assertInstanceOf(BitmapIndexImpl.class, mapContainer.getIndexes().getIndex("currency"));
+        }
+        assertEquals(Boolean.FALSE, mapContainer.getIndexDefinitions().get("bitmap(currency)"));
+        IMap<Integer, Trade> map2 = instance2.getMap(name);
+        assertThat(map2.values(Predicates.equal("currency", "EUR")), hasSize(50));
+    }
+
     @Test
     public void foo_methodGetters() {
         HazelcastInstance hazelcastInstance = createHazelcastInstance();
@@ -190,10 +262,14 @@ public class IndexIntegrationTest extends HazelcastTestSupport {
         assertThat(result, hasSize(1));
     }
 
-    private static List<Index> getIndexOfAttributeForMap(HazelcastInstance instance, String mapName, String attribute) {
+    private static MapServiceContext getMapServiceContext(HazelcastInstance instance) {
         Node node = getNode(instance);
         MapService service = node.nodeEngine.getService(MapService.SERVICE_NAME);
-        MapServiceContext mapServiceContext = service.getMapServiceContext();
+        return service.getMapServiceContext();
+    }
+
+    private static List<Index> getIndexOfAttributeForMap(HazelcastInstance instance, String mapName, String attribute) {
+        MapServiceContext mapServiceContext = getMapServiceContext(instance);
         MapContainer mapContainer = mapServiceContext.getMapContainer(mapName);
 
         List<Index> result = new ArrayList<Index>();
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class IndexStatisticsTest {
+
+    private final IndexStatistics statistics = new IndexStatistics();
+
+    @Test
+    public void testEntryAndDistinctCount() {
+        for (int i = 0; i < 10000; i++) {
+            statistics.onInsert(i % 100);
+        }
+
+        assertEquals(10000, statistics.getEntryCount());
+        assertEquals(100, statistics.getDistinctValueCount(), 5);
+        assertEquals(100, statistics.estimateEqualCount(), 5);
+    }
+
+    @Test
+    public void testRemoveAndUpdate() {
+        statistics.onInsert(1);
+        statistics.onInsert(2);
+        statistics.onUpdate(2, 8);
+        statistics.onRemove(1);
+
+        assertEquals(1, statistics.getEntryCount());
+        // the distinct count is capped by the number of entries
+        assertEquals(1, statistics.getDistinctValueCount());
+        assertEquals(0, statistics.estimateRangeCount(0, 7), 0.01);
+        assertEquals(1, statistics.estimateRangeCount(8, 15), 0.01);
+    }
+
+    @Test
+    public void testRangeEstimate() {
+        for (int i = 0; i < 1024; i++) {
+            statistics.onInsert(i);
+        }
+
+        assertEquals(1024, statistics.estimateRangeCount(null, null), 0.01);
+        assertEquals(1024, statistics.estimateRangeCount(0, null), 0.01);
+        assertEquals(512, statistics.estimateRangeCount(512, null), 0.01);
+        assertEquals(256, statistics.estimateRangeCount(null, 255), 0.01);
+        assertEquals(128, statistics.estimateRangeCount(512, 639), 0.01);
+        assertEquals(0, statistics.estimateRangeCount(2000, null), 0.01);
+        assertEquals(0, statistics.estimateRangeCount(10, 5), 0.01);
+    }
+
+    @Test
+    public void testRangeEstimate_negativeAndFloatingPointValues() {
+        for (int i = -512; i < 512; i++) {
+            statistics.onInsert(i + 0.5d);
+        }
+
+        assertEquals(512, statistics.estimateRangeCount(null, -1d), 0.01);
+        assertEquals(512, statistics.estimateRangeCount(0d, null), 0.01);
+    }
+
+    @Test
+    public void testRangeEstimate_nonNumericValues() {
+        for (int i = 0; i < 300; i++) {
+            statistics.onInsert("value" + i);
+        }
+
+        assertEquals(100, statistics.estimateRangeCount("a", "b"), 0.01);
+    }
+
+    @Test
+    public void testClear() {
+        statistics.onInsert(1);
+        statistics.clear();
+
+        assertEquals(0, statistics.getEntryCount());
+        assertEquals(0, statistics.getDistinctValueCount());
+        assertEquals(0, statistics.estimateEqualCount(), 0.01);
+    }
+
+    @Test
+    public void testBuckets() {
+        assertBucket(0);
+        assertBucket(1);
+        assertBucket(5);
+        assertBucket(-1);
+        assertBucket(-2);
+        assertBucket(-5);
+        assertBucket(1L << 62);
+        assertBucket(Long.MIN_VALUE);
+        assertTrue(IndexStatistics.bucketOf(-1) < IndexStatistics.bucketOf(0));
+    }
+
+    private static void assertBucket(long value) {
+        int bucket = IndexStatistics.bucketOf(value);
+        assertTrue(value + " in bucket " + bucket, IndexStatistics.bucketLowerBound(bucket) <= value);
+        assertTrue(value + " in bucket " + bucket, value < IndexStatistics.bucketUpperBound(bucket));
+    }
+}
@@ -119,6 +119,26 @@ public class IndexesTest {
         assertEquals(8, new HashSet<QueryableEntry>(indexes.query(new SqlPredicate("name > 'aac'"))).size());
     }
 
+    @Test
+    public void testStatistics_notMaintainedByDefault() {
+        Indexes indexes = new Indexes(serializationService, new DefaultIndexProvider(), Extractors.empty(), true, copyBehavior);
+        Index index = indexes.addOrGetIndex("name", false);
+        indexes.saveEntryIndex(new QueryEntry(serializationService, toData(1), new Value("abc"), Extractors.empty()), null);
+
+        assertNull(index.getStatistics());
+    }
+
+    @Test
+    public void testStatistics_maintainedWhenEnabled() {
+        Indexes indexes = Indexes.newBuilder(serializationService, copyBehavior).statisticsEnabled(true).build();
+        Index index = indexes.addOrGetIndex("name", false);
+        indexes.saveEntryIndex(new QueryEntry(serializationService, toData(1), new Value("abc"), Extractors.empty()), null);
+        indexes.saveEntryIndex(new QueryEntry(serializationService, toData(2), new Value("xyz"), Extractors.empty()), null);
+        indexes.removeEntryIndex(toData(2), new Value("xyz"));
+
+        assertEquals(1, index.getStatistics().getEntryCount());
+    }
+
     /**
      * Imagine we have only keys and nullable values. And we add index for a field of that nullable object.
      * When we execute a query on keys, there should be no returned value from indexing service and it does not
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParametersRunnerFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.junit.runners.Parameterized.UseParametersRunnerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.query.QueryConstants.THIS_ATTRIBUTE_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+@UseParametersRunnerFactory(HazelcastParametersRunnerFactory.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class NumericSortedIndexStoreTest {
+
+    @Parameter(0)
+    public IndexCopyBehavior copyBehavior;
+
+    @Parameters(name = "copyBehavior: {0}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{
+                {IndexCopyBehavior.COPY_ON_READ},
+                {IndexCopyBehavior.COPY_ON_WRITE},
+                {IndexCopyBehavior.NEVER},
+        });
+    }
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void numericStoreIsUsed_forOrderedNumericIndex() {
+        IndexImpl index = newIndex(true);
+        save(index, 1, 1L);
+
+        assertTrue(index.indexStore instanceof NumericSortedIndexStore);
+    }
+
+    @Test
+    public void numericStoreIsNotUsed_forUnorderedIndex() {
+        IndexImpl index = newIndex(false);
+        save(index, 1, 1L);
+
+        assertTrue(index.indexStore instanceof UnsortedIndexStore);
+    }
+
+    @Test
+    public void numericStoreIsNotUsed_forNonNumericAttribute() {
+        IndexImpl index = newIndex(true);
+        save(index, 1, "a");
+
+        assertTrue(index.indexStore instanceof SortedIndexStore);
+    }
+
+    @Test
+    public void storeIsRecreated_afterClear() {
+        IndexImpl index = newIndex(true);
+        save(index, 1, 1L);
+        index.clear();
+        save(index, 1, "a");
+
+        assertTrue(index.indexStore instanceof SortedIndexStore);
+        assertEquals(1, index.getRecords("a").size());
+    }
+
+    @Test
+    public void testLongRanges() {
+        IndexImpl index = newIndex(true);
+        for (int i = 0; i < 1000; i++) {
+            save(index, i, (long) i);
+        }
+
+        assertEquals(1, index.getRecords(500L).size());
+        assertEquals(0, index.getRecords(5000L).size());
+        assertEquals(3, index.getRecords(new Comparable[]{1L, 2L, 3L, 5000L}).size());
+        assertEquals(101, index.getSubRecordsBetween(100L, 200L).size());
+        assertEquals(0, index.getSubRecordsBetween(200L, 100L).size());
+        assertEquals(399, index.getSubRecords(ComparisonType.GREATER, 600L).size());
+        assertEquals(400, index.getSubRecords(ComparisonType.GREATER_EQUAL, 600L).size());
+        assertEquals(10, index.getSubRecords(ComparisonType.LESSER, 10L).size());
+        assertEquals(11, index.getSubRecords(ComparisonType.LESSER_EQUAL, 10L).size());
+        assertEquals(999, index.getSubRecords(ComparisonType.NOT_EQUAL, 10L).size());
+    }
+
+    @Test
+    public void testQueryValuesAreConverted() {
+        IndexImpl index = newIndex(true);
+        for (int i = 0; i < 100; i++) {
+            save(index, i, i);
+        }
+
+        assertEquals(1, index.getRecords(50L).size());
+        assertEquals(1, index.getRecords("50").size());
+        assertEquals(11, index.getSubRecordsBetween(10L, "20").size());
+    }
+
+    @Test
+    public void testDoubleOrdering() {
+        IndexImpl index = newIndex(true);
+        double[] values = {Double.NEGATIVE_INFINITY, -1000.5, -1d, -0.0d, 0.0d, 0.25d, 1d, 1000.5, Double.POSITIVE_INFINITY};
+        for (int i = 0; i < values.length; i++) {
+            save(index, i, values[i]);
+        }
+
+        assertEquals(4, index.getSubRecords(ComparisonType.LESSER, 0.0d).size());
+        assertEquals(3, index.getSubRecords(ComparisonType.LESSER, -0.0d).size());
+        assertEquals(2, index.getSubRecordsBetween(-1000.5d, -0.5d).size());
+        assertEquals(4, index.getSubRecords(ComparisonType.GREATER, 0.0d).size());
+        assertEquals(1, index.getRecords(-0.0d).size());
+    }
+
+    @Test
+    public void testDuplicateValues() {
+        IndexImpl index = newIndex(true);
+        for (int i = 0; i < 100; i++) {
+            save(index, i, (long) (i % 10));
+        }
+
+        assertEquals(10, index.getRecords(3L).size());
+        assertEquals(30, index.getSubRecordsBetween(3L, 5L).size());
+
+        for (int i = 0; i < 100; i += 10) {
+            index.removeEntryIndex(ss.toData(i), 0L);
+        }
+        assertEquals(0, index.getRecords(0L).size());
+        assertEquals(90, index.getSubRecords(ComparisonType.GREATER_EQUAL, 0L).size());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        IndexImpl index = newIndex(true);
+        save(index, 1, 10L);
+        save(index, 2, 10L);
+
+        index.saveEntryIndex(new QueryEntry(ss, ss.toData(1), 20L, Extractors.empty()), 10L);
+        assertEquals(1, index.getRecords(10L).size());
+        assertEquals(1, index.getRecords(20L).size());
+
+        index.removeEntryIndex(ss.toData(2), 10L);
+        assertEquals(0, index.getRecords(10L).size());
+        assertEquals(1, index.getSubRecords(ComparisonType.GREATER_EQUAL, 0L).size());
+    }
+
+    @Test
+    public void testResultKeys() {
+        IndexImpl index = newIndex(true);
+        for (int i = 0; i < 10; i++) {
+            save(index, i, (long) i);
+        }
+        save(index, 10, 5L);
+
+        Set<Object> keys = new HashSet<Object>();
+        for (QueryableEntry entry : index.getSubRecordsBetween(4L, 6L)) {
+            keys.add(entry.getKey());
+        }
+
+        assertEquals(new HashSet<Object>(Arrays.<Object>asList(4, 5, 6, 10)), keys);
+    }
+
+    private IndexImpl newIndex(boolean ordered) {
+        return new IndexImpl(THIS_ATTRIBUTE_NAME.value(), ordered, ss, Extractors.empty(), copyBehavior);
+    }
+
+    private void save(IndexImpl index, int key, Object value) {
+        index.saveEntryIndex(new QueryEntry(ss, ss.toData(key), value, Extractors.empty()), null);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.impl.query.DefaultIndexProvider;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.CompositeValue;
+import com.hazelcast.query.impl.IndexCopyBehavior;
+import com.hazelcast.query.impl.IndexImpl;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.lessEqual;
+import static com.hazelcast.query.Predicates.notEqual;
+import static com.hazelcast.query.impl.CompositeValue.NEGATIVE_INFINITY;
+import static com.hazelcast.query.impl.CompositeValue.POSITIVE_INFINITY;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CompositeIndexVisitorTest {
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    private CompositeIndexVisitor visitor;
+    private Indexes indexes;
+
+    @Before
+    public void setUp() {
+        visitor = new CompositeIndexVisitor();
+        indexes = new Indexes(ss, new DefaultIndexProvider(), Extractors.empty(), true, IndexCopyBehavior.COPY_ON_READ);
+    }
+
+    @Test
+    public void whenNoCompositeIndex_thenReturnItself() {
+        indexes.addOrGetIndex("tenant", true);
+        AndPredicate and = (AndPredicate) and(equal("tenant", 1), equal("status", "open"));
+
+        assertSame(and, visitor.visit(and, indexes));
+    }
+
+    @Test
+    public void whenAllAttributesMatchedByEquality_thenRewriteToPointLookup() {
+        indexes.addOrGetIndex("tenant,status", false);
+        Predicate tenant = equal("tenant", 1);
+        Predicate status = equal("status", "open");
+
+        Predicate and = and(tenant, status);
+
+        CompositeIndexPredicate result = (CompositeIndexPredicate) visitor.visit((AndPredicate) and, indexes);
+
+        assertEquals("tenant,status", result.getIndexName());
+        assertEquals(value(1, "open"), result.getFrom());
+        assertSame(result.getFrom(), result.getTo());
+        assertArrayEquals(new Predicate[]{tenant, status}, result.getPredicates());
+    }
+
+    @Test
+    public void whenPrefixAndRangeMatched_thenRewriteToRangeLookup() {
+        indexes.addOrGetIndex("tenant,status,ts", true);
+        Predicate other = equal("owner", "bob");
+        AndPredicate and = (AndPredicate) and(equal("tenant", 1), other, equal("status", "open"), greaterThan("ts", 5));
+
+        AndPredicate result = (AndPredicate) visitor.visit(and, indexes);
+
+        assertEquals(2, result.predicates.length);
+        CompositeIndexPredicate composite = (CompositeIndexPredicate) result.predicates[0];
+        assertSame(other, result.predicates[1]);
+        assertEquals(value(1, "open", 5), composite.getFrom());
+        assertFalse(composite.isFromInclusive());
+        assertEquals(value(1, "open", POSITIVE_INFINITY), composite.getTo());
+        assertTrue(composite.isToInclusive());
+    }
+
+    @Test
+    public void whenBoundsGiven_thenPaddedWithInfinities() {
+        indexes.addOrGetIndex("tenant,ts,status", true);
+
+        CompositeIndexPredicate upper = (CompositeIndexPredicate) visitor.visit(
+                (AndPredicate) and(equal("tenant", 1), lessEqual("ts", 5)), indexes);
+        assertEquals(value(1, IndexImpl.NULL, POSITIVE_INFINITY), upper.getFrom());
+        assertFalse(upper.isFromInclusive());
+        assertEquals(value(1, 5, POSITIVE_INFINITY), upper.getTo());
+        assertTrue(upper.isToInclusive());
+
+        CompositeIndexPredicate range = (CompositeIndexPredicate) visitor.visit(
+                (AndPredicate) and(equal("tenant", 1), between("ts", 3, 5)), indexes);
+        assertEquals(value(1, 3, NEGATIVE_INFINITY), range.getFrom());
+        assertTrue(range.isFromInclusive());
+        assertEquals(value(1, 5, POSITIVE_INFINITY), range.getTo());
+        assertTrue(range.isToInclusive());
+    }
+
+    @Test
+    public void whenUnorderedIndexMatchedPartially_thenReturnItself() {
+        indexes.addOrGetIndex("tenant,status,ts", false);
+        AndPredicate and = (AndPredicate) and(equal("tenant", 1), equal("status", "open"), greaterThan("ts", 5));
+
+        assertSame(and, visitor.visit(and, indexes));
+    }
+
+    @Test
+    public void whenOnlyFirstAttributeMatched_thenReturnItself() {
+        indexes.addOrGetIndex("tenant,status", true);
+        AndPredicate and = (AndPredicate) and(equal("tenant", 1), equal("owner", "bob"));
+
+        assertSame(and, visitor.visit(and, indexes));
+    }
+
+    @Test
+    public void whenNotEqual_thenNotMatched() {
+        indexes.addOrGetIndex("tenant,status", false);
+        AndPredicate and = (AndPredicate) and(equal("tenant", 1), notEqual("status", "open"));
+
+        assertSame(and, visitor.visit(and, indexes));
+    }
+
+    @Test
+    public void whenSeveralIndexesMatch_thenLongestMatchWins() {
+        indexes.addOrGetIndex("tenant,status", true);
+        indexes.addOrGetIndex("tenant,status,ts", true);
+        Predicate and = and(equal("tenant", 1), equal("status", "open"), greaterThan("ts", 5));
+
+        CompositeIndexPredicate result = (CompositeIndexPredicate) visitor.visit((AndPredicate) and, indexes);
+
+        assertEquals("tenant,status,ts", result.getIndexName());
+    }
+
+    @Test
+    public void testFilterAndApply() {
+        indexes.addOrGetIndex("tenant,status,ts", true);
+        for (int i = 0; i < 30; i++) {
+            Ticket ticket = new Ticket(i % 3, i % 2 == 0 ? "open" : "closed", i);
+            indexes.saveEntryIndex(new QueryEntry(ss, ss.toData(i), ticket, Extractors.empty()), null);
+        }
+        Predicate predicate = visitor.visit(
+                (AndPredicate) and(equal("tenant", 0), equal("status", "open"), greaterThan("ts", 12)), indexes);
+
+        assertTrue(predicate instanceof CompositeIndexPredicate);
+        CompositeIndexPredicate composite = (CompositeIndexPredicate) predicate;
+        assertTrue(composite.isIndexed(new QueryContext(indexes)));
+        Set<QueryableEntry> result = composite.filter(new QueryContext(indexes));
+        // tenant 0 has open tickets with ts 0, 6, 12, 18 and 24
+        assertEquals(2, result.size());
+        for (QueryableEntry entry : result) {
+            assertTrue(composite.apply(entry));
+        }
+        assertFalse(composite.apply(new QueryEntry(ss, ss.toData(100), new Ticket(0, "open", 5), Extractors.empty())));
+    }
+
+    private static CompositeValue value(Comparable... components) {
+        return new CompositeValue(components);
+    }
+
+    public static class Ticket implements Serializable {
+
+        private final int tenant;
+        private final String status;
+        private final int ts;
+
+        Ticket(int tenant, String status, int ts) {
+            this.tenant = tenant;
+            this.status = status;
+            this.ts = ts;
+        }
+
+        public int getTenant() {
+            return tenant;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public int getTs() {
+            return ts;
+        }
+    }
+}
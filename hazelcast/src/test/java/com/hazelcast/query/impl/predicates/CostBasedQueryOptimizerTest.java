@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.IndexCopyBehavior;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryEntry;
+import com.hazelcast.query.impl.getters.Extractors;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static com.hazelcast.query.Predicates.lessThan;
+import static com.hazelcast.query.Predicates.or;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class CostBasedQueryOptimizerTest {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+
+    private CostBasedQueryOptimizer optimizer;
+    private Indexes indexes;
+
+    @Before
+    public void setUp() {
+        optimizer = new CostBasedQueryOptimizer();
+        indexes = Indexes.newBuilder(ss, IndexCopyBehavior.COPY_ON_READ).statisticsEnabled(true).build();
+        indexes.addOrGetIndex("id", true);
+        indexes.addOrGetIndex("age", true);
+        indexes.addOrGetIndex("city", false);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Person person = new Person(i, i % 100, "city" + i % 10);
+            indexes.saveEntryIndex(new QueryEntry(ss, ss.toData(i), person, Extractors.empty()), null);
+        }
+    }
+
+    @Test
+    public void whenConjunctsInDeclarationOrder_thenMostSelectiveFirst() {
+        Predicate id = lessThan("id", 50);
+        Predicate age = equal("age", 5);
+
+        AndPredicate result = (AndPredicate) optimizer.optimize(and(id, age), indexes);
+
+        assertSame(age, result.predicates[0]);
+        assertSame(id, result.predicates[1]);
+        assertEquals(1, indexes.query(result).size());
+    }
+
+    @Test
+    public void whenConjunctMuchLessSelective_thenEvaluatedAsFilter() {
+        Predicate city = equal("city", "city5");
+        Predicate id = equal("id", 5);
+
+        AndPredicate result = (AndPredicate) optimizer.optimize(and(city, id), indexes);
+
+        assertSame(id, result.predicates[0]);
+        assertThat(result.predicates[1], instanceOf(UnindexedPredicate.class));
+        assertSame(city, ((UnindexedPredicate) result.predicates[1]).getPredicate());
+        assertEquals(1, indexes.query(result).size());
+    }
+
+    @Test
+    public void whenBestConjunctNotSelective_andFilterNeeded_thenFullScan() {
+        Predicate predicate = and(greaterEqual("age", 0), equal("name", "bob"));
+
+        Predicate result = optimizer.optimize(predicate, indexes);
+
+        assertThat(result, instanceOf(UnindexedPredicate.class));
+        assertNull(indexes.query(result));
+    }
+
+    @Test
+    public void whenSinglePredicateNotSelective_thenIndexStillUsed() {
+        Predicate predicate = greaterEqual("age", 0);
+
+        assertSame(predicate, optimizer.optimize(predicate, indexes));
+    }
+
+    @Test
+    public void whenDisjuncts_thenLeastSelectiveFirst() {
+        Predicate id = equal("id", 5);
+        Predicate city = equal("city", "city5");
+
+        OrPredicate result = (OrPredicate) optimizer.optimize(or(id, city), indexes);
+
+        assertSame(city, result.predicates[0]);
+        assertSame(id, result.predicates[1]);
+    }
+
+    @Test
+    public void testExplain() {
+        String plan = optimizer.explain(and(equal("city", "city5"), equal("id", 5)), indexes);
+
+        assertThat(plan, startsWith("AND (estimated entries: 1)"));
+        assertThat(plan, containsString("INDEX id=5 (estimated entries: 1)"));
+        assertThat(plan, containsString("FILTER city=city5"));
+    }
+
+    @Test
+    public void testExplain_fullScan() {
+        String plan = optimizer.explain(and(greaterEqual("age", 0), equal("name", "bob")), indexes);
+
+        assertThat(plan, startsWith("FULL SCAN (entries: " + ENTRY_COUNT + ")"));
+        assertThat(plan, containsString("FILTER name=bob"));
+    }
+
+    public static class Person implements Serializable {
+
+        private final int id;
+        private final int age;
+        private final String city;
+
+        Person(int id, int age, String city) {
+            this.id = id;
+            this.age = age;
+            this.city = city;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public String getName() {
+            return "alice";
+        }
+    }
+}
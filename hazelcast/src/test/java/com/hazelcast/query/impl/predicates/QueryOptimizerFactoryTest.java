@@ -49,6 +49,14 @@ public class QueryOptimizerFactoryTest {
         assertThat(queryOptimizer, instanceOf(RuleBasedQueryOptimizer.class));
     }
 
+    @Test
+    public void newOptimizer_whenPropertyContainsCostBased_thenCreateCostBasedOptimizer() {
+        HazelcastProperties hazelcastProperties = createMockHazelcastProperties(QUERY_OPTIMIZER_TYPE, "COST_BASED");
+        QueryOptimizer queryOptimizer = QueryOptimizerFactory.newOptimizer(hazelcastProperties);
+
+        assertThat(queryOptimizer, instanceOf(CostBasedQueryOptimizer.class));
+    }
+
     @Test
     public void newOptimizer_whenPropertyContainsNone_thenCreateEmptyOptimizer() {
         HazelcastProperties hazelcastProperties = createMockHazelcastProperties(QUERY_OPTIMIZER_TYPE, "NONE");
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingBackup;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.hazelcast.nio.Packet.FLAG_OP_BACKUP_BATCH;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class BackupBatchTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT = 4;
+
+    private OutboundOperationHandler outboundOperationHandler;
+    private AtomicReferenceArray<BackupBatch> pendingBatches;
+    private Address target;
+
+    @Before
+    public void setup() throws Exception {
+        outboundOperationHandler = mock(OutboundOperationHandler.class);
+        pendingBatches = new AtomicReferenceArray<BackupBatch>(PARTITION_COUNT);
+        target = new Address("127.0.0.1", 5702);
+    }
+
+    @Test
+    public void whenBackupAdded_thenBatchPendingForPartition() {
+        BackupBatch batch = new BackupBatch(outboundOperationHandler, pendingBatches);
+
+        batch.add(newBackup(1), target);
+
+        assertSame(batch, pendingBatches.get(1));
+        assertNull(pendingBatches.get(0));
+    }
+
+    @Test
+    public void whenFlushed_thenBatchNoLongerPending() {
+        BackupBatch batch = new BackupBatch(outboundOperationHandler, pendingBatches);
+        batch.add(newBackup(1), target);
+        batch.add(newBackup(2), target);
+
+        batch.flush();
+
+        assertNull(pendingBatches.get(1));
+        assertNull(pendingBatches.get(2));
+    }
+
+    @Test
+    public void whenFlushed_thenLaterBatchOfPartitionStillPending() {
+        BackupBatch batch = new BackupBatch(outboundOperationHandler, pendingBatches);
+        BackupBatch laterBatch = new BackupBatch(outboundOperationHandler, pendingBatches);
+        batch.add(newBackup(1), target);
+        laterBatch.add(newBackup(1), target);
+
+        batch.flush();
+
+        assertSame(laterBatch, pendingBatches.get(1));
+    }
+
+    @Test
+    public void whenSeveralBackups_thenSentAsFlaggedBatch() {
+        BackupBatch batch = new BackupBatch(outboundOperationHandler, pendingBatches);
+        batch.add(newBackup(1), target);
+        batch.add(newBackup(2), target);
+
+        batch.flush();
+
+        verify(outboundOperationHandler).send(isA(PartitionIteratingBackup.class), eq(target), eq(FLAG_OP_BACKUP_BATCH));
+    }
+
+    @Test
+    public void whenSingleBackup_thenSentOnItsOwn() {
+        BackupBatch batch = new BackupBatch(outboundOperationHandler, pendingBatches);
+        Backup backup = newBackup(1);
+        batch.add(backup, target);
+
+        batch.flush();
+
+        verify(outboundOperationHandler).send(backup, target);
+        verify(outboundOperationHandler, never()).send(any(Operation.class), any(Address.class), anyInt());
+    }
+
+    private static Backup newBackup(int partitionId) {
+        Backup backup = new Backup();
+        backup.setPartitionId(partitionId);
+        return backup;
+    }
+}
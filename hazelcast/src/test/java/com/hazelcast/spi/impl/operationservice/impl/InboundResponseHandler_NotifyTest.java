@@ -19,6 +19,8 @@ package com.hazelcast.spi.impl.operationservice.impl;
 import com.hazelcast.config.Config;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.OperationTimeoutException;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.Packet;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.ExpectedRuntimeException;
@@ -40,6 +42,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelTest.class})
@@ -218,6 +222,36 @@ public class InboundResponseHandler_NotifyTest extends HazelcastTestSupport {
         assertInvocationDeregisteredEventually(callId);
     }
 
+    // ==================== multiResponse ======================
+
+    @Test
+    public void multiResponse() {
+        Invocation invocation1 = newInvocation();
+        invocationRegistry.register(invocation1);
+        Invocation invocation2 = newInvocation();
+        invocationRegistry.register(invocation2);
+        long callId1 = invocation1.op.getCallId();
+        long callId2 = invocation2.op.getCallId();
+
+        OutboundResponseHandler outboundResponseHandler = operationService.outboundResponseHandler;
+        Packet[] packets = {
+                outboundResponseHandler.toNormalResponsePacket(callId1, 1, false, "foo"),
+                outboundResponseHandler.toNormalResponsePacket(callId2, 0, false, "bar"),
+                outboundResponseHandler.toBackupAckPacket(callId1, false),
+        };
+        Packet packet = outboundResponseHandler.toMultiResponsePacket(packets, packets.length);
+        Connection connection = mock(Connection.class);
+        when(connection.getEndPoint()).thenReturn(getAddress(local));
+        packet.setConn(connection);
+
+        inboundResponseHandler.handle(packet);
+
+        assertEquals("foo", invocation1.future.join());
+        assertEquals("bar", invocation2.future.join());
+        assertInvocationDeregisteredEventually(callId1);
+        assertInvocationDeregisteredEventually(callId2);
+    }
+
     private void assertInvocationDeregisteredEventually(final long callId) {
         assertTrueEventually(new AssertTask() {
             @Override
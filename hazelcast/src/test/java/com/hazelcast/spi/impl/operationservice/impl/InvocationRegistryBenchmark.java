@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.impl.operationservice.impl.Invocation.Context;
+import com.hazelcast.spi.impl.sequence.CallIdSequenceWithoutBackpressure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures registering, looking up and deregistering invocations by several threads at once, like the partition
+ * threads and the response threads of a member under load.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate per invocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InvocationRegistryBenchmark {
+
+    private static final int THREADS = 8;
+    // the number of invocations each thread keeps pending
+    private static final int PENDING_INVOCATIONS = 64;
+
+    @State(Scope.Benchmark)
+    public static class RegistryState {
+
+        InvocationRegistry registry;
+        Context context;
+
+        @Setup
+        public void setup() {
+            ILogger logger = Logger.getLogger(InvocationRegistryBenchmark.class);
+            registry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure());
+            context = new Context(null, null, null, null, null,
+                    1000, registry, null, logger, null, null, null, null, null, null, null, null, null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class InvocationsState {
+
+        Invocation[] invocations = new Invocation[PENDING_INVOCATIONS];
+        int index;
+
+        @Setup
+        public void setup(RegistryState registryState) {
+            for (int i = 0; i < invocations.length; i++) {
+                invocations[i] = new PartitionInvocation(registryState.context, new DummyOperation(), 0, 0, 0, false, false);
+                registryState.registry.register(invocations[i]);
+            }
+        }
+    }
+
+    /**
+     * Completes the oldest pending invocation of the thread and starts a new one, so the registry always holds
+     * {@code THREADS * PENDING_INVOCATIONS} invocations.
+     */
+    @Benchmark
+    @Threads(THREADS)
+    public Invocation registerGetDeregister(RegistryState registryState, InvocationsState invocationsState) {
+        InvocationRegistry registry = registryState.registry;
+        Invocation invocation = invocationsState.invocations[invocationsState.index];
+        invocationsState.index = (invocationsState.index + 1) % PENDING_INVOCATIONS;
+
+        Invocation found = registry.get(invocation.op.getCallId());
+        registry.deregister(invocation);
+        registry.register(invocation);
+        return found;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(InvocationRegistryBenchmark.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(10)
+                .verbosity(VerboseMode.NORMAL)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
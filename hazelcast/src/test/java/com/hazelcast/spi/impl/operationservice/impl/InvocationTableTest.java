@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.operationservice.impl.Invocation.Context;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.spi.OperationAccessor.setCallId;
+import static com.hazelcast.spi.impl.operationservice.impl.InvocationTable.PROBE_WINDOW;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class InvocationTableTest extends HazelcastTestSupport {
+
+    private static final int STRIPES = 4;
+
+    private InvocationTable table;
+    private Context context;
+
+    @Before
+    public void setup() {
+        table = new InvocationTable(STRIPES * PROBE_WINDOW, STRIPES);
+        context = new Context(null, null, null, null, null,
+                1000, null, null, Mockito.mock(ILogger.class), null, null, null, null, null, null, null, null, null);
+    }
+
+    private Invocation newInvocation(long callId) {
+        Operation op = new DummyOperation();
+        setCallId(op, callId);
+        return new PartitionInvocation(context, op, 0, 0, 0, false, false);
+    }
+
+    @Test
+    public void capacity_whenSmallerThanProbeWindows_thenRoundedUp() {
+        assertEquals(STRIPES * PROBE_WINDOW, new InvocationTable(1, STRIPES).capacity());
+    }
+
+    @Test
+    public void capacity_roundedToPowerOfTwo() {
+        assertEquals(1024, new InvocationTable(1000, STRIPES).capacity());
+    }
+
+    @Test
+    public void get_whenMissing() {
+        table.put(newInvocation(1));
+
+        assertNull(table.get(2));
+        assertNull(table.get(1 + STRIPES));
+    }
+
+    @Test
+    public void putAndGet() {
+        Invocation invocation = newInvocation(10);
+
+        table.put(invocation);
+
+        assertSame(invocation, table.get(10));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void remove() {
+        Invocation invocation = newInvocation(10);
+        table.put(invocation);
+
+        table.remove(10, invocation);
+
+        assertNull(table.get(10));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void remove_whenOtherInvocation_thenIgnored() {
+        Invocation invocation = newInvocation(10);
+        table.put(invocation);
+
+        table.remove(10, newInvocation(10));
+
+        assertSame(invocation, table.get(10));
+    }
+
+    @Test
+    public void putAndGet_whenWrappingAround() {
+        // all call IDs map to the same stripe, and the later ones to the slots taken by the earlier ones
+        int count = PROBE_WINDOW;
+        Invocation[] invocations = new Invocation[count];
+        for (int i = 0; i < count; i++) {
+            invocations[i] = newInvocation(1 + i * STRIPES * PROBE_WINDOW);
+            table.put(invocations[i]);
+        }
+
+        for (int i = 0; i < count; i++) {
+            assertSame(invocations[i], table.get(invocations[i].op.getCallId()));
+        }
+        assertEquals(count, table.size());
+    }
+
+    @Test
+    public void putGetAndRemove_whenOverflow() {
+        int count = table.capacity() * 2;
+        Invocation[] invocations = new Invocation[count];
+        for (int i = 0; i < count; i++) {
+            invocations[i] = newInvocation(i + 1);
+            table.put(invocations[i]);
+        }
+        assertEquals(count, table.size());
+
+        for (int i = 0; i < count; i++) {
+            assertSame(invocations[i], table.get(i + 1));
+        }
+
+        for (int i = 0; i < count; i++) {
+            table.remove(i + 1, invocations[i]);
+            assertNull(table.get(i + 1));
+        }
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void iterator() {
+        int count = table.capacity() + 10;
+        Set<Invocation> expected = new HashSet<Invocation>();
+        for (int i = 0; i < count; i++) {
+            Invocation invocation = newInvocation(i + 1);
+            table.put(invocation);
+            expected.add(invocation);
+        }
+
+        Set<Invocation> actual = new HashSet<Invocation>();
+        for (Invocation invocation : table) {
+            actual.add(invocation);
+        }
+
+        assertEquals(expected, actual);
+    }
+}
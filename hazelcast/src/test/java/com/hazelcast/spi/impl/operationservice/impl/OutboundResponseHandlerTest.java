@@ -29,6 +29,8 @@ import com.hazelcast.nio.serialization.Portable;
 import com.hazelcast.nio.serialization.PortableReader;
 import com.hazelcast.nio.serialization.PortableWriter;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.executionservice.InternalExecutionService;
 import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.CallTimeoutResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
@@ -45,17 +47,30 @@ import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 import org.junit.runners.Parameterized.UseParametersRunnerFactory;
 import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
 import java.nio.ByteOrder;
 
 import static com.hazelcast.spi.OperationAccessor.setCallId;
 import static com.hazelcast.spi.OperationAccessor.setCallerAddress;
+import static com.hazelcast.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.nio.Bits.readInt;
+import static com.hazelcast.spi.ExecutionService.ASYNC_EXECUTOR;
+import static com.hazelcast.spi.impl.SpiDataSerializerHook.MULTI_RESPONSE;
+import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_RESPONSE_COUNT;
+import static com.hazelcast.spi.impl.operationservice.impl.responses.Response.OFFSET_TYPE_ID;
 import static java.nio.ByteOrder.BIG_ENDIAN;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(Parameterized.class)
@@ -67,10 +82,12 @@ public class OutboundResponseHandlerTest {
     public ByteOrder byteOrder;
 
     private OutboundResponseHandler handler;
+    private OutboundResponseHandler batchingHandler;
     private InternalSerializationService serializationService;
     private ILogger logger = Logger.getLogger(OutboundResponseHandlerTest.class);
     private Address thatAddress;
     private ConnectionManager connectionManager;
+    private InternalExecutionService executionService;
 
     @Parameters(name = "{0}")
     public static Object[][] parameters() {
@@ -88,7 +105,12 @@ public class OutboundResponseHandlerTest {
         Node node = mock(Node.class);
         connectionManager = mock(ConnectionManager.class);
         when(node.getConnectionManager()).thenReturn(connectionManager);
+        NodeEngineImpl nodeEngine = mock(NodeEngineImpl.class);
+        executionService = mock(InternalExecutionService.class);
+        when(node.getNodeEngine()).thenReturn(nodeEngine);
+        when(nodeEngine.getExecutionService()).thenReturn(executionService);
         handler = new OutboundResponseHandler(thisAddress, serializationService, node, logger);
+        batchingHandler = new OutboundResponseHandler(thisAddress, serializationService, node, logger, true);
     }
 
     @Test
@@ -251,6 +273,83 @@ public class OutboundResponseHandlerTest {
         assertEquals(expected, new HeapData(packet.toByteArray()));
     }
 
+    @Test
+    public void sendResponse_whenBatching_andNoConcurrentResponses_thenSentUncombined() {
+        Operation op = new DummyOperation();
+        setCallId(op, 10);
+        setCallerAddress(op, thatAddress);
+
+        ArgumentCaptor<Packet> argument = ArgumentCaptor.forClass(Packet.class);
+        when(connectionManager.transmit(argument.capture(), eq(thatAddress))).thenReturn(true);
+
+        batchingHandler.sendResponse(op, "foobar");
+
+        NormalResponse expected = new NormalResponse("foobar", op.getCallId(), 0, op.isUrgent());
+        assertEquals(serializationService.toData(expected), argument.getValue());
+    }
+
+    @Test
+    public void sendBackupAck_whenBatching_andNoConcurrentResponses_thenSentUncombined() {
+        ArgumentCaptor<Packet> argument = ArgumentCaptor.forClass(Packet.class);
+        when(connectionManager.transmit(argument.capture(), eq(thatAddress))).thenReturn(true);
+
+        batchingHandler.sendBackupAck(thatAddress, 10, false);
+
+        assertEquals(serializationService.toData(new BackupAckResponse(10, false)), argument.getValue());
+    }
+
+    @Test
+    public void sendBackupAck_whenBatching_andResponsesKeepComing_thenRestLeftToExecutor() {
+        // every transmitted packet is followed by another backup ack, queued while the flag is held
+        when(connectionManager.transmit(any(Packet.class), eq(thatAddress))).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                batchingHandler.sendBackupAck(thatAddress, 10, false);
+                return true;
+            }
+        });
+
+        batchingHandler.sendBackupAck(thatAddress, 10, false);
+
+        verify(connectionManager, times(OutboundResponseHandler.MAX_BATCHES_PER_SEND))
+                .transmit(any(Packet.class), eq(thatAddress));
+        verify(executionService).execute(eq(ASYNC_EXECUTOR), any(Runnable.class));
+    }
+
+    @Test
+    public void toMultiResponsePacket() {
+        Packet[] packets = {
+                handler.toNormalResponsePacket(1, 0, false, "foo"),
+                handler.toBackupAckPacket(2, false),
+                handler.toNormalResponsePacket(3, 1, false, null),
+        };
+        byte[][] expected = new byte[packets.length][];
+        for (int i = 0; i < packets.length; i++) {
+            expected[i] = packets[i].toByteArray();
+        }
+
+        Packet packet = handler.toMultiResponsePacket(packets, packets.length);
+
+        boolean bigEndian = byteOrder == BIG_ENDIAN;
+        byte[] bytes = packet.toByteArray();
+        assertEquals(MULTI_RESPONSE, readInt(bytes, OFFSET_TYPE_ID, bigEndian));
+        assertEquals(expected.length, readInt(bytes, OFFSET_RESPONSE_COUNT, bigEndian));
+        int offset = OFFSET_RESPONSE_COUNT + INT_SIZE_IN_BYTES;
+        for (byte[] response : expected) {
+            int length = readInt(bytes, offset, bigEndian);
+            offset += INT_SIZE_IN_BYTES;
+            byte[] actual = new byte[length];
+            System.arraycopy(bytes, offset, actual, 0, length);
+            offset += length;
+            assertArrayEquals(response, actual);
+        }
+        assertEquals(bytes.length, offset);
+        // the packets are cleared
+        for (Packet p : packets) {
+            assertNull(p);
+        }
+    }
+
     static class PortableAddress implements Portable {
 
         private String street;
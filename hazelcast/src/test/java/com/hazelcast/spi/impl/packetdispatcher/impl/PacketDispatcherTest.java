@@ -31,6 +31,7 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 
+import static com.hazelcast.nio.Packet.FLAG_OP_BACKUP_BATCH;
 import static com.hazelcast.nio.Packet.FLAG_OP_CONTROL;
 import static com.hazelcast.nio.Packet.FLAG_OP_RESPONSE;
 import static com.hazelcast.nio.Packet.FLAG_URGENT;
@@ -47,6 +48,7 @@ public class PacketDispatcherTest extends HazelcastTestSupport {
     private PacketHandler connectionManager;
     private PacketHandler responseHandler;
     private PacketHandler invocationMonitor;
+    private PacketHandler backupBatchHandler;
     private PacketDispatcher dispatcher;
     private PacketHandler jetService;
 
@@ -58,6 +60,7 @@ public class PacketDispatcherTest extends HazelcastTestSupport {
         eventService = mock(PacketHandler.class);
         connectionManager = mock(PacketHandler.class);
         invocationMonitor = mock(PacketHandler.class);
+        backupBatchHandler = mock(PacketHandler.class);
         jetService = mock(PacketHandler.class);
 
         dispatcher = new PacketDispatcher(
@@ -65,6 +68,7 @@ public class PacketDispatcherTest extends HazelcastTestSupport {
                 operationExecutor,
                 responseHandler,
                 invocationMonitor,
+                backupBatchHandler,
                 eventService,
                 connectionManager,
                 jetService);
@@ -126,6 +130,18 @@ public class PacketDispatcherTest extends HazelcastTestSupport {
     }
 
 
+    @Test
+    public void whenBackupBatchPacket() throws Exception {
+        Packet packet = new Packet().setPacketType(Packet.Type.OPERATION).raiseFlags(FLAG_OP_BACKUP_BATCH);
+
+        dispatcher.handle(packet);
+
+        verify(backupBatchHandler).handle(packet);
+
+        verifyZeroInteractions(responseHandler, operationExecutor, eventService, connectionManager, invocationMonitor,
+                jetService);
+    }
+
     @Test
     public void whenEventPacket() throws Exception {
         Packet packet = new Packet().setPacketType(Packet.Type.EVENT);
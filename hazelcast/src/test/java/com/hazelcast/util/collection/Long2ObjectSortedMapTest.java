@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class Long2ObjectSortedMapTest {
+
+    private final Long2ObjectSortedMap<String> map = new Long2ObjectSortedMap<String>();
+
+    @Test
+    public void shouldDoPutAndThenGet() {
+        map.put(7, "Seven");
+
+        assertEquals("Seven", map.get(7));
+        assertTrue(map.containsKey(7));
+        assertFalse(map.containsKey(8));
+        assertNull(map.get(8));
+    }
+
+    @Test
+    public void shouldReplaceExistingValueForTheSameKey() {
+        map.put(7, "Seven");
+
+        String oldValue = map.put(7, "New Seven");
+
+        assertEquals("Seven", oldValue);
+        assertEquals("New Seven", map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void shouldRemoveEntry() {
+        map.put(7, "Seven");
+
+        assertEquals("Seven", map.remove(7));
+        assertNull(map.remove(7));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void shouldIterateInOrder_acrossLeafSplits() {
+        int count = 10 * Long2ObjectSortedMap.LEAF_CAPACITY;
+        for (int i = count - 1; i >= 0; i--) {
+            map.put(i * 2, Integer.toString(i));
+        }
+
+        Long2ObjectSortedMap.Cursor<String> cursor = map.cursor();
+        for (int i = 0; i < count; i++) {
+            assertTrue(cursor.advance());
+            assertEquals(i * 2, cursor.key());
+            assertEquals(Integer.toString(i), cursor.value());
+        }
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    public void shouldIterateOverRange() {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, Integer.toString(i));
+        }
+
+        assertKeyRange(map.cursor(100, true, 200, true), 100, 200);
+        assertKeyRange(map.cursor(100, false, 200, false), 101, 199);
+        assertKeyRange(map.cursor(-5, true, 3, true), 0, 3);
+        assertKeyRange(map.cursor(995, true, Long.MAX_VALUE, true), 995, 999);
+        assertFalse(map.cursor(2000, true, Long.MAX_VALUE, true).advance());
+        assertFalse(map.cursor(Long.MIN_VALUE, true, Long.MIN_VALUE, false).advance());
+        assertFalse(map.cursor(500, false, 500, true).advance());
+    }
+
+    @Test
+    public void shouldHandleExtremeKeys() {
+        map.put(Long.MIN_VALUE, "min");
+        map.put(Long.MAX_VALUE, "max");
+        map.put(0, "zero");
+
+        assertKeys(map.cursor(), Long.MIN_VALUE, 0, Long.MAX_VALUE);
+        assertKeys(map.cursor(Long.MIN_VALUE, false, Long.MAX_VALUE, false), 0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void cursorShouldBeInvalid_beforeAdvance() {
+        map.put(7, "Seven");
+
+        map.cursor().key();
+    }
+
+    @Test
+    public void shouldBehaveLikeTreeMap_underRandomOperations() {
+        NavigableMap<Long, String> expected = new TreeMap<Long, String>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = Integer.toString(i);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Long2ObjectSortedMap.Cursor<String> cursor = map.cursor(1000, true, 2000, false);
+        for (Map.Entry<Long, String> entry : expected.subMap(1000L, true, 2000L, false).entrySet()) {
+            assertTrue(cursor.advance());
+            assertEquals(entry.getKey().longValue(), cursor.key());
+            assertEquals(entry.getValue(), cursor.value());
+        }
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    public void shouldBehaveLikeTreeMap_whenInnerNodesSplitAndMerged() {
+        // enough keys for a tree of three levels
+        int keyRange = 50 * Long2ObjectSortedMap.LEAF_CAPACITY * Long2ObjectSortedMap.INNER_CAPACITY;
+        NavigableMap<Long, String> expected = new TreeMap<Long, String>();
+        Random random = new Random(42);
+        for (int i = 0; i < 3 * keyRange; i++) {
+            long key = random.nextInt(keyRange);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = Integer.toString(i);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+        assertSameMappings(expected, map);
+
+        List<Long> keys = new ArrayList<Long>(expected.keySet());
+        Collections.shuffle(keys, random);
+        for (int i = 0; i < keys.size(); i++) {
+            long key = keys.get(i);
+            assertEquals(expected.remove(key), map.remove(key));
+            if (i % (keys.size() / 4) == 0) {
+                assertSameMappings(expected, map);
+            }
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.cursor().advance());
+    }
+
+    @Test
+    public void shouldBeEmpty_afterClear() {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, Integer.toString(i));
+        }
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.cursor().advance());
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void shouldBeEmpty_afterRemovingAll() {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, Integer.toString(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            map.remove(i);
+        }
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.cursor().advance());
+    }
+
+    @Test
+    public void testToString() {
+        map.put(2, "b");
+        map.put(1, "a");
+
+        assertEquals("{1=a, 2=b}", map.toString());
+    }
+
+    private static void assertSameMappings(NavigableMap<Long, String> expected, Long2ObjectSortedMap<String> map) {
+        assertEquals(expected.size(), map.size());
+        Long2ObjectSortedMap.Cursor<String> cursor = map.cursor();
+        for (Map.Entry<Long, String> entry : expected.entrySet()) {
+            assertTrue(cursor.advance());
+            assertEquals(entry.getKey().longValue(), cursor.key());
+            assertEquals(entry.getValue(), cursor.value());
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertFalse(cursor.advance());
+    }
+
+    private static void assertKeyRange(Long2ObjectSortedMap.Cursor<String> cursor, long from, long to) {
+        List<Long> keys = new ArrayList<Long>();
+        while (cursor.advance()) {
+            keys.add(cursor.key());
+        }
+        assertEquals(to - from + 1, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(from + i, keys.get(i).longValue());
+        }
+    }
+
+    private static void assertKeys(Long2ObjectSortedMap.Cursor<String> cursor, long... expectedKeys) {
+        for (long expectedKey : expectedKeys) {
+            assertTrue(cursor.advance());
+            assertEquals(expectedKey, cursor.key());
+        }
+        assertFalse(cursor.advance());
+    }
+}
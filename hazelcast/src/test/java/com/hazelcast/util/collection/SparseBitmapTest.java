@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.collection;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class SparseBitmapTest {
+
+    private final SparseBitmap bitmap = new SparseBitmap();
+
+    @Test
+    public void shouldAddAndRemoveValues() {
+        assertTrue(bitmap.add(7));
+        assertFalse(bitmap.add(7));
+        assertTrue(bitmap.add(1 << 20));
+
+        assertTrue(bitmap.contains(7));
+        assertTrue(bitmap.contains(1 << 20));
+        assertFalse(bitmap.contains(8));
+        assertEquals(2, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(7));
+        assertFalse(bitmap.remove(7));
+        assertFalse(bitmap.contains(7));
+        assertEquals(1, bitmap.cardinality());
+    }
+
+    @Test
+    public void shouldBecomeEmptyWhenAllValuesRemoved() {
+        bitmap.add(3);
+        bitmap.add(70000);
+        bitmap.remove(3);
+        bitmap.remove(70000);
+
+        assertTrue(bitmap.isEmpty());
+        assertFalse(bitmap.cursor().advance());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeValue() {
+        bitmap.add(-1);
+    }
+
+    @Test
+    public void shouldIterateInAscendingOrder() {
+        int[] values = {100000, 5, 65536, 65535, 0};
+        for (int value : values) {
+            bitmap.add(value);
+        }
+
+        assertEquals(asList(0, 5, 65535, 65536, 100000), toList(bitmap));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void shouldFailToGetValueOfExhaustedCursor() {
+        SparseBitmap.Cursor cursor = bitmap.cursor();
+        cursor.advance();
+        cursor.value();
+    }
+
+    @Test
+    public void shouldConvertBetweenArrayAndBitmapChunks() {
+        int count = SparseBitmap.ARRAY_CONTAINER_MAX_SIZE * 2;
+        for (int i = 0; i < count; i++) {
+            bitmap.add(i * 2);
+        }
+        assertEquals(count, bitmap.cardinality());
+        assertTrue(bitmap.contains(2 * (count - 1)));
+        assertFalse(bitmap.contains(1));
+
+        for (int i = 0; i < count; i += 2) {
+            bitmap.remove(i * 2);
+        }
+        assertEquals(count / 2, bitmap.cardinality());
+        assertEquals(2, toList(bitmap).get(0).intValue());
+        assertFalse(bitmap.contains(0));
+    }
+
+    @Test
+    public void shouldCopyIndependently() {
+        bitmap.add(1);
+        SparseBitmap copy = bitmap.copy();
+        bitmap.add(2);
+        copy.remove(1);
+
+        assertEquals(asList(1, 2), toList(bitmap));
+        assertTrue(copy.isEmpty());
+    }
+
+    @Test
+    public void shouldCombineLikeBitSet() {
+        Random random = new Random(42);
+        // a sparse range, a dense range and a range shared by both
+        BitSet leftBits = randomBits(random, 0, 3000, 0.01);
+        leftBits.or(randomBits(random, 1 << 16, 3 * (1 << 16), 0.5));
+        BitSet rightBits = randomBits(random, 0, 3000, 0.3);
+        rightBits.or(randomBits(random, 2 * (1 << 16), 5 * (1 << 16), 0.05));
+        SparseBitmap left = toBitmap(leftBits);
+        SparseBitmap right = toBitmap(rightBits);
+
+        BitSet and = (BitSet) leftBits.clone();
+        and.and(rightBits);
+        BitSet or = (BitSet) leftBits.clone();
+        or.or(rightBits);
+        BitSet andNot = (BitSet) leftBits.clone();
+        andNot.andNot(rightBits);
+
+        assertEquals(toList(and), toList(SparseBitmap.and(left, right)));
+        assertEquals(toList(or), toList(SparseBitmap.or(left, right)));
+        assertEquals(toList(andNot), toList(SparseBitmap.andNot(left, right)));
+        assertEquals(or.cardinality(), SparseBitmap.or(left, right).cardinality());
+        // the operands are left intact
+        assertEquals(toList(leftBits), toList(left));
+        assertEquals(toList(rightBits), toList(right));
+    }
+
+    private static BitSet randomBits(Random random, int from, int to, double density) {
+        BitSet bits = new BitSet();
+        for (int i = from; i < to; i++) {
+            if (random.nextDouble() < density) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static SparseBitmap toBitmap(BitSet bits) {
+        SparseBitmap bitmap = new SparseBitmap();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            bitmap.add(i);
+        }
+        return bitmap;
+    }
+
+    private static List<Integer> toList(BitSet bits) {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static List<Integer> toList(SparseBitmap bitmap) {
+        List<Integer> values = new ArrayList<Integer>();
+        SparseBitmap.Cursor cursor = bitmap.cursor();
+        while (cursor.advance()) {
+            values.add(cursor.value());
+        }
+        return values;
+    }
+
+    private static List<Integer> asList(Integer... values) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2008-2018, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.util.concurrent;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class HybridIdleStrategyTest {
+
+    @Test
+    public void test_createHybridIdleStrategy() {
+        HybridIdleStrategy idleStrategy = HybridIdleStrategy.createHybridIdleStrategy("foo,1,2");
+        assertEquals(1, idleStrategy.yieldThreshold);
+        assertEquals(3, idleStrategy.blockThreshold);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_createHybridIdleStrategy_invalidConfig() {
+        HybridIdleStrategy.createHybridIdleStrategy("foo,1");
+    }
+
+    @Test
+    public void test_idle() {
+        HybridIdleStrategy idleStrategy = new HybridIdleStrategy(2, 1);
+
+        assertFalse(idleStrategy.idle(0));
+        assertFalse(idleStrategy.idle(1));
+        assertFalse(idleStrategy.idle(2));
+        assertTrue(idleStrategy.idle(3));
+        assertTrue(idleStrategy.idle(4));
+    }
+
+    @Test
+    public void test_idle_whenNoSpinsAndYields_thenBlockImmediately() {
+        HybridIdleStrategy idleStrategy = new HybridIdleStrategy(0, 0);
+
+        assertTrue(idleStrategy.idle(0));
+    }
+}